@@ -0,0 +1,97 @@
+package bookshop.cache;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import bookshop.events.CategoryChangedEvent;
+import bookshop.events.ProductChangedEvent;
+import bookshop.models.Product;
+import bookshop.search.ProductIndex;
+
+/**
+ * Version number of the catalog as a whole, used for product list ETags.
+ *
+ * It is bumped whenever a product or category changes, so any page of products can be
+ * validated against If-None-Match without running its query. A product change bumps it
+ * when it is published and again once the indexes hold it; a change queued by a running
+ * index load becomes visible with the replay, which is followed by one more bump. The
+ * number is combined with a random per-instance epoch so ETags issued before a restart,
+ * or by another instance, never match.
+ */
+@Component
+public class CatalogVersion implements ProductIndex {
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Strong ETag for any product list; read it before running the query
+     */
+    public String listETag() {
+        return "\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    /**
+     * Strong ETag for a single product representation
+     */
+    public static String productETag(Product product) {
+        // The category name is part of the representation but not of the product version
+        return "\"" + product.getProductId() + "-" + product.getVersion() + "-"
+                + Integer.toHexString(Objects.hashCode(product.getCategoryName())) + "\"";
+    }
+
+    /**
+     * Invalidate every list ETag issued so far
+     */
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.affectsProducts()) {
+            bump();
+        }
+    }
+
+    /**
+     * Bumped before the indexes see the change: a load may queue it, and until the
+     * first load completes list pages are read from the database
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        bump();
+    }
+
+    // ========== ProductIndex (fed by ProductIndexLoader) ==========
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        bump();
+    }
+
+    @Override
+    public void put(Product product) {
+        bump();
+    }
+
+    @Override
+    public void remove(int productId) {
+        bump();
+    }
+
+    @Override
+    public void loaded() {
+        bump();
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+}
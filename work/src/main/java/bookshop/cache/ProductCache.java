@@ -0,0 +1,96 @@
+package bookshop.cache;
+
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import bookshop.events.CategoryChangedEvent;
+import bookshop.models.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Size-bounded read-through cache of products by ID.
+ *
+ * Backed by Caffeine, whose W-TinyLFU policy only admits a new entry when it is
+ * requested more often than the entry it would evict, so the hot titles stay
+ * resident while one-off lookups pass through.
+ *
+ * Hit/miss/eviction counters are published on /actuator/metrics under
+ * cache.gets, cache.evictions and cache.size with tag cache=products.
+ */
+@Component
+public class ProductCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "products";
+
+    private final Cache<Integer, Product> cache;
+
+    public ProductCache(@Value("${bookshop.cache.products.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Return the cached product, loading it with the given loader on a miss.
+     * Missing products are not cached. A copy is returned so callers can
+     * modify the result without corrupting the cache.
+     *
+     * @param productId the product ID
+     * @param loader loads the product from the database on a miss
+     * @return Optional containing a copy of the product if found
+     */
+    public Optional<Product> get(int productId, IntFunction<Optional<Product>> loader) {
+        Product cached = cache.get(productId, id -> loader.apply(id).orElse(null));
+        return Optional.ofNullable(cached).map(Product::new);
+    }
+
+    /**
+     * Return the cached product without loading it
+     *
+     * @param productId the product ID
+     * @return Optional containing a copy of the product if it is cached
+     */
+    public Optional<Product> getIfPresent(int productId) {
+        return Optional.ofNullable(cache.getIfPresent(productId)).map(Product::new);
+    }
+
+    /**
+     * Drop a single product; must be called after the database write commits.
+     */
+    public void invalidate(int productId) {
+        cache.invalidate(productId);
+    }
+
+    /**
+     * Drop every cached product
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Cached products carry their category name, and a category delete cascades
+     * to its products, so any category change drops the whole cache.
+     */
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.affectsProducts()) {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+}
@@ -0,0 +1,171 @@
+package bookshop.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import bookshop.events.CategoryChangedEvent;
+import bookshop.events.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache of serialized catalog responses, kept both as plain JSON and gzipped.
+ *
+ * A hit is written straight to the socket without touching the service layer,
+ * Jackson or the compressor. The cache is bounded by total bytes rather than
+ * entry count, since one page of products can be a hundred times larger than a
+ * single category.
+ *
+ * Every entry is stamped with the catalog ETag and a local generation number
+ * taken before its response was built. Any product or category change bumps the
+ * generation, and imports bump the catalog version, so a response rendered while
+ * a write was in flight is never served afterwards.
+ *
+ * Counters are published with tag cache=responses.
+ */
+@Component
+public class ResponseCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "responses";
+
+    private final Cache<String, CachedResponse> cache;
+    private final CatalogVersion catalogVersion;
+    private final int maximumEntryBytes;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(CatalogVersion catalogVersion,
+                         @Value("${bookshop.cache.responses.maximum-bytes:33554432}") long maximumBytes,
+                         @Value("${bookshop.cache.responses.maximum-entry-bytes:1048576}") int maximumEntryBytes) {
+        this.catalogVersion = catalogVersion;
+        this.maximumEntryBytes = maximumEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, CachedResponse response) -> key.length() * 2 + response.weight())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Identifies the catalog state a response is built from; take it before building
+     */
+    public record Stamp(String catalogETag, long generation) {
+    }
+
+    /**
+     * A stored response; the arrays are shared and must not be modified
+     *
+     * @param body the JSON as produced by the controller
+     * @param gzipped the body gzipped, or null if compression did not make it smaller
+     * @param contentType the Content-Type header of the response
+     * @param etag strong ETag of the body
+     * @param stamp catalog state the body was built from
+     */
+    public record CachedResponse(byte[] body, byte[] gzipped, String contentType, String etag, Stamp stamp) {
+
+        int weight() {
+            return body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+
+    /**
+     * @return the current catalog state
+     */
+    public Stamp stamp() {
+        return new Stamp(catalogVersion.listETag(), generation.get());
+    }
+
+    /**
+     * Return the cached response if it was built from the current catalog state
+     *
+     * @param key normalized request key
+     * @return Optional containing the response
+     */
+    public Optional<CachedResponse> get(String key) {
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (!cached.stamp().equals(stamp())) {
+            cache.asMap().remove(key, cached);
+            return Optional.empty();
+        }
+        return Optional.of(cached);
+    }
+
+    /**
+     * Store a response unless the catalog changed since the stamp was taken
+     * or the body is larger than the per-entry limit
+     *
+     * @param key normalized request key
+     * @param stamp catalog state taken before the response was built
+     * @param body the JSON body
+     * @param contentType the Content-Type header
+     * @param etag strong ETag of the body
+     * @return the stored response, or empty if it was not cacheable
+     */
+    public Optional<CachedResponse> put(String key, Stamp stamp, byte[] body, String contentType, String etag) {
+        if (body.length > maximumEntryBytes || !stamp.equals(stamp())) {
+            return Optional.empty();
+        }
+        byte[] gzipped = gzip(body);
+        CachedResponse response = new CachedResponse(body, gzipped.length < body.length ? gzipped : null,
+                contentType, etag, stamp);
+        cache.put(key, response);
+        // A write may have landed while compressing; get() rejects the entry in that case
+        return Optional.of(response);
+    }
+
+    /**
+     * Drop every cached response
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * Category lists change on every category write, including creation
+     */
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress response", e);
+        }
+        return out.toByteArray();
+    }
+}
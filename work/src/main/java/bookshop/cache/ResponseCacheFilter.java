@@ -0,0 +1,188 @@
+package bookshop.cache;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves hot catalog reads from ResponseCache.
+ *
+ * Only GETs on the paths below are considered. The key is the path plus the query
+ * parameters sorted by name, so ?size=20&page=1 and ?page=1&size=20 share an entry.
+ * On a miss the controller runs as usual, its body is buffered, and a 200 JSON
+ * response is stored; hits skip the dispatcher entirely. Clients that accept gzip
+ * get the pre-compressed bytes, and If-None-Match is answered with 304.
+ *
+ * X-Response-Cache tells whether a response was a HIT or a MISS.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    public static final String CACHE_HEADER = "X-Response-Cache";
+
+    static final List<String> CACHED_PATHS = List.of(
+            "/api/products",
+            "/api/products/category/*",
+            "/api/products/search",
+            "/api/products/price-range",
+            "/api/categories",
+            "/api/categories/*");
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheFilter(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = path(request);
+        return CACHED_PATHS.stream().noneMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = key(request);
+
+        Optional<ResponseCache.CachedResponse> hit = responseCache.get(key);
+        if (hit.isPresent()) {
+            response.setHeader(CACHE_HEADER, "HIT");
+            write(hit.get(), request, response);
+            return;
+        }
+
+        ResponseCache.Stamp stamp = responseCache.stamp();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        wrapper.setHeader(CACHE_HEADER, "MISS");
+        chain.doFilter(request, wrapper);
+
+        Optional<ResponseCache.CachedResponse> stored = Optional.empty();
+        if (isCacheable(wrapper)) {
+            byte[] body = wrapper.getContentAsByteArray();
+            String etag = wrapper.getHeader(HttpHeaders.ETAG);
+            if (etag == null) {
+                etag = "\"0" + DigestUtils.md5DigestAsHex(body) + "\"";
+            }
+            stored = responseCache.put(key, stamp, body, wrapper.getContentType(), etag);
+        }
+
+        if (stored.isPresent()) {
+            // Nothing has been written to the client yet, so serve the stored bytes
+            wrapper.resetBuffer();
+            write(stored.get(), request, response);
+        } else {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Path plus query parameters sorted by name (values keep their order)
+     */
+    static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(path(request));
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator)
+                        .append(URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private static String path(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static boolean isCacheable(ContentCachingResponseWrapper response) {
+        if (response.getStatus() != HttpStatus.OK.value() || response.getContentType() == null
+                || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void write(ResponseCache.CachedResponse cached, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.etag())) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        byte[] body = cached.body();
+        if (cached.gzipped() != null && acceptsGzip(request)) {
+            body = cached.gzipped();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cached.contentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Weak comparison, as for If-None-Match
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || (trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // gzip;q=0 means "not acceptable"
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
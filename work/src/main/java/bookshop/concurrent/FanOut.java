@@ -0,0 +1,144 @@
+package bookshop.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent lookups of one service call concurrently, each on its own
+ * virtual thread, so the call takes about as long as its slowest lookup.
+ *
+ * Modelled on StructuredTaskScope.ShutdownOnFailure: subtasks are forked inside a
+ * try-with-resources block and join() waits for all of them. The first failure
+ * cancels the rest and is rethrown by join() unchanged, so callers see the same
+ * exception as when running the lookups one after another. Closing the scope
+ * cancels anything still running, so no subtask outlives the block.
+ *
+ * <pre>
+ * try (FanOut fanOut = new FanOut()) {
+ *     Supplier&lt;Boolean&gt; categoryExists = fanOut.fork(() -&gt; categoryDao.existsById(id));
+ *     Supplier&lt;Boolean&gt; nameTaken = fanOut.fork(() -&gt; productDao.existsByName(name));
+ *     fanOut.join();
+ *     ...
+ * }
+ * </pre>
+ *
+ * Subtasks do not join the caller's transaction; use it for reads that take their
+ * own connection, as every DAO call through QueryExecutor does. Cancelling a subtask
+ * interrupts its thread, so never fork a write: run it on the calling thread instead.
+ */
+public final class FanOut implements AutoCloseable {
+
+    private static final ThreadFactory THREADS = Thread.ofVirtual().name("fan-out-", 0).factory();
+
+    private final List<FutureTask<?>> subtasks = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final Thread owner = Thread.currentThread();
+    private boolean joined;
+
+    /**
+     * Start a subtask
+     *
+     * @param lookup the work; runs on a new virtual thread
+     * @return the result, readable after join() returns
+     */
+    public <T> Supplier<T> fork(Supplier<? extends T> lookup) {
+        checkOwner();
+        if (joined) {
+            throw new IllegalStateException("Cannot fork after join");
+        }
+
+        FutureTask<T> subtask = new FutureTask<>(lookup::get) {
+            @Override
+            protected void setException(Throwable t) {
+                super.setException(t);
+                if (failure.compareAndSet(null, t)) {
+                    cancelAll();
+                }
+            }
+        };
+        synchronized (subtasks) {
+            subtasks.add(subtask);
+        }
+        if (failure.get() != null) {
+            subtask.cancel(false);
+        } else {
+            THREADS.newThread(subtask).start();
+        }
+
+        return () -> result(subtask);
+    }
+
+    /**
+     * Wait for every subtask; rethrow the first failure, if any
+     */
+    public void join() {
+        checkOwner();
+        joined = true;
+        try {
+            for (FutureTask<?> subtask : snapshot()) {
+                try {
+                    subtask.get();
+                } catch (ExecutionException | CancellationException e) {
+                    // Reported through failure below
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll();
+            throw new IllegalStateException("Interrupted while waiting for subtasks", e);
+        }
+
+        Throwable first = failure.get();
+        if (first instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (first instanceof Error error) {
+            throw error;
+        }
+        if (first != null) {
+            throw new IllegalStateException("Subtask failed", first);
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private <T> T result(FutureTask<T> subtask) {
+        if (!joined || !subtask.isDone() || failure.get() != null) {
+            throw new IllegalStateException("Result is only available after a successful join");
+        }
+        try {
+            return subtask.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Subtask did not complete", e);
+        }
+    }
+
+    private void cancelAll() {
+        for (FutureTask<?> subtask : snapshot()) {
+            subtask.cancel(true);
+        }
+    }
+
+    private List<FutureTask<?>> snapshot() {
+        synchronized (subtasks) {
+            return List.copyOf(subtasks);
+        }
+    }
+
+    private void checkOwner() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("FanOut must be used by the thread that created it");
+        }
+    }
+}
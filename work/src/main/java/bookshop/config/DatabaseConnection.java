@@ -1,5 +1,6 @@
 package bookshop.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import javax.sql.DataSource;
@@ -7,6 +8,10 @@ import javax.sql.DataSource;
 
 import org.springframework.boot.jdbc.DataSourceBuilder;
 
+import com.zaxxer.hikari.HikariDataSource;
+
+import bookshop.dao.jdbc.ConnectionGate;
+
 
 @Configuration
 public class DatabaseConnection {
@@ -14,14 +19,36 @@ public class DatabaseConnection {
     @Configuration
     public static class DataSourceConfig {
 
+        private static final String URL = "jdbc:mysql://localhost:3306/bookshop";
+
+        // Most connections one permit can hold at once. A permit is shared with FanOut subtasks
+        // started while it is held: ProductServiceImpl.updateProduct keeps its @Transactional
+        // connection and forks three DAO lookups, each on a connection of its own. Raise this
+        // when a transaction forks more, or the admitted threads can exhaust the pool.
+        private static final int MAX_CONNECTIONS_PER_PERMIT = 4;
+
+        /**
+         * Hikari pool behind a ConnectionGate. By default the pool size divided by the most
+         * connections a permit can hold is admitted at once, so the pool is never exhausted.
+         */
         @Bean
-        public DataSource dataSource() {
-            return DataSourceBuilder.create()
-                    .url("jdbc:mysql://localhost:3306/bookshop")
+        public DataSource dataSource(
+                @Value("${bookshop.datasource.max-concurrency:0}") int maxConcurrency,
+                @Value("${bookshop.datasource.acquire-timeout-ms:60000}") long acquireTimeoutMillis) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(URL)
                     .username("root")
                     .password("noah_1@23.Djanor")
                     .driverClassName("com.mysql.cj.jdbc.Driver")
                     .build();
+            // Server-side prepared statements, cached per pooled connection by Connector/J
+            pool.addDataSourceProperty("useServerPrepStmts", "true");
+            pool.addDataSourceProperty("cachePrepStmts", "true");
+            pool.addDataSourceProperty("prepStmtCacheSize", "256");
+            pool.addDataSourceProperty("prepStmtCacheSqlLimit", "4096");
+            int permits = maxConcurrency > 0 ? maxConcurrency : Math.max(1, pool.getMaximumPoolSize() / MAX_CONNECTIONS_PER_PERMIT);
+            return new ConnectionGate(pool, permits, acquireTimeoutMillis);
         }
     }
 
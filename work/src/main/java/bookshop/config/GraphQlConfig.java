@@ -0,0 +1,37 @@
+package bookshop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.graphql.autoconfigure.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import bookshop.graphql.PersistedQueryRegistry;
+import bookshop.graphql.QueryCostCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+
+/**
+ * Limits applied to every GraphQL operation after validation and before any
+ * data fetcher runs, so an oversized query is rejected without touching the
+ * connection pool; plus the persisted document registry.
+ */
+@Configuration
+public class GraphQlConfig {
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+            @Value("${bookshop.graphql.max-depth:8}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+            @Value("${bookshop.graphql.max-cost:1000}") int maxCost) {
+        return new MaxQueryComplexityInstrumentation(maxCost, new QueryCostCalculator());
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedQueryCustomizer(PersistedQueryRegistry registry) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(registry));
+    }
+}
@@ -0,0 +1,26 @@
+package bookshop.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import bookshop.cache.ResponseCache;
+import bookshop.cache.ResponseCacheFilter;
+
+/**
+ * Puts ResponseCacheFilter in front of the product and category endpoints
+ */
+@Configuration
+public class ResponseCacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(ResponseCache responseCache) {
+        FilterRegistrationBean<ResponseCacheFilter> registration =
+                new FilterRegistrationBean<>(new ResponseCacheFilter(responseCache));
+        registration.addUrlPatterns("/api/products/*", "/api/categories/*");
+        // After CORS, so hits still get their headers
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+}
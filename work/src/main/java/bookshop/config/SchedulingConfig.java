@@ -0,0 +1,12 @@
+package bookshop.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (e.g. product count reconciliation)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
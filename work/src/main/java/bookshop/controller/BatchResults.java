@@ -0,0 +1,28 @@
+package bookshop.controller;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Shapes the result of a GraphQL @BatchMapping.
+ * Sources are keyed by identity, so two equal rows in the same selection
+ * still get their own entry, and sources without a value are left out (null field).
+ */
+final class BatchResults {
+
+    private BatchResults() {
+    }
+
+    static <S, V> Map<S, V> byKey(List<S> sources, ToIntFunction<S> key, Map<Integer, V> values) {
+        Map<S, V> results = new IdentityHashMap<>(sources.size());
+        for (S source : sources) {
+            V value = values.get(key.applyAsInt(source));
+            if (value != null) {
+                results.put(source, value);
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,35 @@
+package bookshop.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import bookshop.models.Category;
+import bookshop.services.serviceInterface.CategoryService;
+
+/**
+ * GraphQL queries for categories
+ */
+@Controller
+public class CategoryGraphQlController {
+
+    private final CategoryService categoryService;
+
+    @Autowired
+    public CategoryGraphQlController(CategoryService categoryService) {
+        this.categoryService = categoryService;
+    }
+
+    @QueryMapping
+    public List<Category> categories() {
+        return categoryService.getAllCategories();
+    }
+
+    @QueryMapping
+    public Category category(@Argument int id) {
+        return categoryService.getCategoryById(id).orElse(null);
+    }
+}
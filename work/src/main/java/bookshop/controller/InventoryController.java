@@ -1,5 +1,12 @@
 package bookshop.controller;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,12 +22,22 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import bookshop.concurrent.FanOut;
 import bookshop.dto.request.InventoryCreateDto;
+import bookshop.dto.request.ReadMode;
+import bookshop.dto.request.StockHoldDto;
+import bookshop.dto.request.StockReservationDto;
 import bookshop.dto.request.StockUpdateDto;
 import bookshop.dto.response.InventoryResponseDto;
+import bookshop.dto.response.LedgerReplayResult;
+import bookshop.dto.response.StockHoldResponseDto;
+import bookshop.dto.response.StockReservationResponseDto;
 import bookshop.exceptions.InventoryNotFoundException;
 import bookshop.exceptions.ProductNotFoundException;
 import bookshop.models.Inventory;
+import bookshop.models.Product;
+import bookshop.models.StockAdjustment;
+import bookshop.models.StockHold;
 import bookshop.services.serviceInterface.InventoryService;
 import bookshop.services.serviceInterface.ProductService;
 import jakarta.validation.Valid;
@@ -55,7 +72,7 @@ public class InventoryController {
     public ResponseEntity<InventoryResponseDto> createInventory(@Valid @RequestBody InventoryCreateDto inventoryCreateDto) {
         logger.info("POST /api/inventory - Creating inventory for product ID: {}", inventoryCreateDto.getProductId());
         // Verify product exists
-        productService.getProductById(inventoryCreateDto.getProductId())
+        Product product = productService.getProductById(inventoryCreateDto.getProductId())
                 .orElseThrow(() -> {
                     logger.error("Product not found with ID: {}", inventoryCreateDto.getProductId());
                     return new ProductNotFoundException("Product not found with ID: " + inventoryCreateDto.getProductId());
@@ -71,7 +88,7 @@ public class InventoryController {
                    createdInventory.getProductId(), createdInventory.getQuantity());
         
         // Build response
-        InventoryResponseDto response = buildInventoryResponse(createdInventory);
+        InventoryResponseDto response = buildInventoryResponse(createdInventory, product.getName());
         
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -87,14 +104,14 @@ public class InventoryController {
     @GetMapping("/{productId}")
     public ResponseEntity<InventoryResponseDto> getInventoryByProductId(@PathVariable int productId) {
         logger.info("GET /api/inventory/{} - Fetching inventory", productId);
-        Inventory inventory = inventoryService.getInventoryByProductId(productId)
-                .orElseThrow(() -> {
-                    logger.warn("Inventory not found for product ID: {}", productId);
-                    return new InventoryNotFoundException("Inventory not found for product ID: " + productId);
-                });
-        
-        logger.debug("Inventory found: {} units available", inventory.getQuantity());
-        InventoryResponseDto response = buildInventoryResponse(inventory);
+        InventoryResponseDto response = buildInventoryResponse(productId,
+                () -> inventoryService.getInventoryByProductId(productId)
+                        .orElseThrow(() -> {
+                            logger.warn("Inventory not found for product ID: {}", productId);
+                            return new InventoryNotFoundException("Inventory not found for product ID: " + productId);
+                        }));
+
+        logger.debug("Inventory found: {} units available", response.getQuantityAvailable());
         
         return ResponseEntity.ok(response);
     }
@@ -114,9 +131,9 @@ public class InventoryController {
             @Valid @RequestBody StockUpdateDto stockUpdateDto) {
         
         logger.info("PUT /api/inventory/{}/quantity - Updating to: {}", productId, stockUpdateDto.getQuantity());
-        Inventory updatedInventory = inventoryService.updateQuantity(productId, stockUpdateDto.getQuantity());
+        InventoryResponseDto response = buildInventoryResponse(productId,
+                () -> inventoryService.updateQuantity(productId, stockUpdateDto.getQuantity()));
         logger.info("Inventory updated successfully for product ID: {}", productId);
-        InventoryResponseDto response = buildInventoryResponse(updatedInventory);
         
         return ResponseEntity.ok(response);
     }
@@ -135,8 +152,8 @@ public class InventoryController {
             @PathVariable int productId,
             @Valid @RequestBody StockUpdateDto stockUpdateDto) {
         
-        Inventory updatedInventory = inventoryService.addStock(productId, stockUpdateDto.getQuantity());
-        InventoryResponseDto response = buildInventoryResponse(updatedInventory);
+        InventoryResponseDto response = buildInventoryResponse(productId,
+                () -> inventoryService.addStock(productId, stockUpdateDto.getQuantity()));
         
         return ResponseEntity.ok(response);
     }
@@ -155,37 +172,151 @@ public class InventoryController {
             @PathVariable int productId,
             @Valid @RequestBody StockUpdateDto stockUpdateDto) {
         
-        Inventory updatedInventory = inventoryService.reduceStock(productId, stockUpdateDto.getQuantity());
-        InventoryResponseDto response = buildInventoryResponse(updatedInventory);
+        InventoryResponseDto response = buildInventoryResponse(productId,
+                () -> inventoryService.reduceStock(productId, stockUpdateDto.getQuantity()));
         
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Reserve stock of several products at once, e.g. for a checkout: every line or none
+     * 
+     * POST /api/inventory/reserve
+     * Refused reservations answer 409 with the shortage of each line (GlobalExceptionHandler)
+     * 
+     * @param stockReservationDto the products and quantities; lines for the same product are added up
+     * @return the stock left for each product
+     */
+    @PostMapping("/reserve")
+    public ResponseEntity<StockReservationResponseDto> reserveStock(
+            @Valid @RequestBody StockReservationDto stockReservationDto) {
+
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (StockReservationDto.Item item : stockReservationDto.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        logger.info("POST /api/inventory/reserve - Reserving {} products", quantities.size());
+
+        List<StockReservationResponseDto.Line> lines = new ArrayList<>(quantities.size());
+        for (StockAdjustment adjustment : inventoryService.reserveStock(quantities)) {
+            lines.add(new StockReservationResponseDto.Line(adjustment.productId(),
+                    quantities.get(adjustment.productId()), adjustment.quantity(), 0));
+        }
+
+        return ResponseEntity.ok(new StockReservationResponseDto(true, lines));
+    }
+
+    /**
+     * Hold stock of a product for a limited time, e.g. between add-to-cart and payment
+     * 
+     * POST /api/inventory/holds
+     * The units leave the available quantity now and come back if the hold is released or expires
+     * 
+     * @param stockHoldDto the product, quantity and optional TTL in seconds
+     * @return the hold with HTTP 201 status
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<StockHoldResponseDto> holdStock(@Valid @RequestBody StockHoldDto stockHoldDto) {
+        logger.info("POST /api/inventory/holds - Holding {} units of product ID: {}",
+                stockHoldDto.getQuantity(), stockHoldDto.getProductId());
+        Duration ttl = stockHoldDto.getTtlSeconds() == null ? null : Duration.ofSeconds(stockHoldDto.getTtlSeconds());
+
+        StockHold hold = inventoryService.holdStock(stockHoldDto.getProductId(), stockHoldDto.getQuantity(), ttl);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(buildHoldResponse(hold));
+    }
+
+    /**
+     * Commit a hold: its units are sold
+     * 
+     * POST /api/inventory/holds/{holdId}/commit
+     * 
+     * @param holdId the hold ID
+     * @return the committed hold; 404 if it was already committed, released or expired
+     */
+    @PostMapping("/holds/{holdId}/commit")
+    public ResponseEntity<StockHoldResponseDto> commitHold(@PathVariable String holdId) {
+        logger.info("POST /api/inventory/holds/{}/commit - Committing hold", holdId);
+        return ResponseEntity.ok(buildHoldResponse(inventoryService.commitHold(holdId)));
+    }
+
+    /**
+     * Release a hold: its units go back into stock
+     * 
+     * DELETE /api/inventory/holds/{holdId}
+     * 
+     * @param holdId the hold ID
+     * @return HTTP 204 No Content on success; 404 if it was already committed, released or expired
+     */
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId) {
+        logger.info("DELETE /api/inventory/holds/{} - Releasing hold", holdId);
+        inventoryService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Get available quantity for a product
      * 
      * GET /api/inventory/{productId}/available
      * 
      * @param productId the product ID
+     * @param mode "snapshot" to answer from the in-memory catalog snapshot (default: db)
      * @return the available quantity
      */
     @GetMapping("/{productId}/available")
-    public ResponseEntity<Integer> getAvailableQuantity(@PathVariable int productId) {
-        int availableQuantity = inventoryService.getAvailableQuantity(productId);
+    public ResponseEntity<Integer> getAvailableQuantity(
+            @PathVariable int productId,
+            @RequestParam(required = false) String mode) {
+        int availableQuantity = inventoryService.getAvailableQuantity(productId, ReadMode.from(mode));
         return ResponseEntity.ok(availableQuantity);
     }
 
+    /**
+     * Get the quantity of a product according to the movement ledger
+     * 
+     * GET /api/inventory/{productId}/ledger
+     * 
+     * @param productId the product ID
+     * @return its snapshot plus the movements after it; compare with /available to spot drift
+     */
+    @GetMapping("/{productId}/ledger")
+    public ResponseEntity<Integer> getLedgerQuantity(@PathVariable int productId) {
+        int ledgerQuantity = inventoryService.getLedgerQuantity(productId)
+                .orElseThrow(() -> new InventoryNotFoundException("No inventory movements for product ID: " + productId));
+        return ResponseEntity.ok(ledgerQuantity);
+    }
+
+    /**
+     * Rebuild inventory quantities from the movement ledger, e.g. after a bad write
+     * 
+     * POST /api/inventory/ledger/replay?dryRun=false
+     * Meant to run with stock writes stopped; a change made during the pass may be overwritten
+     * Writing needs bookshop.inventory.ledger.replay-writes; otherwise dryRun=false is refused with 400
+     * 
+     * @param dryRun only count the rows that differ (default true)
+     * @return rows checked, drifted and corrected
+     */
+    @PostMapping("/ledger/replay")
+    public ResponseEntity<LedgerReplayResult> replayLedger(@RequestParam(defaultValue = "true") boolean dryRun) {
+        logger.info("POST /api/inventory/ledger/replay - dryRun: {}", dryRun);
+        return ResponseEntity.ok(inventoryService.replayLedger(dryRun));
+    }
+
     /**
      * Check if a product is in stock
      * 
      * GET /api/inventory/{productId}/in-stock
      * 
      * @param productId the product ID
+     * @param mode "snapshot" to answer from the in-memory catalog snapshot (default: db)
      * @return true if product has stock > 0, false otherwise
      */
     @GetMapping("/{productId}/in-stock")
-    public ResponseEntity<Boolean> isInStock(@PathVariable int productId) {
-        boolean inStock = inventoryService.isInStock(productId);
+    public ResponseEntity<Boolean> isInStock(
+            @PathVariable int productId,
+            @RequestParam(required = false) String mode) {
+        boolean inStock = inventoryService.isInStock(productId, ReadMode.from(mode));
         return ResponseEntity.ok(inStock);
     }
 
@@ -221,17 +352,34 @@ public class InventoryController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Load or write the inventory while the product name is looked up alongside it.
+     * Only the read-only name lookup is forked: a failed subtask cancels the others with
+     * an interrupt, which must never reach a stock write halfway through.
+     *
+     * @param productId the product ID
+     * @param inventory returns the inventory, run on the request thread; its exceptions propagate unchanged
+     * @return inventory response DTO
+     */
+    private InventoryResponseDto buildInventoryResponse(int productId, Supplier<Inventory> inventory) {
+        try (FanOut fanOut = new FanOut()) {
+            Supplier<String> productName = fanOut.fork(() -> productService.getProductById(productId)
+                    .map(Product::getName)
+                    .orElse("Unknown Product"));
+            Inventory record = inventory.get();
+            fanOut.join();
+            return buildInventoryResponse(record, productName.get());
+        }
+    }
+
     /**
      * Helper method to build InventoryResponseDto from Inventory model
      * 
      * @param inventory the inventory model
+     * @param productName name of the product
      * @return inventory response DTO
      */
-    private InventoryResponseDto buildInventoryResponse(Inventory inventory) {
-        String productName = productService.getProductById(inventory.getProductId())
-                .map(product -> product.getName())
-                .orElse("Unknown Product");
-        
+    private InventoryResponseDto buildInventoryResponse(Inventory inventory, String productName) {
         boolean inStock = inventory.getQuantity() > 0;
         
         return new InventoryResponseDto(
@@ -243,4 +391,8 @@ public class InventoryController {
                 inStock
         );
     }
+
+    private StockHoldResponseDto buildHoldResponse(StockHold hold) {
+        return new StockHoldResponseDto(hold.holdId(), hold.productId(), hold.quantity(), hold.expiresAt());
+    }
 }
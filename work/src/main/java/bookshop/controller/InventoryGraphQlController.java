@@ -0,0 +1,51 @@
+package bookshop.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import bookshop.models.Inventory;
+import bookshop.models.Product;
+import bookshop.services.serviceInterface.InventoryService;
+import bookshop.services.serviceInterface.ProductService;
+
+/**
+ * GraphQL queries for stock records and the batched Inventory.product field
+ */
+@Controller
+public class InventoryGraphQlController {
+
+    private final InventoryService inventoryService;
+    private final ProductService productService;
+
+    @Autowired
+    public InventoryGraphQlController(InventoryService inventoryService, ProductService productService) {
+        this.inventoryService = inventoryService;
+        this.productService = productService;
+    }
+
+    @QueryMapping
+    public Inventory inventory(@Argument int productId) {
+        return inventoryService.getInventoryByProductId(productId).orElse(null);
+    }
+
+    /**
+     * Products of every inventory record at this level of the query, through the
+     * product cache and one IN query for the misses
+     */
+    @BatchMapping
+    public Map<Inventory, Product> product(List<Inventory> inventories) {
+        Map<Integer, Product> products = productService.getProductsByIds(
+                        inventories.stream().map(Inventory::getProductId).distinct().toList())
+                .getProducts().stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        return BatchResults.byKey(inventories, Inventory::getProductId, products);
+    }
+}
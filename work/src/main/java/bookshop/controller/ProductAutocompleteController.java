@@ -0,0 +1,51 @@
+package bookshop.controller;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import bookshop.dto.response.ProductSuggestion;
+import bookshop.services.serviceInterface.ProductAutocompleteService;
+
+/**
+ * REST Controller for product name typeahead
+ */
+@RestController
+@RequestMapping("/api/products")
+public class ProductAutocompleteController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductAutocompleteController.class);
+    private final ProductAutocompleteService productAutocompleteService;
+
+    @Autowired
+    public ProductAutocompleteController(ProductAutocompleteService productAutocompleteService) {
+        this.productAutocompleteService = productAutocompleteService;
+    }
+
+    /**
+     * Suggest products whose name has a word starting with the prefix
+     *
+     * GET /api/products/autocomplete?prefix=gats&limit=5
+     *
+     * @param prefix what the user has typed (case and accent insensitive)
+     * @param limit maximum number of suggestions, 1 to 10 (default 8)
+     * @return suggestions, most popular first
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<ProductSuggestion>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+
+        logger.debug("GET /api/products/autocomplete - prefix='{}', limit={}", prefix, limit);
+        List<ProductSuggestion> suggestions = productAutocompleteService.suggest(prefix, limit);
+
+        return ResponseEntity.ok(suggestions);
+    }
+}
@@ -1,11 +1,14 @@
 package bookshop.controller;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,12 +19,21 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import bookshop.cache.CatalogVersion;
 import bookshop.dto.request.PageRequest;
+import bookshop.dto.request.ReadMode;
+import bookshop.dto.request.SearchMatch;
 import bookshop.dto.request.ProductCreateDto;
 import bookshop.dto.request.ProductUpdateDto;
 import bookshop.dto.response.PageResponse;
+import bookshop.dto.response.ProductBatchResponse;
 import bookshop.exceptions.ProductNotFoundException;
+import bookshop.export.ExportFormat;
+import bookshop.export.ProductExportWriter;
+import bookshop.export.ProductStream;
 import bookshop.models.Product;
 import bookshop.services.serviceInterface.ProductService;
 import jakarta.validation.Valid;
@@ -35,51 +47,71 @@ public class ProductController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
     private final ProductService productService;
+    private final CatalogVersion catalogVersion;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CatalogVersion catalogVersion) {
         this.productService = productService;
+        this.catalogVersion = catalogVersion;
     }
 
     /**
      * Get all products with pagination and sorting
      *
      * GET /api/products?page=0&size=20&sortBy=name&direction=ASC
+     * GET /api/products?size=20&sortBy=name&direction=ASC&cursor={next}
      *
      * @param page page number (default 0)
      * @param size items per page (default 20, max 100)
      * @param sortBy field to sort by (default: productId)
      * @param direction sort direction ASC or DESC (default: ASC)
-     * @return paginated list of products
+     * @param cursor "next" token of the previous page; switches to keyset paging and ignores page
+     * @param mode "snapshot" to answer from the in-memory catalog snapshot (default: db)
+     * @return paginated list of products, or 304 Not Modified when If-None-Match holds
+     *         the current catalog ETag (answered without querying)
      */
     @GetMapping
     public ResponseEntity<PageResponse<Product>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(defaultValue = "ASC") String direction) {
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String mode,
+            WebRequest webRequest) {
 
         logger.info("GET /api/products - Fetching products: page={}, size={}, sortBy={}, direction={}", 
                    page, size, sortBy, direction);
-        PageRequest pageRequest = PageRequest.of(page, size, sortBy, direction);
+        PageRequest pageRequest = PageRequest.of(page, size, sortBy, direction, cursor);
+        pageRequest.setReadMode(ReadMode.from(mode));
+        String etag = catalogVersion.listETag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
         PageResponse<Product> response = productService.getAllProducts(pageRequest);
         logger.debug("Retrieved {} products", response.getTotalElements());
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(etag).body(response);
     }
 
     /**
      * Get single product by ID
      *
      * GET /api/products/1
+     * Responds 304 Not Modified when If-None-Match holds the product's current ETag
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable int id) {
+    public ResponseEntity<Product> getProductById(@PathVariable int id, WebRequest webRequest) {
         logger.info("GET /api/products/{} - Fetching product by ID", id);
         return productService.getProductById(id)
                 .map(product -> {
+                    String etag = CatalogVersion.productETag(product);
+                    if (webRequest.checkNotModified(etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<Product>build();
+                    }
                     logger.debug("Product found: {}", product.getName());
-                    return ResponseEntity.ok(product);
+                    return ResponseEntity.ok().eTag(etag).body(product);
                 })
                 .orElseGet(() -> {
                     logger.warn("Product not found with ID: {}", id);
@@ -87,6 +119,24 @@ public class ProductController {
                 });
     }
 
+    /**
+     * Get several products in one call
+     *
+     * GET /api/products/batch?ids=7,3,12
+     *
+     * @param ids product IDs, comma-separated or repeated (max 500)
+     * @return found products in request order, plus the IDs that do not exist
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(@RequestParam List<Integer> ids) {
+        logger.info("GET /api/products/batch - Fetching {} products", ids.size());
+        ProductBatchResponse response = productService.getProductsByIds(ids);
+        logger.debug("Batch found {} products, missing {}",
+                response.getProducts().size(), response.getMissingIds());
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get products by category with pagination
      *
@@ -98,20 +148,33 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(defaultValue = "ASC") String direction) {
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String mode,
+            WebRequest webRequest) {
 
         logger.info("GET /api/products/category/{} - page={}, size={}", categoryId, page, size);
-        PageRequest pageRequest = PageRequest.of(page, size, sortBy, direction);
+        PageRequest pageRequest = PageRequest.of(page, size, sortBy, direction, cursor);
+        pageRequest.setReadMode(ReadMode.from(mode));
+        String etag = catalogVersion.listETag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
         PageResponse<Product> response = productService.getProductsByCategory(categoryId, pageRequest);
         logger.debug("Found {} products in category {}", response.getTotalElements(), categoryId);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(etag).body(response);
     }
 
     /**
      * Search products by name with pagination
      *
      * GET /api/products/search?keyword=book&page=0&size=10
+     *
+     * With match=auto (default) a keyword with no exact matches is retried as a
+     * typo-tolerant search; those results are ranked by similarity and flagged
+     * with "fuzzy": true. Use match=exact or match=fuzzy to force either one.
      */
     @GetMapping("/search")
     public ResponseEntity<PageResponse<Product>> searchProducts(
@@ -119,14 +182,25 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(defaultValue = "ASC") String direction) {
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String match,
+            WebRequest webRequest) {
 
         logger.info("GET /api/products/search - keyword='{}', page={}, size={}", keyword, page, size);
-        PageRequest pageRequest = PageRequest.of(page, size, sortBy, direction);
+        PageRequest pageRequest = PageRequest.of(page, size, sortBy, direction, cursor);
+        pageRequest.setReadMode(ReadMode.from(mode));
+        pageRequest.setSearchMatch(SearchMatch.from(match));
+        String etag = catalogVersion.listETag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
         PageResponse<Product> response = productService.searchProducts(keyword, pageRequest);
         logger.debug("Search found {} products matching '{}'", response.getTotalElements(), keyword);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(etag).body(response);
     }
 
     /**
@@ -141,12 +215,61 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(defaultValue = "ASC") String direction) {
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String mode,
+            WebRequest webRequest) {
+
+        PageRequest pageRequest = PageRequest.of(page, size, sortBy, direction, cursor);
+        pageRequest.setReadMode(ReadMode.from(mode));
+        String etag = catalogVersion.listETag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
 
-        PageRequest pageRequest = PageRequest.of(page, size, sortBy, direction);
         PageResponse<Product> response = productService.getProductsByPriceRange(minPrice, maxPrice, pageRequest);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(etag).body(response);
+    }
+
+    /**
+     * Export the whole catalog, or a filtered part of it, as NDJSON or CSV
+     *
+     * GET /api/products/export?format=ndjson
+     * GET /api/products/export?format=csv&categoryId=1&minPrice=10&maxPrice=50
+     *
+     * Rows are streamed straight from the database to the response, so there is no
+     * page size limit and memory use stays flat however large the catalog is.
+     *
+     * @param format ndjson (default) or csv
+     * @param categoryId only products in this category (optional)
+     * @param minPrice lower price bound, inclusive (optional)
+     * @param maxPrice upper price bound, inclusive (optional)
+     * @return the products in product_id order, one per line
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
+
+        logger.info("GET /api/products/export - format={}, categoryId={}, price={} - {}",
+                format, categoryId, minPrice, maxPrice);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        ProductStream products = productService.exportProducts(categoryId, minPrice, maxPrice);
+
+        StreamingResponseBody body = out -> {
+            ProductExportWriter writer = new ProductExportWriter(exportFormat, out);
+            products.forEach(writer);
+            writer.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     /**
@@ -216,4 +339,11 @@ public class ProductController {
         logger.info("Product {} deleted successfully", id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    // ========== HELPER METHODS ==========
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        logger.debug("Catalog unchanged since ETag {}, answering 304", etag);
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+}
@@ -0,0 +1,82 @@
+package bookshop.controller;
+
+import java.math.BigDecimal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import bookshop.cache.CatalogVersion;
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.response.ProductFacetResponse;
+import bookshop.services.serviceInterface.ProductFacetService;
+
+/**
+ * REST Controller for faceted product search
+ */
+@RestController
+@RequestMapping("/api/products")
+public class ProductFacetController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetController.class);
+    private final ProductFacetService productFacetService;
+    private final CatalogVersion catalogVersion;
+
+    @Autowired
+    public ProductFacetController(ProductFacetService productFacetService, CatalogVersion catalogVersion) {
+        this.productFacetService = productFacetService;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Search products and return the page together with its sidebar facets
+     *
+     * GET /api/products/facets?keyword=history&categoryId=3&minPrice=10&maxPrice=50&bucketWidth=10
+     *
+     * Every filter is optional. Category counts ignore the category filter and the
+     * price histogram ignores the price filter, so they list the alternatives to
+     * the current selection.
+     *
+     * @param keyword words that must all occur in the name
+     * @param categoryId only products in this category
+     * @param minPrice lower price bound, inclusive
+     * @param maxPrice upper price bound, inclusive
+     * @param bucketWidth width of each price histogram bucket (default 10.00)
+     * @return page of matches, per-category counts and price histogram
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetResponse> searchWithFacets(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "10.00") BigDecimal bucketWidth,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+
+        logger.info("GET /api/products/facets - keyword='{}', categoryId={}, price={} - {}, page={}, size={}",
+                keyword, categoryId, minPrice, maxPrice, page, size);
+        PageRequest pageRequest = PageRequest.of(page, size, sortBy, direction, cursor);
+        String etag = catalogVersion.listETag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        ProductFacetResponse response = productFacetService.search(
+                keyword, categoryId, minPrice, maxPrice, bucketWidth, pageRequest);
+        logger.debug("Facet search found {} products", response.getPage().getTotalElements());
+
+        return ResponseEntity.ok().eTag(etag).body(response);
+    }
+}
@@ -0,0 +1,98 @@
+package bookshop.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.response.PageResponse;
+import bookshop.models.Category;
+import bookshop.models.Inventory;
+import bookshop.models.Product;
+import bookshop.services.serviceInterface.CategoryService;
+import bookshop.services.serviceInterface.InventoryService;
+import bookshop.services.serviceInterface.ProductService;
+
+/**
+ * GraphQL queries for products and the batched fields hanging off Product
+ */
+@Controller
+public class ProductGraphQlController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductGraphQlController.class);
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final InventoryService inventoryService;
+
+    @Autowired
+    public ProductGraphQlController(ProductService productService, CategoryService categoryService,
+                                    InventoryService inventoryService) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.inventoryService = inventoryService;
+    }
+
+    // ========== QUERIES ==========
+
+    @QueryMapping
+    public Product product(@Argument int id) {
+        return productService.getProductById(id).orElse(null);
+    }
+
+    @QueryMapping
+    public List<Product> productsByIds(@Argument List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return productService.getProductsByIds(ids).getProducts();
+    }
+
+    @QueryMapping
+    public PageResponse<Product> products(@Argument Integer categoryId, @Argument String keyword,
+                                          @Argument int page, @Argument int size, @Argument String sortBy,
+                                          @Argument String direction, @Argument String cursor) {
+        logger.debug("GraphQL products - categoryId={}, keyword='{}', page={}, size={}",
+                categoryId, keyword, page, size);
+        PageRequest pageRequest = PageRequest.of(page, size, sortBy, direction, cursor);
+
+        if (categoryId != null && keyword != null) {
+            throw new IllegalArgumentException("Filter by categoryId or keyword, not both");
+        }
+        if (categoryId != null) {
+            return productService.getProductsByCategory(categoryId, pageRequest);
+        }
+        if (keyword != null) {
+            return productService.searchProducts(keyword, pageRequest);
+        }
+        return productService.getAllProducts(pageRequest);
+    }
+
+    // ========== BATCHED FIELDS ==========
+
+    /**
+     * Categories of every product at this level of the query, with one IN query
+     */
+    @BatchMapping
+    public Map<Product, Category> category(List<Product> products) {
+        Map<Integer, Category> categories = categoryService.getCategoriesByIds(
+                products.stream().map(Product::getCategoryId).distinct().toList());
+        return BatchResults.byKey(products, Product::getCategoryId, categories);
+    }
+
+    /**
+     * Inventory records of every product at this level of the query, with one IN query
+     */
+    @BatchMapping
+    public Map<Product, Inventory> inventory(List<Product> products) {
+        Map<Integer, Inventory> inventories = inventoryService.getInventoriesByProductIds(
+                products.stream().map(Product::getProductId).distinct().toList());
+        return BatchResults.byKey(products, Product::getProductId, inventories);
+    }
+}
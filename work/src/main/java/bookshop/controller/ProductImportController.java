@@ -0,0 +1,59 @@
+package bookshop.controller;
+
+import java.io.InputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import bookshop.dto.response.ProductImportResult;
+import bookshop.export.ExportFormat;
+import bookshop.services.serviceInterface.ProductImportService;
+
+/**
+ * REST Controller for bulk product import
+ */
+@RestController
+@RequestMapping("/api/products")
+public class ProductImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportController.class);
+    private final ProductImportService productImportService;
+
+    @Autowired
+    public ProductImportController(ProductImportService productImportService) {
+        this.productImportService = productImportService;
+    }
+
+    /**
+     * Import many products from one streamed request body
+     *
+     * POST /api/products/import
+     * Content-Type: text/csv             (header row: name,price,category_id)
+     * Content-Type: application/x-ndjson (one {"name","price","categoryId"} object per line)
+     *
+     * The body is read as it arrives, so its size is not limited by memory.
+     *
+     * @param contentType selects the CSV or NDJSON parser
+     * @param body the records
+     * @return imported/failed counts and the failing rows with their line numbers
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportResult> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+
+        logger.info("POST /api/products/import - Content-Type: {}", contentType);
+        ProductImportResult result = productImportService.importProducts(
+                ExportFormat.fromContentType(contentType), body);
+        logger.info("Imported {} of {} products", result.getImported(), result.getProcessed());
+
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,35 @@
+package bookshop.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import bookshop.models.User;
+import bookshop.services.serviceInterface.UserService;
+
+/**
+ * GraphQL queries for users; the User type exposes the same fields as UserResponsedto
+ */
+@Controller
+public class UserGraphQlController {
+
+    private final UserService userService;
+
+    @Autowired
+    public UserGraphQlController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @QueryMapping
+    public List<User> users() {
+        return userService.getAllUsers();
+    }
+
+    @QueryMapping
+    public User user(@Argument int id) {
+        return userService.getUserById(id).orElse(null);
+    }
+}
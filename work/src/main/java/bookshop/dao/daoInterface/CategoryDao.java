@@ -1,6 +1,7 @@
 package bookshop.dao.daoInterface;
 
 import bookshop.models.Category;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +27,13 @@ public interface CategoryDao {
      */
     Optional<Category> findById(int categoryId);
 
+    /**
+     * Find several categories by ID with chunked IN queries
+     * @param categoryIds the category IDs; ids that do not exist are skipped
+     * @return the categories found, in no particular order
+     */
+    List<Category> findAllByIds(Collection<Integer> categoryIds);
+
     /**
      * Update an existing category
      */
@@ -1,7 +1,12 @@
 package bookshop.dao.daoInterface;
 
 import bookshop.models.Inventory;
+import bookshop.models.StockAdjustment;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 public interface InventoryDao {
 
@@ -11,8 +16,32 @@ public interface InventoryDao {
     // Read
     Optional<Inventory> findByProductId(int productId);
 
-    // Update stock
-    Inventory updateQuantity(int productId, int quantity);
+    // Inventory rows of several products with chunked IN queries; products without a row are skipped
+    List<Inventory> findAllByProductIds(Collection<Integer> productIds);
+
+    // Stock level of every product with an inventory row (product ID -> quantity)
+    Map<Integer, Integer> findAllQuantities();
+
+    // Overwrite stock under a row lock; returns the level it replaced, empty if the product has no row
+    OptionalInt replaceQuantity(int productId, int quantity);
+
+    // Take stock in one conditional UPDATE; refused rather than going below zero
+    StockAdjustment decrementQuantity(int productId, int amount);
+
+    // Take stock for several products (product ID -> amount) in one transaction: every line is applied or none.
+    // One adjustment per product in product ID order; refused lines are INSUFFICIENT or NOT_FOUND, and
+    // when any line is refused nothing is written and the others report the level they would have reached
+    List<StockAdjustment> decrementAll(Map<Integer, Integer> amounts);
+
+    // Add stock in one UPDATE
+    StockAdjustment incrementQuantity(int productId, int amount);
+
+    // Add journaled stock changes (product ID -> change) once: false if the segment was already applied.
+    // A level that would go negative stops at zero and the shortfall is recorded as an ADJUST movement.
+    boolean applyJournalSegment(String journal, long segment, Map<Integer, Integer> deltas);
+
+    // Last journal segment applied to the table, 0 if none
+    long findJournalCheckpoint(String journal);
 
     // Delete
     void deleteByProductId(int productId);
@@ -0,0 +1,30 @@
+package bookshop.dao.daoInterface;
+
+import bookshop.models.InventoryMovement;
+import bookshop.models.LedgerBalance;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+
+public interface InventoryLedgerDao {
+
+    // Append movements with multi-row INSERTs; returns how many
+    int appendAll(List<InventoryMovement> movements);
+
+    // Fold movements recorded more than settleSeconds ago into the snapshots; returns how many were folded
+    long snapshot(int settleSeconds);
+
+    // Level of one product by the ledger (snapshot plus later movements); empty if it has no history
+    OptionalInt findLedgerQuantity(int productId);
+
+    // Record an OPENING movement for every inventory row without an OPENING or CREATE, so its ledger level
+    // matches the table from here on; returns how many were recorded
+    int recordOpeningBalances();
+
+    // Ledger level next to the table level of every inventory row with an OPENING or CREATE, streamed in product ID order
+    long streamBalances(Consumer<LedgerBalance> sink);
+
+    // Overwrite inventory quantities (product ID -> quantity, not negative) in one statement; returns rows matched
+    int restoreQuantities(Map<Integer, Integer> quantities);
+}
@@ -1,10 +1,15 @@
 package bookshop.dao.daoInterface;
 
 import bookshop.dto.request.PageRequest;
+import bookshop.dto.response.ProductSlice;
 import bookshop.models.Product;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object interface for Product operations
@@ -15,11 +20,26 @@ public interface ProductDao {
     // ========== CREATE ==========
     Product save(Product product);
 
+    /**
+     * Insert several products with one multi-row INSERT statement.
+     * Either every row is inserted or none is; generated IDs are set on the products.
+     * @param products the products to insert
+     * @return number of rows inserted
+     */
+    int saveAll(List<Product> products);
+
     // ========== READ (Basic) ==========
     List<Product> findAll();
     Optional<Product> findById(int productId);
     Optional<Product> findByName(String productName);
 
+    /**
+     * Find several products by ID with chunked IN queries
+     * @param productIds the product IDs; ids that do not exist are skipped
+     * @return the products found, in no particular order
+     */
+    List<Product> findAllByIds(Collection<Integer> productIds);
+
     // ========== READ (Paginated) ==========
 
     /**
@@ -54,6 +74,40 @@ public interface ProductDao {
      */
     List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, PageRequest pageRequest);
 
+    // ========== READ (Paginated, page + total in one statement) ==========
+
+    /**
+     * Find all products with pagination, returning the page and the total together
+     * @param pageRequest pagination parameters
+     * @return the page of products and the total number of products
+     */
+    ProductSlice findAllWithTotal(PageRequest pageRequest);
+
+    /**
+     * Find products by category with pagination, returning the page and the total together
+     * @param categoryId the category ID
+     * @param pageRequest pagination parameters
+     * @return the page of products and the number of products in the category
+     */
+    ProductSlice findByCategoryIdWithTotal(int categoryId, PageRequest pageRequest);
+
+    /**
+     * Search products by name with pagination, returning the page and the total together
+     * @param keyword the search keyword
+     * @param pageRequest pagination parameters
+     * @return the page of matching products and the number of matches
+     */
+    ProductSlice searchByNameWithTotal(String keyword, PageRequest pageRequest);
+
+    /**
+     * Find products by price range with pagination, returning the page and the total together
+     * @param minPrice minimum price
+     * @param maxPrice maximum price
+     * @param pageRequest pagination parameters
+     * @return the page of products and the number of products in range
+     */
+    ProductSlice findByPriceRangeWithTotal(BigDecimal minPrice, BigDecimal maxPrice, PageRequest pageRequest);
+
     // ========== COUNT (for pagination) ==========
 
     /**
@@ -84,6 +138,37 @@ public interface ProductDao {
      */
     long countByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
 
+    /**
+     * Count products per category in one grouped query
+     * @return category ID to number of products, for categories with products
+     */
+    Map<Integer, Long> countGroupByCategory();
+
+    /**
+     * Category of every product, without loading the full rows
+     * @return product ID to category ID
+     */
+    Map<Integer, Integer> findCategoryIdsByProductId();
+
+    /**
+     * Number of cart lines per product, used as its popularity weight
+     * @return product ID to cart line count, for products in at least one cart
+     */
+    Map<Integer, Long> countCartItemsByProduct();
+
+    // ========== READ (Streaming) ==========
+
+    /**
+     * Stream products ordered by product_id without buffering the result set.
+     * The connection stays open until the sink has seen every row.
+     * @param categoryId only this category, or null for all
+     * @param minPrice lower price bound (inclusive), or null
+     * @param maxPrice upper price bound (inclusive), or null
+     * @param sink receives each product as it is read
+     * @return number of products streamed
+     */
+    long streamProducts(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, Consumer<Product> sink);
+
     // ========== READ (Non-paginated - for backward compatibility) ==========
     List<Product> findByCategoryId(int categoryId);
     List<Product> searchByName(String keyword);
@@ -96,5 +181,11 @@ public interface ProductDao {
     void deleteById(int productId);
 
     // ========== UTILITY ==========
+
+    /**
+     * Names of every product, for bulk uniqueness checks
+     * @return all product names
+     */
+    Set<String> findAllNames();
     boolean existsByName(String productName);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package bookshop.dao.daoInterface;
+
+import bookshop.models.StockHold;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface StockHoldDao {
+
+    // Create
+    void save(StockHold hold);
+
+    // Read
+    Optional<StockHold> findById(String holdId);
+
+    // Every outstanding hold, streamed; returns how many
+    long streamAll(Consumer<StockHold> sink);
+
+    // Delete; false if the hold was already committed, released or expired
+    boolean deleteById(String holdId);
+}
@@ -1,119 +1,68 @@
 package bookshop.dao.imp;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-import javax.sql.DataSource;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import bookshop.dao.daoInterface.CategoryDao;
+import bookshop.dao.jdbc.QueryExecutor;
 import bookshop.models.Category;
 
 @Repository
 public class CategoryDaoImp implements CategoryDao {
-    
-    private final DataSource dataSource;
+
+    // Select list read by mapRow, in column index order
+    private static final String CATEGORY_COLUMNS = "category_id, name";
+
+    private final QueryExecutor executor;
 
     @Autowired
-    public CategoryDaoImp(DataSource dataSource) {
-        this.dataSource = dataSource;
+    public CategoryDaoImp(QueryExecutor executor) {
+        this.executor = executor;
     }
 
     @Override
     public Category save(Category category) {
-        // ✅ NO database name - just table name
         String sql = "INSERT INTO category (name) VALUES (?)";
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            pstm.setString(1, category.getName());
-            pstm.executeUpdate();
-
-            try (ResultSet rs = pstm.getGeneratedKeys()) {
-                if (rs.next()) {
-                    category.setCategoryId(rs.getInt(1));
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error saving category", e);
-        }
+        executor.insert("category.save", sql, category::setCategoryId, category.getName());
 
         return category;
     }
 
     @Override
     public List<Category> findAll() {
-        // ✅ NO database name
-        String sql = "SELECT * FROM category";
-        List<Category> categories = new ArrayList<>();
+        String sql = "SELECT " + CATEGORY_COLUMNS + " FROM category";
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql);
-             ResultSet rs = pstm.executeQuery()) {
-
-            while (rs.next()) {
-                categories.add(mapRow(rs));
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error fetching categories", e);
-        }
-
-        return categories;
+        return executor.query("category.findAll", sql, this::mapRow);
     }
 
     @Override
     public Optional<Category> findById(int categoryId) {
-        // ✅ NO database name
-        String sql = "SELECT * FROM category WHERE category_id = ?";
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setInt(1, categoryId);
-
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapRow(rs));
-                }
-            }
+        String sql = "SELECT " + CATEGORY_COLUMNS + " FROM category WHERE category_id = ?";
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error finding category by id", e);
-        }
+        return executor.queryOne("category.findById", sql, this::mapRow, categoryId);
+    }
 
-        return Optional.empty();
+    @Override
+    public List<Category> findAllByIds(Collection<Integer> categoryIds) {
+        return executor.queryIn("category.findAllByIds",
+                "SELECT " + CATEGORY_COLUMNS + " FROM category WHERE category_id IN", this::mapRow, categoryIds);
     }
 
     @Override
     public Category update(Category category) {
-        // ✅ NO database name
         String sql = "UPDATE category SET name = ? WHERE category_id = ?";
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setString(1, category.getName());
-            pstm.setInt(2, category.getCategoryId());
+        int rowsUpdated = executor.update("category.update", sql, category.getName(), category.getCategoryId());
 
-            int rowsUpdated = pstm.executeUpdate();
-
-            if (rowsUpdated == 0) {
-                throw new RuntimeException("Category not found with id " + category.getCategoryId());
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error updating category", e);
+        if (rowsUpdated == 0) {
+            throw new RuntimeException("Category not found with id " + category.getCategoryId());
         }
 
         return category;
@@ -121,52 +70,26 @@ public class CategoryDaoImp implements CategoryDao {
 
     @Override
     public void deleteById(int categoryId) {
-        // ✅ NO database name
         String sql = "DELETE FROM category WHERE category_id = ?";
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setInt(1, categoryId);
+        int rowsDeleted = executor.update("category.deleteById", sql, categoryId);
 
-            int rowsDeleted = pstm.executeUpdate();
-
-            if (rowsDeleted == 0) {
-                throw new RuntimeException("Category not found with id " + categoryId);
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error deleting category", e);
+        if (rowsDeleted == 0) {
+            throw new RuntimeException("Category not found with id " + categoryId);
         }
     }
 
     @Override
     public boolean existsById(int categoryId) {
-        // ✅ NO database name
         String sql = "SELECT COUNT(*) FROM category WHERE category_id = ?";
-        
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setInt(1, categoryId);
-
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error checking category existence", e);
-        }
 
-        return false;
+        return executor.queryForLong("category.existsById", sql, categoryId) > 0;
     }
 
     private Category mapRow(ResultSet rs) throws SQLException {
         Category category = new Category();
-        category.setCategoryId(rs.getInt("category_id"));
-        category.setName(rs.getString("name"));
+        category.setCategoryId(rs.getInt(1));
+        category.setName(rs.getString(2));
         return category;
     }
-}
\ No newline at end of file
+}
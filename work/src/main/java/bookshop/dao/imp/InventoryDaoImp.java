@@ -1,53 +1,48 @@
 package bookshop.dao.imp;
 
 import bookshop.dao.daoInterface.InventoryDao;
+import bookshop.dao.jdbc.QueryExecutor;
 import bookshop.models.Inventory;
+import bookshop.models.StockAdjustment;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import javax.sql.DataSource;
-import java.sql.*;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 @Repository
 public class InventoryDaoImp implements InventoryDao {
-    
-    private final DataSource datasource;
+
+    private final QueryExecutor executor;
 
     @Autowired
-    public InventoryDaoImp(DataSource datasource) {
-        this.datasource = datasource;
+    public InventoryDaoImp(QueryExecutor executor) {
+        this.executor = executor;
     }
 
     @Override
     public Inventory save(Inventory inventory) {
-        //  NO database name
         String sql = "INSERT INTO inventory (product_id, quantity) VALUES (?, ?)";
 
-        try (Connection connection = datasource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            pstm.setInt(1, inventory.getProductId());
-            pstm.setInt(2, inventory.getQuantity());
-
-            pstm.executeUpdate();
-
-            try (ResultSet rs = pstm.getGeneratedKeys()) {
-                if (rs.next()) {
-                    inventory.setInventoryId(rs.getInt(1));
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error saving inventory", e);
-        }
+        executor.insert("inventory.save", sql, inventory::setInventoryId,
+                inventory.getProductId(), inventory.getQuantity());
 
         return findByProductId(inventory.getProductId()).orElseThrow(() ->  new RuntimeException("Inventory not found after save"));
     }
 
     @Override
     public Optional<Inventory> findByProductId(int productId) {
-        //  NO database name - includes JOIN with products
+        // Includes JOIN with products
         String sql = """
                 SELECT i.inventory_id,
                        i.product_id,
@@ -59,82 +54,273 @@ public class InventoryDaoImp implements InventoryDao {
                 WHERE i.product_id = ?
                 """;
 
-        try (Connection connection = datasource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        return executor.queryOne("inventory.findByProductId", sql, this::mapRow, productId);
+    }
 
-            pstm.setInt(1, productId);
+    @Override
+    public List<Inventory> findAllByProductIds(Collection<Integer> productIds) {
+        String sql = """
+                SELECT i.inventory_id,
+                       i.product_id,
+                       p.name AS product_name,
+                       i.quantity,
+                       i.last_updated
+                FROM inventory i
+                JOIN products p ON i.product_id = p.product_id
+                WHERE i.product_id IN""";
 
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapRow(rs));
-                }
+        return executor.queryIn("inventory.findAllByProductIds", sql, this::mapRow, productIds);
+    }
+
+    @Override
+    public Map<Integer, Integer> findAllQuantities() {
+        String sql = "SELECT product_id, quantity FROM inventory";
+        Map<Integer, Integer> quantities = new HashMap<>();
+
+        executor.stream("inventory.findAllQuantities", sql,
+                rs -> Map.entry(rs.getInt(1), rs.getInt(2)),
+                entry -> quantities.put(entry.getKey(), entry.getValue()));
+
+        return quantities;
+    }
+
+    @Override
+    public OptionalInt replaceQuantity(int productId, int quantity) {
+        // Reading the old level under the row lock makes the reported change exact under concurrent writes
+        return executor.transaction("inventory.replaceQuantity", transaction -> {
+            List<Integer> previous = transaction.query("inventory.lockQuantity",
+                    "SELECT quantity FROM inventory WHERE product_id = ? FOR UPDATE",
+                    rs -> rs.getInt(1), productId);
+            if (previous.isEmpty()) {
+                return OptionalInt.empty();
             }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error finding inventory by productId", e);
+            transaction.update("inventory.replaceQuantity", """
+                    UPDATE inventory
+                    SET quantity = ?,
+                        last_updated = CURRENT_TIMESTAMP
+                    WHERE product_id = ?
+                    """, quantity, productId);
+            return OptionalInt.of(previous.get(0));
+        });
+    }
+
+    @Override
+    public StockAdjustment decrementQuantity(int productId, int amount) {
+        // The row lock taken by the UPDATE makes check and write one step
+        String sql = """
+                UPDATE inventory
+                SET quantity = LAST_INSERT_ID(quantity - ?),
+                    last_updated = CURRENT_TIMESTAMP
+                WHERE product_id = ? AND quantity >= ?
+                """;
+
+        OptionalLong newQuantity = executor.updateReturning("inventory.decrementQuantity", sql,
+                amount, productId, amount);
+        if (newQuantity.isPresent()) {
+            return StockAdjustment.applied(productId, (int) newQuantity.getAsLong());
         }
 
-        return Optional.empty();
+        // Refused: report the level that was too low, or that there is no row at all
+        return findQuantity(productId)
+                .map(current -> StockAdjustment.insufficient(productId, current))
+                .orElseGet(() -> StockAdjustment.notFound(productId));
     }
 
     @Override
-    public Inventory updateQuantity(int productId, int quantity) {
-        // ✅ NO database name
+    public List<StockAdjustment> decrementAll(Map<Integer, Integer> amounts) {
+        // Rows are locked in product_id order, so two carts sharing products queue instead of deadlocking
+        SortedMap<Integer, Integer> lines = new TreeMap<>(amounts);
+        int size = lines.size();
+        if (size == 0) {
+            return List.of();
+        }
+
+        String lockSql = executor.template("inventory.lockQuantities|" + size, () -> """
+                SELECT product_id, quantity
+                FROM inventory
+                WHERE product_id IN (%s)
+                ORDER BY product_id
+                FOR UPDATE
+                """.formatted(placeholders(size)));
+
+        String decrementSql = executor.template("inventory.decrementAll|" + size, () -> """
+                UPDATE inventory
+                SET quantity = CASE product_id %s END,
+                    last_updated = CURRENT_TIMESTAMP
+                WHERE product_id IN (%s)
+                """.formatted("WHEN ? THEN quantity - ? ".repeat(size), placeholders(size)));
+
+        return executor.transaction("inventory.decrementAll", transaction -> {
+            Map<Integer, Integer> levels = new HashMap<>();
+            for (Map.Entry<Integer, Integer> row : transaction.query("inventory.lockQuantities", lockSql,
+                    rs -> Map.entry(rs.getInt(1), rs.getInt(2)), lines.keySet().toArray())) {
+                levels.put(row.getKey(), row.getValue());
+            }
+
+            List<StockAdjustment> adjustments = new ArrayList<>(size);
+            boolean applicable = true;
+            for (Map.Entry<Integer, Integer> line : lines.entrySet()) {
+                Integer level = levels.get(line.getKey());
+                if (level == null) {
+                    adjustments.add(StockAdjustment.notFound(line.getKey()));
+                    applicable = false;
+                } else if (level < line.getValue()) {
+                    adjustments.add(StockAdjustment.insufficient(line.getKey(), level));
+                    applicable = false;
+                } else {
+                    adjustments.add(StockAdjustment.applied(line.getKey(), level - line.getValue()));
+                }
+            }
+
+            if (applicable) {
+                // Every decrement in one statement; the locks make the levels read above current
+                List<Object> params = new ArrayList<>(size * 3);
+                lines.forEach((productId, amount) -> {
+                    params.add(productId);
+                    params.add(amount);
+                });
+                params.addAll(lines.keySet());
+                transaction.update("inventory.decrementAll", decrementSql, params.toArray());
+            }
+            return adjustments;
+        });
+    }
+
+    @Override
+    public StockAdjustment incrementQuantity(int productId, int amount) {
         String sql = """
                 UPDATE inventory
-                SET quantity = ?,
+                SET quantity = LAST_INSERT_ID(quantity + ?),
                     last_updated = CURRENT_TIMESTAMP
                 WHERE product_id = ?
                 """;
 
-        try (Connection connection = datasource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        OptionalLong newQuantity = executor.updateReturning("inventory.incrementQuantity", sql,
+                amount, productId);
+        return newQuantity.isPresent()
+                ? StockAdjustment.applied(productId, (int) newQuantity.getAsLong())
+                : StockAdjustment.notFound(productId);
+    }
+
+    @Override
+    public boolean applyJournalSegment(String journal, long segment, Map<Integer, Integer> deltas) {
+        SortedMap<Integer, Integer> lines = new TreeMap<>(deltas);
+        int size = lines.size();
+
+        String lockSql = executor.template("inventory.lockQuantities|" + size, () -> """
+                SELECT product_id, quantity
+                FROM inventory
+                WHERE product_id IN (%s)
+                ORDER BY product_id
+                FOR UPDATE
+                """.formatted(placeholders(size)));
+
+        String applySql = executor.template("inventory.applyJournal|" + size, () -> """
+                UPDATE inventory
+                SET quantity = quantity + CASE product_id %s END,
+                    last_updated = CURRENT_TIMESTAMP
+                WHERE product_id IN (%s)
+                """.formatted("WHEN ? THEN ? ".repeat(size), placeholders(size)));
 
-            pstm.setInt(1, quantity);
-            pstm.setInt(2, productId);
+        return executor.transaction("inventory.applyJournalSegment", transaction -> {
+            // The checkpoint row lock makes a segment applied by two flushes at once count only once
+            transaction.update("inventory.createJournalCheckpoint",
+                    "INSERT IGNORE INTO inventory_journal_checkpoints (journal, segment) VALUES (?, 0)", journal);
+            long applied = transaction.query("inventory.lockJournalCheckpoint",
+                    "SELECT segment FROM inventory_journal_checkpoints WHERE journal = ? FOR UPDATE",
+                    rs -> rs.getLong(1), journal).get(0);
+            if (applied >= segment) {
+                return false;
+            }
+
+            if (size > 0) {
+                Map<Integer, Integer> levels = new HashMap<>();
+                for (Map.Entry<Integer, Integer> row : transaction.query("inventory.lockQuantities", lockSql,
+                        rs -> Map.entry(rs.getInt(1), rs.getInt(2)), lines.keySet().toArray())) {
+                    levels.put(row.getKey(), row.getValue());
+                }
 
-            int rowsUpdated = pstm.executeUpdate();
+                // A write made outside the application can leave fewer units than the segment takes.
+                // The row stops at zero rather than wedging every later flush, and the shortfall is
+                // recorded as an ADJUST movement in the same transaction so the ledger still agrees.
+                List<Object> params = new ArrayList<>(size * 3);
+                Map<Integer, Integer> shortfalls = new TreeMap<>();
+                lines.forEach((productId, delta) -> {
+                    Integer level = levels.get(productId);
+                    if (level != null && level + delta < 0) {
+                        shortfalls.put(productId, -(level + delta));
+                        delta = -level;
+                    }
+                    params.add(productId);
+                    params.add(delta);
+                });
+                params.addAll(lines.keySet());
+                transaction.update("inventory.applyJournal", applySql, params.toArray());
 
-            if (rowsUpdated == 0) {
-                throw new RuntimeException("Inventory not found for productId " + productId);
+                if (!shortfalls.isEmpty()) {
+                    recordAdjustments(transaction, shortfalls);
+                }
             }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error updating inventory quantity", e);
-        }
+            transaction.update("inventory.updateJournalCheckpoint",
+                    "UPDATE inventory_journal_checkpoints SET segment = ? WHERE journal = ?", segment, journal);
+            return true;
+        });
+    }
+
+    @Override
+    public long findJournalCheckpoint(String journal) {
+        String sql = "SELECT segment FROM inventory_journal_checkpoints WHERE journal = ?";
 
-        return findByProductId(productId)
-                .orElseThrow(() -> new RuntimeException("Inventory not found after update"));
+        return executor.queryForLong("inventory.findJournalCheckpoint", sql, journal);
     }
 
     @Override
     public void deleteByProductId(int productId) {
-        // ✅ NO database name
         String sql = "DELETE FROM inventory WHERE product_id = ?";
 
-        try (Connection connection = datasource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        int rowsDeleted = executor.update("inventory.deleteByProductId", sql, productId);
 
-            pstm.setInt(1, productId);
+        if (rowsDeleted == 0) {
+            throw new RuntimeException("Inventory not found for productId " + productId);
+        }
+    }
 
-            int rowsDeleted = pstm.executeUpdate();
+    private Optional<Integer> findQuantity(int productId) {
+        String sql = "SELECT quantity FROM inventory WHERE product_id = ?";
 
-            if (rowsDeleted == 0) {
-                throw new RuntimeException("Inventory not found for productId " + productId);
-            }
+        return executor.queryOne("inventory.findQuantity", sql, rs -> rs.getInt(1), productId);
+    }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error deleting inventory", e);
-        }
+    /**
+     * Append ADJUST movements (product ID -> units) to the inventory ledger within the transaction
+     */
+    private void recordAdjustments(QueryExecutor.Transaction transaction, Map<Integer, Integer> adjustments) {
+        int size = adjustments.size();
+        String sql = executor.template("inventory.recordAdjustments|" + size,
+                () -> "INSERT INTO inventory_movements (product_id, movement_type, delta) VALUES " +
+                        "(?, 'ADJUST', ?), ".repeat(size - 1) + "(?, 'ADJUST', ?)");
+
+        List<Object> params = new ArrayList<>(size * 2);
+        adjustments.forEach((productId, units) -> {
+            params.add(productId);
+            params.add(units);
+        });
+        transaction.update("inventory.recordAdjustments", sql, params.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return "?, ".repeat(count - 1) + "?";
     }
 
     private Inventory mapRow(ResultSet rs) throws SQLException {
         Inventory inventory = new Inventory();
-        inventory.setInventoryId(rs.getInt("inventory_id"));
-        inventory.setProductId(rs.getInt("product_id"));
-       // inventory.setName(rs.getString("product_name"));
-        inventory.setQuantity(rs.getInt("quantity"));
-        inventory.setLastUpdated(rs.getTimestamp("last_updated"));
+        inventory.setInventoryId(rs.getInt(1));
+        inventory.setProductId(rs.getInt(2));
+       // inventory.setName(rs.getString(3));
+        inventory.setQuantity(rs.getInt(4));
+        inventory.setLastUpdated(rs.getTimestamp(5));
         return inventory;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,186 @@
+package bookshop.dao.imp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import bookshop.dao.daoInterface.InventoryLedgerDao;
+import bookshop.dao.jdbc.QueryExecutor;
+import bookshop.models.InventoryMovement;
+import bookshop.models.LedgerBalance;
+
+@Repository
+public class InventoryLedgerDaoImp implements InventoryLedgerDao {
+
+    // Largest multi-row INSERT; batches are cut into power-of-two chunks so few statement shapes are cached
+    static final int MAX_APPEND_ROWS = 512;
+
+    // Movements not yet in a snapshot
+    private static final String TAIL = """
+            movement_id > (SELECT COALESCE(MAX(through_movement_id), 0)
+                           FROM inventory_ledger_snapshots)""";
+
+    // Movements that give a product an absolute level to count from; SET is a delta like the others
+    private static final String BASELINE = """
+            EXISTS (SELECT 1 FROM inventory_movements b
+                    WHERE b.product_id = i.product_id AND b.movement_type IN ('OPENING', 'CREATE'))""";
+
+    private final QueryExecutor executor;
+
+    @Autowired
+    public InventoryLedgerDaoImp(QueryExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public int appendAll(List<InventoryMovement> movements) {
+        // One transaction, so a batch that failed halfway can be retried without duplicates
+        return executor.transaction("ledger.appendAll", transaction -> {
+            int appended = 0;
+            while (appended < movements.size()) {
+                int width = Integer.highestOneBit(Math.min(movements.size() - appended, MAX_APPEND_ROWS));
+                String sql = executor.template("ledger.append|" + width,
+                        () -> "INSERT INTO inventory_movements (product_id, movement_type, delta) VALUES " +
+                                "(?, ?, ?), ".repeat(width - 1) + "(?, ?, ?)");
+
+                Object[] params = new Object[width * 3];
+                for (int i = 0; i < width; i++) {
+                    InventoryMovement movement = movements.get(appended + i);
+                    params[i * 3] = movement.productId();
+                    params[i * 3 + 1] = movement.type().name();
+                    params[i * 3 + 2] = movement.delta();
+                }
+
+                appended += transaction.update("ledger.append", sql, params);
+            }
+            return appended;
+        });
+    }
+
+    @Override
+    public long snapshot(int settleSeconds) {
+        return executor.transaction("ledger.snapshot", transaction -> {
+            long from = transaction.query("ledger.findLastSnapshot",
+                    "SELECT COALESCE(MAX(through_movement_id), 0) FROM inventory_ledger_snapshots",
+                    rs -> rs.getLong(1)).get(0);
+
+            // Only settled movements, so a batch still being written cannot end up behind the fold
+            long through = transaction.query("ledger.findSettled", """
+                    SELECT COALESCE(MAX(movement_id), 0)
+                    FROM inventory_movements
+                    WHERE movement_id > ? AND recorded_at < NOW(3) - INTERVAL ? SECOND
+                    """, rs -> rs.getLong(1), from, settleSeconds).get(0);
+            if (through <= from) {
+                return 0L;
+            }
+
+            // from_movement_id is unique: when two instances fold from the same point, the second
+            // waits on the first's row and then claims nothing
+            int claimed = transaction.update("ledger.claimSnapshot",
+                    "INSERT IGNORE INTO inventory_ledger_snapshots (from_movement_id, through_movement_id) VALUES (?, ?)",
+                    from, through);
+            if (claimed == 0) {
+                return 0L;
+            }
+
+            transaction.update("ledger.snapshot", """
+                    INSERT INTO inventory_snapshots (product_id, quantity)
+                    SELECT * FROM (
+                        SELECT product_id, SUM(delta) AS delta
+                        FROM inventory_movements
+                        WHERE movement_id > ? AND movement_id <= ?
+                        GROUP BY product_id
+                    ) AS tail
+                    ON DUPLICATE KEY UPDATE quantity = inventory_snapshots.quantity + tail.delta,
+                                            taken_at = CURRENT_TIMESTAMP
+                    """, from, through);
+            return through - from;
+        });
+    }
+
+    @Override
+    public OptionalInt findLedgerQuantity(int productId) {
+        String sql = """
+                SELECT SUM(delta)
+                FROM (SELECT quantity AS delta FROM inventory_snapshots WHERE product_id = ?
+                      UNION ALL
+                      SELECT delta FROM inventory_movements WHERE product_id = ? AND %s) ledger
+                HAVING COUNT(*) > 0
+                """.formatted(TAIL);
+
+        return executor.queryOne("ledger.findLedgerQuantity", sql, rs -> rs.getInt(1),
+                        productId, productId)
+                .map(OptionalInt::of)
+                .orElse(OptionalInt.empty());
+    }
+
+    @Override
+    public int recordOpeningBalances() {
+        // The opening delta is whatever the recorded history does not explain, so the ledger
+        // level equals the table from here on; rows with no history open at their quantity
+        String sql = """
+                INSERT INTO inventory_movements (product_id, movement_type, delta)
+                SELECT i.product_id, 'OPENING', i.quantity - COALESCE(l.quantity, 0)
+                FROM inventory i
+                LEFT JOIN (SELECT product_id, SUM(delta) AS quantity
+                           FROM (SELECT product_id, quantity AS delta FROM inventory_snapshots
+                                 UNION ALL
+                                 SELECT product_id, delta FROM inventory_movements WHERE %s) ledger
+                           GROUP BY product_id) l ON l.product_id = i.product_id
+                WHERE NOT %s
+                """.formatted(TAIL, BASELINE);
+
+        return executor.update("ledger.recordOpeningBalances", sql);
+    }
+
+    @Override
+    public long streamBalances(Consumer<LedgerBalance> sink) {
+        // Summed by the server; the caller sees one row per product, however long the history
+        String sql = """
+                SELECT i.product_id, l.quantity, i.quantity
+                FROM inventory i
+                JOIN (SELECT product_id, SUM(delta) AS quantity
+                      FROM (SELECT product_id, quantity AS delta FROM inventory_snapshots
+                            UNION ALL
+                            SELECT product_id, delta FROM inventory_movements WHERE %s) ledger
+                      GROUP BY product_id) l ON l.product_id = i.product_id
+                WHERE %s
+                ORDER BY i.product_id
+                """.formatted(TAIL, BASELINE);
+
+        return executor.stream("ledger.streamBalances", sql,
+                rs -> new LedgerBalance(rs.getInt(1), rs.getInt(2), rs.getInt(3)), sink);
+    }
+
+    @Override
+    public int restoreQuantities(Map<Integer, Integer> quantities) {
+        SortedMap<Integer, Integer> lines = new TreeMap<>(quantities);
+        int size = lines.size();
+        if (size == 0) {
+            return 0;
+        }
+
+        String sql = executor.template("ledger.restoreQuantities|" + size, () -> """
+                UPDATE inventory
+                SET quantity = CASE product_id %s END,
+                    last_updated = CURRENT_TIMESTAMP
+                WHERE product_id IN (%s)
+                """.formatted("WHEN ? THEN ? ".repeat(size), "?, ".repeat(size - 1) + "?"));
+
+        List<Object> params = new ArrayList<>(size * 3);
+        lines.forEach((productId, quantity) -> {
+            params.add(productId);
+            params.add(quantity);
+        });
+        params.addAll(lines.keySet());
+
+        return executor.update("ledger.restoreQuantities", sql, params.toArray());
+    }
+}
@@ -1,26 +1,55 @@
 package bookshop.dao.imp;
 
 import bookshop.dao.daoInterface.ProductDao;
+import bookshop.dao.jdbc.QueryExecutor;
+import bookshop.dao.jdbc.RowMapper;
+import bookshop.dto.request.PageCursor;
 import bookshop.dto.request.PageRequest;
+import bookshop.dto.request.ProductSortField;
+import bookshop.dto.response.ProductSlice;
 import bookshop.models.Product;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import javax.sql.DataSource;
 import java.math.BigDecimal;
-import java.sql.*;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 @Repository
 public class ProductDaoImp implements ProductDao {
 
-    private final DataSource dataSource;
+    // Select list read by mapRow, in column index order; total_count follows it
+    private static final String PRODUCT_COLUMNS =
+            "p.product_id, p.name, p.price, p.category_id, p.version, c.name AS category_name";
+    private static final int TOTAL_COUNT_INDEX = 7;
+
+    // Words of a name search that are matched; later ones are ignored, as in ProductNameIndex,
+    // so there is one statement shape per word count up to this
+    static final int MAX_KEYWORD_WORDS = 8;
+
+    private static final String SELECT_PRODUCTS = "SELECT " + PRODUCT_COLUMNS + " FROM products p " +
+            "LEFT JOIN category c ON p.category_id = c.category_id";
+    private static final String SELECT_PRODUCTS_WITH_TOTAL = "SELECT " + PRODUCT_COLUMNS +
+            ", COUNT(*) OVER() AS total_count FROM products p " +
+            "LEFT JOIN category c ON p.category_id = c.category_id";
+
+    private final QueryExecutor executor;
 
     @Autowired
-    public ProductDaoImp(DataSource dataSource) {
-        this.dataSource = dataSource;
+    public ProductDaoImp(QueryExecutor executor) {
+        this.executor = executor;
     }
 
     // ========== CREATE ==========
@@ -29,307 +58,282 @@ public class ProductDaoImp implements ProductDao {
     public Product save(Product product) {
         String sql = "INSERT INTO products (name, price, category_id) VALUES (?, ?, ?)";
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        executor.insert("product.save", sql, product::setProductId,
+                product.getName(), product.getPrice(), product.getCategoryId());
 
-            pstm.setString(1, product.getName());
-            pstm.setBigDecimal(2, product.getPrice());
-            pstm.setInt(3, product.getCategoryId());
+        return product;
+    }
 
-            pstm.executeUpdate();
+    @Override
+    public int saveAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return 0;
+        }
 
-            try (ResultSet rs = pstm.getGeneratedKeys()) {
-                if (rs.next()) {
-                    product.setProductId(rs.getInt(1));
-                }
-            }
+        String sql = executor.template("product.saveAll|" + products.size(),
+                () -> "INSERT INTO products (name, price, category_id) VALUES " +
+                        "(?, ?, ?), ".repeat(products.size() - 1) + "(?, ?, ?)");
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error saving product", e);
+        Object[] params = new Object[products.size() * 3];
+        int index = 0;
+        for (Product product : products) {
+            params[index++] = product.getName();
+            params[index++] = product.getPrice();
+            params[index++] = product.getCategoryId();
         }
 
-        return product;
+        // MySQL returns one key per row, in VALUES order
+        int[] next = new int[1];
+        return executor.insert("product.saveAll", sql, key -> {
+            if (next[0] < products.size()) {
+                products.get(next[0]++).setProductId(key);
+            }
+        }, params);
     }
 
     // ========== READ (Paginated) ==========
 
     @Override
     public List<Product> findAll(PageRequest pageRequest) {
-        String sql = buildPaginatedQuery(
-                "SELECT p.*, c.name AS category_name FROM products p " +
-                        "LEFT JOIN category c ON p.category_id = c.category_id",
-                pageRequest
-        );
-
-        return executeQuery(sql, pageRequest);
+        return queryPage("product.findAll", SELECT_PRODUCTS, false, pageRequest);
     }
 
     @Override
     public List<Product> findByCategoryId(int categoryId, PageRequest pageRequest) {
-        String baseSql = "SELECT p.*, c.name AS category_name FROM products p " +
-                "LEFT JOIN category c ON p.category_id = c.category_id " +
-                "WHERE p.category_id = ?";
-
-        String sql = buildPaginatedQuery(baseSql, pageRequest);
-
-        return executeQueryWithParam(sql, categoryId, pageRequest);
+        return queryPage("product.findByCategoryId", SELECT_PRODUCTS + " WHERE p.category_id = ?",
+                true, pageRequest, categoryId);
     }
 
     @Override
     public List<Product> searchByName(String keyword, PageRequest pageRequest) {
-        String baseSql = "SELECT p.*, c.name AS category_name FROM products p " +
-                "LEFT JOIN category c ON p.category_id = c.category_id " +
-                "WHERE p.name LIKE ?";
-
-        String sql = buildPaginatedQuery(baseSql, pageRequest);
-
-        return executeQueryWithParam(sql, "%" + keyword + "%", pageRequest);
+        Object[] patterns = namePatterns(keyword);
+        return queryPage("product.searchByName", "product.searchByName|" + patterns.length,
+                SELECT_PRODUCTS + " WHERE " + nameFilter("p.name", patterns.length),
+                true, pageRequest, patterns);
     }
 
     @Override
     public List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, PageRequest pageRequest) {
-        String baseSql = "SELECT p.*, c.name AS category_name FROM products p " +
-                "LEFT JOIN category c ON p.category_id = c.category_id " +
-                "WHERE p.price BETWEEN ? AND ?";
+        return queryPage("product.findByPriceRange", SELECT_PRODUCTS + " WHERE p.price BETWEEN ? AND ?",
+                true, pageRequest, minPrice, maxPrice);
+    }
+
+    // ========== READ (Paginated, page + total in one statement) ==========
+    //
+    // COUNT(*) OVER() is evaluated before LIMIT, so every row of the page carries
+    // the total number of matches and one execution replaces list + count.
+    // A keyset seek is part of the WHERE clause and would narrow the window,
+    // so keyset pages keep the separate count.
 
-        String sql = buildPaginatedQuery(baseSql, pageRequest);
+    @Override
+    public ProductSlice findAllWithTotal(PageRequest pageRequest) {
+        if (pageRequest.isKeyset()) {
+            return new ProductSlice(findAll(pageRequest), count());
+        }
 
-        List<Product> products = new ArrayList<>();
+        return queryPageWithTotal("product.findAllWithTotal", SELECT_PRODUCTS_WITH_TOTAL, false,
+                pageRequest, this::count);
+    }
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+    @Override
+    public ProductSlice findByCategoryIdWithTotal(int categoryId, PageRequest pageRequest) {
+        if (pageRequest.isKeyset()) {
+            return new ProductSlice(findByCategoryId(categoryId, pageRequest), countByCategory(categoryId));
+        }
 
-            pstm.setBigDecimal(1, minPrice);
-            pstm.setBigDecimal(2, maxPrice);
+        return queryPageWithTotal("product.findByCategoryIdWithTotal",
+                SELECT_PRODUCTS_WITH_TOTAL + " WHERE p.category_id = ?", true,
+                pageRequest, () -> countByCategory(categoryId), categoryId);
+    }
 
-            try (ResultSet rs = pstm.executeQuery()) {
-                while (rs.next()) {
-                    products.add(mapRow(rs));
-                }
-            }
+    @Override
+    public ProductSlice searchByNameWithTotal(String keyword, PageRequest pageRequest) {
+        if (pageRequest.isKeyset()) {
+            return new ProductSlice(searchByName(keyword, pageRequest), countByNameSearch(keyword));
+        }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error finding products by price range", e);
+        Object[] patterns = namePatterns(keyword);
+        return queryPageWithTotal("product.searchByNameWithTotal",
+                "product.searchByNameWithTotal|" + patterns.length,
+                SELECT_PRODUCTS_WITH_TOTAL + " WHERE " + nameFilter("p.name", patterns.length), true,
+                pageRequest, () -> countByNameSearch(keyword), patterns);
+    }
+
+    @Override
+    public ProductSlice findByPriceRangeWithTotal(BigDecimal minPrice, BigDecimal maxPrice, PageRequest pageRequest) {
+        if (pageRequest.isKeyset()) {
+            return new ProductSlice(findByPriceRange(minPrice, maxPrice, pageRequest),
+                    countByPriceRange(minPrice, maxPrice));
         }
 
-        return products;
+        return queryPageWithTotal("product.findByPriceRangeWithTotal",
+                SELECT_PRODUCTS_WITH_TOTAL + " WHERE p.price BETWEEN ? AND ?", true,
+                pageRequest, () -> countByPriceRange(minPrice, maxPrice), minPrice, maxPrice);
     }
 
     // ========== COUNT METHODS ==========
 
     @Override
     public long count() {
-        String sql = "SELECT COUNT(*) FROM products";
-        return executeCount(sql);
+        return executor.queryForLong("product.count", "SELECT COUNT(*) FROM products");
     }
 
     @Override
     public long countByCategory(int categoryId) {
         String sql = "SELECT COUNT(*) FROM products WHERE category_id = ?";
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        return executor.queryForLong("product.countByCategory", sql, categoryId);
+    }
 
-            pstm.setInt(1, categoryId);
+    @Override
+    public long countByNameSearch(String keyword) {
+        Object[] patterns = namePatterns(keyword);
+        String sql = "SELECT COUNT(*) FROM products WHERE " + nameFilter("name", patterns.length);
 
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getLong(1);
-                }
-            }
+        return executor.queryForLong("product.countByNameSearch", sql, patterns);
+    }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error counting products by category", e);
-        }
+    @Override
+    public long countByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        String sql = "SELECT COUNT(*) FROM products WHERE price BETWEEN ? AND ?";
 
-        return 0;
+        return executor.queryForLong("product.countByPriceRange", sql, minPrice, maxPrice);
     }
 
     @Override
-    public long countByNameSearch(String keyword) {
-        String sql = "SELECT COUNT(*) FROM products WHERE name LIKE ?";
+    public Map<Integer, Long> countGroupByCategory() {
+        String sql = "SELECT category_id, COUNT(*) FROM products GROUP BY category_id";
+        Map<Integer, Long> counts = new HashMap<>();
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        executor.stream("product.countGroupByCategory", sql,
+                rs -> Map.entry(rs.getInt(1), rs.getLong(2)),
+                entry -> counts.put(entry.getKey(), entry.getValue()));
 
-            pstm.setString(1, "%" + keyword + "%");
+        return counts;
+    }
 
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getLong(1);
-                }
-            }
+    @Override
+    public Map<Integer, Integer> findCategoryIdsByProductId() {
+        String sql = "SELECT product_id, category_id FROM products";
+        Map<Integer, Integer> categories = new HashMap<>();
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error counting products by search", e);
-        }
+        executor.stream("product.findCategoryIdsByProductId", sql,
+                rs -> Map.entry(rs.getInt(1), rs.getInt(2)),
+                entry -> categories.put(entry.getKey(), entry.getValue()));
 
-        return 0;
+        return categories;
     }
 
     @Override
-    public long countByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        String sql = "SELECT COUNT(*) FROM products WHERE price BETWEEN ? AND ?";
+    public Map<Integer, Long> countCartItemsByProduct() {
+        String sql = "SELECT product_id, COUNT(*) FROM cart_items GROUP BY product_id";
+        Map<Integer, Long> counts = new HashMap<>();
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        executor.stream("product.countCartItemsByProduct", sql,
+                rs -> Map.entry(rs.getInt(1), rs.getLong(2)),
+                entry -> counts.put(entry.getKey(), entry.getValue()));
 
-            pstm.setBigDecimal(1, minPrice);
-            pstm.setBigDecimal(2, maxPrice);
+        return counts;
+    }
 
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getLong(1);
-                }
-            }
+    // ========== READ (Streaming) ==========
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error counting products by price range", e);
+    @Override
+    public long streamProducts(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                               Consumer<Product> sink) {
+        List<Object> params = new ArrayList<>();
+        if (categoryId != null) {
+            params.add(categoryId);
+        }
+        if (minPrice != null) {
+            params.add(minPrice);
         }
+        if (maxPrice != null) {
+            params.add(maxPrice);
+        }
+
+        String key = "product.streamProducts|" + (categoryId != null) + "|" + (minPrice != null)
+                + "|" + (maxPrice != null);
+        String sql = executor.template(key, () -> {
+            StringBuilder builder = new StringBuilder(SELECT_PRODUCTS).append(" WHERE 1 = 1");
+            if (categoryId != null) {
+                builder.append(" AND p.category_id = ?");
+            }
+            if (minPrice != null) {
+                builder.append(" AND p.price >= ?");
+            }
+            if (maxPrice != null) {
+                builder.append(" AND p.price <= ?");
+            }
+            return builder.append(" ORDER BY p.product_id").toString();
+        });
 
-        return 0;
+        return executor.stream("product.streamProducts", sql, this::mapRow, sink, params.toArray());
     }
 
     // ========== READ (Non-paginated - backward compatibility) ==========
 
     @Override
     public List<Product> findAll() {
-        String sql = "SELECT p.*, c.name AS category_name FROM products p " +
-                "LEFT JOIN category c ON p.category_id = c.category_id";
-
-        List<Product> products = new ArrayList<>();
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql);
-             ResultSet rs = pstm.executeQuery()) {
-
-            while (rs.next()) {
-                products.add(mapRow(rs));
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error fetching products", e);
-        }
-
-        return products;
+        return executor.query("product.findAllUnpaged", SELECT_PRODUCTS, this::mapRow);
     }
 
     @Override
     public Optional<Product> findById(int productId) {
-        String sql = "SELECT p.*, c.name AS category_name FROM products p " +
-                "LEFT JOIN category c ON p.category_id = c.category_id " +
-                "WHERE p.product_id = ?";
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setInt(1, productId);
-
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapRow(rs));
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error finding product by id", e);
-        }
+        String sql = SELECT_PRODUCTS + " WHERE p.product_id = ?";
 
-        return Optional.empty();
+        return executor.queryOne("product.findById", sql, this::mapRow, productId);
     }
 
     @Override
     public Optional<Product> findByName(String productName) {
-        String sql = "SELECT p.*, c.name AS category_name FROM products p " +
-                "LEFT JOIN category c ON p.category_id = c.category_id " +
-                "WHERE p.name = ?";
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        String sql = SELECT_PRODUCTS + " WHERE p.name = ?";
 
-            pstm.setString(1, productName);
-
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapRow(rs));
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error finding product by name", e);
-        }
+        return executor.queryOne("product.findByName", sql, this::mapRow, productName);
+    }
 
-        return Optional.empty();
+    @Override
+    public List<Product> findAllByIds(Collection<Integer> productIds) {
+        return executor.queryIn("product.findAllByIds", SELECT_PRODUCTS + " WHERE p.product_id IN",
+                this::mapRow, productIds);
     }
 
     @Override
     public List<Product> findByCategoryId(int categoryId) {
-        String sql = "SELECT p.*, c.name AS category_name FROM products p " +
-                "LEFT JOIN category c ON p.category_id = c.category_id " +
-                "WHERE p.category_id = ?";
+        String sql = SELECT_PRODUCTS + " WHERE p.category_id = ?";
 
-        return executeQueryWithIntParam(sql, categoryId);
+        return executor.query("product.findByCategoryIdUnpaged", sql, this::mapRow, categoryId);
     }
 
     @Override
     public List<Product> searchByName(String keyword) {
-        String sql = "SELECT p.*, c.name AS category_name FROM products p " +
-                "LEFT JOIN category c ON p.category_id = c.category_id " +
-                "WHERE p.name LIKE ?";
+        Object[] patterns = namePatterns(keyword);
+        String sql = SELECT_PRODUCTS + " WHERE " + nameFilter("p.name", patterns.length);
 
-        return executeQueryWithStringParam(sql, "%" + keyword + "%");
+        return executor.query("product.searchByNameUnpaged", sql, this::mapRow, patterns);
     }
 
     @Override
     public List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        String sql = "SELECT p.*, c.name AS category_name FROM products p " +
-                "LEFT JOIN category c ON p.category_id = c.category_id " +
-                "WHERE p.price BETWEEN ? AND ?";
-
-        List<Product> products = new ArrayList<>();
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setBigDecimal(1, minPrice);
-            pstm.setBigDecimal(2, maxPrice);
+        String sql = SELECT_PRODUCTS + " WHERE p.price BETWEEN ? AND ?";
 
-            try (ResultSet rs = pstm.executeQuery()) {
-                while (rs.next()) {
-                    products.add(mapRow(rs));
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error finding products by price range", e);
-        }
-
-        return products;
+        return executor.query("product.findByPriceRangeUnpaged", sql, this::mapRow, minPrice, maxPrice);
     }
 
     // ========== UPDATE ==========
 
     @Override
     public Product update(Product product) {
-        String sql = "UPDATE products SET name = ?, price = ?, category_id = ? WHERE product_id = ?";
+        String sql = "UPDATE products SET name = ?, price = ?, category_id = ?, version = version + 1 " +
+                "WHERE product_id = ?";
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setString(1, product.getName());
-            pstm.setBigDecimal(2, product.getPrice());
-            pstm.setInt(3, product.getCategoryId());
-            pstm.setInt(4, product.getProductId());
-
-            int rowsUpdated = pstm.executeUpdate();
-
-            if (rowsUpdated == 0) {
-                throw new RuntimeException("Product not found with id " + product.getProductId());
-            }
+        int rowsUpdated = executor.update("product.update", sql, product.getName(), product.getPrice(),
+                product.getCategoryId(), product.getProductId());
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error updating product", e);
+        if (rowsUpdated == 0) {
+            throw new RuntimeException("Product not found with id " + product.getProductId());
         }
+        product.setVersion(product.getVersion() + 1);
 
         return product;
     }
@@ -340,19 +344,10 @@ public class ProductDaoImp implements ProductDao {
     public void deleteById(int productId) {
         String sql = "DELETE FROM products WHERE product_id = ?";
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        int rowsDeleted = executor.update("product.deleteById", sql, productId);
 
-            pstm.setInt(1, productId);
-
-            int rowsDeleted = pstm.executeUpdate();
-
-            if (rowsDeleted == 0) {
-                throw new RuntimeException("Product not found with id " + productId);
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error deleting product", e);
+        if (rowsDeleted == 0) {
+            throw new RuntimeException("Product not found with id " + productId);
         }
     }
 
@@ -362,174 +357,178 @@ public class ProductDaoImp implements ProductDao {
     public boolean existsByName(String productName) {
         String sql = "SELECT COUNT(*) FROM products WHERE name = ?";
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setString(1, productName);
+        return executor.queryForLong("product.existsByName", sql, productName) > 0;
+    }
 
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
+    @Override
+    public Set<String> findAllNames() {
+        Set<String> names = new HashSet<>();
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error checking product existence", e);
-        }
+        executor.stream("product.findAllNames", "SELECT name FROM products", rs -> rs.getString(1), names::add);
 
-        return false;
+        return names;
     }
 
     // ========== HELPER METHODS ==========
 
     /**
-     * Build paginated SQL query with ORDER BY and LIMIT/OFFSET
+     * One LIKE pattern per distinct word of the keyword, so a name matches when it
+     * contains every word, as in ProductNameIndex. Case and accents are left to the
+     * column collation. A blank keyword gives one '%%' pattern, matching every name;
+     * words past MAX_KEYWORD_WORDS are dropped.
      */
-    private String buildPaginatedQuery(String baseSql, PageRequest pageRequest) {
-        StringBuilder sql = new StringBuilder(baseSql);
-
-        // Add ORDER BY clause
-        if (pageRequest.getSortBy() != null && !pageRequest.getSortBy().isEmpty()) {
-            sql.append(" ORDER BY ").append(sanitizeSortField(pageRequest.getSortBy()))
-                    .append(" ").append(pageRequest.getDirection());
-        } else {
-            sql.append(" ORDER BY p.product_id ASC");  // Default sort
+    private static Object[] namePatterns(String keyword) {
+        String trimmed = keyword == null ? "" : keyword.strip();
+        if (trimmed.isEmpty()) {
+            return new Object[] {"%%"};
         }
-
-        // Add LIMIT and OFFSET
-        sql.append(" LIMIT ").append(pageRequest.getSize())
-                .append(" OFFSET ").append(pageRequest.getOffset());
-
-        return sql.toString();
+        return Arrays.stream(trimmed.split("\\s+"))
+                .distinct()
+                .limit(MAX_KEYWORD_WORDS)
+                .map(word -> "%" + word + "%")
+                .toArray();
     }
 
     /**
-     * Sanitize sort field to prevent SQL injection
+     * column LIKE ? once per pattern, joined with AND
      */
-    private String sanitizeSortField(String sortBy) {
-        return switch (sortBy.toLowerCase()) {
-            case "name", "productname" -> "p.name";
-            case "price" -> "p.price";
-            case "categoryid" -> "p.category_id";
-            case "productid", "id" -> "p.product_id";
-            default -> "p.product_id";  // Default fallback
-        };
+    private static String nameFilter(String column, int words) {
+        return String.join(" AND ", Collections.nCopies(words, column + " LIKE ?"));
     }
 
     /**
-     * Execute query without parameters
+     * Run a paginated query: filter parameters, then the keyset cursor values if any, then LIMIT/OFFSET
      */
-    private List<Product> executeQuery(String sql, PageRequest pageRequest) {
-        List<Product> products = new ArrayList<>();
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql);
-             ResultSet rs = pstm.executeQuery()) {
-
-            while (rs.next()) {
-                products.add(mapRow(rs));
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error executing query", e);
-        }
-
-        return products;
+    private List<Product> queryPage(String name, String baseSql, boolean hasWhere, PageRequest pageRequest,
+                                    Object... params) {
+        return queryPage(name, name, baseSql, hasWhere, pageRequest, params);
     }
 
     /**
-     * Execute query with one parameter (int or String)
+     * As above, for a base SQL that varies under one statement name; key identifies its shape
      */
-    private List<Product> executeQueryWithParam(String sql, Object param, PageRequest pageRequest) {
-        List<Product> products = new ArrayList<>();
+    private List<Product> queryPage(String name, String key, String baseSql, boolean hasWhere,
+                                    PageRequest pageRequest, Object... params) {
+        String sql = paginatedQuery(key, baseSql, hasWhere, pageRequest);
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        return executor.query(name, sql, this::mapRow, pageParameters(pageRequest, params));
+    }
 
-            if (param instanceof Integer) {
-                pstm.setInt(1, (Integer) param);
-            } else if (param instanceof String) {
-                pstm.setString(1, (String) param);
-            }
+    /**
+     * Run a paginated query whose rows carry a total_count window column.
+     * A page past the end has no rows to carry the total, so only then the
+     * fallback count runs.
+     */
+    private ProductSlice queryPageWithTotal(String name, String baseSql, boolean hasWhere, PageRequest pageRequest,
+                                            LongSupplier fallbackCount, Object... params) {
+        return queryPageWithTotal(name, name, baseSql, hasWhere, pageRequest, fallbackCount, params);
+    }
 
-            try (ResultSet rs = pstm.executeQuery()) {
-                while (rs.next()) {
-                    products.add(mapRow(rs));
-                }
-            }
+    /**
+     * As above, for a base SQL that varies under one statement name; key identifies its shape
+     */
+    private ProductSlice queryPageWithTotal(String name, String key, String baseSql, boolean hasWhere,
+                                            PageRequest pageRequest, LongSupplier fallbackCount, Object... params) {
+        String sql = paginatedQuery(key, baseSql, hasWhere, pageRequest);
+        long[] total = new long[1];
+
+        RowMapper<Product> mapper = rs -> {
+            total[0] = rs.getLong(TOTAL_COUNT_INDEX);
+            return mapRow(rs);
+        };
+        List<Product> products = executor.query(name, sql, mapper, pageParameters(pageRequest, params));
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error executing query", e);
+        if (products.isEmpty() && pageRequest.getOffset() > 0) {
+            total[0] = fallbackCount.getAsLong();
         }
 
-        return products;
+        return new ProductSlice(products, total[0]);
     }
 
     /**
-     * Execute query with int parameter (non-paginated)
+     * Paginated SQL for the request's sort, direction and mode, built once per
+     * combination. LIMIT and OFFSET are bound, so every page shares one statement.
      */
-    private List<Product> executeQueryWithIntParam(String sql, int param) {
-        List<Product> products = new ArrayList<>();
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+    private String paginatedQuery(String key, String baseSql, boolean hasWhere, PageRequest pageRequest) {
+        ProductSortField sortField = ProductSortField.from(pageRequest.getSortBy());
+        String direction = pageRequest.getDirection();
+        boolean keyset = pageRequest.isKeyset();
 
-            pstm.setInt(1, param);
+        return executor.template(key + "|" + sortField + "|" + direction + "|" + (keyset ? "seek" : "offset"),
+                () -> buildPaginatedQuery(baseSql, hasWhere, sortField, direction, keyset));
+    }
 
-            try (ResultSet rs = pstm.executeQuery()) {
-                while (rs.next()) {
-                    products.add(mapRow(rs));
-                }
+    /**
+     * Build paginated SQL query with ORDER BY and either LIMIT/OFFSET or a keyset seek.
+     * product_id is always the last sort column so the order is total and
+     * cursors never skip or repeat rows that share a sort key.
+     *
+     * @param hasWhere whether baseSql already has a WHERE clause
+     */
+    private String buildPaginatedQuery(String baseSql, boolean hasWhere, ProductSortField sortField,
+                                       String direction, boolean keyset) {
+        StringBuilder sql = new StringBuilder(baseSql);
+        String column = sanitizeSortField(sortField);
+
+        // Keyset seek: WHERE (sortKey, product_id) > (?, ?), or < for DESC
+        if (keyset) {
+            String comparison = "DESC".equals(direction) ? " < " : " > ";
+            sql.append(hasWhere ? " AND " : " WHERE ");
+            if (sortField == ProductSortField.PRODUCT_ID) {
+                sql.append("p.product_id").append(comparison).append("?");
+            } else {
+                sql.append("(").append(column).append(", p.product_id)").append(comparison).append("(?, ?)");
             }
+        }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error executing query", e);
+        // Add ORDER BY clause
+        sql.append(" ORDER BY ").append(column).append(" ").append(direction);
+        if (sortField != ProductSortField.PRODUCT_ID) {
+            sql.append(", p.product_id ").append(direction);
         }
 
-        return products;
+        // Add LIMIT, and OFFSET only when not seeking
+        sql.append(" LIMIT ?");
+        if (!keyset) {
+            sql.append(" OFFSET ?");
+        }
+
+        return sql.toString();
     }
 
     /**
-     * Execute query with string parameter (non-paginated)
+     * Parameters in placeholder order for a query built by buildPaginatedQuery
      */
-    private List<Product> executeQueryWithStringParam(String sql, String param) {
-        List<Product> products = new ArrayList<>();
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setString(1, param);
-
-            try (ResultSet rs = pstm.executeQuery()) {
-                while (rs.next()) {
-                    products.add(mapRow(rs));
-                }
+    private Object[] pageParameters(PageRequest pageRequest, Object... params) {
+        List<Object> values = new ArrayList<>(params.length + 3);
+        Collections.addAll(values, params);
+
+        if (pageRequest.isKeyset()) {
+            PageCursor cursor = pageRequest.getCursor();
+            if (cursor.getSortField() != ProductSortField.PRODUCT_ID) {
+                values.add(cursor.getLastKeyValue());
             }
+            values.add(cursor.getLastProductId());
+        }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error executing query", e);
+        values.add(pageRequest.getSize());
+        if (!pageRequest.isKeyset()) {
+            values.add(pageRequest.getOffset());
         }
 
-        return products;
+        return values.toArray();
     }
 
     /**
-     * Execute COUNT query
+     * Map sort field to its column; only whitelisted columns reach the SQL
      */
-    private long executeCount(String sql) {
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql);
-             ResultSet rs = pstm.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getLong(1);
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error executing count", e);
-        }
-
-        return 0;
+    private String sanitizeSortField(ProductSortField sortField) {
+        return switch (sortField) {
+            case NAME -> "p.name";
+            case PRICE -> "p.price";
+            case CATEGORY_ID -> "p.category_id";
+            case PRODUCT_ID -> "p.product_id";
+        };
     }
 
     /**
@@ -537,11 +536,12 @@ public class ProductDaoImp implements ProductDao {
      */
     private Product mapRow(ResultSet rs) throws SQLException {
         Product product = new Product();
-        product.setProductId(rs.getInt("product_id"));
-        product.setName(rs.getString("name"));
-        product.setPrice(rs.getBigDecimal("price"));
-        product.setCategoryId(rs.getInt("category_id"));
-        product.setCategoryName(rs.getString("category_name"));
+        product.setProductId(rs.getInt(1));
+        product.setName(rs.getString(2));
+        product.setPrice(rs.getBigDecimal(3));
+        product.setCategoryId(rs.getInt(4));
+        product.setVersion(rs.getInt(5));
+        product.setCategoryName(rs.getString(6));
         return product;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package bookshop.dao.imp;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import bookshop.dao.daoInterface.StockHoldDao;
+import bookshop.dao.jdbc.QueryExecutor;
+import bookshop.models.StockHold;
+
+@Repository
+public class StockHoldDaoImp implements StockHoldDao {
+
+    // Select list read by mapRow, in column index order
+    private static final String HOLD_COLUMNS = "hold_id, product_id, quantity, expires_at";
+
+    private final QueryExecutor executor;
+
+    @Autowired
+    public StockHoldDaoImp(QueryExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void save(StockHold hold) {
+        String sql = "INSERT INTO stock_holds (hold_id, product_id, quantity, expires_at) VALUES (?, ?, ?, ?)";
+
+        executor.update("stockHold.save", sql, hold.holdId(), hold.productId(), hold.quantity(), hold.expiresAt());
+    }
+
+    @Override
+    public Optional<StockHold> findById(String holdId) {
+        String sql = "SELECT " + HOLD_COLUMNS + " FROM stock_holds WHERE hold_id = ?";
+
+        return executor.queryOne("stockHold.findById", sql, this::mapRow, holdId);
+    }
+
+    @Override
+    public long streamAll(Consumer<StockHold> sink) {
+        String sql = "SELECT " + HOLD_COLUMNS + " FROM stock_holds";
+
+        return executor.stream("stockHold.streamAll", sql, this::mapRow, sink);
+    }
+
+    @Override
+    public boolean deleteById(String holdId) {
+        String sql = "DELETE FROM stock_holds WHERE hold_id = ?";
+
+        // The single DELETE decides between a commit, a release and the expirer racing for one hold
+        return executor.update("stockHold.deleteById", sql, holdId) == 1;
+    }
+
+    private StockHold mapRow(ResultSet rs) throws SQLException {
+        return new StockHold(rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getTimestamp(4));
+    }
+}
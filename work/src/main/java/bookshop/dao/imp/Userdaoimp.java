@@ -1,28 +1,27 @@
 package bookshop.dao.imp;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.Types;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-import javax.sql.DataSource;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import bookshop.dao.daoInterface.UserDao;
+import bookshop.dao.jdbc.QueryExecutor;
 import bookshop.models.User;
 @Repository
 public class Userdaoimp implements UserDao {
+
+    // Select list read by mapRow, in column index order
+    private static final String USER_COLUMNS = "id, name, email, course, age, created_at";
+
+    private final QueryExecutor executor;
+
     @Autowired
-    private DataSource dataSource;
-    public Userdaoimp(DataSource dataSource){
-        this.dataSource = dataSource;
+    public Userdaoimp(QueryExecutor executor){
+        this.executor = executor;
     }
     @Override
     public User save(User user) {
@@ -32,30 +31,8 @@ public class Userdaoimp implements UserDao {
             VALUES (?, ?, ?, ?)
             """;
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            pstm.setString(1, user.getName());
-            pstm.setString(2, user.getEmail());
-            pstm.setString(3, user.getCourse());
-            if (user.getAge() != null) {
-                pstm.setInt(4, user.getAge());
-            } else {
-                pstm.setNull(4, Types.INTEGER);
-            }
-
-            pstm.executeUpdate();
-
-            // Get generated ID
-            try (ResultSet rs = pstm.getGeneratedKeys()) {
-                if (rs.next()) {
-                    user.setId(rs.getInt(1));
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error saving user", e);
-        }
+        executor.insert("user.save", sql, user::setId,
+                user.getName(), user.getEmail(), user.getCourse(), user.getAge());
 
         return user;
     }
@@ -63,70 +40,27 @@ public class Userdaoimp implements UserDao {
     @Override
     public List<User> findAll() {
 
-        String sql = "SELECT * FROM users";
-        List<User> users = new ArrayList<>();
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql);
-             ResultSet rs = pstm.executeQuery()) {
-
-            while (rs.next()) {
-                users.add(mapRow(rs));
-            }
+        String sql = "SELECT " + USER_COLUMNS + " FROM users";
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error fetching users", e);
-        }
-
-        return users;
+        return executor.query("user.findAll", sql, this::mapRow);
     }
 
 
     @Override
     public Optional<User> findById(int id) {
 
-        String sql = "SELECT * FROM users WHERE id = ?";
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE id = ?";
 
-            pstm.setInt(1, id);
-
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapRow(rs));
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error finding user by id", e);
-        }
-
-        return Optional.empty();
+        return executor.queryOne("user.findById", sql, this::mapRow, id);
     }
 
 
     @Override
     public Optional<User> findByEmail(String email) {
 
-        String sql = "SELECT * FROM users WHERE email = ?";
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setString(1, email);
-
-            try (ResultSet rs = pstm.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapRow(rs));
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error finding user by email", e);
-        }
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE email = ?";
 
-        return Optional.empty();
+        return executor.queryOne("user.findByEmail", sql, this::mapRow, email);
     }
 
     @Override
@@ -141,27 +75,11 @@ public class Userdaoimp implements UserDao {
             WHERE id = ?
             """;
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
+        int rowsUpdated = executor.update("user.update", sql,
+                user.getName(), user.getEmail(), user.getCourse(), user.getAge(), user.getId());
 
-            pstm.setString(1, user.getName());
-            pstm.setString(2, user.getEmail());
-            pstm.setString(3, user.getCourse());
-            if (user.getAge() != null) {
-                pstm.setInt(4, user.getAge());
-            } else {
-                pstm.setNull(4, Types.INTEGER);
-            }
-            pstm.setInt(5, user.getId());
-
-            int rowsUpdated = pstm.executeUpdate();
-
-            if (rowsUpdated == 0) {
-                throw new RuntimeException("User not found with id " + user.getId());
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error updating user", e);
+        if (rowsUpdated == 0) {
+            throw new RuntimeException("User not found with id " + user.getId());
         }
 
         return user;
@@ -172,31 +90,22 @@ public class Userdaoimp implements UserDao {
 
         String sql = "DELETE FROM users WHERE id = ?";
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement pstm = connection.prepareStatement(sql)) {
-
-            pstm.setInt(1, id);
-
-            int rowsDeleted = pstm.executeUpdate();
-
-            if (rowsDeleted == 0) {
-                throw new RuntimeException("User not found with id " + id);
-            }
+        int rowsDeleted = executor.update("user.deleteById", sql, id);
 
-        } catch (SQLException e) {
-            throw new RuntimeException("Error deleting user", e);
+        if (rowsDeleted == 0) {
+            throw new RuntimeException("User not found with id " + id);
         }
     }
 
 
     private User mapRow(ResultSet rs) throws SQLException {
         User user = new User();
-        user.setId(rs.getInt("id"));
-        user.setName(rs.getString("name"));
-        user.setEmail(rs.getString("email"));
-        user.setCourse(rs.getString("course"));
-        user.setAge(rs.getInt("age"));
-        user.setCreatedAt(rs.getTimestamp("created_at"));
+        user.setId(rs.getInt(1));
+        user.setName(rs.getString(2));
+        user.setEmail(rs.getString(3));
+        user.setCourse(rs.getString(4));
+        user.setAge(rs.getInt(5));
+        user.setCreatedAt(rs.getTimestamp(6));
         return user;
     }
 
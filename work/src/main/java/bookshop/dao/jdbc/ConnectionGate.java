@@ -0,0 +1,228 @@
+package bookshop.dao.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * DataSource that admits at most a fixed number of threads to the pool at once.
+ *
+ * With virtual threads there is no longer a bounded request pool in front of the
+ * database, so thousands of requests can reach Hikari together. Its handoff queue
+ * is not fair and gives up after connection-timeout, so under a burst some callers
+ * fail while others are served repeatedly. This gate queues them on a fair semaphore
+ * instead: callers get connections in arrival order and wait up to acquire-timeout.
+ *
+ * A permit is held per thread, not per connection. A @Transactional service keeps
+ * one connection for the transaction while QueryExecutor opens another, and the
+ * second one must not wait behind threads that have no connection yet. Threads
+ * started while their parent holds a connection (FanOut subtasks) share its permit
+ * for the same reason, so maxConcurrency must leave room in the pool for every
+ * connection such a family of threads can hold at once.
+ */
+public class ConnectionGate extends DelegatingDataSource implements MeterBinder {
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutMillis;
+
+    // Permit of the current thread, shared with threads it starts while holding a connection
+    private final ThreadLocal<Holder> holders = new InheritableThreadLocal<>() {
+        @Override
+        protected Holder initialValue() {
+            return new Holder();
+        }
+
+        @Override
+        protected Holder childValue(Holder parent) {
+            return parent.isOpen() ? parent : new Holder();
+        }
+    };
+
+    public ConnectionGate(DataSource target, int maxConcurrency, long acquireTimeoutMillis) {
+        super(target);
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return open(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return open(() -> super.getConnection(username, password));
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return threads currently waiting for a permit
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bookshop.jdbc.gate.waiting", permits, Semaphore::getQueueLength)
+                .description("Threads waiting to be admitted to the connection pool")
+                .register(registry);
+        Gauge.builder("bookshop.jdbc.gate.active", permits, p -> maxConcurrency - p.availablePermits())
+                .description("Threads holding a connection pool permit")
+                .register(registry);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private Connection open(ConnectionSource source) throws SQLException {
+        Holder holder = holders.get();
+        if (holder.enter()) {
+            try {
+                acquire();
+            } catch (SQLException e) {
+                holder.exit();
+                throw e;
+            }
+            holder.granted();
+        }
+
+        Connection connection;
+        try {
+            connection = source.get();
+        } catch (SQLException | RuntimeException e) {
+            holder.exit();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class}, new GatedConnection(connection, holder));
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("No database connection within "
+                        + acquireTimeoutMillis + " ms (" + permits.getQueueLength() + " waiting)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    /**
+     * Connections open under one permit. Several threads of a fan-out may wait for the
+     * permit at once; the first grant is kept and the others are handed back.
+     */
+    private final class Holder {
+
+        private int open;
+        private boolean permit;
+
+        /**
+         * Count a connection about to be opened
+         * @return true if the caller must acquire a permit first
+         */
+        synchronized boolean enter() {
+            open++;
+            return !permit;
+        }
+
+        synchronized void granted() {
+            if (permit) {
+                permits.release();
+            } else {
+                permit = true;
+            }
+        }
+
+        synchronized void exit() {
+            if (--open == 0 && permit) {
+                permit = false;
+                permits.release();
+            }
+        }
+
+        synchronized boolean isOpen() {
+            return open > 0;
+        }
+    }
+
+    /**
+     * Returns the permit when the last connection under it is closed
+     */
+    private final class GatedConnection implements InvocationHandler {
+
+        private final Connection target;
+        private final Holder holder;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        GatedConnection(Connection target, Holder holder) {
+            this.target = target;
+            this.holder = holder;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (closed.compareAndSet(false, true)) {
+                        try {
+                            target.close();
+                        } finally {
+                            holder.exit();
+                        }
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed.get() || target.isClosed();
+                }
+                case "getTargetConnection" -> {
+                    return target;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                }
+            }
+        }
+    }
+}
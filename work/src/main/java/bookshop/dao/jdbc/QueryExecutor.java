@@ -0,0 +1,391 @@
+package bookshop.dao.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Single JDBC execution path for all DAOs.
+ *
+ * Every statement is identified by a short name (e.g. "product.findById") used
+ * for its metrics and error message: a bookshop.jdbc.statement timer tagged by
+ * outcome, and a bookshop.jdbc.rows summary of rows read or affected.
+ * Generated SQL is cached per template key so the text stays byte-identical
+ * and the driver's prepared statement cache can reuse server-side statements.
+ */
+@Component
+public class QueryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryExecutor.class);
+
+    // Largest IN list sent in one statement
+    static final int IN_CHUNK_SIZE = 500;
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, String> templates = new ConcurrentHashMap<>();
+    private final Map<String, StatementMetrics> metrics = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QueryExecutor(DataSource dataSource, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // ========== QUERIES ==========
+
+    /**
+     * Run a query and map every row
+     */
+    public <T> List<T> query(String name, String sql, RowMapper<T> mapper, Object... params) {
+        List<T> rows = new ArrayList<>();
+        execute(name, sql, false, params, pstm -> {
+            try (ResultSet rs = pstm.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+            }
+            return rows.size();
+        });
+        return rows;
+    }
+
+    /**
+     * Run a query and map the first row, if any
+     */
+    public <T> Optional<T> queryOne(String name, String sql, RowMapper<T> mapper, Object... params) {
+        List<T> row = new ArrayList<>(1);
+        execute(name, sql, false, params, pstm -> {
+            try (ResultSet rs = pstm.executeQuery()) {
+                if (rs.next()) {
+                    row.add(mapper.map(rs));
+                }
+            }
+            return row.size();
+        });
+        return row.isEmpty() ? Optional.empty() : Optional.of(row.get(0));
+    }
+
+    /**
+     * Run a single-value query such as COUNT(*); 0 when it returns no row
+     */
+    public long queryForLong(String name, String sql, Object... params) {
+        return queryOne(name, sql, rs -> rs.getLong(1), params).orElse(0L);
+    }
+
+    /**
+     * Stream a large result row by row without buffering it in the driver.
+     * The connection stays open until the sink has consumed the last row.
+     *
+     * @return number of rows passed to the sink
+     */
+    public <T> long stream(String name, String sql, RowMapper<T> mapper, Consumer<? super T> sink,
+                           Object... params) {
+        long[] rows = new long[1];
+        execute(name, sql, false, params, pstm -> {
+            // Connector/J streams rows one by one instead of buffering the whole result
+            pstm.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = pstm.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(mapper.map(rs));
+                    rows[0]++;
+                }
+            }
+            return rows[0];
+        });
+        return rows[0];
+    }
+
+    /**
+     * Run a query ending in an IN list for any number of IDs.
+     * IDs are deduplicated and sent in chunks of at most IN_CHUNK_SIZE; each chunk is
+     * padded to the next power of two by repeating its last ID, so a handful of
+     * statement shapes cover every batch size.
+     *
+     * @param sqlPrefix the SQL up to and including "IN", e.g. "SELECT ... WHERE id IN"
+     * @return mapped rows of every chunk, in no particular order
+     */
+    public <T> List<T> queryIn(String name, String sqlPrefix, RowMapper<T> mapper, Collection<Integer> ids) {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<T> rows = new ArrayList<>(distinct.size());
+
+        for (int from = 0; from < distinct.size(); from += IN_CHUNK_SIZE) {
+            List<Integer> chunk = distinct.subList(from, Math.min(from + IN_CHUNK_SIZE, distinct.size()));
+
+            int width = Math.max(chunk.size(), Math.min(Integer.highestOneBit(chunk.size() - 1) << 1, IN_CHUNK_SIZE));
+            String sql = template(name + "|" + width,
+                    () -> sqlPrefix + " (" + "?,".repeat(width - 1) + "?)");
+
+            Object[] params = new Object[width];
+            for (int i = 0; i < width; i++) {
+                params[i] = chunk.get(Math.min(i, chunk.size() - 1));
+            }
+
+            rows.addAll(query(name, sql, mapper, params));
+        }
+
+        return rows;
+    }
+
+    // ========== UPDATES ==========
+
+    /**
+     * Run an UPDATE or DELETE
+     *
+     * @return number of affected rows
+     */
+    public int update(String name, String sql, Object... params) {
+        int[] affected = new int[1];
+        execute(name, sql, false, params, pstm -> {
+            affected[0] = pstm.executeUpdate();
+            return affected[0];
+        });
+        return affected[0];
+    }
+
+    /**
+     * Run a single-row UPDATE whose SET clause wraps the new value in LAST_INSERT_ID(expr),
+     * e.g. "SET quantity = LAST_INSERT_ID(quantity - ?)", and return that value.
+     * MySQL reports it as the statement's generated key on the same connection, so the
+     * caller learns the exact value it wrote without a second, racy read.
+     *
+     * @return the value written, or empty if no row matched
+     */
+    public OptionalLong updateReturning(String name, String sql, Object... params) {
+        long[] result = new long[2];   // affected rows, value
+        execute(name, sql, true, params, pstm -> {
+            result[0] = pstm.executeUpdate();
+            try (ResultSet rs = pstm.getGeneratedKeys()) {
+                // Connector/J reports no key when the value is 0
+                result[1] = rs.next() ? rs.getLong(1) : 0;
+            }
+            return result[0];
+        });
+        return result[0] == 0 ? OptionalLong.empty() : OptionalLong.of(result[1]);
+    }
+
+    /**
+     * Run an INSERT and hand each generated key to keySink, in VALUES order
+     *
+     * @return number of inserted rows
+     */
+    public int insert(String name, String sql, IntConsumer keySink, Object... params) {
+        int[] inserted = new int[1];
+        execute(name, sql, true, params, pstm -> {
+            inserted[0] = pstm.executeUpdate();
+            try (ResultSet rs = pstm.getGeneratedKeys()) {
+                while (rs.next()) {
+                    keySink.accept(rs.getInt(1));
+                }
+            }
+            return inserted[0];
+        });
+        return inserted[0];
+    }
+
+    // ========== TRANSACTIONS ==========
+
+    /**
+     * Run several statements on one connection as a single transaction.
+     * It commits when work returns and rolls back when it throws; statements run
+     * through the Transaction handle get the same metrics as any other.
+     *
+     * @param name identifies the transaction in the error message
+     * @return what work returned
+     */
+    public <T> T transaction(String name, TransactionWork<T> work) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(new Transaction(connection));
+                connection.commit();
+                return result;
+            } catch (RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.warn("Transaction {} failed: {}", name, e.getMessage());
+            throw new RuntimeException("Error executing " + name, e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+        T run(Transaction transaction);
+    }
+
+    /**
+     * Statements of one transaction; only valid inside the work passed to transaction()
+     */
+    public final class Transaction {
+
+        private final Connection connection;
+
+        private Transaction(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Run a query and map every row
+         */
+        public <T> List<T> query(String name, String sql, RowMapper<T> mapper, Object... params) {
+            List<T> rows = new ArrayList<>();
+            execute(connection, name, sql, false, params, pstm -> {
+                try (ResultSet rs = pstm.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapper.map(rs));
+                    }
+                }
+                return rows.size();
+            });
+            return rows;
+        }
+
+        /**
+         * Run an UPDATE or DELETE
+         *
+         * @return number of affected rows
+         */
+        public int update(String name, String sql, Object... params) {
+            int[] affected = new int[1];
+            execute(connection, name, sql, false, params, pstm -> {
+                affected[0] = pstm.executeUpdate();
+                return affected[0];
+            });
+            return affected[0];
+        }
+    }
+
+    // ========== TEMPLATES ==========
+
+    /**
+     * Return the SQL cached under key, building it on first use.
+     * The key must capture everything the builder varies on (query, sort, direction, ...).
+     */
+    public String template(String key, Supplier<String> builder) {
+        String sql = templates.get(key);
+        return sql != null ? sql : templates.computeIfAbsent(key, k -> builder.get());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    @FunctionalInterface
+    private interface StatementWork {
+        long run(PreparedStatement pstm) throws SQLException;
+    }
+
+    private void execute(String name, String sql, boolean returnKeys, Object[] params, StatementWork work) {
+        execute(null, name, sql, returnKeys, params, work);
+    }
+
+    /**
+     * @param shared the connection of an open transaction, or null to borrow one for this statement
+     */
+    private void execute(Connection shared, String name, String sql, boolean returnKeys, Object[] params,
+                         StatementWork work) {
+        StatementMetrics statementMetrics = metrics.computeIfAbsent(name, this::register);
+        long start = System.nanoTime();
+
+        try (Connection borrowed = shared == null ? dataSource.getConnection() : null;
+             PreparedStatement pstm = prepare(shared != null ? shared : borrowed, sql, returnKeys)) {
+
+            for (int i = 0; i < params.length; i++) {
+                bindParameter(pstm, i + 1, params[i]);
+            }
+
+            long rows = work.run(pstm);
+            statementMetrics.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            statementMetrics.rows.record(rows);
+
+        } catch (SQLException | RuntimeException e) {
+            statementMetrics.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (e instanceof RuntimeException runtime) {
+                // Thrown by a mapper or sink, e.g. a failed export write
+                throw runtime;
+            }
+            logger.warn("Statement {} failed: {}", name, e.getMessage());
+            throw new RuntimeException("Error executing " + name, e);
+        }
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql, boolean returnKeys) throws SQLException {
+        return returnKeys
+                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    /**
+     * Bind one parameter (int, long, String, BigDecimal or null)
+     */
+    private void bindParameter(PreparedStatement pstm, int index, Object param) throws SQLException {
+        if (param == null) {
+            pstm.setNull(index, Types.NULL);
+        } else if (param instanceof Integer value) {
+            pstm.setInt(index, value);
+        } else if (param instanceof Long value) {
+            pstm.setLong(index, value);
+        } else if (param instanceof String value) {
+            pstm.setString(index, value);
+        } else if (param instanceof BigDecimal value) {
+            pstm.setBigDecimal(index, value);
+        } else {
+            pstm.setObject(index, param);
+        }
+    }
+
+    private StatementMetrics register(String name) {
+        return new StatementMetrics(
+                timer(name, "success"),
+                timer(name, "error"),
+                DistributionSummary.builder("bookshop.jdbc.rows")
+                        .description("Rows read or affected per statement")
+                        .tag("statement", name)
+                        .register(meterRegistry));
+    }
+
+    private Timer timer(String name, String outcome) {
+        return Timer.builder("bookshop.jdbc.statement")
+                .description("JDBC statement execution time")
+                .tag("statement", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record StatementMetrics(Timer success, Timer error, DistributionSummary rows) {
+    }
+}
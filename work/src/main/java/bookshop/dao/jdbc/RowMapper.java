@@ -0,0 +1,14 @@
+package bookshop.dao.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current ResultSet row to an object.
+ * Mappers read columns by index, in the order of the statement's select list.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,99 @@
+package bookshop.dto.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import bookshop.models.Product;
+
+/**
+ * Opaque keyset pagination cursor.
+ *
+ * Encodes the sort field, direction, and the (sort key, product_id) of the last
+ * row returned, so the next page can seek past it with
+ * WHERE (sortKey, product_id) > (?, ?) instead of scanning an OFFSET.
+ */
+public class PageCursor {
+
+    private static final String VERSION = "v1";
+
+    private final ProductSortField sortField;
+    private final String direction;
+    private final String lastKey;
+    private final int lastProductId;
+
+    public PageCursor(ProductSortField sortField, String direction, String lastKey, int lastProductId) {
+        this.sortField = sortField;
+        this.direction = direction;
+        this.lastKey = lastKey;
+        this.lastProductId = lastProductId;
+    }
+
+    /**
+     * Cursor pointing just after the given product for the request's sort order
+     */
+    public static PageCursor after(Product last, PageRequest pageRequest) {
+        ProductSortField sortField = ProductSortField.from(pageRequest.getSortBy());
+        return new PageCursor(sortField, pageRequest.getDirection(), sortField.keyOf(last), last.getProductId());
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The key goes last because product names may contain the separator
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            ProductSortField sortField = ProductSortField.valueOf(parts[1]);
+            String direction = "DESC".equals(parts[2]) ? "DESC" : "ASC";
+            int lastProductId = Integer.parseInt(parts[3]);
+            sortField.parseKey(parts[4]);  // reject keys that do not match the column type
+            return new PageCursor(sortField, direction, parts[4], lastProductId);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = VERSION + "|" + sortField.name() + "|" + direction + "|" + lastProductId + "|" + lastKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Getters
+    public ProductSortField getSortField() {
+        return sortField;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public Object getLastKeyValue() {
+        return sortField.parseKey(lastKey);
+    }
+
+    public int getLastProductId() {
+        return lastProductId;
+    }
+
+    /**
+     * The last row of the previous page, carrying only its sort key and ID
+     */
+    public Product toProbe() {
+        return sortField.probe(getLastKeyValue(), lastProductId);
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{" +
+                "sortField=" + sortField +
+                ", direction='" + direction + '\'' +
+                ", lastKey='" + lastKey + '\'' +
+                ", lastProductId=" + lastProductId +
+                '}';
+    }
+}
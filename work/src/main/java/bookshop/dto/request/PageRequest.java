@@ -10,6 +10,9 @@ public class PageRequest {
     private int size;              // Items per page
     private String sortBy;         // Field to sort by
     private String direction;      // ASC or DESC
+    private PageCursor cursor;     // Keyset cursor (null = OFFSET paging)
+    private ReadMode readMode = ReadMode.DATABASE;  // Database or in-memory snapshot
+    private SearchMatch searchMatch = SearchMatch.AUTO;  // Keyword matching of name searches
 
     // Default pagination values
     private static final int DEFAULT_PAGE = 0;
@@ -37,6 +40,20 @@ public class PageRequest {
         return new PageRequest(page, size, sortBy, direction);
     }
 
+    /**
+     * Create a page request that continues from an opaque "next" token.
+     * A null or blank cursor gives a normal OFFSET page request.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order
+     */
+    public static PageRequest of(int page, int size, String sortBy, String direction, String cursor) {
+        PageRequest pageRequest = new PageRequest(page, size, sortBy, direction);
+        if (cursor != null && !cursor.isBlank()) {
+            pageRequest.setCursor(PageCursor.decode(cursor));
+        }
+        return pageRequest;
+    }
+
     public static PageRequest defaultPage() {
         return new PageRequest(DEFAULT_PAGE, DEFAULT_SIZE, null, "ASC");
     }
@@ -46,6 +63,11 @@ public class PageRequest {
         return page * size;
     }
 
+    // Keyset (seek) mode: the DAO seeks past the cursor instead of using OFFSET
+    public boolean isKeyset() {
+        return cursor != null;
+    }
+
     // Getters and Setters
     public int getPage() {
         return page;
@@ -79,6 +101,34 @@ public class PageRequest {
         this.direction = (direction != null && direction.equalsIgnoreCase("DESC")) ? "DESC" : "ASC";
     }
 
+    public PageCursor getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(PageCursor cursor) {
+        if (cursor != null && (cursor.getSortField() != ProductSortField.from(sortBy)
+                || !cursor.getDirection().equals(direction))) {
+            throw new IllegalArgumentException("Page cursor does not match sortBy/direction of the request");
+        }
+        this.cursor = cursor;
+    }
+
+    public ReadMode getReadMode() {
+        return readMode;
+    }
+
+    public void setReadMode(ReadMode readMode) {
+        this.readMode = readMode != null ? readMode : ReadMode.DATABASE;
+    }
+
+    public SearchMatch getSearchMatch() {
+        return searchMatch;
+    }
+
+    public void setSearchMatch(SearchMatch searchMatch) {
+        this.searchMatch = searchMatch != null ? searchMatch : SearchMatch.AUTO;
+    }
+
     @Override
     public String toString() {
         return "PageRequest{" +
@@ -86,6 +136,9 @@ public class PageRequest {
                 ", size=" + size +
                 ", sortBy='" + sortBy + '\'' +
                 ", direction='" + direction + '\'' +
+                ", cursor=" + cursor +
+                ", readMode=" + readMode +
+                ", searchMatch=" + searchMatch +
                 '}';
     }
 }
\ No newline at end of file
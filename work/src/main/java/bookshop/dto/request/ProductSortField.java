@@ -0,0 +1,98 @@
+package bookshop.dto.request;
+
+import java.math.BigDecimal;
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Locale;
+
+import bookshop.models.Product;
+
+/**
+ * Sort fields allowed for product list queries.
+ * Keeps the accepted sortBy aliases and the sort key of a product in one place
+ * so offset pages and keyset cursors always agree.
+ */
+public enum ProductSortField {
+
+    NAME,
+    PRICE,
+    CATEGORY_ID,
+    PRODUCT_ID;
+
+    // Root-locale collation at primary strength, the nearest to the name column's
+    // utf8mb4_0900_ai_ci: case and accents are ignored, letters sort by the Unicode
+    // collation rather than by code point. Collators lock on compare, so one per thread
+    private static final ThreadLocal<Collator> NAME_COLLATOR = ThreadLocal.withInitial(() -> {
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        return collator;
+    });
+
+    /**
+     * Resolve a sortBy request parameter, falling back to PRODUCT_ID
+     */
+    public static ProductSortField from(String sortBy) {
+        if (sortBy == null || sortBy.isEmpty()) {
+            return PRODUCT_ID;
+        }
+        return switch (sortBy.toLowerCase()) {
+            case "name", "productname" -> NAME;
+            case "price" -> PRICE;
+            case "categoryid" -> CATEGORY_ID;
+            default -> PRODUCT_ID;
+        };
+    }
+
+    /**
+     * Sort key of the given product, as stored in a page cursor
+     */
+    public String keyOf(Product product) {
+        return switch (this) {
+            case NAME -> product.getName();
+            case PRICE -> product.getPrice().toPlainString();
+            case CATEGORY_ID -> String.valueOf(product.getCategoryId());
+            case PRODUCT_ID -> String.valueOf(product.getProductId());
+        };
+    }
+
+    /**
+     * In-memory equivalent of ORDER BY column direction, product_id direction.
+     * Names compare case- and accent-insensitively like the database collation.
+     */
+    public Comparator<Product> comparator(String direction) {
+        Comparator<Product> byKey = switch (this) {
+            case NAME -> Comparator.comparing(Product::getName, (a, b) -> NAME_COLLATOR.get().compare(a, b));
+            case PRICE -> Comparator.comparing(Product::getPrice);
+            case CATEGORY_ID -> Comparator.comparingInt(Product::getCategoryId);
+            case PRODUCT_ID -> (a, b) -> 0;
+        };
+        Comparator<Product> order = byKey.thenComparingInt(Product::getProductId);
+        return "DESC".equals(direction) ? order.reversed() : order;
+    }
+
+    /**
+     * Product carrying only the given sort key and ID, for comparing against cursors
+     */
+    public Product probe(Object key, int productId) {
+        Product probe = new Product();
+        probe.setProductId(productId);
+        switch (this) {
+            case NAME -> probe.setName((String) key);
+            case PRICE -> probe.setPrice((BigDecimal) key);
+            case CATEGORY_ID -> probe.setCategoryId((Integer) key);
+            case PRODUCT_ID -> { }
+        }
+        return probe;
+    }
+
+    /**
+     * Convert a cursor sort key back to the JDBC parameter type of the column
+     */
+    public Object parseKey(String key) {
+        return switch (this) {
+            case NAME -> key;
+            case PRICE -> new BigDecimal(key);
+            case CATEGORY_ID, PRODUCT_ID -> Integer.valueOf(key);
+        };
+    }
+}
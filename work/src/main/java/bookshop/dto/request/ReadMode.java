@@ -0,0 +1,31 @@
+package bookshop.dto.request;
+
+import java.util.Locale;
+
+/**
+ * Where a read is answered from.
+ * DATABASE reads go through the DAOs (with index shortcuts); SNAPSHOT reads are
+ * answered from the in-memory catalog snapshot and never touch the database
+ * once it has been built. Snapshot reads see every write made through this
+ * instance, but not writes made directly against the database until the next reload.
+ */
+public enum ReadMode {
+
+    DATABASE,
+    SNAPSHOT;
+
+    /**
+     * @param mode "db" or "snapshot" (case-insensitive); null means DATABASE
+     * @throws IllegalArgumentException for any other value
+     */
+    public static ReadMode from(String mode) {
+        if (mode == null || mode.isBlank()) {
+            return DATABASE;
+        }
+        return switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "db", "database" -> DATABASE;
+            case "snapshot" -> SNAPSHOT;
+            default -> throw new IllegalArgumentException("Unknown read mode: " + mode + " (expected db or snapshot)");
+        };
+    }
+}
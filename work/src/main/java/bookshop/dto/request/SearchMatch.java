@@ -0,0 +1,33 @@
+package bookshop.dto.request;
+
+import java.util.Locale;
+
+/**
+ * How a name search matches the keyword.
+ * EXACT matches names containing every word; FUZZY also accepts words within a
+ * small edit distance (typos) and ranks by similarity; AUTO runs the exact
+ * search and falls back to fuzzy only when it finds nothing.
+ */
+public enum SearchMatch {
+
+    AUTO,
+    EXACT,
+    FUZZY;
+
+    /**
+     * @param match "auto", "exact" or "fuzzy" (case-insensitive); null means AUTO
+     * @throws IllegalArgumentException for any other value
+     */
+    public static SearchMatch from(String match) {
+        if (match == null || match.isBlank()) {
+            return AUTO;
+        }
+        return switch (match.trim().toLowerCase(Locale.ROOT)) {
+            case "auto" -> AUTO;
+            case "exact" -> EXACT;
+            case "fuzzy" -> FUZZY;
+            default -> throw new IllegalArgumentException(
+                    "Unknown search match: " + match + " (expected auto, exact or fuzzy)");
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package bookshop.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO for holding stock of a product for a limited time (e.g. while a cart is paid)
+ */
+public class StockHoldDto {
+
+    @NotNull(message = "Product ID is required")
+    @Min(value = 1, message = "Product ID must be positive")
+    private Integer productId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    @Min(value = 1, message = "TTL must be at least 1 second")
+    private Integer ttlSeconds;     // Optional; the configured default when absent
+
+    // Constructors
+    public StockHoldDto() {
+    }
+
+    public StockHoldDto(Integer productId, Integer quantity, Integer ttlSeconds) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    // Getters and Setters
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Integer getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Integer ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
@@ -0,0 +1,74 @@
+package bookshop.dto.request;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO for reserving stock of several products at once (a checkout)
+ */
+public class StockReservationDto {
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 100, message = "At most 100 items can be reserved at once")
+    private List<@Valid @NotNull Item> items;
+
+    // Constructors
+    public StockReservationDto() {
+    }
+
+    public StockReservationDto(List<Item> items) {
+        this.items = items;
+    }
+
+    // Getters and Setters
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    /**
+     * One line of the reservation; lines for the same product are added up
+     */
+    public static class Item {
+
+        @NotNull(message = "Product ID is required")
+        @Min(value = 1, message = "Product ID must be positive")
+        private Integer productId;
+
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+
+        public Item() {
+        }
+
+        public Item(Integer productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+
+        public Integer getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Integer productId) {
+            this.productId = productId;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package bookshop.dto.response;
+
+/**
+ * Outcome of rebuilding inventory quantities from the movement ledger
+ */
+public class LedgerReplayResult {
+
+    private final boolean dryRun;
+    private long checked;       // Inventory rows compared with the ledger
+    private long drifted;       // Rows whose quantity differed from the ledger
+    private long corrected;     // Rows rewritten; 0 on a dry run
+
+    public LedgerReplayResult(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public void recordChecked(boolean drift) {
+        checked++;
+        if (drift) {
+            drifted++;
+        }
+    }
+
+    public void recordCorrected(long rows) {
+        corrected += rows;
+    }
+
+    // Getters
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public long getChecked() {
+        return checked;
+    }
+
+    public long getDrifted() {
+        return drifted;
+    }
+
+    public long getCorrected() {
+        return corrected;
+    }
+}
@@ -17,6 +17,8 @@ public class PageResponse<T> {
     private boolean last;              // Is this the last page?
     private boolean empty;             // Is the content empty?
     private int numberOfElements;      // Number of items in current page
+    private String next;               // Opaque keyset cursor for the next page (null if none)
+    private boolean fuzzy;             // Are these approximate (typo-tolerant) search matches?
 
     // Constructor
     public PageResponse(List<T> content, int page, int size, long totalElements) {
@@ -104,6 +106,22 @@ public class PageResponse<T> {
         this.numberOfElements = numberOfElements;
     }
 
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    public boolean isFuzzy() {
+        return fuzzy;
+    }
+
+    public void setFuzzy(boolean fuzzy) {
+        this.fuzzy = fuzzy;
+    }
+
     public boolean hasNext() {
         return !last;
     }
@@ -0,0 +1,37 @@
+package bookshop.dto.response;
+
+import java.util.List;
+
+import bookshop.models.Product;
+
+/**
+ * Result of a multi-get by product IDs
+ */
+public class ProductBatchResponse {
+
+    private List<Product> products;     // Found products, in request order
+    private List<Integer> missingIds;   // Requested IDs with no product, in request order
+
+    // Constructor
+    public ProductBatchResponse(List<Product> products, List<Integer> missingIds) {
+        this.products = products;
+        this.missingIds = missingIds;
+    }
+
+    // Getters and Setters
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<Product> products) {
+        this.products = products;
+    }
+
+    public List<Integer> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Integer> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
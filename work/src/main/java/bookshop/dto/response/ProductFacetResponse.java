@@ -0,0 +1,105 @@
+package bookshop.dto.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import bookshop.models.Product;
+
+/**
+ * Faceted search result: one page of matches plus sidebar facets
+ */
+public class ProductFacetResponse {
+
+    private PageResponse<Product> page;           // Products matching every filter
+    private List<CategoryFacet> categories;       // Matches per category, ignoring the category filter
+    private List<PriceBucket> priceHistogram;     // Matches per price bucket, ignoring the price filter
+
+    // Constructor
+    public ProductFacetResponse(PageResponse<Product> page, List<CategoryFacet> categories,
+                                List<PriceBucket> priceHistogram) {
+        this.page = page;
+        this.categories = categories;
+        this.priceHistogram = priceHistogram;
+    }
+
+    // Getters and Setters
+    public PageResponse<Product> getPage() {
+        return page;
+    }
+
+    public void setPage(PageResponse<Product> page) {
+        this.page = page;
+    }
+
+    public List<CategoryFacet> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<CategoryFacet> categories) {
+        this.categories = categories;
+    }
+
+    public List<PriceBucket> getPriceHistogram() {
+        return priceHistogram;
+    }
+
+    public void setPriceHistogram(List<PriceBucket> priceHistogram) {
+        this.priceHistogram = priceHistogram;
+    }
+
+    /**
+     * Number of matching products in one category
+     */
+    public static class CategoryFacet {
+
+        private final int categoryId;
+        private final String categoryName;
+        private final long count;
+
+        public CategoryFacet(int categoryId, String categoryName, long count) {
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.count = count;
+        }
+
+        public int getCategoryId() {
+            return categoryId;
+        }
+
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Number of matching products priced in [from, to)
+     */
+    public static class PriceBucket {
+
+        private final BigDecimal from;
+        private final BigDecimal to;
+        private final long count;
+
+        public PriceBucket(BigDecimal from, BigDecimal to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public BigDecimal getFrom() {
+            return from;
+        }
+
+        public BigDecimal getTo() {
+            return to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
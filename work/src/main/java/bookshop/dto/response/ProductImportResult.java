@@ -0,0 +1,85 @@
+package bookshop.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import
+ */
+public class ProductImportResult {
+
+    // Failures kept in the response; later ones are only counted
+    private static final int MAX_REPORTED_FAILURES = 1000;
+
+    private long processed;                                 // Records read from the body
+    private long imported;                                  // Rows inserted
+    private long failed;                                    // Rows rejected or not inserted
+    private final List<RowFailure> failures = new ArrayList<>();
+    private boolean failuresTruncated;                      // True when more failures occurred than are listed
+
+    public void recordProcessed() {
+        processed++;
+    }
+
+    public void recordImported(long rows) {
+        imported += rows;
+    }
+
+    public void recordFailure(long line, String name, String reason) {
+        failed++;
+        if (failures.size() < MAX_REPORTED_FAILURES) {
+            failures.add(new RowFailure(line, name, reason));
+        } else {
+            failuresTruncated = true;
+        }
+    }
+
+    // Getters
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<RowFailure> getFailures() {
+        return failures;
+    }
+
+    public boolean isFailuresTruncated() {
+        return failuresTruncated;
+    }
+
+    /**
+     * A row that was not imported and why
+     */
+    public static class RowFailure {
+
+        private final long line;
+        private final String name;
+        private final String reason;
+
+        public RowFailure(long line, String name, String reason) {
+            this.line = line;
+            this.name = name;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
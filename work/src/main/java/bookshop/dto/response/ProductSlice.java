@@ -0,0 +1,28 @@
+package bookshop.dto.response;
+
+import java.util.List;
+
+import bookshop.models.Product;
+
+/**
+ * One page of products together with the exact total number of matches,
+ * produced by a single DAO statement or an in-memory index
+ */
+public class ProductSlice {
+
+    private final List<Product> content;
+    private final long totalElements;
+
+    public ProductSlice(List<Product> content, long totalElements) {
+        this.content = content;
+        this.totalElements = totalElements;
+    }
+
+    public List<Product> getContent() {
+        return content;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+}
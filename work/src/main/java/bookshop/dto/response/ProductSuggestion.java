@@ -0,0 +1,84 @@
+package bookshop.dto.response;
+
+import java.math.BigDecimal;
+
+import bookshop.models.Product;
+
+/**
+ * One autocomplete completion: enough of the product to render a dropdown entry
+ */
+public class ProductSuggestion {
+
+    private int productId;
+    private String name;
+    private BigDecimal price;
+    private String categoryName;
+    private long popularity;      // Number of carts holding the product when last refreshed
+
+    // Constructors
+    public ProductSuggestion() {
+    }
+
+    public ProductSuggestion(int productId, String name, BigDecimal price, String categoryName, long popularity) {
+        this.productId = productId;
+        this.name = name;
+        this.price = price;
+        this.categoryName = categoryName;
+        this.popularity = popularity;
+    }
+
+    public static ProductSuggestion of(Product product, long popularity) {
+        return new ProductSuggestion(product.getProductId(), product.getName(), product.getPrice(),
+                product.getCategoryName(), popularity);
+    }
+
+    // Getters and Setters
+    public int getProductId() {
+        return productId;
+    }
+
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public long getPopularity() {
+        return popularity;
+    }
+
+    public void setPopularity(long popularity) {
+        this.popularity = popularity;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSuggestion{" +
+                "productId=" + productId +
+                ", name='" + name + '\'' +
+                ", popularity=" + popularity +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package bookshop.dto.response;
+
+import java.sql.Timestamp;
+
+/**
+ * A stock hold: units of a product set aside until expiresAt unless committed or released
+ */
+public class StockHoldResponseDto {
+
+    private String holdId;
+    private int productId;
+    private int quantity;
+    private Timestamp expiresAt;
+
+    // Constructor
+    public StockHoldResponseDto(String holdId, int productId, int quantity, Timestamp expiresAt) {
+        this.holdId = holdId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(String holdId) {
+        this.holdId = holdId;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public Timestamp getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Timestamp expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,71 @@
+package bookshop.dto.response;
+
+import java.util.List;
+
+/**
+ * Outcome of a multi-line stock reservation: every line reserved, or none
+ */
+public class StockReservationResponseDto {
+
+    private boolean reserved;
+    private List<Line> lines;       // One per product, in product ID order
+
+    // Constructor
+    public StockReservationResponseDto(boolean reserved, List<Line> lines) {
+        this.reserved = reserved;
+        this.lines = lines;
+    }
+
+    // Getters and Setters
+    public boolean isReserved() {
+        return reserved;
+    }
+
+    public void setReserved(boolean reserved) {
+        this.reserved = reserved;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<Line> lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * A product of the reservation. quantityAvailable is the stock left after a
+     * reservation, or the stock found when it was refused; shortage is how many
+     * units were missing for this line.
+     */
+    public static class Line {
+
+        private final int productId;
+        private final int requestedQuantity;
+        private final int quantityAvailable;
+        private final int shortage;
+
+        public Line(int productId, int requestedQuantity, int quantityAvailable, int shortage) {
+            this.productId = productId;
+            this.requestedQuantity = requestedQuantity;
+            this.quantityAvailable = quantityAvailable;
+            this.shortage = shortage;
+        }
+
+        public int getProductId() {
+            return productId;
+        }
+
+        public int getRequestedQuantity() {
+            return requestedQuantity;
+        }
+
+        public int getQuantityAvailable() {
+            return quantityAvailable;
+        }
+
+        public int getShortage() {
+            return shortage;
+        }
+    }
+}
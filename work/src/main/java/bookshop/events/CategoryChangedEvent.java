@@ -0,0 +1,60 @@
+package bookshop.events;
+
+/**
+ * Application event published by CategoryService after a category is created, renamed
+ * or deleted. Product views carry the category name, and deleting a category cascades
+ * to its products, so product caches and indexes listen to it as well; a new category
+ * has no products yet, so they ignore CREATED.
+ */
+public class CategoryChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final int categoryId;
+
+    private CategoryChangedEvent(Type type, int categoryId) {
+        this.type = type;
+        this.categoryId = categoryId;
+    }
+
+    public static CategoryChangedEvent created(int categoryId) {
+        return new CategoryChangedEvent(Type.CREATED, categoryId);
+    }
+
+    public static CategoryChangedEvent updated(int categoryId) {
+        return new CategoryChangedEvent(Type.UPDATED, categoryId);
+    }
+
+    public static CategoryChangedEvent deleted(int categoryId) {
+        return new CategoryChangedEvent(Type.DELETED, categoryId);
+    }
+
+    // Getters
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return true if products may have changed (renamed category or cascading delete)
+     */
+    public boolean affectsProducts() {
+        return type != Type.CREATED;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    @Override
+    public String toString() {
+        return "CategoryChangedEvent{" +
+                "type=" + type +
+                ", categoryId=" + categoryId +
+                '}';
+    }
+}
@@ -0,0 +1,59 @@
+package bookshop.events;
+
+import bookshop.models.Product;
+
+/**
+ * Application event published by ProductService after a product write.
+ * In-memory indexes listen to it to stay in step with the products table.
+ */
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final int productId;
+    private final Product product;   // null for DELETED
+
+    private ProductChangedEvent(Type type, int productId, Product product) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+    }
+
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(Type.CREATED, product.getProductId(), product);
+    }
+
+    public static ProductChangedEvent updated(Product product) {
+        return new ProductChangedEvent(Type.UPDATED, product.getProductId(), product);
+    }
+
+    public static ProductChangedEvent deleted(int productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null);
+    }
+
+    // Getters
+    public Type getType() {
+        return type;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangedEvent{" +
+                "type=" + type +
+                ", productId=" + productId +
+                '}';
+    }
+}
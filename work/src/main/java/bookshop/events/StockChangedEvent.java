@@ -0,0 +1,45 @@
+package bookshop.events;
+
+/**
+ * Application event published by InventoryService after a stock level changes.
+ * The in-memory catalog snapshot listens to it to keep stock levels current.
+ */
+public class StockChangedEvent {
+
+    private final int productId;
+    private final Integer quantity;   // null when the inventory row was deleted
+
+    private StockChangedEvent(int productId, Integer quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public static StockChangedEvent updated(int productId, int quantity) {
+        return new StockChangedEvent(productId, quantity);
+    }
+
+    public static StockChangedEvent deleted(int productId) {
+        return new StockChangedEvent(productId, null);
+    }
+
+    public boolean isDeleted() {
+        return quantity == null;
+    }
+
+    // Getters
+    public int getProductId() {
+        return productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "StockChangedEvent{" +
+                "productId=" + productId +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
@@ -1,10 +1,14 @@
 package bookshop.exceptions;
 
+import java.util.List;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import bookshop.dto.response.StockReservationResponseDto;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -13,6 +17,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(StockHoldNotFoundException.class)
+    public ResponseEntity<String> handleStockHoldNotFoundException(StockHoldNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(StockReservationException.class)
+    public ResponseEntity<StockReservationResponseDto> handleStockReservationException(StockReservationException ex) {
+        List<StockReservationResponseDto.Line> lines = ex.getLines().stream()
+                .map(line -> new StockReservationResponseDto.Line(line.productId(), line.requestedQuantity(),
+                        line.availableQuantity(), line.shortage()))
+                .toList();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new StockReservationResponseDto(false, lines));
+    }
+
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<String> handleBusinessException(BusinessException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
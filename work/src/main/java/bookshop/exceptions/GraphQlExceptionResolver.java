@@ -0,0 +1,36 @@
+package bookshop.exceptions;
+
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * GraphQL counterpart of GlobalExceptionHandler: turns service exceptions into
+ * classified errors on the failing field instead of INTERNAL_ERROR
+ */
+@Component
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        ErrorType errorType;
+        if (ex instanceof ProductNotFoundException || ex instanceof CategoryNotFoundException
+                || ex instanceof InventoryNotFoundException || ex instanceof UserNotFoundException) {
+            errorType = ErrorType.NOT_FOUND;
+        } else if (ex instanceof BusinessException || ex instanceof IllegalArgumentException) {
+            errorType = ErrorType.BAD_REQUEST;
+        } else {
+            // Left to the default handler, which hides the message
+            return null;
+        }
+
+        return GraphqlErrorBuilder.newError(env)
+                .errorType(errorType)
+                .message(ex.getMessage())
+                .build();
+    }
+}
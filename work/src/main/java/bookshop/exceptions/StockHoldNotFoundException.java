@@ -0,0 +1,11 @@
+package bookshop.exceptions;
+
+/**
+ * Exception thrown when a stock hold does not exist, or was already committed, released or expired
+ */
+public class StockHoldNotFoundException extends RuntimeException {
+
+    public StockHoldNotFoundException(String holdId) {
+        super("Stock hold not found: " + holdId);
+    }
+}
@@ -0,0 +1,34 @@
+package bookshop.exceptions;
+
+import java.util.List;
+
+/**
+ * Exception thrown when a multi-line stock reservation is refused.
+ * Nothing was reserved; every line of the request is reported with the stock found for it.
+ */
+public class StockReservationException extends RuntimeException {
+
+    private final List<Line> lines;
+
+    public StockReservationException(List<Line> lines) {
+        super("Insufficient stock for product IDs: " + lines.stream()
+                .filter(line -> line.shortage() > 0)
+                .map(line -> String.valueOf(line.productId()))
+                .toList());
+        this.lines = List.copyOf(lines);
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /**
+     * A requested line and the quantity available for it (0 when the product has no inventory)
+     */
+    public record Line(int productId, int requestedQuantity, int availableQuantity) {
+
+        public int shortage() {
+            return Math.max(0, requestedQuantity - availableQuantity);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package bookshop.export;
+
+/**
+ * Wire formats supported by the catalog export and bulk import
+ */
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param format "ndjson" or "csv", case-insensitive
+     * @return the matching format
+     */
+    public static ExportFormat from(String format) {
+        for (ExportFormat candidate : values()) {
+            if (candidate.extension.equalsIgnoreCase(format)) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format + " (use ndjson or csv)");
+    }
+
+    /**
+     * @param contentType a request Content-Type such as "text/csv; charset=UTF-8"
+     * @return the matching format
+     */
+    public static ExportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String mediaType = contentType.split(";", 2)[0].trim();
+            for (ExportFormat candidate : values()) {
+                if (candidate.contentType.equalsIgnoreCase(mediaType)) {
+                    return candidate;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content type: " + contentType
+                + " (use application/x-ndjson or text/csv)");
+    }
+}
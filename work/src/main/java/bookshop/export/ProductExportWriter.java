@@ -0,0 +1,130 @@
+package bookshop.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import bookshop.models.Product;
+
+/**
+ * Writes products to an output stream as NDJSON or CSV, one line per product.
+ *
+ * Rows are encoded directly into a buffered writer, so memory use does not
+ * depend on how many products are exported. NDJSON lines use the same field
+ * names as the JSON API.
+ */
+public class ProductExportWriter implements Consumer<Product> {
+
+    private static final String CSV_HEADER = "product_id,name,price,category_id,category_name";
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(128);
+
+    public ProductExportWriter(ExportFormat format, OutputStream out) {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            write(CSV_HEADER);
+        }
+    }
+
+    @Override
+    public void accept(Product product) {
+        line.setLength(0);
+        if (format == ExportFormat.CSV) {
+            appendCsv(product);
+        } else {
+            appendJson(product);
+        }
+        write(line);
+    }
+
+    /**
+     * Flush buffered rows; the underlying stream is left open for the container
+     */
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void write(CharSequence text) {
+        try {
+            writer.append(text).append('\n');
+        } catch (IOException e) {
+            // Usually the client went away; abort the export and release the connection
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void appendJson(Product product) {
+        line.append("{\"productId\":").append(product.getProductId())
+                .append(",\"name\":");
+        appendJsonString(product.getName());
+        line.append(",\"price\":").append(product.getPrice() == null ? "null" : product.getPrice().toPlainString())
+                .append(",\"categoryId\":").append(product.getCategoryId())
+                .append(",\"categoryName\":");
+        appendJsonString(product.getCategoryName());
+        line.append('}');
+    }
+
+    private void appendJsonString(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    private void appendCsv(Product product) {
+        line.append(product.getProductId()).append(',');
+        appendCsvField(product.getName());
+        line.append(',');
+        if (product.getPrice() != null) {
+            line.append(product.getPrice().toPlainString());
+        }
+        line.append(',').append(product.getCategoryId()).append(',');
+        appendCsvField(product.getCategoryName());
+    }
+
+    private void appendCsvField(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,20 @@
+package bookshop.export;
+
+import java.util.function.Consumer;
+
+import bookshop.models.Product;
+
+/**
+ * A validated product query whose rows are read only when consumed.
+ * Each call to forEach runs the query again.
+ */
+@FunctionalInterface
+public interface ProductStream {
+
+    /**
+     * Stream every matching product to the sink, one row at a time
+     * @param sink receives each product as it is read
+     * @return number of products streamed
+     */
+    long forEach(Consumer<Product> sink);
+}
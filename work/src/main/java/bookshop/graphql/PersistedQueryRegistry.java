@@ -0,0 +1,118 @@
+package bookshop.graphql;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Parsed and validated GraphQL documents keyed by the SHA-256 of their text.
+ *
+ * Requests carrying the automatic persisted query extension
+ * (extensions.persistedQuery.sha256Hash) are served by hash alone once the
+ * document is registered; an unknown hash without a query gets
+ * PERSISTED_QUERY_NOT_FOUND and the client retries with the full text, which
+ * registers it. Plain requests use the same registry under the same key, so a
+ * query sent in full once is already persisted. Either way a repeat query
+ * skips parsing and validation. Documents that fail validation are not kept.
+ *
+ * Counters are published under cache.gets etc. with tag cache=graphql.documents.
+ */
+@Component
+public class PersistedQueryRegistry implements PreparsedDocumentProvider, MeterBinder {
+
+    private static final String CACHE_NAME = "graphql.documents";
+
+    private final Cache<String, PreparsedDocumentEntry> documents;
+    private final ApolloPersistedQuerySupport persistedQueries;
+
+    public PersistedQueryRegistry(
+            @Value("${bookshop.graphql.persisted-queries.maximum-size:1000}") long maximumSize) {
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.persistedQueries = new ApolloPersistedQuerySupport(this::persisted);
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        if (executionInput.getExtensions().containsKey("persistedQuery")) {
+            return persistedQueries.getDocumentAsync(executionInput, parseAndValidate);
+        }
+        String key = sha256(executionInput.getQuery());
+        return CompletableFuture.completedFuture(lookup(key, () -> parseAndValidate.apply(executionInput)));
+    }
+
+    /**
+     * @return number of registered documents
+     */
+    public long size() {
+        return documents.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, documents, CACHE_NAME);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Lookup for hash-only requests; the hash of a full query has already been checked against its text
+     */
+    private CompletableFuture<PreparsedDocumentEntry> persisted(Object hash, ExecutionInput executionInput,
+                                                                PersistedQueryCacheMiss onMiss)
+            throws PersistedQueryNotFound {
+        String query = executionInput.getQuery();
+        if (PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+            PreparsedDocumentEntry entry = documents.getIfPresent(hash.toString());
+            if (entry == null) {
+                throw new PersistedQueryNotFound(hash);
+            }
+            return CompletableFuture.completedFuture(entry);
+        }
+        return CompletableFuture.completedFuture(lookup(hash.toString(), () -> onMiss.apply(query)));
+    }
+
+    private PreparsedDocumentEntry lookup(String key, Supplier<PreparsedDocumentEntry> parseAndValidate) {
+        PreparsedDocumentEntry entry = documents.getIfPresent(key);
+        if (entry == null) {
+            entry = parseAndValidate.get();
+            if (!entry.hasErrors()) {
+                documents.put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package bookshop.graphql;
+
+import java.util.Collection;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+/**
+ * Static cost of a GraphQL query, computed from the document and its variables
+ * before anything runs.
+ *
+ * A scalar field is free: its value arrives with the row of its parent. An
+ * object field costs 1 plus its selection. A list field costs 1 plus its
+ * selection times the number of items it can return: the length of an ids
+ * argument, else the page size (size argument of the field or its parent, as
+ * in products(size:) { content }), else UNBOUNDED_LIST_ESTIMATE. So
+ * products(size: 100) { content { category { name } } } costs 1 + 1 + 100 * 1.
+ */
+public class QueryCostCalculator implements FieldComplexityCalculator {
+
+    // Assumed length of lists without a size or ids argument (categories, users)
+    static final int UNBOUNDED_LIST_ESTIMATE = 50;
+
+    // Page size when the size argument is omitted, as in the schema
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    @Override
+    public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+        GraphQLOutputType type = environment.getFieldDefinition().getType();
+        GraphQLType unwrapped = GraphQLTypeUtil.unwrapNonNull(type);
+
+        if (unwrapped instanceof GraphQLList) {
+            long cost = 1L + (long) listSize(environment) * childComplexity;
+            return (int) Math.min(cost, Integer.MAX_VALUE);
+        }
+        if (GraphQLTypeUtil.isLeaf(unwrapped)) {
+            return 0;
+        }
+        return 1 + childComplexity;
+    }
+
+    private static int listSize(FieldComplexityEnvironment environment) {
+        if (environment.getArguments().get("ids") instanceof Collection<?> ids) {
+            return ids.size();
+        }
+        Integer size = pageSize(environment);
+        if (size == null && environment.getParentEnvironment() != null) {
+            size = pageSize(environment.getParentEnvironment());
+        }
+        return size != null ? Math.max(size, 0) : UNBOUNDED_LIST_ESTIMATE;
+    }
+
+    private static Integer pageSize(FieldComplexityEnvironment environment) {
+        if (!environment.getFieldDefinition().getArguments().stream().anyMatch(a -> a.getName().equals("size"))) {
+            return null;
+        }
+        return environment.getArguments().get("size") instanceof Integer size ? size : DEFAULT_PAGE_SIZE;
+    }
+}
@@ -0,0 +1,209 @@
+package bookshop.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import bookshop.export.ExportFormat;
+
+/**
+ * Reads bulk import records one at a time from a CSV or NDJSON stream.
+ *
+ * CSV needs a header row naming at least name, price and category_id (or categoryId);
+ * other columns are ignored, so files produced by the catalog export can be loaded
+ * back. NDJSON lines are objects with name, price and categoryId. A record that
+ * cannot be parsed comes back as an invalid row instead of aborting the import.
+ */
+public class ProductImportReader {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final ExportFormat format;
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    // CSV column positions, resolved from the header row
+    private int nameColumn = -1;
+    private int priceColumn = -1;
+    private int categoryColumn = -1;
+
+    public ProductImportReader(ExportFormat format, InputStream in) {
+        this.format = format;
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            readHeader();
+        }
+    }
+
+    /**
+     * @return the next record, or null at the end of the stream
+     */
+    public ProductImportRow next() {
+        return format == ExportFormat.CSV ? nextCsv() : nextJson();
+    }
+
+    // ========== NDJSON ==========
+
+    private ProductImportRow nextJson() {
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        JsonNode node;
+        try {
+            node = JSON.readTree(line);
+        } catch (IOException e) {
+            return ProductImportRow.invalid(lineNumber, null, "Malformed JSON");
+        }
+        if (node == null || !node.isObject()) {
+            return ProductImportRow.invalid(lineNumber, null, "Expected a JSON object");
+        }
+
+        String name = text(node.get("name"));
+        return toRow(lineNumber, name, text(node.get("price")), text(node.get("categoryId")));
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    // ========== CSV ==========
+
+    private void readHeader() {
+        List<String> header = readRecord();
+        if (header == null) {
+            return;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        nameColumn = columns.getOrDefault("name", -1);
+        priceColumn = columns.getOrDefault("price", -1);
+        categoryColumn = columns.getOrDefault("categoryid", -1);
+        if (nameColumn < 0 || priceColumn < 0 || categoryColumn < 0) {
+            throw new IllegalArgumentException("CSV header must contain name, price and category_id columns");
+        }
+    }
+
+    private ProductImportRow nextCsv() {
+        List<String> record;
+        long start;
+        do {
+            start = lineNumber + 1;
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        return toRow(start, column(record, nameColumn), column(record, priceColumn), column(record, categoryColumn));
+    }
+
+    private static String column(List<String> record, int index) {
+        return index < record.size() ? record.get(index) : null;
+    }
+
+    /**
+     * Read one RFC 4180 record; quoted fields may contain commas, quotes and line breaks
+     */
+    private List<String> readRecord() {
+        String line = readLine();
+        if (line == null) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // Line break inside a quoted field
+                String continuation = readLine();
+                if (continuation == null) {
+                    break;
+                }
+                field.append('\n');
+                line = continuation;
+                i = 0;
+                continue;
+            }
+
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static ProductImportRow toRow(long line, String name, String price, String categoryId) {
+        BigDecimal parsedPrice = null;
+        Integer parsedCategory = null;
+        try {
+            if (price != null && !price.isBlank()) {
+                parsedPrice = new BigDecimal(price.trim());
+            }
+        } catch (NumberFormatException e) {
+            return ProductImportRow.invalid(line, name, "Price is not a number: " + price);
+        }
+        try {
+            if (categoryId != null && !categoryId.isBlank()) {
+                parsedCategory = Integer.valueOf(categoryId.trim());
+            }
+        } catch (NumberFormatException e) {
+            return ProductImportRow.invalid(line, name, "Category ID is not a number: " + categoryId);
+        }
+        return ProductImportRow.of(line, name, parsedPrice, parsedCategory);
+    }
+
+    private String readLine() {
+        try {
+            String line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package bookshop.importer;
+
+import java.math.BigDecimal;
+
+/**
+ * One record of a bulk import file, as parsed (not yet validated)
+ */
+public class ProductImportRow {
+
+    private final long line;           // 1-based line (CSV: line the record starts on)
+    private final String name;
+    private final BigDecimal price;
+    private final Integer categoryId;
+    private final String error;        // Parse error, null when the record was readable
+
+    private ProductImportRow(long line, String name, BigDecimal price, Integer categoryId, String error) {
+        this.line = line;
+        this.name = name;
+        this.price = price;
+        this.categoryId = categoryId;
+        this.error = error;
+    }
+
+    public static ProductImportRow of(long line, String name, BigDecimal price, Integer categoryId) {
+        return new ProductImportRow(line, name, price, categoryId, null);
+    }
+
+    public static ProductImportRow invalid(long line, String name, String error) {
+        return new ProductImportRow(line, name, null, null, error);
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,493 @@
+package bookshop.inventory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import bookshop.dao.daoInterface.InventoryDao;
+import bookshop.models.Inventory;
+import bookshop.models.StockAdjustment;
+
+/**
+ * Keeps the stock of hot SKUs in memory so a launch does not serialise every
+ * checkout on one inventory row.
+ *
+ * A SKU whose stock is reduced promote-threshold times within one flush interval is
+ * promoted: its level is read once and from then on changed with CAS operations on a
+ * StripedStock. Every change is appended to a StockJournal before the caller gets its
+ * answer. Each flush interval the journal is rotated and the closed segments are added
+ * to the inventory table in one transaction per segment, so the row sees one write per
+ * interval instead of one per order. A checkpoint row makes a segment count only once,
+ * and on startup the segments left by a stopped or crashed process are replayed before
+ * any request is served.
+ *
+ * While a SKU is hot every stock write for it goes through this class and reads see its
+ * in-memory level; the table lags by up to one flush interval. Hot SKUs stay in memory
+ * until their inventory is deleted or the application stops. Only one instance may run
+ * with this mode enabled against a database.
+ *
+ * Writes for other SKUs are passed through to the given database operation under a read
+ * lock, so a promotion never reads a level that a write in flight is about to change.
+ */
+@Component
+public class HotStock implements SmartInitializingSingleton, DisposableBean, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStock.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final InventoryDao inventoryDao;
+    private final boolean enabled;
+    private final int promoteThreshold;
+    private final int stripes;
+    private final Path directory;
+    private final String journalName;
+
+    private final Map<Integer, HotSku> skus = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> demand = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[LOCK_STRIPES];
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile StockJournal journal;
+
+    @Autowired
+    public HotStock(InventoryDao inventoryDao,
+                    @Value("${bookshop.inventory.hot-stock.enabled:false}") boolean enabled,
+                    @Value("${bookshop.inventory.hot-stock.promote-threshold:50}") int promoteThreshold,
+                    @Value("${bookshop.inventory.hot-stock.stripes:0}") int stripes,
+                    @Value("${bookshop.inventory.hot-stock.journal-dir:data/stock-journal}") String directory,
+                    @Value("${bookshop.inventory.hot-stock.journal-name:default}") String journalName) {
+        this.inventoryDao = inventoryDao;
+        this.enabled = enabled;
+        this.promoteThreshold = promoteThreshold;
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        if (enabled && directory.isEmpty()) {
+            throw new IllegalArgumentException("bookshop.inventory.hot-stock.journal-dir is required");
+        }
+        this.directory = directory.isEmpty() ? null : Path.of(directory);
+        this.journalName = journalName;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * A HotStock that passes every operation through to the database
+     */
+    public static HotStock disabled() {
+        return new HotStock(null, false, 0, 1, "", "");
+    }
+
+    // ========== WRITES ==========
+
+    /**
+     * Take stock of one product
+     *
+     * @param database the same change in the database, used while the product is not hot
+     */
+    public StockAdjustment decrement(int productId, int amount, Supplier<StockAdjustment> database) {
+        if (!enabled) {
+            return database.get();
+        }
+
+        HotSku hot = skus.get(productId);
+        if (hot != null) {
+            return take(hot, amount);
+        }
+
+        StockAdjustment adjustment = guarded(productId, sku -> take(sku, amount), database);
+        if (adjustment.isApplied() && !skus.containsKey(productId)) {
+            recordDemand(productId);
+        }
+        return adjustment;
+    }
+
+    /**
+     * Add stock to one product
+     *
+     * @param database the same change in the database, used while the product is not hot
+     */
+    public StockAdjustment increment(int productId, int amount, Supplier<StockAdjustment> database) {
+        if (!enabled) {
+            return database.get();
+        }
+        return guarded(productId, sku -> {
+            // Journaled first: an append that fails leaves the level untouched
+            journal.append(productId, amount);
+            sku.stock.add(amount);
+            return StockAdjustment.applied(productId, sku.stock.level());
+        }, database);
+    }
+
+    /**
+     * Replace the stock level of one product
+     *
+     * @param database the same change in the database, used while the product is not hot
+     * @return the level replaced, or empty if the product has no inventory
+     */
+    public OptionalInt set(int productId, int quantity, Supplier<OptionalInt> database) {
+        if (!enabled) {
+            return database.get();
+        }
+        return guarded(productId, sku -> {
+            int change = sku.stock.set(quantity);
+            appendOrUndo(sku, change);
+            return OptionalInt.of(quantity - change);
+        }, database);
+    }
+
+    /**
+     * Take stock of several products, all or nothing, with the result format of
+     * InventoryDao.decrementAll
+     *
+     * @param database the same change in the database for the products that are not hot
+     */
+    public List<StockAdjustment> decrementAll(Map<Integer, Integer> amounts,
+                                              Function<Map<Integer, Integer>, List<StockAdjustment>> database) {
+        if (!enabled) {
+            return database.apply(amounts);
+        }
+
+        // Read locks in stripe order, so no product of the cart is promoted halfway
+        SortedSet<Integer> lockIndexes = new TreeSet<>();
+        amounts.keySet().forEach(productId -> lockIndexes.add(lockIndex(productId)));
+        List<Lock> held = new ArrayList<>(lockIndexes.size());
+        try {
+            for (int index : lockIndexes) {
+                Lock lock = locks[index].readLock();
+                lock.lock();
+                held.add(lock);
+            }
+            return decrementAllLocked(amounts, database);
+        } finally {
+            held.forEach(Lock::unlock);
+        }
+    }
+
+    /**
+     * Forget a product whose inventory is deleted
+     *
+     * @param database the deletion in the database
+     */
+    public void remove(int productId, Runnable database) {
+        if (!enabled) {
+            database.run();
+            return;
+        }
+        Lock lock = locks[lockIndex(productId)].writeLock();
+        lock.lock();
+        try {
+            skus.remove(productId);
+            database.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========== READS ==========
+
+    /**
+     * @return the in-memory level of a hot product, empty if it is not hot
+     */
+    public OptionalInt level(int productId) {
+        HotSku hot = enabled ? skus.get(productId) : null;
+        return hot == null ? OptionalInt.empty() : OptionalInt.of(hot.stock.level());
+    }
+
+    /**
+     * @return the inventory of a hot product with its in-memory level, empty if it is not hot
+     */
+    public Optional<Inventory> inventory(int productId) {
+        HotSku hot = enabled ? skus.get(productId) : null;
+        return hot == null ? Optional.empty() : Optional.of(hot.snapshot(hot.stock.level()));
+    }
+
+    // ========== PERSISTENCE ==========
+
+    /**
+     * Replay journal segments left by the previous run before requests are served
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (directory == null || (!enabled && !Files.isDirectory(directory))) {
+            return;
+        }
+
+        long checkpoint = inventoryDao.findJournalCheckpoint(journalName);
+        journal = new StockJournal(directory, checkpoint + 1);
+        int leftover = journal.closedSegments().size();
+        if (leftover > 0) {
+            logger.info("Replaying {} stock journal segments into the inventory table", leftover);
+            if (!flushSegments()) {
+                throw new IllegalStateException("Stock journal could not be replayed; refusing to serve "
+                        + "stock levels that miss its changes");
+            }
+        }
+
+        if (!enabled) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * Write the changes journaled since the last flush to the inventory table
+     */
+    @Scheduled(fixedDelayString = "${bookshop.inventory.hot-stock.flush-interval-ms:1000}",
+            initialDelayString = "${bookshop.inventory.hot-stock.flush-interval-ms:1000}")
+    public void flush() {
+        if (journal == null) {
+            return;
+        }
+        // Demand is counted per interval
+        demand.clear();
+        flushSegments();
+    }
+
+    @Override
+    public void destroy() {
+        StockJournal open = journal;
+        if (open != null) {
+            flushSegments();
+            open.close();
+            journal = null;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bookshop.inventory.hot.skus", skus, Map::size)
+                .description("SKUs whose stock is counted in memory")
+                .register(registry);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Run the hot operation if the product is hot, the database operation otherwise,
+     * holding the product's read lock so it cannot be promoted in between
+     */
+    private <T> T guarded(int productId, Function<HotSku, T> hot, Supplier<T> database) {
+        Lock lock = locks[lockIndex(productId)].readLock();
+        lock.lock();
+        try {
+            HotSku sku = skus.get(productId);
+            return sku != null ? hot.apply(sku) : database.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private StockAdjustment take(HotSku hot, int amount) {
+        int productId = hot.inventory.getProductId();
+        if (!hot.stock.tryTake(amount)) {
+            return StockAdjustment.insufficient(productId, hot.stock.level());
+        }
+        appendOrUndo(hot, -amount);
+        return StockAdjustment.applied(productId, hot.stock.level());
+    }
+
+    /**
+     * Journal a change already made to the in-memory level; if the journal refuses it,
+     * take the change back out of the level so memory never holds an unjournaled change
+     */
+    private void appendOrUndo(HotSku hot, int change) {
+        try {
+            journal.append(hot.inventory.getProductId(), change);
+        } catch (RuntimeException e) {
+            hot.stock.add(-change);
+            throw e;
+        }
+    }
+
+    private List<StockAdjustment> decrementAllLocked(Map<Integer, Integer> amounts,
+                                                     Function<Map<Integer, Integer>, List<StockAdjustment>> database) {
+        Map<Integer, Integer> cold = new HashMap<>();
+        List<StockAdjustment> adjustments = new ArrayList<>(amounts.size());
+        List<StockAdjustment> taken = new ArrayList<>();
+        boolean refused = false;
+
+        try {
+            for (Map.Entry<Integer, Integer> line : amounts.entrySet()) {
+                HotSku hot = skus.get(line.getKey());
+                if (hot == null) {
+                    cold.put(line.getKey(), line.getValue());
+                } else if (!refused) {
+                    StockAdjustment adjustment = take(hot, line.getValue());
+                    adjustments.add(adjustment);
+                    if (adjustment.isApplied()) {
+                        taken.add(adjustment);
+                    } else {
+                        refused = true;
+                    }
+                } else {
+                    int level = hot.stock.level();
+                    adjustments.add(level >= line.getValue()
+                            ? StockAdjustment.applied(line.getKey(), level - line.getValue())
+                            : StockAdjustment.insufficient(line.getKey(), level));
+                }
+            }
+
+            if (refused) {
+                // Report the other products without touching them
+                adjustments.addAll(levels(cold));
+            } else if (!cold.isEmpty()) {
+                List<StockAdjustment> coldAdjustments = database.apply(cold);
+                adjustments.addAll(coldAdjustments);
+                refused = !coldAdjustments.stream().allMatch(StockAdjustment::isApplied);
+            }
+        } catch (RuntimeException e) {
+            giveBack(taken, amounts);
+            throw e;
+        }
+
+        if (refused) {
+            // Applied lines report the level they would have reached
+            giveBack(taken, amounts);
+        }
+
+        adjustments.sort(Comparator.comparingInt(StockAdjustment::productId));
+        return adjustments;
+    }
+
+    /**
+     * Put back what decrementAll took from hot products, journaled before it is counted
+     */
+    private void giveBack(List<StockAdjustment> taken, Map<Integer, Integer> amounts) {
+        for (StockAdjustment adjustment : taken) {
+            int productId = adjustment.productId();
+            journal.append(productId, amounts.get(productId));
+            skus.get(productId).stock.add(amounts.get(productId));
+        }
+    }
+
+    /**
+     * What decrementAll would report for products it did not try, read without locking them
+     */
+    private List<StockAdjustment> levels(Map<Integer, Integer> amounts) {
+        Map<Integer, Integer> found = new HashMap<>();
+        for (Inventory inventory : inventoryDao.findAllByProductIds(amounts.keySet())) {
+            found.put(inventory.getProductId(), inventory.getQuantity());
+        }
+
+        List<StockAdjustment> adjustments = new ArrayList<>(amounts.size());
+        amounts.forEach((productId, amount) -> {
+            Integer level = found.get(productId);
+            if (level == null) {
+                adjustments.add(StockAdjustment.notFound(productId));
+            } else if (level < amount) {
+                adjustments.add(StockAdjustment.insufficient(productId, level));
+            } else {
+                adjustments.add(StockAdjustment.applied(productId, level - amount));
+            }
+        });
+        return adjustments;
+    }
+
+    private void recordDemand(int productId) {
+        LongAdder count = demand.computeIfAbsent(productId, id -> new LongAdder());
+        count.increment();
+        if (count.sum() >= promoteThreshold) {
+            promote(productId);
+        }
+    }
+
+    private void promote(int productId) {
+        Lock lock = locks[lockIndex(productId)].writeLock();
+        lock.lock();
+        try {
+            if (skus.containsKey(productId)) {
+                return;
+            }
+            // No write to this product is in flight: they all hold the read lock
+            inventoryDao.findByProductId(productId).ifPresent(inventory -> {
+                skus.put(productId, new HotSku(inventory, new StripedStock(inventory.getQuantity(), stripes)));
+                logger.info("Product ID {} is hot: {} units now counted in memory", productId, inventory.getQuantity());
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rotate the journal and apply every closed segment, oldest first
+     *
+     * @return false if a segment could not be applied; it is retried on the next flush
+     */
+    private boolean flushSegments() {
+        flushLock.lock();
+        try {
+            journal.rotate();
+            for (long segment : journal.closedSegments()) {
+                Map<Integer, Integer> deltas = journal.read(segment);
+                if (!deltas.isEmpty() && !inventoryDao.applyJournalSegment(journalName, segment, deltas)) {
+                    logger.warn("Stock journal segment {} was already applied, skipping it", segment);
+                }
+                journal.delete(segment);
+                logger.debug("Flushed stock journal segment {}: {} products", segment, deltas.size());
+            }
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush the stock journal: {}", e.getMessage());
+            return false;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private static int lockIndex(int productId) {
+        return Math.floorMod(productId, LOCK_STRIPES);
+    }
+
+    /**
+     * A promoted product: its row as read at promotion, and its live level
+     */
+    private static final class HotSku {
+
+        private final Inventory inventory;
+        private final StripedStock stock;
+
+        HotSku(Inventory inventory, StripedStock stock) {
+            this.inventory = inventory;
+            this.stock = stock;
+        }
+
+        Inventory snapshot(int quantity) {
+            Inventory copy = new Inventory();
+            copy.setInventoryId(inventory.getInventoryId());
+            copy.setProductId(inventory.getProductId());
+            copy.setQuantity(quantity);
+            copy.setLastUpdated(new Timestamp(System.currentTimeMillis()));
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package bookshop.inventory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import bookshop.dao.daoInterface.InventoryLedgerDao;
+import bookshop.dto.response.LedgerReplayResult;
+import bookshop.events.StockChangedEvent;
+import bookshop.exceptions.BusinessException;
+import bookshop.models.InventoryMovement;
+
+/**
+ * Append-only history of stock changes, kept next to the inventory table so a level
+ * overwritten by a bad write can be rebuilt.
+ *
+ * Every change made through InventoryService and StockHolds is recorded as a signed
+ * delta. Recording only queues it; a background flush writes the queue with multi-row
+ * INSERTs, one transaction per batch, so the ledger costs a stock write no round trip.
+ * The queue is bounded: when the database falls behind, recording blocks instead of
+ * losing movements. Movements still queued when the process dies are lost, as with
+ * any write-behind; at most one flush interval's worth.
+ *
+ * A periodic job folds settled movements into inventory_snapshots and records how far
+ * it got in inventory_ledger_snapshots, so the level of a product by the ledger is its
+ * snapshot plus the movements after the latest fold, however long its history.
+ *
+ * That sum is only a level for products whose history starts from one: an OPENING or a
+ * CREATE. On startup, after HotStock has replayed its journal and before requests are
+ * served, every inventory row without one is given an OPENING for whatever its recorded
+ * history does not explain; on a database that predates the ledger this runs once per
+ * product. replay() rewrites the rows that disagree with the ledger and leaves the rest
+ * alone. Since movements still queued at a crash are lost, it only writes when
+ * replay-writes is switched on.
+ */
+@Component
+public class InventoryLedger implements DisposableBean, MeterBinder, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private final InventoryLedgerDao ledgerDao;
+    private final HotStock hotStock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int settleSeconds;
+    private final boolean replayWrites;
+    private volatile boolean running;
+
+    private final BlockingQueue<InventoryMovement> queue;
+    private final List<InventoryMovement> batch = new ArrayList<>();     // Guarded by flushLock
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Autowired
+    public InventoryLedger(InventoryLedgerDao ledgerDao, HotStock hotStock, ApplicationEventPublisher eventPublisher,
+                           @Value("${bookshop.inventory.ledger.enabled:true}") boolean enabled,
+                           @Value("${bookshop.inventory.ledger.queue-capacity:100000}") int queueCapacity,
+                           @Value("${bookshop.inventory.ledger.batch-size:512}") int batchSize,
+                           @Value("${bookshop.inventory.ledger.snapshot-settle-seconds:10}") int settleSeconds,
+                           @Value("${bookshop.inventory.ledger.replay-writes:false}") boolean replayWrites) {
+        if (queueCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Ledger queue capacity and batch size must be positive");
+        }
+        this.ledgerDao = ledgerDao;
+        this.hotStock = hotStock;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.settleSeconds = settleSeconds;
+        this.replayWrites = replayWrites;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * An InventoryLedger that records nothing
+     */
+    public static InventoryLedger disabled() {
+        return new InventoryLedger(null, HotStock.disabled(), null, false, 1, 1, 0, false);
+    }
+
+    // ========== RECORDING ==========
+
+    /**
+     * Queue a stock change for the ledger; a zero delta is not recorded
+     */
+    public void record(int productId, InventoryMovement.Type type, int delta) {
+        if (!enabled || delta == 0) {
+            return;
+        }
+        try {
+            queue.put(new InventoryMovement(productId, type, delta));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted recording {} of {} for product ID {}; the movement is lost",
+                    type, delta, productId);
+        }
+    }
+
+    /**
+     * Write the queued movements to the ledger
+     */
+    @Scheduled(fixedDelayString = "${bookshop.inventory.ledger.flush-interval-ms:200}",
+            initialDelayString = "${bookshop.inventory.ledger.flush-interval-ms:200}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            while (true) {
+                // A batch that failed last time goes first, unchanged
+                if (batch.isEmpty() && queue.drainTo(batch, batchSize) == 0) {
+                    return;
+                }
+                ledgerDao.appendAll(batch);
+                batch.clear();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to append {} inventory movements, retrying on the next flush: {}",
+                    batch.size(), e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Fold the settled movements into the snapshots
+     */
+    @Scheduled(fixedDelayString = "${bookshop.inventory.ledger.snapshot-interval-ms:300000}",
+            initialDelayString = "${bookshop.inventory.ledger.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long folded = ledgerDao.snapshot(settleSeconds);
+            if (folded > 0) {
+                logger.info("Folded {} inventory movements into the snapshots", folded);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to snapshot the inventory ledger: {}", e.getMessage());
+        }
+    }
+
+    // ========== LIFECYCLE ==========
+
+    /**
+     * Give inventory rows without a baseline their OPENING movement
+     */
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            return;
+        }
+        try {
+            int opened = ledgerDao.recordOpeningBalances();
+            if (opened > 0) {
+                logger.info("Recorded opening balances for {} products without a ledger baseline", opened);
+            }
+        } catch (RuntimeException e) {
+            // Replay skips those products until a later start records their baseline
+            logger.warn("Failed to record opening balances: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Before the web server starts, and after every afterSingletonsInstantiated, so
+     * HotStock's journal is already in the table the balances are read from
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bookshop.inventory.ledger.queued", queue, BlockingQueue::size)
+                .description("Inventory movements waiting to be written to the ledger")
+                .register(registry);
+    }
+
+    // ========== READS ==========
+
+    /**
+     * @return the level of the product by the ledger, or empty if it has no history
+     */
+    public OptionalInt level(int productId) {
+        flush();
+        return ledgerDao.findLedgerQuantity(productId);
+    }
+
+    // ========== REPLAY ==========
+
+    /**
+     * Rebuild inventory quantities from the ledger: every row with a baseline whose quantity
+     * differs from snapshot plus later movements is rewritten. Rows without an OPENING or
+     * CREATE are not checked.
+     *
+     * Balances are streamed one product at a time and corrections written in batches of
+     * batch-size, so memory use does not depend on the number of products or movements.
+     * Hot SKUs are skipped, their level lives in HotStock. Meant for repairs with stock
+     * writes stopped: a change made while the pass runs may be overwritten.
+     *
+     * @param dryRun only count the rows that differ
+     * @throws BusinessException if dryRun is false and replay-writes is off
+     */
+    public LedgerReplayResult replay(boolean dryRun) {
+        if (!dryRun && !replayWrites) {
+            throw new BusinessException("Ledger replay writes are disabled; "
+                    + "set bookshop.inventory.ledger.replay-writes to rewrite inventory from the ledger");
+        }
+        flush();
+        LedgerReplayResult result = new LedgerReplayResult(dryRun);
+        Map<Integer, Integer> corrections = new HashMap<>();
+
+        ledgerDao.streamBalances(balance -> {
+            if (hotStock.level(balance.productId()).isPresent()) {
+                return;
+            }
+            result.recordChecked(balance.drifted());
+            if (balance.drifted() && !dryRun) {
+                logger.debug("Product ID {}: quantity {} differs from the ledger's {}",
+                        balance.productId(), balance.quantity(), balance.ledgerQuantity());
+                corrections.put(balance.productId(), balance.ledgerQuantity());
+                if (corrections.size() == batchSize) {
+                    restore(corrections, result);
+                }
+            }
+        });
+        restore(corrections, result);
+
+        logger.info("Ledger replay{}: {} rows checked, {} drifted, {} corrected", dryRun ? " (dry run)" : "",
+                result.getChecked(), result.getDrifted(), result.getCorrected());
+        return result;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void restore(Map<Integer, Integer> corrections, LedgerReplayResult result) {
+        if (corrections.isEmpty()) {
+            return;
+        }
+        // Stock cannot go below zero: a negative ledger level is written as zero and the
+        // difference recorded as an ADJUST movement, so the next replay finds no drift
+        Map<Integer, Integer> shortfalls = new HashMap<>();
+        corrections.replaceAll((productId, quantity) -> {
+            if (quantity < 0) {
+                shortfalls.put(productId, -quantity);
+                return 0;
+            }
+            return quantity;
+        });
+
+        result.recordCorrected(ledgerDao.restoreQuantities(corrections));
+        shortfalls.forEach((productId, units) -> record(productId, InventoryMovement.Type.ADJUST, units));
+        corrections.forEach((productId, quantity) ->
+                eventPublisher.publishEvent(StockChangedEvent.updated(productId, quantity)));
+        corrections.clear();
+    }
+}
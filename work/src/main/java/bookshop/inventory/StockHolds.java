@@ -0,0 +1,249 @@
+package bookshop.inventory;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import bookshop.dao.daoInterface.InventoryDao;
+import bookshop.dao.daoInterface.StockHoldDao;
+import bookshop.events.StockChangedEvent;
+import bookshop.exceptions.InsufficientStockException;
+import bookshop.exceptions.InventoryNotFoundException;
+import bookshop.exceptions.StockHoldNotFoundException;
+import bookshop.models.InventoryMovement;
+import bookshop.models.StockAdjustment;
+import bookshop.models.StockHold;
+
+/**
+ * Time-limited stock holds: units set aside for a cart between add-to-cart and payment.
+ *
+ * Placing a hold takes its units out of the inventory quantity like a checkout would
+ * (through HotStock, so hot SKUs stay in memory) and stores the hold in stock_holds.
+ * Committing deletes the hold and keeps the units sold; releasing or expiring deletes
+ * it and puts the units back. The DELETE decides which of those happens when they race,
+ * also across instances. Because the units are taken up front, the quantity every other
+ * path reads is already on-hand minus active holds.
+ *
+ * Expiry is driven by a TimingWheel: each hold costs O(1) to schedule and cancel, and a
+ * tick only visits the holds due in it, however many are outstanding. Holds left by a
+ * previous run are loaded on the first tick after startup.
+ *
+ * A crash between the two steps of a hold, release or expiry can only leave units out
+ * of stock, never sell them twice.
+ */
+@Component
+public class StockHolds implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockHolds.class);
+
+    private final StockHoldDao stockHoldDao;
+    private final InventoryDao inventoryDao;
+    private final HotStock hotStock;
+    private final InventoryLedger ledger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long tickMillis;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    private final TimingWheel<StockHold> wheel;
+    private final Map<String, TimingWheel.Timeout> timeouts = new ConcurrentHashMap<>();
+    private final ReentrantLock tickLock = new ReentrantLock();
+
+    private volatile boolean loaded;
+
+    @Autowired
+    public StockHolds(StockHoldDao stockHoldDao, InventoryDao inventoryDao, HotStock hotStock,
+                      InventoryLedger ledger, ApplicationEventPublisher eventPublisher,
+                      @Value("${bookshop.inventory.holds.default-ttl-seconds:900}") long defaultTtlSeconds,
+                      @Value("${bookshop.inventory.holds.max-ttl-seconds:3600}") long maxTtlSeconds,
+                      @Value("${bookshop.inventory.holds.tick-ms:1000}") long tickMillis,
+                      @Value("${bookshop.inventory.holds.wheel-size:512}") int wheelSize) {
+        this.stockHoldDao = stockHoldDao;
+        this.inventoryDao = inventoryDao;
+        this.hotStock = hotStock;
+        this.ledger = ledger;
+        this.eventPublisher = eventPublisher;
+        this.tickMillis = tickMillis;
+        this.defaultTtl = Duration.ofSeconds(defaultTtlSeconds);
+        this.maxTtl = Duration.ofSeconds(maxTtlSeconds);
+        this.wheel = new TimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    // ========== HOLDS ==========
+
+    /**
+     * Set units aside until they are committed, released or the hold expires
+     *
+     * @param ttl how long the hold lasts; null for the configured default
+     * @throws IllegalArgumentException if the TTL is not positive or above the configured maximum
+     * @throws InventoryNotFoundException if the product has no inventory
+     * @throws InsufficientStockException if fewer units are available
+     */
+    public StockHold hold(int productId, int quantity, Duration ttl) {
+        if (ttl == null) {
+            ttl = defaultTtl;
+        } else if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("TTL must be between 1 and " + maxTtl.toSeconds() + " seconds");
+        }
+
+        StockAdjustment adjustment = hotStock.decrement(productId, quantity,
+                () -> inventoryDao.decrementQuantity(productId, quantity));
+        if (adjustment.status() == StockAdjustment.Status.NOT_FOUND) {
+            throw new InventoryNotFoundException(productId);
+        }
+        if (adjustment.status() == StockAdjustment.Status.INSUFFICIENT) {
+            throw new InsufficientStockException(productId, adjustment.quantity(), quantity);
+        }
+        ledger.record(productId, InventoryMovement.Type.HOLD, -quantity);
+
+        StockHold hold = new StockHold(UUID.randomUUID().toString(), productId, quantity,
+                new Timestamp(System.currentTimeMillis() + ttl.toMillis()));
+        try {
+            stockHoldDao.save(hold);
+        } catch (RuntimeException e) {
+            giveBack(productId, quantity);
+            throw e;
+        }
+        track(hold);
+        eventPublisher.publishEvent(StockChangedEvent.updated(productId, adjustment.quantity()));
+
+        return hold;
+    }
+
+    /**
+     * Turn a hold into a sale: its units stay out of stock
+     *
+     * @throws StockHoldNotFoundException if the hold was already committed, released or expired
+     */
+    public StockHold commit(String holdId) {
+        StockHold hold = remove(holdId);
+        logger.debug("Committed hold {}: {} units of product ID {}", holdId, hold.quantity(), hold.productId());
+        return hold;
+    }
+
+    /**
+     * Give up a hold: its units go back into stock
+     *
+     * @throws StockHoldNotFoundException if the hold was already committed, released or expired
+     */
+    public StockHold release(String holdId) {
+        StockHold hold = remove(holdId);
+        giveBack(hold.productId(), hold.quantity());
+        logger.debug("Released hold {}: {} units of product ID {}", holdId, hold.quantity(), hold.productId());
+        return hold;
+    }
+
+    // ========== EXPIRY ==========
+
+    /**
+     * Advance the timing wheel and release the holds whose time is up
+     */
+    @Scheduled(fixedDelayString = "${bookshop.inventory.holds.tick-ms:1000}")
+    public void tick() {
+        if (!tickLock.tryLock()) {
+            return;
+        }
+        try {
+            if (!loaded) {
+                load();
+            }
+            int expired = wheel.advance(System.currentTimeMillis(), this::expire);
+            if (expired > 0) {
+                logger.debug("Expired {} stock holds, {} outstanding", expired, wheel.size());
+            }
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    /**
+     * @return holds this instance will expire unless they are committed or released first
+     */
+    int outstanding() {
+        return wheel.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bookshop.inventory.holds", wheel, TimingWheel::size)
+                .description("Stock holds waiting to be committed, released or expired")
+                .register(registry);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Schedule the expiry of every hold left by a previous run
+     */
+    private void load() {
+        try {
+            long count = stockHoldDao.streamAll(this::track);
+            loaded = true;
+            logger.info("Loaded {} outstanding stock holds", count);
+        } catch (RuntimeException e) {
+            // Retried on the next tick
+            logger.warn("Failed to load stock holds: {}", e.getMessage());
+        }
+    }
+
+    private void track(StockHold hold) {
+        timeouts.computeIfAbsent(hold.holdId(), id -> wheel.schedule(hold, hold.expiresAt().getTime()));
+    }
+
+    private void untrack(StockHold hold) {
+        TimingWheel.Timeout timeout = timeouts.remove(hold.holdId());
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private StockHold remove(String holdId) {
+        StockHold hold = stockHoldDao.findById(holdId).orElseThrow(() -> new StockHoldNotFoundException(holdId));
+        if (!stockHoldDao.deleteById(holdId)) {
+            // Lost the race to another commit, release or the expirer
+            throw new StockHoldNotFoundException(holdId);
+        }
+        untrack(hold);
+        return hold;
+    }
+
+    private void expire(StockHold hold) {
+        untrack(hold);
+        try {
+            if (stockHoldDao.deleteById(hold.holdId())) {
+                giveBack(hold.productId(), hold.quantity());
+                logger.debug("Hold {} expired: {} units of product ID {} back in stock",
+                        hold.holdId(), hold.quantity(), hold.productId());
+            }
+        } catch (RuntimeException e) {
+            // Try again on a later tick rather than leaving the units out of stock
+            logger.warn("Failed to expire hold {}: {}", hold.holdId(), e.getMessage());
+            track(new StockHold(hold.holdId(), hold.productId(), hold.quantity(),
+                    new Timestamp(System.currentTimeMillis() + 10 * tickMillis)));
+        }
+    }
+
+    private void giveBack(int productId, int quantity) {
+        StockAdjustment adjustment = hotStock.increment(productId, quantity,
+                () -> inventoryDao.incrementQuantity(productId, quantity));
+        if (adjustment.isApplied()) {
+            ledger.record(productId, InventoryMovement.Type.RELEASE, quantity);
+            eventPublisher.publishEvent(StockChangedEvent.updated(productId, adjustment.quantity()));
+        }
+    }
+}
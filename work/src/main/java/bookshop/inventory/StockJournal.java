@@ -0,0 +1,253 @@
+package bookshop.inventory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only log of stock changes not yet written to the inventory table.
+ *
+ * The journal is a directory of numbered segment files (stock-000000000042.log);
+ * each record is a product ID and a signed quantity change, 8 bytes. Records are
+ * appended to the newest segment. rotate() closes it and opens the next one, after
+ * which the closed segments can be summed, written to the database and deleted.
+ *
+ * Appends reach the operating system on every call, so a crashed process loses
+ * nothing; they are forced to disk when a segment is rotated. A record torn by a
+ * crash is ignored on reading.
+ *
+ * FileChannel closes itself when a thread blocked in it is interrupted. Writers are
+ * request threads that may be interrupted at any time, so a closed channel is reopened
+ * on the same segment, cut back to the records already counted, and the record written
+ * again with the interrupt held back until it is in.
+ */
+public class StockJournal implements AutoCloseable {
+
+    private static final int RECORD_BYTES = 8;
+    private static final String PREFIX = "stock-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+
+    private FileChannel channel;
+    private long segment;
+    private long appended;          // Records in the open segment
+    private boolean closed;
+
+    /**
+     * Open the journal and start a new segment after every existing one
+     *
+     * @param firstSegment lowest number the new segment may take, e.g. one past the last segment
+     *                     already written to the database
+     */
+    public StockJournal(Path directory, long firstSegment) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create stock journal directory " + directory, e);
+        }
+        List<Long> existing = segments();
+        long next = existing.isEmpty() ? firstSegment : Math.max(firstSegment, existing.getLast() + 1);
+        open(next);
+    }
+
+    /**
+     * Record a change of one product's stock
+     */
+    public void append(int productId, int delta) {
+        lock.lock();
+        boolean interrupted = false;
+        try {
+            if (!channel.isOpen()) {
+                interrupted = reopen();
+            }
+            record.clear();
+            record.putInt(productId).putInt(delta).flip();
+            try {
+                write();
+            } catch (ClosedChannelException e) {
+                // Interrupted mid-write: whatever part of the record got out is cut off by reopen()
+                interrupted |= reopen();
+                record.rewind();
+                write();
+            }
+            appended++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write stock journal segment " + segment, e);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the open segment, forcing it to disk, and start the next one.
+     * Does nothing while the open segment is empty.
+     */
+    public void rotate() {
+        lock.lock();
+        boolean interrupted = false;
+        try {
+            if (appended == 0) {
+                return;
+            }
+            if (!channel.isOpen()) {
+                interrupted = reopen();
+            }
+            channel.force(false);
+            channel.close();
+            open(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rotate stock journal segment " + segment, e);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return numbers of the closed segments, oldest first
+     */
+    public List<Long> closedSegments() {
+        lock.lock();
+        try {
+            List<Long> closed = new ArrayList<>(segments());
+            closed.remove(Long.valueOf(segment));
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sum the changes of a closed segment per product
+     *
+     * @return product ID to net change; products whose changes cancel out are left out
+     */
+    public Map<Integer, Integer> read(long closedSegment) {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        try (FileChannel in = FileChannel.open(path(closedSegment), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 8192);
+            while (in.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    deltas.merge(buffer.getInt(), buffer.getInt(), Integer::sum);
+                }
+                // Keep a partial record for the next read; one left at the end was torn
+                buffer.compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read stock journal segment " + closedSegment, e);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    /**
+     * Delete a closed segment once its changes are in the database
+     */
+    public void delete(long closedSegment) {
+        try {
+            Files.deleteIfExists(path(closedSegment));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete stock journal segment " + closedSegment, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            if (channel.isOpen()) {
+                channel.force(false);
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close stock journal segment " + segment, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void write() throws IOException {
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    /**
+     * Reopen the open segment after an interrupt closed its channel, dropping anything
+     * past the records counted in appended
+     *
+     * @return whether the current thread's interrupt was cleared; the caller restores it
+     */
+    private boolean reopen() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Stock journal is closed");
+        }
+        // Cleared so the reopened channel is not closed again by the same interrupt
+        boolean interrupted = Thread.interrupted();
+        try {
+            channel = FileChannel.open(path(segment), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            channel.truncate(appended * RECORD_BYTES);
+        } catch (IOException e) {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            throw e;
+        }
+        return interrupted;
+    }
+
+    private void open(long number) {
+        try {
+            channel = FileChannel.open(path(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            segment = number;
+            appended = channel.size() / RECORD_BYTES;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open stock journal segment " + number, e);
+        }
+    }
+
+    private List<Long> segments() {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                numbers.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list stock journal directory " + directory, e);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Unexpected file in stock journal directory " + directory, e);
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private Path path(long number) {
+        return directory.resolve(String.format("%s%012d%s", PREFIX, number, SUFFIX));
+    }
+}
@@ -0,0 +1,142 @@
+package bookshop.inventory;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stock level of one SKU spread over several counters so concurrent buyers do not
+ * all compete for the same memory word.
+ *
+ * A decrement is a CAS on the caller's stripe that only succeeds while that stripe
+ * holds enough units, so no stripe and therefore the total never goes below zero.
+ * When the caller's stripe runs dry the units of all stripes are gathered under a
+ * lock, the order is served from them if possible and the rest is spread out again.
+ * Only that slow path refuses an order, and it sees every unit, so an order is never
+ * refused while enough stock exists in total.
+ *
+ * level() sums the stripes without locking; it is exact when no change is in flight.
+ */
+public final class StripedStock {
+
+    // Ints per stripe: a stripe fills one 64-byte cache line so neighbours do not false-share
+    private static final int PADDING = 16;
+
+    private final AtomicIntegerArray cells;
+    private final int stripes;
+    private final ReentrantLock rebalance = new ReentrantLock();
+
+    /**
+     * @param level initial stock level, at least 0
+     * @param stripes number of counters, rounded up to a power of two
+     */
+    public StripedStock(int level, int stripes) {
+        if (level < 0) {
+            throw new IllegalArgumentException("Stock level cannot be negative");
+        }
+        this.stripes = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.cells = new AtomicIntegerArray(this.stripes * PADDING);
+        spread(level);
+    }
+
+    /**
+     * Take units if enough are left
+     *
+     * @return true if taken, false if the total level is below amount
+     */
+    public boolean tryTake(int amount) {
+        int index = index(home());
+        int current = cells.get(index);
+        while (current >= amount) {
+            int witness = cells.compareAndExchange(index, current, current - amount);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return takeSlow(amount);
+    }
+
+    /**
+     * Add units
+     */
+    public void add(int amount) {
+        cells.getAndAdd(index(home()), amount);
+    }
+
+    /**
+     * Replace the level
+     *
+     * @return the change from the previous level
+     */
+    public int set(int level) {
+        if (level < 0) {
+            throw new IllegalArgumentException("Stock level cannot be negative");
+        }
+        rebalance.lock();
+        try {
+            int previous = drain();
+            spread(level);
+            return level - previous;
+        } finally {
+            rebalance.unlock();
+        }
+    }
+
+    /**
+     * @return the sum of all stripes
+     */
+    public int level() {
+        int sum = 0;
+        for (int s = 0; s < stripes; s++) {
+            sum += cells.get(index(s));
+        }
+        return sum;
+    }
+
+    int stripes() {
+        return stripes;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private boolean takeSlow(int amount) {
+        rebalance.lock();
+        try {
+            int total = drain();
+            boolean taken = total >= amount;
+            spread(taken ? total - amount : total);
+            return taken;
+        } finally {
+            rebalance.unlock();
+        }
+    }
+
+    /**
+     * Empty every stripe; units added concurrently either land in the sum or stay behind
+     */
+    private int drain() {
+        int total = 0;
+        for (int s = 0; s < stripes; s++) {
+            total += cells.getAndSet(index(s), 0);
+        }
+        return total;
+    }
+
+    private void spread(int level) {
+        int share = level / stripes;
+        int remainder = level % stripes;
+        for (int s = 0; s < stripes; s++) {
+            cells.getAndAdd(index(s), share + (s < remainder ? 1 : 0));
+        }
+    }
+
+    private int home() {
+        // Mix the thread ID so consecutive IDs land on different stripes
+        long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & (stripes - 1);
+    }
+
+    private static int index(int stripe) {
+        return stripe * PADDING;
+    }
+}
@@ -0,0 +1,159 @@
+package bookshop.inventory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: expires any number of deadlines with O(1) work per schedule,
+ * cancel and tick, instead of one scheduled task per deadline or polling a table.
+ *
+ * Time is cut into ticks of tickMillis. The wheel has a power-of-two number of
+ * buckets; a deadline goes into the bucket of its tick, with the number of full turns
+ * still to wait. Each tick visits one bucket: entries with no turns left expire and the
+ * others lose a turn. Deadlines fire at most one tick late.
+ *
+ * schedule() and cancel() may be called from any thread. advance() must be called by
+ * one thread at a time; it is the only one touching the buckets, and picks up newly
+ * scheduled entries from a lock-free queue.
+ */
+public final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<ArrayDeque<Entry>> buckets;
+    private final int mask;
+    private final Queue<Entry> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private long tick;      // Next tick to visit
+
+    /**
+     * @param tickMillis resolution of the wheel
+     * @param wheelSize buckets, rounded up to a power of two; one turn spans wheelSize ticks
+     * @param startMillis time of tick 0
+     */
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 1) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+        }
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Expire item at deadlineMillis
+     *
+     * @return handle to cancel the deadline
+     */
+    public Timeout schedule(T item, long deadlineMillis) {
+        Entry entry = new Entry(item, deadlineMillis);
+        pending.incrementAndGet();
+        scheduled.add(entry);
+        return entry;
+    }
+
+    /**
+     * Visit every tick up to nowMillis and hand each expired item to the consumer
+     *
+     * @return number of items expired
+     */
+    public int advance(long nowMillis, Consumer<? super T> expired) {
+        long last = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        int count = 0;
+        while (tick <= last) {
+            placeScheduled();
+            count += expire(buckets.get((int) (tick & mask)), expired);
+            tick++;
+        }
+        return count;
+    }
+
+    /**
+     * @return deadlines scheduled and neither expired nor cancelled
+     */
+    public int size() {
+        return pending.get();
+    }
+
+    /**
+     * Handle of a scheduled deadline
+     */
+    public interface Timeout {
+
+        /**
+         * @return true if the deadline was cancelled, false if it had already expired or been cancelled
+         */
+        boolean cancel();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void placeScheduled() {
+        Entry entry;
+        while ((entry = scheduled.poll()) != null) {
+            if (entry.done.get()) {
+                continue;
+            }
+            // Round up, so an entry never fires before its deadline
+            long due = Math.max(tick, Math.floorDiv(entry.deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+            entry.rounds = (due - tick) / buckets.size();
+            buckets.get((int) (due & mask)).add(entry);
+        }
+    }
+
+    private int expire(ArrayDeque<Entry> bucket, Consumer<? super T> expired) {
+        int count = 0;
+        for (Iterator<Entry> it = bucket.iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (entry.done.get()) {
+                // Cancelled; dropped when its bucket comes round
+                it.remove();
+            } else if (entry.rounds > 0) {
+                entry.rounds--;
+            } else {
+                it.remove();
+                if (entry.done.compareAndSet(false, true)) {
+                    pending.decrementAndGet();
+                    expired.accept(entry.item);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private final class Entry implements Timeout {
+
+        private final T item;
+        private final long deadlineMillis;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private long rounds;        // Full turns left; only touched by advance()
+
+        Entry(T item, long deadlineMillis) {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (done.compareAndSet(false, true)) {
+                pending.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package bookshop.models;
+
+/**
+ * One change of a product's stock level, as recorded in the inventory_movements ledger.
+ *
+ * delta is the signed change in units. A SET records the difference between the
+ * new and the replaced level, so the level of a product is always the sum of its
+ * deltas, whatever order concurrent movements were written in.
+ */
+public record InventoryMovement(int productId, Type type, int delta) {
+
+    public enum Type {
+        OPENING,    // Level found when the ledger was started
+        CREATE,
+        ADD,
+        REDUCE,
+        SET,
+        RESERVE,
+        HOLD,
+        RELEASE,
+        DELETE,
+        ADJUST      // Units the table could not follow (a level clamped at zero), so ledger and table agree
+    }
+}
@@ -0,0 +1,12 @@
+package bookshop.models;
+
+/**
+ * Stock level of a product according to the ledger (snapshot plus later movements)
+ * next to the level in the inventory table
+ */
+public record LedgerBalance(int productId, int ledgerQuantity, int quantity) {
+
+    public boolean drifted() {
+        return ledgerQuantity != quantity;
+    }
+}
@@ -5,7 +5,7 @@ import java.math.BigDecimal;
 /**
  * Product entity matching database schema
  * Table: products
- * Columns: product_id, name, price, category_id
+ * Columns: product_id, name, price, category_id, version
  */
 public class Product {
     
@@ -13,6 +13,7 @@ public class Product {
     private String name;
     private BigDecimal price;
     private int categoryId;
+    private int version;               // Incremented by every update, used for ETags
     
     // Optional: Category name (from JOIN with category table)
     private String categoryName;
@@ -34,6 +35,16 @@ public class Product {
         this.categoryId = categoryId;
     }
 
+    // Copy constructor (used by the product cache so callers never share a cached instance)
+    public Product(Product other) {
+        this.productId = other.productId;
+        this.name = other.name;
+        this.price = other.price;
+        this.categoryId = other.categoryId;
+        this.categoryName = other.categoryName;
+        this.version = other.version;
+    }
+
     // Getters and Setters
     public int getProductId() {
         return productId;
@@ -75,6 +86,14 @@ public class Product {
         this.categoryName = categoryName;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Product{" +
@@ -82,6 +101,7 @@ public class Product {
                 ", name='" + name + '\'' +
                 ", price=" + price +
                 ", categoryId=" + categoryId +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package bookshop.models;
+
+/**
+ * Outcome of a relative stock change made in a single conditional UPDATE.
+ *
+ * quantity is the level the change produced when it was applied, the level found
+ * instead when there was not enough stock, and 0 when the product has no inventory row.
+ */
+public record StockAdjustment(int productId, Status status, int quantity) {
+
+    public enum Status {
+        APPLIED,
+        INSUFFICIENT,
+        NOT_FOUND
+    }
+
+    public static StockAdjustment applied(int productId, int newQuantity) {
+        return new StockAdjustment(productId, Status.APPLIED, newQuantity);
+    }
+
+    public static StockAdjustment insufficient(int productId, int currentQuantity) {
+        return new StockAdjustment(productId, Status.INSUFFICIENT, currentQuantity);
+    }
+
+    public static StockAdjustment notFound(int productId) {
+        return new StockAdjustment(productId, Status.NOT_FOUND, 0);
+    }
+
+    public boolean isApplied() {
+        return status == Status.APPLIED;
+    }
+}
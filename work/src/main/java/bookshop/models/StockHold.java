@@ -0,0 +1,12 @@
+package bookshop.models;
+
+import java.sql.Timestamp;
+
+/**
+ * Units of one product set aside for a cart until they are bought or the hold expires.
+ *
+ * The units leave the inventory quantity when the hold is placed, so the quantity
+ * reported for a product is what is still available to other buyers.
+ */
+public record StockHold(String holdId, int productId, int quantity, Timestamp expiresAt) {
+}
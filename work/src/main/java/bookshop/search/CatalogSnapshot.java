@@ -0,0 +1,332 @@
+package bookshop.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+import bookshop.dto.request.ProductSortField;
+import bookshop.models.Product;
+
+/**
+ * Immutable view of the catalog: products, category names and stock levels.
+ *
+ * Products, their normalised names and stock levels are kept in two-level
+ * array-mapped tries indexed by product ID (a root of leaves of 1024 slots).
+ * A write copies the root and the single leaf it touches and shares every
+ * other leaf with the previous version, so publishing a change costs a few
+ * KB instead of a full copy. Sorted views are built lazily on first use; a
+ * stock change keeps them as they are, and a product change moves the one
+ * product within each view already built instead of sorting again.
+ */
+public final class CatalogSnapshot {
+
+    private static final int SHIFT = 10;
+    private static final int LEAF_SIZE = 1 << SHIFT;
+    private static final int MASK = LEAF_SIZE - 1;
+
+    // Stock slot of a product without an inventory row
+    private static final int NO_STOCK = -1;
+
+    static final CatalogSnapshot EMPTY =
+            new CatalogSnapshot(new Product[0][], new String[0][], new int[0][], Map.of(), 0, 0, noViews());
+
+    private final Product[][] products;
+    private final String[][] names;
+    private final int[][] stock;
+    private final Map<Integer, String> categories;
+    private final int size;
+    private final long version;
+
+    private final AtomicReferenceArray<List<Product>> sortedViews;
+
+    private CatalogSnapshot(Product[][] products, String[][] names, int[][] stock,
+                            Map<Integer, String> categories, int size, long version,
+                            AtomicReferenceArray<List<Product>> sortedViews) {
+        this.products = products;
+        this.names = names;
+        this.stock = stock;
+        this.categories = categories;
+        this.size = size;
+        this.version = version;
+        this.sortedViews = sortedViews;
+    }
+
+    /**
+     * Build a snapshot from a full load
+     * @param products every product in the table
+     * @param categories category ID to name
+     * @param stock product ID to quantity
+     * @param version version number of the new snapshot
+     */
+    static CatalogSnapshot of(Collection<Product> products, Map<Integer, String> categories,
+                              Map<Integer, Integer> stock, long version) {
+        int maxId = 0;
+        for (Product product : products) {
+            maxId = Math.max(maxId, product.getProductId());
+        }
+        int leaves = (maxId >>> SHIFT) + 1;
+        Product[][] productRoot = new Product[leaves][];
+        String[][] nameRoot = new String[leaves][];
+        int[][] stockRoot = new int[leaves][];
+
+        Map<Integer, String> categoryNames = new HashMap<>(categories);
+        int count = 0;
+        for (Product product : products) {
+            int id = product.getProductId();
+            Product[] productLeaf = leaf(productRoot, id, Product[]::new);
+            if (productLeaf[id & MASK] == null) {
+                count++;
+            }
+            productLeaf[id & MASK] = new Product(product);
+            leaf(nameRoot, id, String[]::new)[id & MASK] = ProductNameIndex.normalize(product.getName());
+            if (stockRoot[id >>> SHIFT] == null) {
+                stockRoot[id >>> SHIFT] = emptyStockLeaf();
+            }
+            stockRoot[id >>> SHIFT][id & MASK] = stock.getOrDefault(id, NO_STOCK);
+            if (product.getCategoryName() != null) {
+                categoryNames.putIfAbsent(product.getCategoryId(), product.getCategoryName());
+            }
+        }
+
+        return new CatalogSnapshot(productRoot, nameRoot, stockRoot,
+                Collections.unmodifiableMap(categoryNames), count, version, noViews());
+    }
+
+    // ========== READ ==========
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return number of products
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a copy of the product, if present
+     */
+    public Optional<Product> product(int productId) {
+        Product product = productAt(productId);
+        return product == null ? Optional.empty() : Optional.of(new Product(product));
+    }
+
+    /**
+     * @return stock level of the product, empty if it has no inventory row
+     */
+    public OptionalInt stock(int productId) {
+        if (productId < 0 || (productId >>> SHIFT) >= stock.length || stock[productId >>> SHIFT] == null) {
+            return OptionalInt.empty();
+        }
+        int quantity = stock[productId >>> SHIFT][productId & MASK];
+        return quantity == NO_STOCK ? OptionalInt.empty() : OptionalInt.of(quantity);
+    }
+
+    /**
+     * @return category ID to name, read-only
+     */
+    public Map<Integer, String> categories() {
+        return categories;
+    }
+
+    /**
+     * Every product (shared instances, do not modify) ordered by the sort field
+     * ascending, then product_id ascending
+     */
+    List<Product> sortedBy(ProductSortField sortField) {
+        List<Product> view = sortedViews.get(sortField.ordinal());
+        if (view == null) {
+            List<Product> sorted = new ArrayList<>(size);
+            for (Product[] leaf : products) {
+                if (leaf == null) {
+                    continue;
+                }
+                for (Product product : leaf) {
+                    if (product != null) {
+                        sorted.add(product);
+                    }
+                }
+            }
+            if (sortField != ProductSortField.PRODUCT_ID) {
+                sorted.sort(sortField.comparator("ASC"));
+            }
+            view = Collections.unmodifiableList(sorted);
+            // Racing readers may both build it; either result is identical
+            sortedViews.set(sortField.ordinal(), view);
+        }
+        return view;
+    }
+
+    /**
+     * @return the normalised name of the product, or "" if absent
+     */
+    String normalizedName(int productId) {
+        if (productId < 0 || (productId >>> SHIFT) >= names.length || names[productId >>> SHIFT] == null) {
+            return "";
+        }
+        String name = names[productId >>> SHIFT][productId & MASK];
+        return name == null ? "" : name;
+    }
+
+    // ========== WRITE (returns a new version) ==========
+
+    /**
+     * Insert or replace a product; its stock level is kept
+     */
+    CatalogSnapshot withProduct(Product product) {
+        int id = product.getProductId();
+        Product previous = productAt(id);
+        Product stored = new Product(product);
+        int newSize = previous == null ? size + 1 : size;
+
+        Map<Integer, String> newCategories = categories;
+        if (product.getCategoryName() != null
+                && !product.getCategoryName().equals(categories.get(product.getCategoryId()))) {
+            Map<Integer, String> copy = new HashMap<>(categories);
+            copy.put(product.getCategoryId(), product.getCategoryName());
+            newCategories = Collections.unmodifiableMap(copy);
+        }
+
+        return new CatalogSnapshot(
+                set(products, id, stored, Product[]::new),
+                set(names, id, ProductNameIndex.normalize(product.getName()), String[]::new),
+                stock, newCategories, newSize, version + 1, viewsReplacing(previous, stored));
+    }
+
+    /**
+     * Remove a product and, like the cascading foreign key, its stock level
+     */
+    CatalogSnapshot withoutProduct(int productId) {
+        Product previous = productAt(productId);
+        if (previous == null) {
+            return this;
+        }
+        return new CatalogSnapshot(
+                set(products, productId, null, Product[]::new),
+                set(names, productId, null, String[]::new),
+                setStock(stock, productId, NO_STOCK),
+                categories, size - 1, version + 1, viewsReplacing(previous, null));
+    }
+
+    /**
+     * Set the stock level of a product, or clear it with null.
+     * No sort key depends on stock, so the sorted views carry over.
+     */
+    CatalogSnapshot withStock(int productId, Integer quantity) {
+        return new CatalogSnapshot(products, names,
+                setStock(stock, productId, quantity == null ? NO_STOCK : quantity),
+                categories, size, version + 1, copyOf(sortedViews));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static AtomicReferenceArray<List<Product>> noViews() {
+        return new AtomicReferenceArray<>(ProductSortField.values().length);
+    }
+
+    /**
+     * Views of the new version share the built lists; a view built later by
+     * either version is not seen by the other
+     */
+    private static AtomicReferenceArray<List<Product>> copyOf(AtomicReferenceArray<List<Product>> views) {
+        AtomicReferenceArray<List<Product>> copy = noViews();
+        for (int i = 0; i < views.length(); i++) {
+            copy.set(i, views.get(i));
+        }
+        return copy;
+    }
+
+    /**
+     * The views built so far with one product taken out and/or put in at its
+     * sorted position: two binary searches and an array copy per view
+     */
+    private AtomicReferenceArray<List<Product>> viewsReplacing(Product removed, Product added) {
+        AtomicReferenceArray<List<Product>> views = noViews();
+        for (ProductSortField sortField : ProductSortField.values()) {
+            List<Product> view = sortedViews.get(sortField.ordinal());
+            if (view == null) {
+                continue;
+            }
+            Comparator<Product> order = sortField.comparator("ASC");
+            List<Product> updated = new ArrayList<>(view);
+            if (removed != null) {
+                int at = Collections.binarySearch(updated, removed, order);
+                if (at < 0) {
+                    // Not where its key says it is; leave this view to a full rebuild
+                    continue;
+                }
+                updated.remove(at);
+            }
+            if (added != null) {
+                int at = Collections.binarySearch(updated, added, order);
+                updated.add(at < 0 ? -at - 1 : at, added);
+            }
+            views.set(sortField.ordinal(), Collections.unmodifiableList(updated));
+        }
+        return views;
+    }
+
+    private Product productAt(int productId) {
+        if (productId < 0 || (productId >>> SHIFT) >= products.length || products[productId >>> SHIFT] == null) {
+            return null;
+        }
+        return products[productId >>> SHIFT][productId & MASK];
+    }
+
+    /**
+     * Path copy: new root, new leaf for the slot, every other leaf shared
+     */
+    private static <T> T[][] set(T[][] root, int id, T value, IntFunction<T[]> newLeaf) {
+        int leafIndex = id >>> SHIFT;
+        if (value == null && (leafIndex >= root.length || root[leafIndex] == null)) {
+            return root;
+        }
+        T[][] newRoot = Arrays.copyOf(root, Math.max(root.length, leafIndex + 1));
+        T[] leaf = leafIndex < root.length && root[leafIndex] != null
+                ? root[leafIndex].clone()
+                : newLeaf.apply(LEAF_SIZE);
+        leaf[id & MASK] = value;
+        newRoot[leafIndex] = leaf;
+        return newRoot;
+    }
+
+    private static int[][] setStock(int[][] root, int id, int quantity) {
+        int leafIndex = id >>> SHIFT;
+        if (quantity == NO_STOCK && (leafIndex >= root.length || root[leafIndex] == null)) {
+            return root;
+        }
+        int[][] newRoot = Arrays.copyOf(root, Math.max(root.length, leafIndex + 1));
+        int[] leaf = leafIndex < root.length && root[leafIndex] != null
+                ? root[leafIndex].clone()
+                : emptyStockLeaf();
+        leaf[id & MASK] = quantity;
+        newRoot[leafIndex] = leaf;
+        return newRoot;
+    }
+
+    private static <T> T[] leaf(T[][] root, int id, IntFunction<T[]> newLeaf) {
+        T[] leaf = root[id >>> SHIFT];
+        if (leaf == null) {
+            leaf = newLeaf.apply(LEAF_SIZE);
+            root[id >>> SHIFT] = leaf;
+        }
+        return leaf;
+    }
+
+    private static int[] emptyStockLeaf() {
+        int[] leaf = new int[LEAF_SIZE];
+        Arrays.fill(leaf, NO_STOCK);
+        return leaf;
+    }
+}
@@ -0,0 +1,46 @@
+package bookshop.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import bookshop.models.Product;
+
+/**
+ * Result of one facet scan over {@link ProductColumns}.
+ *
+ * Facets are disjunctive: category counts apply every filter except the category,
+ * and the price histogram every filter except the price range, so a sidebar can
+ * show the alternatives to the current selection.
+ */
+public class FacetScan {
+
+    private final List<Product> matches;                 // Rows matching every filter, in product_id order
+    private final Map<Integer, Long> categoryCounts;
+    private final Map<Integer, String> categoryNames;
+    private final SortedMap<Long, Long> priceBuckets;    // Bucket start in cents -> count
+
+    public FacetScan(List<Product> matches, Map<Integer, Long> categoryCounts,
+                     Map<Integer, String> categoryNames, SortedMap<Long, Long> priceBuckets) {
+        this.matches = matches;
+        this.categoryCounts = categoryCounts;
+        this.categoryNames = categoryNames;
+        this.priceBuckets = priceBuckets;
+    }
+
+    public List<Product> getMatches() {
+        return matches;
+    }
+
+    public Map<Integer, Long> getCategoryCounts() {
+        return categoryCounts;
+    }
+
+    public Map<Integer, String> getCategoryNames() {
+        return categoryNames;
+    }
+
+    public SortedMap<Long, Long> getPriceBuckets() {
+        return priceBuckets;
+    }
+}
@@ -0,0 +1,471 @@
+package bookshop.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.dto.response.ProductSuggestion;
+import bookshop.models.Product;
+
+/**
+ * Prefix trie over normalised product names for typeahead.
+ *
+ * Every name is inserted once per word start ("the great gatsby", "great gatsby",
+ * "gatsby"), so a prefix matches the beginning of any word. The trie is
+ * path-compressed (one node per branch point) and every node caches the IDs of
+ * the best MAX_SUGGESTIONS products below it, so a lookup walks the prefix and
+ * copies that list without visiting the subtree. Writes recompute the caches
+ * only along the path of the changed keys.
+ *
+ * Products are ranked by popularity (number of carts holding them), then by
+ * shorter name, then alphabetically. Popularity is reloaded periodically.
+ */
+@Component
+public class ProductAutocomplete implements ProductIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductAutocomplete.class);
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Word starts indexed per name; later words are rarely typed first
+    private static final int MAX_WORD_STARTS = 6;
+
+    private final ProductDao productDao;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Trie trie = new Trie(Map.of());
+
+    private volatile boolean ready;
+
+    @Autowired
+    public ProductAutocomplete(ProductDao productDao) {
+        this.productDao = productDao;
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        Trie built = new Trie(loadPopularity());
+        for (Product product : products) {
+            built.add(product, false);
+        }
+        built.rankAll();
+
+        lock.writeLock().lock();
+        try {
+            trie = built;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Autocomplete trie built for {} products", built.entries.size());
+    }
+
+    @Override
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            trie.remove(product.getProductId());
+            trie.add(product, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            trie.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reload popularity weights and re-rank every node if they changed
+     */
+    @Scheduled(fixedDelayString = "${bookshop.autocomplete.popularity-refresh-ms:600000}",
+            initialDelayString = "${bookshop.autocomplete.popularity-refresh-ms:600000}")
+    public void refreshPopularity() {
+        if (!ready) {
+            return;
+        }
+
+        Map<Integer, Long> popularity;
+        try {
+            popularity = productDao.countCartItemsByProduct();
+        } catch (RuntimeException e) {
+            logger.error("Failed to refresh autocomplete popularity: {}", e.getMessage());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (popularity.equals(trie.popularity)) {
+                return;
+            }
+            trie.popularity = popularity;
+            trie.rankAll();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Autocomplete popularity refreshed for {} products", popularity.size());
+    }
+
+    // ========== SEARCH ==========
+
+    /**
+     * Best completions for a prefix of any word of the name, case and accent insensitive
+     * @param prefix what the user has typed so far
+     * @param limit maximum number of suggestions, at most MAX_SUGGESTIONS
+     * @return suggestions, most popular first
+     */
+    public List<ProductSuggestion> complete(String prefix, int limit) {
+        String key = key(prefix);
+
+        lock.readLock().lock();
+        try {
+            int[] top = trie.top(key);
+            List<ProductSuggestion> suggestions = new ArrayList<>(Math.min(limit, top.length));
+            for (int i = 0; i < top.length && i < limit; i++) {
+                Entry entry = trie.entries.get(top[i]);
+                suggestions.add(ProductSuggestion.of(entry.product(), trie.weight(top[i])));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Map<Integer, Long> loadPopularity() {
+        try {
+            return productDao.countCartItemsByProduct();
+        } catch (RuntimeException e) {
+            // Rank by name only until the next refresh
+            logger.warn("Failed to load autocomplete popularity, ranking by name: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Normalised words joined by single spaces
+     */
+    static String key(String text) {
+        return String.join(" ", ProductNameIndex.normalize(text).trim().split("\\s+"));
+    }
+
+    /**
+     * Trie keys of a normalised name: the suffix starting at each of its first words
+     */
+    static Set<String> keys(String name) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (name.isEmpty()) {
+            return keys;
+        }
+        keys.add(name);
+        int start = 0;
+        for (int words = 1; words < MAX_WORD_STARTS; words++) {
+            start = name.indexOf(' ', start) + 1;
+            if (start == 0) {
+                break;
+            }
+            keys.add(name.substring(start));
+        }
+        return keys;
+    }
+
+    private record Entry(Product product, String name) {
+    }
+
+    /**
+     * Path-compressed trie node; children are kept sorted by the first char of their label
+     */
+    private static final class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final int[] NO_IDS = new int[0];
+
+        String label;
+        Node[] children = NO_CHILDREN;
+        int[] ending = NO_IDS;      // Products with a key ending here
+        int[] top = NO_IDS;         // Best products at or below this node, ranked
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int indexOf(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label.charAt(0);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        void replaceChild(Node oldChild, Node newChild) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == oldChild) {
+                    children[i] = newChild;
+                    return;
+                }
+            }
+        }
+
+        void removeChild(Node child) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    Node[] shrunk = new Node[children.length - 1];
+                    System.arraycopy(children, 0, shrunk, 0, i);
+                    System.arraycopy(children, i + 1, shrunk, i, children.length - i - 1);
+                    children = shrunk;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Trie {
+
+        final Node root = new Node("");
+        final Map<Integer, Entry> entries = new HashMap<>();
+        Map<Integer, Long> popularity;
+
+        Trie(Map<Integer, Long> popularity) {
+            this.popularity = popularity;
+        }
+
+        long weight(int productId) {
+            return popularity.getOrDefault(productId, 0L);
+        }
+
+        void add(Product product, boolean rank) {
+            String name = key(product.getName());
+            entries.put(product.getProductId(), new Entry(new Product(product), name));
+            for (String key : keys(name)) {
+                insert(key, product.getProductId(), rank);
+            }
+        }
+
+        void remove(int productId) {
+            Entry entry = entries.get(productId);
+            if (entry == null) {
+                return;
+            }
+            for (String key : keys(entry.name())) {
+                delete(key, productId);
+            }
+            // Dropped last so ranking during the deletes can still read the name
+            entries.remove(productId);
+        }
+
+        /**
+         * Ranked IDs for the node the prefix ends in (possibly partway along an edge)
+         */
+        int[] top(String prefix) {
+            Node node = root;
+            int i = 0;
+            while (i < prefix.length()) {
+                int index = node.indexOf(prefix.charAt(i));
+                if (index < 0) {
+                    return Node.NO_IDS;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, prefix, i);
+                if (i + common == prefix.length()) {
+                    return child.top;
+                }
+                if (common < child.label.length()) {
+                    return Node.NO_IDS;
+                }
+                node = child;
+                i += common;
+            }
+            return node.top;
+        }
+
+        void rankAll() {
+            rankSubtree(root);
+        }
+
+        private void rankSubtree(Node node) {
+            for (Node child : node.children) {
+                rankSubtree(child);
+            }
+            rank(node);
+        }
+
+        private void insert(String key, int productId, boolean rank) {
+            List<Node> path = new ArrayList<>();
+            path.add(root);
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                int index = node.indexOf(key.charAt(i));
+                if (index < 0) {
+                    Node leaf = new Node(key.substring(i));
+                    node.insertChild(-index - 1, leaf);
+                    node = leaf;
+                    path.add(leaf);
+                    break;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    // Split the edge; the upper half covers exactly the same products
+                    Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.children = new Node[] {child};
+                    split.top = child.top;
+                    node.children[index] = split;
+                    child = split;
+                }
+                node = child;
+                path.add(node);
+                i += common;
+            }
+
+            if (Arrays.stream(node.ending).noneMatch(id -> id == productId)) {
+                int[] grown = Arrays.copyOf(node.ending, node.ending.length + 1);
+                grown[node.ending.length] = productId;
+                node.ending = grown;
+            }
+            if (rank) {
+                for (int j = path.size() - 1; j >= 0; j--) {
+                    rank(path.get(j));
+                }
+            }
+        }
+
+        private void delete(String key, int productId) {
+            List<Node> path = new ArrayList<>();
+            path.add(root);
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                int index = node.indexOf(key.charAt(i));
+                if (index < 0 || !key.startsWith(node.children[index].label, i)) {
+                    return;
+                }
+                node = node.children[index];
+                path.add(node);
+                i += node.label.length();
+            }
+            node.ending = Arrays.stream(node.ending).filter(id -> id != productId).toArray();
+
+            // Prune empty nodes and merge pass-through nodes into their only child, bottom-up
+            for (int j = path.size() - 1; j > 0; j--) {
+                Node current = path.get(j);
+                Node parent = path.get(j - 1);
+                if (current.ending.length == 0 && current.children.length == 0) {
+                    parent.removeChild(current);
+                } else if (current.ending.length == 0 && current.children.length == 1) {
+                    // The child's subtree did not contain the key, so its ranking stands
+                    Node only = current.children[0];
+                    only.label = current.label + only.label;
+                    parent.replaceChild(current, only);
+                } else {
+                    rank(current);
+                }
+            }
+            rank(root);
+        }
+
+        /**
+         * Merge the node's own products with its children's rankings
+         */
+        private void rank(Node node) {
+            int count = node.ending.length;
+            for (Node child : node.children) {
+                count += child.top.length;
+            }
+            Integer[] candidates = new Integer[count];
+            int n = 0;
+            for (int id : node.ending) {
+                candidates[n++] = id;
+            }
+            for (Node child : node.children) {
+                for (int id : child.top) {
+                    candidates[n++] = id;
+                }
+            }
+            Arrays.sort(candidates, this::compare);
+
+            int[] top = new int[Math.min(MAX_SUGGESTIONS, count)];
+            int size = 0;
+            for (int i = 0; i < count && size < top.length; i++) {
+                // Equal IDs sort next to each other
+                if (size == 0 || top[size - 1] != candidates[i]) {
+                    top[size++] = candidates[i];
+                }
+            }
+            node.top = size == top.length ? top : Arrays.copyOf(top, size);
+        }
+
+        /**
+         * Most popular first, then shorter names, then alphabetical, then product ID
+         */
+        private int compare(int a, int b) {
+            int byWeight = Long.compare(weight(b), weight(a));
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            String nameA = entries.get(a).name();
+            String nameB = entries.get(b).name();
+            if (nameA.length() != nameB.length()) {
+                return Integer.compare(nameA.length(), nameB.length());
+            }
+            int byName = nameA.compareTo(nameB);
+            return byName != 0 ? byName : Integer.compare(a, b);
+        }
+
+        private static int commonPrefix(String label, String key, int from) {
+            int length = Math.min(label.length(), key.length() - from);
+            int i = 0;
+            while (i < length && label.charAt(i) == key.charAt(from + i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package bookshop.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import bookshop.dao.daoInterface.CategoryDao;
+import bookshop.dao.daoInterface.InventoryDao;
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.request.ProductSortField;
+import bookshop.dto.response.ProductSlice;
+import bookshop.events.StockChangedEvent;
+import bookshop.models.Category;
+import bookshop.models.Product;
+
+/**
+ * Holds the current CatalogSnapshot and publishes a new version on every write.
+ *
+ * Readers take the volatile reference once and work on that immutable version,
+ * so they never lock and always see products, categories and stock from the same
+ * point in time. Writers are serialised and publish incrementally; only a full
+ * rebuild (startup, category change) reloads categories and stock.
+ */
+@Component
+public class ProductCatalog implements ProductIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private final CategoryDao categoryDao;
+    private final InventoryDao inventoryDao;
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+    private volatile boolean ready;
+
+    // Guards publishing; stock changes during a rebuild are replayed onto the new snapshot
+    private final Object writeLock = new Object();
+    private boolean rebuilding;
+    private final List<StockChangedEvent> pendingStock = new ArrayList<>();
+
+    @Autowired
+    public ProductCatalog(CategoryDao categoryDao, InventoryDao inventoryDao) {
+        this.categoryDao = categoryDao;
+        this.inventoryDao = inventoryDao;
+    }
+
+    // ========== READ ==========
+
+    /**
+     * @return the current immutable snapshot
+     */
+    public CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public ProductSlice findAll(PageRequest pageRequest) {
+        return page(snapshot, product -> true, pageRequest);
+    }
+
+    public ProductSlice findByCategory(int categoryId, PageRequest pageRequest) {
+        return page(snapshot, product -> product.getCategoryId() == categoryId, pageRequest);
+    }
+
+    /**
+     * Same matches as name LIKE '%keyword%' (every word, case and accent insensitive)
+     */
+    public ProductSlice search(String keyword, PageRequest pageRequest) {
+        CatalogSnapshot current = snapshot;
+        String[] words = ProductNameIndex.words(keyword);
+        return page(current,
+                product -> ProductNameIndex.containsAll(current.normalizedName(product.getProductId()), words),
+                pageRequest);
+    }
+
+    public ProductSlice findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, PageRequest pageRequest) {
+        return page(snapshot,
+                product -> product.getPrice().compareTo(minPrice) >= 0 && product.getPrice().compareTo(maxPrice) <= 0,
+                pageRequest);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        synchronized (writeLock) {
+            rebuilding = true;
+            pendingStock.clear();
+        }
+
+        try {
+            Map<Integer, String> categories = new HashMap<>();
+            for (Category category : categoryDao.findAll()) {
+                categories.put(category.getCategoryId(), category.getName());
+            }
+            Map<Integer, Integer> stock = inventoryDao.findAllQuantities();
+            CatalogSnapshot built = CatalogSnapshot.of(products, categories, stock, snapshot.version() + 1);
+
+            synchronized (writeLock) {
+                for (StockChangedEvent event : pendingStock) {
+                    built = built.withStock(event.getProductId(), event.getQuantity());
+                }
+                snapshot = built;
+                ready = true;
+            }
+            logger.info("Published catalog snapshot v{} with {} products", built.version(), built.size());
+        } catch (RuntimeException e) {
+            // Keep serving the previous version (or the database while not ready)
+            logger.error("Failed to rebuild catalog snapshot: {}", e.getMessage());
+        } finally {
+            synchronized (writeLock) {
+                rebuilding = false;
+                pendingStock.clear();
+            }
+        }
+    }
+
+    @Override
+    public void put(Product product) {
+        synchronized (writeLock) {
+            snapshot = snapshot.withProduct(product);
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        synchronized (writeLock) {
+            snapshot = snapshot.withoutProduct(productId);
+        }
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        synchronized (writeLock) {
+            if (rebuilding) {
+                pendingStock.add(event);
+            }
+            snapshot = snapshot.withStock(event.getProductId(), event.getQuantity());
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static ProductSlice page(CatalogSnapshot current, Predicate<Product> filter, PageRequest pageRequest) {
+        List<Product> ascending = current.sortedBy(ProductSortField.from(pageRequest.getSortBy()));
+        return ProductPaging.page(ascending, filter, pageRequest);
+    }
+}
@@ -0,0 +1,190 @@
+package bookshop.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import bookshop.models.Product;
+
+/**
+ * Columnar in-memory view of the products table for facet queries.
+ *
+ * Each filterable attribute lives in its own array (price in cents, category,
+ * normalised name) indexed by slot, so a facet query is one sequential pass over
+ * primitive columns. Full rows are only touched for the products that match
+ * every filter. Removals move the last slot into the freed one, keeping the
+ * columns dense.
+ */
+@Component
+public class ProductColumns implements ProductIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columns, all guarded by lock
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private long[] cents = new long[INITIAL_CAPACITY];
+    private int[] categoryIds = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private Product[] rows = new Product[INITIAL_CAPACITY];
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * Filter the catalog and compute category counts and a price histogram in one pass
+     * @param keyword every word must occur in the name (null or blank for any)
+     * @param categoryId only this category (null for any)
+     * @param minPrice lower price bound, inclusive (null for none)
+     * @param maxPrice upper price bound, inclusive (null for none)
+     * @param bucketWidth width of each histogram bucket
+     * @return matching rows and facet counts
+     */
+    public FacetScan scan(String keyword, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                          BigDecimal bucketWidth) {
+        String[] words = keyword == null ? new String[0] : ProductNameIndex.words(keyword);
+        long min = minPrice == null ? Long.MIN_VALUE
+                : minPrice.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+        long max = maxPrice == null ? Long.MAX_VALUE
+                : maxPrice.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+        long width = Math.max(bucketWidth.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact(), 1);
+
+        List<Product> matches = new ArrayList<>();
+        Map<Integer, Long> categoryCounts = new HashMap<>();
+        Map<Integer, String> categoryNames = new HashMap<>();
+        SortedMap<Long, Long> priceBuckets = new TreeMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < size; slot++) {
+                if (words.length > 0 && !ProductNameIndex.containsAll(names[slot], words)) {
+                    continue;
+                }
+                long price = cents[slot];
+                int category = categoryIds[slot];
+                boolean inCategory = categoryId == null || category == categoryId;
+                boolean inPrice = price >= min && price <= max;
+
+                if (inPrice) {
+                    categoryCounts.merge(category, 1L, Long::sum);
+                    categoryNames.putIfAbsent(category, rows[slot].getCategoryName());
+                }
+                if (inCategory) {
+                    priceBuckets.merge(Math.floorDiv(price, width) * width, 1L, Long::sum);
+                }
+                if (inCategory && inPrice) {
+                    matches.add(rows[slot]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort((a, b) -> Integer.compare(a.getProductId(), b.getProductId()));
+        return new FacetScan(matches, categoryCounts, categoryNames, priceBuckets);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            int capacity = Math.max(INITIAL_CAPACITY, products.size());
+            ids = new int[capacity];
+            cents = new long[capacity];
+            categoryIds = new int[capacity];
+            names = new String[capacity];
+            rows = new Product[capacity];
+            slotById.clear();
+            size = 0;
+            for (Product product : products) {
+                upsert(product);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            upsert(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.remove(productId);
+            if (slot == null) {
+                return;
+            }
+            int last = --size;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                cents[slot] = cents[last];
+                categoryIds[slot] = categoryIds[last];
+                names[slot] = names[last];
+                rows[slot] = rows[last];
+                slotById.put(ids[slot], slot);
+            }
+            names[last] = null;
+            rows[last] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void upsert(Product product) {
+        if (product.getPrice() == null) {
+            return;
+        }
+        Integer slot = slotById.get(product.getProductId());
+        if (slot == null) {
+            if (size == ids.length) {
+                grow();
+            }
+            slot = size++;
+            slotById.put(product.getProductId(), slot);
+        }
+        ids[slot] = product.getProductId();
+        cents[slot] = ProductPriceIndex.toCents(product.getPrice());
+        categoryIds[slot] = product.getCategoryId();
+        names[slot] = ProductNameIndex.normalize(product.getName());
+        rows[slot] = new Product(product);
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        cents = Arrays.copyOf(cents, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        names = Arrays.copyOf(names, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+    }
+}
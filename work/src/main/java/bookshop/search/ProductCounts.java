@@ -0,0 +1,153 @@
+package bookshop.search;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.models.Product;
+
+/**
+ * Incrementally maintained product counts: a global total and one total per category.
+ *
+ * Seeded from the full product load, updated on every create, category move and
+ * delete, and periodically reconciled against a grouped COUNT(*) so drift from
+ * writes made outside the application is corrected. Reads are O(1) and lock-free.
+ */
+@Component
+public class ProductCounts implements ProductIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCounts.class);
+
+    private final ProductDao productDao;
+
+    // Membership is guarded by this; counters are read without locking
+    private Map<Integer, Integer> categoryByProduct = new HashMap<>();
+    private volatile Map<Integer, AtomicLong> perCategory = new ConcurrentHashMap<>();
+    private final AtomicLong total = new AtomicLong();
+
+    private volatile boolean ready;
+
+    @Autowired
+    public ProductCounts(ProductDao productDao) {
+        this.productDao = productDao;
+    }
+
+    // ========== READ ==========
+
+    /**
+     * @return total number of products
+     */
+    public long count() {
+        return total.get();
+    }
+
+    /**
+     * @param categoryId the category ID
+     * @return number of products in the category
+     */
+    public long countByCategory(int categoryId) {
+        AtomicLong counter = perCategory.get(categoryId);
+        return counter == null ? 0 : counter.get();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        Map<Integer, Integer> membership = new HashMap<>();
+        for (Product product : products) {
+            membership.put(product.getProductId(), product.getCategoryId());
+        }
+        reseed(membership);
+    }
+
+    @Override
+    public synchronized void put(Product product) {
+        Integer previous = categoryByProduct.put(product.getProductId(), product.getCategoryId());
+        if (previous == null) {
+            total.incrementAndGet();
+            counter(product.getCategoryId()).incrementAndGet();
+        } else if (previous != product.getCategoryId()) {
+            // Category move
+            counter(previous).decrementAndGet();
+            counter(product.getCategoryId()).incrementAndGet();
+        }
+    }
+
+    @Override
+    public synchronized void remove(int productId) {
+        Integer previous = categoryByProduct.remove(productId);
+        if (previous != null) {
+            total.decrementAndGet();
+            counter(previous).decrementAndGet();
+        }
+    }
+
+    /**
+     * Compare the counters with the database and reseed them if they drifted
+     */
+    @Scheduled(fixedDelayString = "${bookshop.counts.reconcile-interval-ms:300000}",
+            initialDelayString = "${bookshop.counts.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!ready) {
+            return;
+        }
+
+        try {
+            Map<Integer, Long> actual = productDao.countGroupByCategory();
+            if (matches(actual)) {
+                logger.debug("Product counts reconciled, total: {}", total.get());
+                return;
+            }
+
+            logger.warn("Product counts drifted from the database, reseeding (total was {})", total.get());
+            reseed(productDao.findCategoryIdsByProductId());
+        } catch (RuntimeException e) {
+            logger.error("Failed to reconcile product counts: {}", e.getMessage());
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private synchronized boolean matches(Map<Integer, Long> actual) {
+        long actualTotal = actual.values().stream().mapToLong(Long::longValue).sum();
+        if (actualTotal != total.get()) {
+            return false;
+        }
+        for (Map.Entry<Integer, Long> entry : actual.entrySet()) {
+            if (countByCategory(entry.getKey()) != entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void reseed(Map<Integer, Integer> membership) {
+        Map<Integer, AtomicLong> counters = new ConcurrentHashMap<>();
+        for (Integer categoryId : membership.values()) {
+            counters.computeIfAbsent(categoryId, id -> new AtomicLong()).incrementAndGet();
+        }
+        categoryByProduct = new HashMap<>(membership);
+        perCategory = counters;
+        total.set(membership.size());
+        ready = true;
+    }
+
+    private AtomicLong counter(int categoryId) {
+        return perCategory.computeIfAbsent(categoryId, id -> new AtomicLong());
+    }
+}
@@ -0,0 +1,366 @@
+package bookshop.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import bookshop.models.Product;
+
+/**
+ * Typo-tolerant name search over a BK-tree of the words used in product names.
+ *
+ * Each distinct normalised word is a node of a BK-tree keyed by Levenshtein
+ * distance, and maps to a posting list of the products whose name contains it.
+ * A keyword word is looked up with a radius of two edits: the triangle
+ * inequality lets the walk skip every subtree outside [d - 2, d + 2], and a visit
+ * budget caps the work per word so latency stays bounded on a large vocabulary.
+ * Candidates are then confirmed with optimal string alignment distance (a swap
+ * of adjacent letters counts as one edit) against a length-dependent limit.
+ *
+ * Every keyword word must match some word of the name; products are ranked by
+ * the summed distance, then by fewer words in the name, then by product_id.
+ */
+@Component
+public class ProductFuzzyIndex implements ProductIndex {
+
+    public static final int MAX_RESULTS = 100;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Levenshtein radius of the tree walk; a swap costs two there but one in the final check
+    private static final int SEARCH_RADIUS = 2;
+
+    // Tree nodes examined per keyword word
+    private static final int MAX_VISITS = 5000;
+
+    // Keyword words considered; the rest are ignored
+    private static final int MAX_TERMS = 6;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Map<Integer, Product> documents = new HashMap<>();
+    private Map<Integer, String[]> productWords = new HashMap<>();
+    private Map<String, SortedIntList> postings = new HashMap<>();
+    private BkTree vocabulary = new BkTree();
+
+    private volatile boolean ready;
+
+    // ========== MAINTENANCE ==========
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        Map<Integer, Product> newDocuments = new HashMap<>();
+        Map<Integer, String[]> newWords = new HashMap<>();
+        Map<String, SortedIntList> newPostings = new HashMap<>();
+        BkTree newVocabulary = new BkTree();
+
+        products.stream()
+                .sorted(Comparator.comparingInt(Product::getProductId))
+                .forEach(product -> {
+                    String[] words = tokens(product.getName());
+                    newDocuments.put(product.getProductId(), new Product(product));
+                    newWords.put(product.getProductId(), words);
+                    for (String word : words) {
+                        newPostings.computeIfAbsent(word, w -> {
+                            newVocabulary.add(w);
+                            return new SortedIntList();
+                        }).add(product.getProductId());
+                    }
+                });
+
+        lock.writeLock().lock();
+        try {
+            documents = newDocuments;
+            productWords = newWords;
+            postings = newPostings;
+            vocabulary = newVocabulary;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.getProductId());
+            String[] words = tokens(product.getName());
+            documents.put(product.getProductId(), new Product(product));
+            productWords.put(product.getProductId(), words);
+            for (String word : words) {
+                postings.computeIfAbsent(word, w -> {
+                    vocabulary.add(w);
+                    return new SortedIntList();
+                }).add(product.getProductId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== SEARCH ==========
+
+    /**
+     * Products whose name approximately contains every word of the keyword
+     * @param keyword one or more words, possibly misspelt
+     * @return copies of at most MAX_RESULTS products, closest match first
+     */
+    public List<Product> search(String keyword) {
+        String[] terms = Arrays.stream(tokens(keyword)).limit(MAX_TERMS).toArray(String[]::new);
+        if (terms.length == 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Product ID to summed distance over the terms matched so far
+            Map<Integer, Integer> scores = null;
+            for (String term : terms) {
+                Map<Integer, Integer> termScores = new HashMap<>();
+                matches(term).forEach((word, distance) -> {
+                    for (int productId : postings.get(word).toArray()) {
+                        termScores.merge(productId, distance, Math::min);
+                    }
+                });
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Integer, Integer> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Integer, Integer> entry : termScores.entrySet()) {
+                        Integer score = previous.get(entry.getKey());
+                        if (score != null) {
+                            scores.put(entry.getKey(), score + entry.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Map<Integer, Integer> ranked = scores;
+            return ranked.keySet().stream()
+                    .sorted(Comparator.<Integer>comparingInt(ranked::get)
+                            .thenComparingInt(id -> productWords.get(id).length)
+                            .thenComparingInt(Integer::intValue))
+                    .limit(MAX_RESULTS)
+                    .map(id -> new Product(documents.get(id)))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Vocabulary words within the edit limit of the term, with their distance
+     */
+    private Map<String, Integer> matches(String term) {
+        int maxEdits = maxEdits(term);
+        if (maxEdits == 0) {
+            return postings.containsKey(term) ? Map.of(term, 0) : Map.of();
+        }
+
+        Map<String, Integer> matches = new HashMap<>();
+        for (String word : vocabulary.within(term, SEARCH_RADIUS, MAX_VISITS)) {
+            // Words whose last product was removed stay in the tree until the next rebuild
+            if (!postings.containsKey(word)) {
+                continue;
+            }
+            int distance = alignmentDistance(term, word);
+            if (distance <= maxEdits) {
+                matches.put(word, distance);
+            }
+        }
+        return matches;
+    }
+
+    private void removeLocked(int productId) {
+        String[] words = productWords.remove(productId);
+        if (words == null) {
+            return;
+        }
+        documents.remove(productId);
+        for (String word : words) {
+            SortedIntList list = postings.get(word);
+            if (list != null) {
+                list.remove(productId);
+                if (list.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Edits tolerated for a word: none up to 3 letters, one up to 5, two beyond
+     */
+    static int maxEdits(String word) {
+        if (word.length() <= 3) {
+            return 0;
+        }
+        return word.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Distinct normalised words, split on anything that is not a letter or digit
+     */
+    static String[] tokens(String text) {
+        return Arrays.stream(NON_WORD.split(ProductNameIndex.normalize(text)))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Levenshtein distance where swapping two adjacent letters is also one edit
+     */
+    static int alignmentDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    /**
+     * BK-tree: each child hangs off its parent at its Levenshtein distance from the parent's word
+     */
+    private static final class BkTree {
+
+        private Node root;
+
+        void add(String word) {
+            if (root == null) {
+                root = new Node(word);
+                return;
+            }
+            Node node = root;
+            while (true) {
+                int distance = levenshtein(word, node.word);
+                if (distance == 0) {
+                    return;
+                }
+                Node child = node.child(distance);
+                if (child == null) {
+                    node.setChild(distance, new Node(word));
+                    return;
+                }
+                node = child;
+            }
+        }
+
+        /**
+         * Words within the radius, visiting at most maxVisits nodes (closest subtrees are not preferred)
+         */
+        List<String> within(String term, int radius, int maxVisits) {
+            List<String> found = new ArrayList<>();
+            if (root == null) {
+                return found;
+            }
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            int visits = 0;
+            while (!pending.isEmpty() && visits++ < maxVisits) {
+                Node node = pending.pop();
+                int distance = levenshtein(term, node.word);
+                if (distance <= radius) {
+                    found.add(node.word);
+                }
+                int from = Math.max(1, distance - radius);
+                int to = Math.min(node.children.length - 1, distance + radius);
+                for (int d = from; d <= to; d++) {
+                    if (node.children[d] != null) {
+                        pending.push(node.children[d]);
+                    }
+                }
+            }
+            return found;
+        }
+    }
+
+    private static final class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        final String word;
+        Node[] children = NO_CHILDREN;   // Indexed by distance
+
+        Node(String word) {
+            this.word = word;
+        }
+
+        Node child(int distance) {
+            return distance < children.length ? children[distance] : null;
+        }
+
+        void setChild(int distance, Node child) {
+            if (distance >= children.length) {
+                children = Arrays.copyOf(children, distance + 1);
+            }
+            children[distance] = child;
+        }
+    }
+}
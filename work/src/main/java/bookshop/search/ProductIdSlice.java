@@ -0,0 +1,23 @@
+package bookshop.search;
+
+/**
+ * One page of product IDs, in page order, plus the total number of matches
+ */
+public class ProductIdSlice {
+
+    private final int[] ids;
+    private final long totalElements;
+
+    public ProductIdSlice(int[] ids, long totalElements) {
+        this.ids = ids;
+        this.totalElements = totalElements;
+    }
+
+    public int[] getIds() {
+        return ids;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+}
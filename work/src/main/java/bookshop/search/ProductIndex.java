@@ -0,0 +1,43 @@
+package bookshop.search;
+
+import java.util.Collection;
+
+import bookshop.models.Product;
+
+/**
+ * An in-memory structure derived from the products table.
+ * Built once from a full load by ProductIndexLoader, then kept current
+ * with upserts and removals as products are written.
+ */
+public interface ProductIndex {
+
+    /**
+     * Replace the whole index with the given products and mark it ready
+     * @param products every product in the table
+     */
+    void rebuild(Collection<Product> products);
+
+    /**
+     * Insert or replace one product
+     * @param product the current database row of the product
+     */
+    void put(Product product);
+
+    /**
+     * Remove one product; unknown IDs are ignored
+     * @param productId the product ID
+     */
+    void remove(int productId);
+
+    /**
+     * @return true once the first rebuild has completed
+     */
+    boolean isReady();
+
+    /**
+     * Called after a load once the changes queued during it have been replayed,
+     * when every index is current again
+     */
+    default void loaded() {
+    }
+}
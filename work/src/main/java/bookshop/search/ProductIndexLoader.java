@@ -0,0 +1,164 @@
+package bookshop.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.events.CategoryChangedEvent;
+import bookshop.events.ProductChangedEvent;
+import bookshop.models.Product;
+
+/**
+ * Builds every ProductIndex from one full table load and keeps them current.
+ *
+ * The load runs in the background after startup so the application does not
+ * wait on the database; until it finishes the indexes report not ready and
+ * services fall back to SQL. Product changes that arrive during a load are
+ * queued and replayed once it completes. Outside a load, a change re-reads its
+ * row before taking the lock and only the index update runs under it; when
+ * reads of the same product overlap, the one that started last wins.
+ */
+@Component
+public class ProductIndexLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexLoader.class);
+
+    private final ProductDao productDao;
+    private final List<ProductIndex> indexes;
+
+    private final Object lock = new Object();
+    private boolean loading;
+    private boolean reloadRequested;
+    private final List<ProductChangedEvent> pending = new ArrayList<>();
+    private long reads;
+    // Product ID to the ticket of its most recent row read not yet applied
+    private final Map<Integer, Long> latestReads = new HashMap<>();
+
+    @Autowired
+    public ProductIndexLoader(ProductDao productDao, List<ProductIndex> indexes) {
+        this.productDao = productDao;
+        this.indexes = indexes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadAsync();
+    }
+
+    /**
+     * Rebuild all indexes from the database on a background thread
+     */
+    public void reloadAsync() {
+        Thread.ofVirtual().name("product-index-loader").start(this::reload);
+    }
+
+    /**
+     * Rebuild all indexes from the database on the calling thread
+     */
+    public void reload() {
+        synchronized (lock) {
+            if (loading) {
+                // The running load may have read the table before the caller's writes
+                reloadRequested = true;
+                return;
+            }
+            loading = true;
+        }
+
+        boolean again;
+        try {
+            long start = System.currentTimeMillis();
+            List<Product> products = productDao.findAll();
+            for (ProductIndex index : indexes) {
+                index.rebuild(products);
+            }
+            logger.info("Built {} product indexes from {} products in {} ms",
+                    indexes.size(), products.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build product indexes, falling back to SQL: {}", e.getMessage());
+        } finally {
+            List<ProductChangedEvent> replay;
+            synchronized (lock) {
+                replay = new ArrayList<>(pending);
+                pending.clear();
+                loading = false;
+                again = reloadRequested;
+                reloadRequested = false;
+            }
+            replay.forEach(this::onProductChanged);
+            indexes.forEach(ProductIndex::loaded);
+        }
+
+        if (again) {
+            reload();
+        }
+    }
+
+    /**
+     * Indexed products carry their category name, and a category delete cascades
+     * to its products in the database, so rebuild from scratch
+     */
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.affectsProducts()) {
+            reloadAsync();
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        int productId = event.getProductId();
+        long ticket;
+        synchronized (lock) {
+            if (loading) {
+                pending.add(event);
+                return;
+            }
+            ticket = ++reads;
+            latestReads.put(productId, ticket);
+        }
+
+        // Read the row without the lock so a slow query does not hold up other changes
+        Optional<Product> current = Optional.empty();
+        if (event.getType() != ProductChangedEvent.Type.DELETED) {
+            try {
+                current = productDao.findById(productId);
+            } catch (RuntimeException e) {
+                logger.error("Failed to refresh product {} in indexes, scheduling full reload", productId, e);
+                synchronized (lock) {
+                    latestReads.remove(productId, ticket);
+                }
+                reloadAsync();
+                return;
+            }
+        }
+
+        synchronized (lock) {
+            // A read of the same product that started later has seen a row at least as new
+            if (!latestReads.remove(productId, ticket)) {
+                return;
+            }
+            if (loading) {
+                // A load started during the read; it may replace whatever is applied now
+                pending.add(event);
+                return;
+            }
+            if (current.isPresent()) {
+                Product product = current.get();
+                indexes.forEach(index -> index.put(product));
+            } else {
+                indexes.forEach(index -> index.remove(productId));
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package bookshop.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.response.ProductSlice;
+import bookshop.models.Product;
+
+/**
+ * In-memory trigram inverted index over product names.
+ *
+ * Every normalised name is split into 3-character grams, and each gram maps to a
+ * posting list of product IDs sorted ascending. A keyword is matched by
+ * intersecting the posting lists of its grams and then confirming the substring,
+ * which gives the same rows as name LIKE '%keyword%' without a table scan.
+ * Multi-word keywords match names containing every word (AND).
+ */
+@Component
+public class ProductNameIndex implements ProductIndex {
+
+    private static final int GRAM = 3;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Words of a keyword that are matched; later ones are ignored, as in ProductDaoImp
+    private static final int MAX_WORDS = 8;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Map<Integer, Product> documents = new HashMap<>();
+    private Map<Integer, String> normalizedNames = new HashMap<>();
+    private Map<String, SortedIntList> postings = new HashMap<>();
+    private SortedIntList allIds = new SortedIntList();
+
+    private volatile boolean ready;
+
+    // ========== MAINTENANCE ==========
+
+    @Override
+    public void rebuild(Collection<Product> products) {
+        Map<Integer, Product> newDocuments = new HashMap<>();
+        Map<Integer, String> newNames = new HashMap<>();
+        Map<String, SortedIntList> newPostings = new HashMap<>();
+        SortedIntList newAllIds = new SortedIntList();
+
+        products.stream()
+                .sorted((a, b) -> Integer.compare(a.getProductId(), b.getProductId()))
+                .forEach(product -> {
+                    String name = normalize(product.getName());
+                    newDocuments.put(product.getProductId(), new Product(product));
+                    newNames.put(product.getProductId(), name);
+                    newAllIds.add(product.getProductId());
+                    for (String gram : grams(name)) {
+                        newPostings.computeIfAbsent(gram, g -> new SortedIntList()).add(product.getProductId());
+                    }
+                });
+
+        lock.writeLock().lock();
+        try {
+            documents = newDocuments;
+            normalizedNames = newNames;
+            postings = newPostings;
+            allIds = newAllIds;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.getProductId());
+            String name = normalize(product.getName());
+            documents.put(product.getProductId(), new Product(product));
+            normalizedNames.put(product.getProductId(), name);
+            allIds.add(product.getProductId());
+            for (String gram : grams(name)) {
+                postings.computeIfAbsent(gram, g -> new SortedIntList()).add(product.getProductId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== SEARCH ==========
+
+    /**
+     * Page of products whose name contains every word of the keyword
+     * @param keyword one or more words
+     * @param pageRequest pagination and sort parameters
+     * @return the page and the exact number of matches
+     */
+    public ProductSlice search(String keyword, PageRequest pageRequest) {
+        return ProductPaging.page(search(keyword), pageRequest);
+    }
+
+    /**
+     * All products whose name contains every word of the keyword, in product_id order
+     */
+    public List<Product> search(String keyword) {
+        String[] words = words(keyword);
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(words);
+            List<Product> matches = new ArrayList<>();
+            for (int productId : candidates) {
+                String name = normalizedNames.get(productId);
+                if (containsAll(name, words)) {
+                    matches.add(documents.get(productId));
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Intersect the posting lists of every gram of every word, shortest list first.
+     * Words shorter than a gram do not narrow the candidates.
+     */
+    private int[] candidates(String[] words) {
+        List<SortedIntList> lists = new ArrayList<>();
+        for (String word : words) {
+            for (String gram : grams(word)) {
+                SortedIntList list = postings.get(gram);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+        }
+        if (lists.isEmpty()) {
+            return allIds.toArray();
+        }
+
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        int[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).retainAll(result);
+        }
+        return result;
+    }
+
+    private void removeLocked(int productId) {
+        String name = normalizedNames.remove(productId);
+        if (name == null) {
+            return;
+        }
+        documents.remove(productId);
+        allIds.remove(productId);
+        for (String gram : grams(name)) {
+            SortedIntList list = postings.get(gram);
+            if (list != null) {
+                list.remove(productId);
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    static boolean containsAll(String name, String[] words) {
+        for (String word : words) {
+            if (!name.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Distinct grams of a normalised string
+     */
+    static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Split a keyword into normalised words, the first MAX_WORDS distinct ones
+     */
+    static String[] words(String keyword) {
+        String normalized = normalize(keyword).trim();
+        if (normalized.isEmpty()) {
+            return new String[0];
+        }
+        return Arrays.stream(WHITESPACE.split(normalized)).distinct().limit(MAX_WORDS).toArray(String[]::new);
+    }
+
+    /**
+     * Lower-case and strip accents, matching the case/accent-insensitive collation of the name column
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,125 @@
+package bookshop.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import bookshop.dto.request.PageCursor;
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.request.ProductSortField;
+import bookshop.dto.response.PageResponse;
+import bookshop.dto.response.ProductSlice;
+import bookshop.models.Product;
+
+/**
+ * Sorts and slices in-memory matches exactly like ProductDaoImp pages SQL results,
+ * for both OFFSET and keyset page requests.
+ */
+public final class ProductPaging {
+
+    private ProductPaging() {
+    }
+
+    /**
+     * @param matchesById every matching product, in ascending product_id order
+     * @param pageRequest pagination and sort parameters
+     * @return the requested page (copies) and the total number of matches
+     */
+    public static ProductSlice page(List<Product> matchesById, PageRequest pageRequest) {
+        ProductSortField sortField = ProductSortField.from(pageRequest.getSortBy());
+        Comparator<Product> order = sortField.comparator(pageRequest.getDirection());
+
+        List<Product> sorted;
+        if (sortField == ProductSortField.PRODUCT_ID) {
+            // Already in product_id order, no sort needed
+            sorted = "DESC".equals(pageRequest.getDirection()) ? matchesById.reversed() : matchesById;
+        } else {
+            sorted = new ArrayList<>(matchesById);
+            sorted.sort(order);
+        }
+
+        int from;
+        if (pageRequest.isKeyset()) {
+            int pos = Collections.binarySearch(sorted, pageRequest.getCursor().toProbe(), order);
+            from = pos >= 0 ? pos + 1 : -pos - 1;
+        } else {
+            from = (int) Math.min((long) pageRequest.getOffset(), sorted.size());
+        }
+        int to = Math.min(from + pageRequest.getSize(), sorted.size());
+
+        List<Product> content = new ArrayList<>(to - from);
+        for (Product product : sorted.subList(from, to)) {
+            content.add(new Product(product));
+        }
+        return new ProductSlice(content, matchesById.size());
+    }
+
+    /**
+     * Page through a pre-sorted list without sorting or copying it: one pass
+     * counts the matches and collects the requested page.
+     *
+     * @param ascending every candidate, ordered by the request's sort field ascending, then product_id
+     * @param filter which candidates match
+     * @param pageRequest pagination and sort parameters
+     * @return the requested page (copies) and the total number of matches
+     */
+    public static ProductSlice page(List<Product> ascending, Predicate<Product> filter, PageRequest pageRequest) {
+        ProductSortField sortField = ProductSortField.from(pageRequest.getSortBy());
+        Comparator<Product> order = sortField.comparator(pageRequest.getDirection());
+        List<Product> sorted = "DESC".equals(pageRequest.getDirection()) ? ascending.reversed() : ascending;
+
+        int start = 0;
+        long skip = 0;
+        if (pageRequest.isKeyset()) {
+            int pos = Collections.binarySearch(sorted, pageRequest.getCursor().toProbe(), order);
+            start = pos >= 0 ? pos + 1 : -pos - 1;
+        } else {
+            skip = pageRequest.getOffset();
+        }
+
+        List<Product> content = new ArrayList<>(pageRequest.getSize());
+        long total = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            Product product = sorted.get(i);
+            if (!filter.test(product)) {
+                continue;
+            }
+            total++;
+            if (i < start || content.size() == pageRequest.getSize()) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            content.add(new Product(product));
+        }
+        return new ProductSlice(content, total);
+    }
+
+    /**
+     * Build the page response and attach the keyset cursor for the next page.
+     * In keyset mode the page number is not meaningful, so first/last follow the cursor.
+     */
+    public static PageResponse<Product> toPageResponse(List<Product> products, PageRequest pageRequest,
+                                                       long totalElements) {
+        PageResponse<Product> response =
+                new PageResponse<>(products, pageRequest.getPage(), pageRequest.getSize(), totalElements);
+
+        boolean fullPage = products.size() == pageRequest.getSize();
+        boolean hasMore = pageRequest.isKeyset() ? fullPage : fullPage && !response.isLast();
+        if (hasMore) {
+            Product last = products.get(products.size() - 1);
+            response.setNext(PageCursor.after(last, pageRequest).encode());
+        }
+
+        if (pageRequest.isKeyset()) {
+            response.setFirst(false);
+            response.setLast(!hasMore);
+        }
+
+        return response;
+    }
+}
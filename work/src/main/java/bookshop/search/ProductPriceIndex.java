@@ -0,0 +1,280 @@
+package bookshop.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import bookshop.dto.request.PageCursor;
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.request.ProductSortField;
+import bookshop.models.Product;
+
+/**
+ * Sorted in-memory price index: parallel arrays of price in cents and product_id,
+ * ordered by (price, product_id) like the SQL price sort.
+ *
+ * A price range is two binary searches, its count is the distance between them,
+ * and a price-sorted page is a slice of the ID array. The arrays are copy-on-write
+ * behind a volatile reference, so reads never lock; each write copies them once.
+ */
+@Component
+public class ProductPriceIndex implements ProductIndex {
+
+    private static final Snapshot EMPTY = new Snapshot(new long[0], new int[0]);
+
+    private volatile Snapshot snapshot = EMPTY;
+    private final Map<Integer, Long> centsById = new HashMap<>();  // guarded by this
+    private volatile boolean ready;
+
+    // ========== READ ==========
+
+    /**
+     * @return number of products priced within [minPrice, maxPrice]
+     */
+    public long count(BigDecimal minPrice, BigDecimal maxPrice) {
+        Snapshot current = snapshot;
+        return Math.max(current.upperBound(floorCents(maxPrice)) - current.lowerBound(ceilCents(minPrice)), 0);
+    }
+
+    /**
+     * Whether {@link #page} can serve this sort order without loading rows
+     */
+    public static boolean canPage(PageRequest pageRequest) {
+        ProductSortField sortField = ProductSortField.from(pageRequest.getSortBy());
+        return sortField == ProductSortField.PRICE || sortField == ProductSortField.PRODUCT_ID;
+    }
+
+    /**
+     * Page through products priced within [minPrice, maxPrice], sorted by price or product ID
+     * @return IDs of the requested page in page order, and the number of matches
+     */
+    public ProductIdSlice page(BigDecimal minPrice, BigDecimal maxPrice, PageRequest pageRequest) {
+        Snapshot current = snapshot;
+        int lo = current.lowerBound(ceilCents(minPrice));
+        int hi = Math.max(current.upperBound(floorCents(maxPrice)), lo);
+        boolean descending = "DESC".equals(pageRequest.getDirection());
+
+        int[] ordered;
+        int from;
+        int to;
+        if (ProductSortField.from(pageRequest.getSortBy()) == ProductSortField.PRICE) {
+            ordered = current.ids;
+            from = lo;
+            to = hi;
+        } else {
+            ordered = Arrays.copyOfRange(current.ids, lo, hi);
+            Arrays.sort(ordered);
+            from = 0;
+            to = ordered.length;
+        }
+
+        int size = pageRequest.getSize();
+        int[] page;
+        if (pageRequest.isKeyset()) {
+            page = keysetPage(current, ordered, from, to, pageRequest.getCursor(), descending, size);
+        } else if (!descending) {
+            int start = (int) Math.min((long) from + pageRequest.getOffset(), to);
+            page = Arrays.copyOfRange(ordered, start, Math.min(start + size, to));
+        } else {
+            int start = (int) Math.max((long) to - 1 - pageRequest.getOffset(), from - 1);
+            page = reverseSlice(ordered, start, Math.max(start - size, from - 1));
+        }
+        return new ProductIdSlice(page, hi - lo);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @Override
+    public synchronized void rebuild(Collection<Product> products) {
+        List<Product> sorted = new ArrayList<>(products.size());
+        for (Product product : products) {
+            if (product.getPrice() != null) {
+                sorted.add(product);
+            }
+        }
+        sorted.sort(Comparator.comparing(Product::getPrice).thenComparingInt(Product::getProductId));
+
+        long[] cents = new long[sorted.size()];
+        int[] ids = new int[sorted.size()];
+        centsById.clear();
+        for (int i = 0; i < sorted.size(); i++) {
+            cents[i] = toCents(sorted.get(i).getPrice());
+            ids[i] = sorted.get(i).getProductId();
+            centsById.put(ids[i], cents[i]);
+        }
+        snapshot = new Snapshot(cents, ids);
+        ready = true;
+    }
+
+    @Override
+    public synchronized void put(Product product) {
+        if (product.getPrice() == null) {
+            remove(product.getProductId());
+            return;
+        }
+        long cents = toCents(product.getPrice());
+        Long previous = centsById.get(product.getProductId());
+        if (previous != null && previous == cents) {
+            return;
+        }
+
+        Snapshot current = previous == null ? snapshot : snapshot.without(previous, product.getProductId());
+        snapshot = current.with(cents, product.getProductId());
+        centsById.put(product.getProductId(), cents);
+    }
+
+    @Override
+    public synchronized void remove(int productId) {
+        Long previous = centsById.remove(productId);
+        if (previous != null) {
+            snapshot = snapshot.without(previous, productId);
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static int[] keysetPage(Snapshot current, int[] ordered, int from, int to, PageCursor cursor,
+                                    boolean descending, int size) {
+        int lastId = cursor.getLastProductId();
+        int atCursor;     // first index sorting at or after the cursor row
+        int afterCursor;  // first index sorting strictly after it
+        if (ordered == current.ids) {
+            long lastCents = toCents((BigDecimal) cursor.getLastKeyValue());
+            atCursor = current.position(lastCents, lastId);
+            afterCursor = current.position(lastCents, lastId + 1);
+        } else {
+            atCursor = insertionPoint(ordered, from, to, lastId);
+            afterCursor = insertionPoint(ordered, from, to, lastId + 1);
+        }
+
+        if (!descending) {
+            int start = Math.min(Math.max(afterCursor, from), to);
+            return Arrays.copyOfRange(ordered, start, Math.min(start + size, to));
+        }
+        int start = Math.min(atCursor, to) - 1;
+        return reverseSlice(ordered, start, Math.max(start - size, from - 1));
+    }
+
+    private static int insertionPoint(int[] sortedIds, int from, int to, int productId) {
+        int found = Arrays.binarySearch(sortedIds, from, to, productId);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    /**
+     * Elements ordered[start], ordered[start - 1], ... down to (excluding) ordered[stop]
+     */
+    private static int[] reverseSlice(int[] ordered, int start, int stop) {
+        int[] page = new int[Math.max(start - stop, 0)];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = ordered[start - i];
+        }
+        return page;
+    }
+
+    static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static long ceilCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+
+    private static long floorCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+    }
+
+    /**
+     * Immutable sorted arrays; replaced as a whole on every write
+     */
+    private static final class Snapshot {
+
+        private final long[] cents;
+        private final int[] ids;
+
+        private Snapshot(long[] cents, int[] ids) {
+            this.cents = cents;
+            this.ids = ids;
+        }
+
+        /**
+         * First index with price >= cents
+         */
+        int lowerBound(long value) {
+            int lo = 0;
+            int hi = cents.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cents[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * First index with price > cents
+         */
+        int upperBound(long value) {
+            return value == Long.MAX_VALUE ? cents.length : lowerBound(value + 1);
+        }
+
+        /**
+         * First index whose (price, id) is >= the given pair
+         */
+        int position(long value, int productId) {
+            int lo = 0;
+            int hi = cents.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cents[mid] < value || (cents[mid] == value && ids[mid] < productId)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        Snapshot with(long value, int productId) {
+            int at = position(value, productId);
+            long[] newCents = new long[cents.length + 1];
+            int[] newIds = new int[ids.length + 1];
+            System.arraycopy(cents, 0, newCents, 0, at);
+            System.arraycopy(ids, 0, newIds, 0, at);
+            newCents[at] = value;
+            newIds[at] = productId;
+            System.arraycopy(cents, at, newCents, at + 1, cents.length - at);
+            System.arraycopy(ids, at, newIds, at + 1, ids.length - at);
+            return new Snapshot(newCents, newIds);
+        }
+
+        Snapshot without(long value, int productId) {
+            int at = position(value, productId);
+            if (at == ids.length || ids[at] != productId) {
+                return this;
+            }
+            long[] newCents = new long[cents.length - 1];
+            int[] newIds = new int[ids.length - 1];
+            System.arraycopy(cents, 0, newCents, 0, at);
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(cents, at + 1, newCents, at, cents.length - at - 1);
+            System.arraycopy(ids, at + 1, newIds, at, ids.length - at - 1);
+            return new Snapshot(newCents, newIds);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package bookshop.services.serviceInterface;
 
 import bookshop.models.Category;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -29,6 +31,13 @@ public interface CategoryService {
      */
     Optional<Category> getCategoryById(int categoryId);
 
+    /**
+     * Get several categories in one round trip
+     * @param categoryIds the category IDs
+     * @return category ID to category, for the IDs that exist
+     */
+    Map<Integer, Category> getCategoriesByIds(Collection<Integer> categoryIds);
+
     /**
      * Update a category
      * @param category the category to update
@@ -1,7 +1,16 @@
 package bookshop.services.serviceInterface;
 
+import bookshop.dto.request.ReadMode;
+import bookshop.dto.response.LedgerReplayResult;
 import bookshop.models.Inventory;
+import bookshop.models.StockAdjustment;
+import bookshop.models.StockHold;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 /**
  * Service interface for Inventory business logic operations
@@ -22,6 +31,13 @@ public interface InventoryService {
      */
     Optional<Inventory> getInventoryByProductId(int productId);
 
+    /**
+     * Get inventory information for several products in one round trip
+     * @param productIds the product IDs
+     * @return product ID to inventory, for the products that have an inventory record
+     */
+    Map<Integer, Inventory> getInventoriesByProductIds(Collection<Integer> productIds);
+
     /**
      * Update the quantity for a product
      * @param productId the product ID
@@ -46,6 +62,39 @@ public interface InventoryService {
      */
     Inventory reduceStock(int productId, int quantityToReduce);
 
+    /**
+     * Reduce stock of several products at once (for checkout): all lines or none
+     * @param quantities product ID to the quantity to reduce
+     * @return the new stock level of each product, in product ID order
+     * @throws bookshop.exceptions.StockReservationException if any line cannot be served; nothing is reduced
+     */
+    List<StockAdjustment> reserveStock(Map<Integer, Integer> quantities);
+
+    /**
+     * Take units out of stock for a limited time, e.g. while a cart is paid
+     * @param productId the product ID
+     * @param quantity the quantity to hold
+     * @param ttl how long the hold lasts; null for the configured default
+     * @return the hold; its units come back into stock when it is released or expires
+     */
+    StockHold holdStock(int productId, int quantity, Duration ttl);
+
+    /**
+     * Turn a hold into a sale: its units stay out of stock
+     * @param holdId the hold ID
+     * @return the committed hold
+     * @throws bookshop.exceptions.StockHoldNotFoundException if the hold was already committed, released or expired
+     */
+    StockHold commitHold(String holdId);
+
+    /**
+     * Give up a hold: its units go back into stock
+     * @param holdId the hold ID
+     * @return the released hold
+     * @throws bookshop.exceptions.StockHoldNotFoundException if the hold was already committed, released or expired
+     */
+    StockHold releaseHold(String holdId);
+
     /**
      * Check if a product has sufficient stock
      * @param productId the product ID
@@ -61,6 +110,14 @@ public interface InventoryService {
      */
     boolean isInStock(int productId);
 
+    /**
+     * Check if a product is in stock
+     * @param productId the product ID
+     * @param readMode SNAPSHOT to answer from the in-memory catalog snapshot
+     * @return true if product has stock > 0, false otherwise
+     */
+    boolean isInStock(int productId, ReadMode readMode);
+
     /**
      * Delete inventory record for a product
      * @param productId the product ID
@@ -73,4 +130,26 @@ public interface InventoryService {
      * @return the available quantity, or 0 if not found
      */
     int getAvailableQuantity(int productId);
-}
\ No newline at end of file
+
+    /**
+     * Get available quantity for a product
+     * @param productId the product ID
+     * @param readMode SNAPSHOT to answer from the in-memory catalog snapshot
+     * @return the available quantity, or 0 if not found
+     */
+    int getAvailableQuantity(int productId, ReadMode readMode);
+
+    /**
+     * Get the quantity of a product according to the movement ledger (snapshot plus later movements)
+     * @param productId the product ID
+     * @return the ledger quantity, or empty if the product has no recorded movements
+     */
+    OptionalInt getLedgerQuantity(int productId);
+
+    /**
+     * Rebuild inventory quantities from the movement ledger
+     * @param dryRun only count the rows whose quantity differs from the ledger
+     * @return rows checked, drifted and corrected
+     */
+    LedgerReplayResult replayLedger(boolean dryRun);
+}
@@ -0,0 +1,19 @@
+package bookshop.services.serviceInterface;
+
+import java.util.List;
+
+import bookshop.dto.response.ProductSuggestion;
+
+/**
+ * Service interface for product name typeahead
+ */
+public interface ProductAutocompleteService {
+
+    /**
+     * Complete a prefix typed into the search box
+     * @param prefix start of any word of the product name
+     * @param limit maximum number of suggestions
+     * @return suggestions, most popular first
+     */
+    List<ProductSuggestion> suggest(String prefix, int limit);
+}
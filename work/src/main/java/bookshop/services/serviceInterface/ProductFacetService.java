@@ -0,0 +1,25 @@
+package bookshop.services.serviceInterface;
+
+import java.math.BigDecimal;
+
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.response.ProductFacetResponse;
+
+/**
+ * Service interface for faceted product search
+ */
+public interface ProductFacetService {
+
+    /**
+     * Filter products and compute the page, category counts and price histogram together
+     * @param keyword every word must occur in the name (optional)
+     * @param categoryId only this category (optional)
+     * @param minPrice lower price bound, inclusive (optional)
+     * @param maxPrice upper price bound, inclusive (optional)
+     * @param bucketWidth width of each price histogram bucket
+     * @param pageRequest pagination and sort of the matches
+     * @return the page and its facets
+     */
+    ProductFacetResponse search(String keyword, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                BigDecimal bucketWidth, PageRequest pageRequest);
+}
@@ -0,0 +1,21 @@
+package bookshop.services.serviceInterface;
+
+import java.io.InputStream;
+
+import bookshop.dto.response.ProductImportResult;
+import bookshop.export.ExportFormat;
+
+/**
+ * Service interface for bulk product import
+ */
+public interface ProductImportService {
+
+    /**
+     * Import products from a CSV or NDJSON stream.
+     * Valid rows are inserted even when other rows fail; each failure is reported with its line.
+     * @param format format of the body
+     * @param body the records, read once from start to end
+     * @return counts and per-row failures
+     */
+    ProductImportResult importProducts(ExportFormat format, InputStream body);
+}
@@ -2,6 +2,8 @@ package bookshop.services.serviceInterface;
 
 import bookshop.dto.request.PageRequest;
 import bookshop.dto.response.PageResponse;
+import bookshop.dto.response.ProductBatchResponse;
+import bookshop.export.ProductStream;
 import bookshop.models.Product;
 import java.math.BigDecimal;
 import java.util.List;
@@ -34,10 +36,11 @@ public interface ProductService {
     PageResponse<Product> getProductsByCategory(int categoryId, PageRequest pageRequest);
 
     /**
-     * Search products by name with pagination
+     * Search products by name with pagination; with SearchMatch.AUTO a keyword
+     * without exact matches falls back to a typo-tolerant search
      * @param keyword the search keyword
-     * @param pageRequest pagination parameters
-     * @return paginated response with matching products
+     * @param pageRequest pagination parameters and search match
+     * @return paginated response with matching products, flagged fuzzy when approximate
      */
     PageResponse<Product> searchProducts(String keyword, PageRequest pageRequest);
 
@@ -52,12 +55,29 @@ public interface ProductService {
 
     // ========== READ (Non-paginated) ==========
     Optional<Product> getProductById(int productId);
+
+    /**
+     * Fetch several products at once
+     * @param productIds requested IDs (duplicates are returned once)
+     * @return products in request order plus the IDs that were not found
+     */
+    ProductBatchResponse getProductsByIds(List<Integer> productIds);
     List<Product> getAllProducts();
     List<Product> getProductsByCategory(int categoryId);
     List<Product> searchProducts(String keyword);
     List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
 
     // ========== UPDATE ==========
+    /**
+     * Prepare a streaming export of the catalog, optionally filtered.
+     * Filters are validated immediately; the query runs when the stream is consumed.
+     * @param categoryId only this category, or null for all
+     * @param minPrice lower price bound (inclusive), or null
+     * @param maxPrice upper price bound (inclusive), or null
+     * @return the products to export, in product_id order
+     */
+    ProductStream exportProducts(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice);
+
     Product updateProduct(Product product);
     Product updateProductPrice(int productId, BigDecimal newPrice);
 
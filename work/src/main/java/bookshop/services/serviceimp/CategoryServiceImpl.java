@@ -1,15 +1,20 @@
 package bookshop.services.serviceimp;
 
 import bookshop.dao.daoInterface.CategoryDao;
+import bookshop.events.CategoryChangedEvent;
 import bookshop.exceptions.CategoryNotFoundException;
 import bookshop.models.Category;
 import bookshop.services.serviceInterface.CategoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,11 +28,15 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryDao categoryDao;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public Category createCategory(Category category) {
         logger.info("Creating new category: {}", category.getName());
         Category created = categoryDao.save(category);
         logger.info("Category created with ID: {}", created.getCategoryId());
+        eventPublisher.publishEvent(CategoryChangedEvent.created(created.getCategoryId()));
         return created;
     }
 
@@ -45,6 +54,19 @@ public class CategoryServiceImpl implements CategoryService {
         return categoryDao.findById(categoryId);
     }
 
+    @Override
+    public Map<Integer, Category> getCategoriesByIds(Collection<Integer> categoryIds) {
+        logger.debug("Fetching {} categories by ID", categoryIds.size());
+        Map<Integer, Category> categories = new HashMap<>();
+        if (categoryIds.isEmpty()) {
+            return categories;
+        }
+        for (Category category : categoryDao.findAllByIds(categoryIds)) {
+            categories.put(category.getCategoryId(), category);
+        }
+        return categories;
+    }
+
     @Override
     public Category updateCategory(Category category) {
         logger.info("Updating category with ID: {}", category.getCategoryId());
@@ -56,6 +78,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
         
         Category updated = categoryDao.update(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.updated(category.getCategoryId()));
         logger.info("Category {} updated successfully", category.getCategoryId());
         return updated;
     }
@@ -71,6 +94,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
         
         categoryDao.deleteById(categoryId);
+        eventPublisher.publishEvent(CategoryChangedEvent.deleted(categoryId));
         logger.info("Category {} deleted successfully", categoryId);
     }
 }
@@ -1,17 +1,36 @@
 package bookshop.services.serviceimp;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import bookshop.dao.daoInterface.InventoryDao;
+import bookshop.dto.request.ReadMode;
+import bookshop.dto.response.LedgerReplayResult;
+import bookshop.events.StockChangedEvent;
+import bookshop.inventory.HotStock;
+import bookshop.inventory.InventoryLedger;
+import bookshop.inventory.StockHolds;
 import bookshop.exceptions.InsufficientStockException;
 import bookshop.exceptions.InventoryNotFoundException;
+import bookshop.exceptions.StockReservationException;
 import bookshop.models.Inventory;
+import bookshop.models.InventoryMovement;
+import bookshop.models.StockAdjustment;
+import bookshop.models.StockHold;
+import bookshop.search.ProductCatalog;
 import bookshop.services.serviceInterface.InventoryService;
 
 /**
@@ -23,10 +42,22 @@ public class InventoryServiceImpl implements InventoryService {
 
     private static final Logger logger = LoggerFactory.getLogger(InventoryServiceImpl.class);
     private final InventoryDao inventoryDao;
+    private final ProductCatalog productCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotStock hotStock;
+    private final StockHolds stockHolds;
+    private final InventoryLedger ledger;
 
     @Autowired
-    public InventoryServiceImpl(InventoryDao inventoryDao) {
+    public InventoryServiceImpl(InventoryDao inventoryDao, ProductCatalog productCatalog,
+                                ApplicationEventPublisher eventPublisher, HotStock hotStock,
+                                StockHolds stockHolds, InventoryLedger ledger) {
         this.inventoryDao = inventoryDao;
+        this.productCatalog = productCatalog;
+        this.eventPublisher = eventPublisher;
+        this.hotStock = hotStock;
+        this.stockHolds = stockHolds;
+        this.ledger = ledger;
     }
 
     @Override
@@ -50,6 +81,8 @@ public class InventoryServiceImpl implements InventoryService {
         }
 
         Inventory savedInventory = inventoryDao.save(inventory);
+        ledger.record(savedInventory.getProductId(), InventoryMovement.Type.CREATE, savedInventory.getQuantity());
+        eventPublisher.publishEvent(StockChangedEvent.updated(savedInventory.getProductId(), savedInventory.getQuantity()));
         logger.info("Successfully created inventory with ID: {}", savedInventory.getInventoryId());
 
         return savedInventory;
@@ -64,7 +97,22 @@ public class InventoryServiceImpl implements InventoryService {
         }
 
         logger.debug("Fetching inventory for product ID: {}", productId);
-        return inventoryDao.findByProductId(productId);
+        return findInventory(productId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, Inventory> getInventoriesByProductIds(Collection<Integer> productIds) {
+        logger.debug("Fetching inventory for {} products", productIds.size());
+        Map<Integer, Inventory> inventories = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return inventories;
+        }
+        for (Inventory inventory : inventoryDao.findAllByProductIds(productIds)) {
+            hotStock.level(inventory.getProductId()).ifPresent(inventory::setQuantity);
+            inventories.put(inventory.getProductId(), inventory);
+        }
+        return inventories;
     }
 
     @Override
@@ -86,10 +134,14 @@ public class InventoryServiceImpl implements InventoryService {
             throw new InventoryNotFoundException(productId);
         }
 
-        Inventory updated = inventoryDao.updateQuantity(productId, quantity);
+        // The replaced level is read under the row lock, so the ledger gets the exact change
+        int previous = hotStock.set(productId, quantity, () -> inventoryDao.replaceQuantity(productId, quantity))
+                .orElseThrow(() -> new InventoryNotFoundException(productId));
+        ledger.record(productId, InventoryMovement.Type.SET, quantity - previous);
+        eventPublisher.publishEvent(StockChangedEvent.updated(productId, quantity));
         logger.info("Successfully updated quantity for product ID: {}", productId);
 
-        return updated;
+        return adjusted(StockAdjustment.applied(productId, quantity));
     }
 
     @Override
@@ -104,19 +156,20 @@ public class InventoryServiceImpl implements InventoryService {
             throw new IllegalArgumentException("Quantity to add must be positive");
         }
 
-        // Get current inventory
-        Inventory inventory = inventoryDao.findByProductId(productId)
-                .orElseThrow(() -> new InventoryNotFoundException(productId));
-
-        // Calculate new quantity
-        int newQuantity = inventory.getQuantity() + quantityToAdd;
+        // Relative update in the database, so concurrent additions are never lost
+        StockAdjustment adjustment = hotStock.increment(productId, quantityToAdd,
+                () -> inventoryDao.incrementQuantity(productId, quantityToAdd));
+        if (adjustment.status() == StockAdjustment.Status.NOT_FOUND) {
+            throw new InventoryNotFoundException(productId);
+        }
 
-        // Update inventory
-        Inventory updated = inventoryDao.updateQuantity(productId, newQuantity);
+        int newQuantity = adjustment.quantity();
+        ledger.record(productId, InventoryMovement.Type.ADD, quantityToAdd);
+        eventPublisher.publishEvent(StockChangedEvent.updated(productId, newQuantity));
         logger.info("Successfully added {} units to product ID: {}. New quantity: {}",
                 quantityToAdd, productId, newQuantity);
 
-        return updated;
+        return adjusted(adjustment);
     }
 
     @Override
@@ -131,26 +184,28 @@ public class InventoryServiceImpl implements InventoryService {
             throw new IllegalArgumentException("Quantity to reduce must be positive");
         }
 
-        // Get current inventory
-        Inventory inventory = inventoryDao.findByProductId(productId)
-                .orElseThrow(() -> new InventoryNotFoundException(productId));
+        // Check and decrement in one step (a conditional UPDATE, or a CAS while the product is hot),
+        // so concurrent checkouts cannot oversell
+        StockAdjustment adjustment = hotStock.decrement(productId, quantityToReduce,
+                () -> inventoryDao.decrementQuantity(productId, quantityToReduce));
+        if (adjustment.status() == StockAdjustment.Status.NOT_FOUND) {
+            throw new InventoryNotFoundException(productId);
+        }
 
-        // Check if sufficient stock is available
-        if (inventory.getQuantity() < quantityToReduce) {
+        // Refused: the quantity reported is the level that was too low
+        if (adjustment.status() == StockAdjustment.Status.INSUFFICIENT) {
             logger.warn("Insufficient stock for product ID: {}. Available: {}, Required: {}",
-                    productId, inventory.getQuantity(), quantityToReduce);
+                    productId, adjustment.quantity(), quantityToReduce);
             throw new InsufficientStockException(
                     productId,
-                    inventory.getQuantity(),
+                    adjustment.quantity(),
                     quantityToReduce
             );
         }
 
-        // Calculate new quantity
-        int newQuantity = inventory.getQuantity() - quantityToReduce;
-
-        // Update inventory
-        Inventory updated = inventoryDao.updateQuantity(productId, newQuantity);
+        int newQuantity = adjustment.quantity();
+        ledger.record(productId, InventoryMovement.Type.REDUCE, -quantityToReduce);
+        eventPublisher.publishEvent(StockChangedEvent.updated(productId, newQuantity));
         logger.info("Successfully reduced {} units from product ID: {}. New quantity: {}",
                 quantityToReduce, productId, newQuantity);
 
@@ -160,7 +215,97 @@ public class InventoryServiceImpl implements InventoryService {
                     productId, newQuantity);
         }
 
-        return updated;
+        return adjusted(adjustment);
+    }
+
+    @Override
+    public List<StockAdjustment> reserveStock(Map<Integer, Integer> quantities) {
+        logger.info("Reserving stock for {} products", quantities.size());
+
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("At least one product is required");
+        }
+
+        quantities.forEach((productId, quantity) -> {
+            if (productId == null || productId <= 0) {
+                throw new IllegalArgumentException("Product ID must be positive");
+            }
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Quantity to reduce must be positive");
+            }
+        });
+
+        // One transaction with the rows locked in product ID order; nothing is written unless every line fits
+        List<StockAdjustment> adjustments = hotStock.decrementAll(quantities, inventoryDao::decrementAll);
+        if (!adjustments.stream().allMatch(StockAdjustment::isApplied)) {
+            List<StockReservationException.Line> lines = new ArrayList<>(adjustments.size());
+            for (StockAdjustment adjustment : adjustments) {
+                int requested = quantities.get(adjustment.productId());
+                // A line that fitted reports the level it would have left; give back what it would have taken
+                int available = adjustment.isApplied() ? adjustment.quantity() + requested : adjustment.quantity();
+                lines.add(new StockReservationException.Line(adjustment.productId(), requested, available));
+            }
+            StockReservationException refused = new StockReservationException(lines);
+            logger.warn("Stock reservation refused: {}", refused.getMessage());
+            throw refused;
+        }
+
+        for (StockAdjustment adjustment : adjustments) {
+            ledger.record(adjustment.productId(), InventoryMovement.Type.RESERVE, -quantities.get(adjustment.productId()));
+            eventPublisher.publishEvent(StockChangedEvent.updated(adjustment.productId(), adjustment.quantity()));
+            if (adjustment.quantity() < 10) {
+                logger.warn("Low stock alert for product ID: {}. Only {} units remaining",
+                        adjustment.productId(), adjustment.quantity());
+            }
+        }
+        logger.info("Successfully reserved stock for {} products", adjustments.size());
+
+        return adjustments;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OptionalInt getLedgerQuantity(int productId) {
+        if (productId <= 0) {
+            throw new IllegalArgumentException("Product ID must be positive");
+        }
+        return ledger.level(productId);
+    }
+
+    @Override
+    public LedgerReplayResult replayLedger(boolean dryRun) {
+        logger.info("Replaying the inventory ledger{}", dryRun ? " (dry run)" : "");
+        return ledger.replay(dryRun);
+    }
+
+    @Override
+    public StockHold holdStock(int productId, int quantity, Duration ttl) {
+        logger.info("Holding {} units of product ID: {}", quantity, productId);
+
+        if (productId <= 0) {
+            throw new IllegalArgumentException("Product ID must be positive");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity to hold must be positive");
+        }
+
+        StockHold hold = stockHolds.hold(productId, quantity, ttl);
+        logger.info("Placed hold {} on {} units of product ID: {} until {}",
+                hold.holdId(), quantity, productId, hold.expiresAt());
+
+        return hold;
+    }
+
+    @Override
+    public StockHold commitHold(String holdId) {
+        logger.info("Committing stock hold {}", holdId);
+        return stockHolds.commit(holdId);
+    }
+
+    @Override
+    public StockHold releaseHold(String holdId) {
+        logger.info("Releasing stock hold {}", holdId);
+        return stockHolds.release(holdId);
     }
 
     @Override
@@ -170,7 +315,7 @@ public class InventoryServiceImpl implements InventoryService {
             return false;
         }
 
-        Optional<Inventory> inventory = inventoryDao.findByProductId(productId);
+        Optional<Inventory> inventory = findInventory(productId);
 
         if (inventory.isEmpty()) {
             logger.debug("No inventory found for product ID: {}", productId);
@@ -194,10 +339,19 @@ public class InventoryServiceImpl implements InventoryService {
             return false;
         }
 
-        Optional<Inventory> inventory = inventoryDao.findByProductId(productId);
+        Optional<Inventory> inventory = findInventory(productId);
         return inventory.isPresent() && inventory.get().getQuantity() > 0;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isInStock(int productId, ReadMode readMode) {
+        if (readMode == ReadMode.SNAPSHOT && productCatalog.isReady()) {
+            return productId > 0 && productCatalog.snapshot().stock(productId).orElse(0) > 0;
+        }
+        return isInStock(productId);
+    }
+
     @Override
     public void deleteInventory(int productId) {
         logger.info("Deleting inventory for product ID: {}", productId);
@@ -207,13 +361,16 @@ public class InventoryServiceImpl implements InventoryService {
         }
 
         // Verify inventory exists
-        Optional<Inventory> existing = inventoryDao.findByProductId(productId);
+        Optional<Inventory> existing = findInventory(productId);
         if (existing.isEmpty()) {
             logger.error("Inventory not found for product ID: {}", productId);
             throw new InventoryNotFoundException(productId);
         }
 
-        inventoryDao.deleteByProductId(productId);
+        hotStock.remove(productId, () -> inventoryDao.deleteByProductId(productId));
+        // Zeroes the product in the ledger with the level read above; a change racing the delete is not undone
+        ledger.record(productId, InventoryMovement.Type.DELETE, -existing.get().getQuantity());
+        eventPublisher.publishEvent(StockChangedEvent.deleted(productId));
         logger.info("Successfully deleted inventory for product ID: {}", productId);
     }
 
@@ -224,10 +381,19 @@ public class InventoryServiceImpl implements InventoryService {
             return 0;
         }
 
-        Optional<Inventory> inventory = inventoryDao.findByProductId(productId);
+        Optional<Inventory> inventory = findInventory(productId);
         return inventory.map(Inventory::getQuantity).orElse(0);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public int getAvailableQuantity(int productId, ReadMode readMode) {
+        if (readMode == ReadMode.SNAPSHOT && productCatalog.isReady()) {
+            return productId > 0 ? productCatalog.snapshot().stock(productId).orElse(0) : 0;
+        }
+        return getAvailableQuantity(productId);
+    }
+
     /**
      * Validate inventory object
      * @param inventory the inventory to validate
@@ -241,4 +407,23 @@ public class InventoryServiceImpl implements InventoryService {
             throw new IllegalArgumentException("Product ID must be positive");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The inventory of a product, with the in-memory level while it is hot
+     */
+    private Optional<Inventory> findInventory(int productId) {
+        Optional<Inventory> hot = hotStock.inventory(productId);
+        return hot.isPresent() ? hot : inventoryDao.findByProductId(productId);
+    }
+
+    /**
+     * The inventory row after an applied adjustment, carrying the quantity that
+     * adjustment produced even if another change has landed since
+     */
+    private Inventory adjusted(StockAdjustment adjustment) {
+        Inventory inventory = findInventory(adjustment.productId())
+                .orElseThrow(() -> new InventoryNotFoundException(adjustment.productId()));
+        inventory.setQuantity(adjustment.quantity());
+        return inventory;
+    }
+}
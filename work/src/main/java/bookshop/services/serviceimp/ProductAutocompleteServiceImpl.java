@@ -0,0 +1,62 @@
+package bookshop.services.serviceimp;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.response.ProductSuggestion;
+import bookshop.search.ProductAutocomplete;
+import bookshop.services.serviceInterface.ProductAutocompleteService;
+
+/**
+ * Typeahead over the in-memory prefix trie
+ */
+@Service
+public class ProductAutocompleteServiceImpl implements ProductAutocompleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductAutocompleteServiceImpl.class);
+
+    // Longer input is a search, not a prefix
+    private static final int MAX_PREFIX_LENGTH = 100;
+
+    private final ProductAutocomplete productAutocomplete;
+    private final ProductDao productDao;
+
+    @Autowired
+    public ProductAutocompleteServiceImpl(ProductAutocomplete productAutocomplete, ProductDao productDao) {
+        this.productAutocomplete = productAutocomplete;
+        this.productDao = productDao;
+    }
+
+    @Override
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        logger.debug("Autocomplete: prefix='{}', limit={}", prefix, limit);
+
+        // Validate inputs
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("Prefix cannot be empty");
+        }
+        if (prefix.length() > MAX_PREFIX_LENGTH) {
+            throw new IllegalArgumentException("Prefix cannot be longer than " + MAX_PREFIX_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > ProductAutocomplete.MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException(
+                    "Limit must be between 1 and " + ProductAutocomplete.MAX_SUGGESTIONS);
+        }
+
+        if (!productAutocomplete.isReady()) {
+            // Still warming up: substring matches by name, without popularity
+            logger.warn("Autocomplete trie not loaded yet, falling back to name search");
+            return productDao.searchByName(prefix.trim(), PageRequest.of(0, limit, "name", "ASC")).stream()
+                    .map(product -> ProductSuggestion.of(product, 0))
+                    .toList();
+        }
+
+        return productAutocomplete.complete(prefix, limit);
+    }
+}
@@ -0,0 +1,112 @@
+package bookshop.services.serviceimp;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.response.PageResponse;
+import bookshop.dto.response.ProductFacetResponse;
+import bookshop.dto.response.ProductFacetResponse.CategoryFacet;
+import bookshop.dto.response.ProductFacetResponse.PriceBucket;
+import bookshop.dto.response.ProductSlice;
+import bookshop.models.Product;
+import bookshop.search.FacetScan;
+import bookshop.search.ProductColumns;
+import bookshop.search.ProductPaging;
+import bookshop.services.serviceInterface.ProductFacetService;
+
+/**
+ * Faceted search over the in-memory columnar product view
+ */
+@Service
+public class ProductFacetServiceImpl implements ProductFacetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetServiceImpl.class);
+
+    // Histogram resolution limit, so a tiny bucket width cannot produce one bucket per product
+    private static final BigDecimal MIN_BUCKET_WIDTH = new BigDecimal("0.01");
+
+    private final ProductColumns productColumns;
+    private final ProductDao productDao;
+
+    @Autowired
+    public ProductFacetServiceImpl(ProductColumns productColumns, ProductDao productDao) {
+        this.productColumns = productColumns;
+        this.productDao = productDao;
+    }
+
+    @Override
+    public ProductFacetResponse search(String keyword, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                       BigDecimal bucketWidth, PageRequest pageRequest) {
+        logger.debug("Facet search: keyword='{}', categoryId={}, price={} - {}, bucket={}, {}",
+                keyword, categoryId, minPrice, maxPrice, bucketWidth, pageRequest);
+
+        // Validate inputs
+        if (pageRequest == null) {
+            throw new IllegalArgumentException("PageRequest cannot be null");
+        }
+        if (categoryId != null && categoryId <= 0) {
+            throw new IllegalArgumentException("Category ID must be positive");
+        }
+        if (minPrice != null && minPrice.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Minimum price cannot be negative");
+        }
+        if (minPrice != null && maxPrice != null && maxPrice.compareTo(minPrice) < 0) {
+            throw new IllegalArgumentException("Maximum price cannot be less than minimum price");
+        }
+        if (bucketWidth == null || bucketWidth.compareTo(MIN_BUCKET_WIDTH) < 0) {
+            throw new IllegalArgumentException("Bucket width must be at least " + MIN_BUCKET_WIDTH);
+        }
+
+        ProductColumns columns = productColumns;
+        if (!columns.isReady()) {
+            // Still warming up: build a throwaway view from one full read
+            logger.warn("Product columns not loaded yet, building a temporary view for facet search");
+            columns = new ProductColumns();
+            columns.rebuild(productDao.findAll());
+        }
+
+        FacetScan scan = columns.scan(keyword, categoryId, minPrice, maxPrice, bucketWidth);
+        ProductSlice slice = ProductPaging.page(scan.getMatches(), pageRequest);
+        PageResponse<Product> page =
+                ProductPaging.toPageResponse(slice.getContent(), pageRequest, slice.getTotalElements());
+
+        logger.debug("Facet search matched {} products in {} categories",
+                slice.getTotalElements(), scan.getCategoryCounts().size());
+        return new ProductFacetResponse(page, categoryFacets(scan), priceHistogram(scan, bucketWidth));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private List<CategoryFacet> categoryFacets(FacetScan scan) {
+        List<CategoryFacet> facets = new ArrayList<>(scan.getCategoryCounts().size());
+        for (Map.Entry<Integer, Long> entry : scan.getCategoryCounts().entrySet()) {
+            facets.add(new CategoryFacet(entry.getKey(), scan.getCategoryNames().get(entry.getKey()),
+                    entry.getValue()));
+        }
+        // Largest categories first, then by ID for a stable order
+        facets.sort(Comparator.comparingLong(CategoryFacet::getCount).reversed()
+                .thenComparingInt(CategoryFacet::getCategoryId));
+        return facets;
+    }
+
+    private List<PriceBucket> priceHistogram(FacetScan scan, BigDecimal bucketWidth) {
+        BigDecimal width = bucketWidth.setScale(2, RoundingMode.CEILING);
+        List<PriceBucket> buckets = new ArrayList<>(scan.getPriceBuckets().size());
+        for (Map.Entry<Long, Long> entry : scan.getPriceBuckets().entrySet()) {
+            BigDecimal from = BigDecimal.valueOf(entry.getKey(), 2);
+            buckets.add(new PriceBucket(from, from.add(width), entry.getValue()));
+        }
+        return buckets;
+    }
+}
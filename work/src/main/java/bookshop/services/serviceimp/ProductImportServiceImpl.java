@@ -0,0 +1,176 @@
+package bookshop.services.serviceimp;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import bookshop.cache.CatalogVersion;
+import bookshop.dao.daoInterface.CategoryDao;
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.dto.request.ProductCreateDto;
+import bookshop.dto.response.ProductImportResult;
+import bookshop.export.ExportFormat;
+import bookshop.importer.ProductImportReader;
+import bookshop.importer.ProductImportRow;
+import bookshop.models.Category;
+import bookshop.models.Product;
+import bookshop.search.ProductIndexLoader;
+import bookshop.services.serviceInterface.ProductImportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk import: validates rows in memory and inserts them with multi-row INSERTs.
+ *
+ * Category IDs and existing product names are loaded once per import, so a row
+ * costs no lookups. Valid rows are buffered into chunks of
+ * bookshop.import.chunk-size and written with one statement per chunk. If a chunk
+ * is rejected by the database, its rows are retried one at a time so only the
+ * offending rows are reported as failed.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    // Keeps a chunk well below MySQL's 65,535 placeholder limit (3 per row)
+    private static final int MAX_CHUNK_SIZE = 5000;
+
+    private final ProductDao productDao;
+    private final CategoryDao categoryDao;
+    private final ProductIndexLoader productIndexLoader;
+    private final CatalogVersion catalogVersion;
+    private final Validator validator;
+    private final int chunkSize;
+
+    @Autowired
+    public ProductImportServiceImpl(ProductDao productDao, CategoryDao categoryDao,
+                                    ProductIndexLoader productIndexLoader, CatalogVersion catalogVersion,
+                                    Validator validator,
+                                    @Value("${bookshop.import.chunk-size:1000}") int chunkSize) {
+        this.productDao = productDao;
+        this.categoryDao = categoryDao;
+        this.productIndexLoader = productIndexLoader;
+        this.catalogVersion = catalogVersion;
+        this.validator = validator;
+        this.chunkSize = Math.min(Math.max(chunkSize, 1), MAX_CHUNK_SIZE);
+    }
+
+    @Override
+    public ProductImportResult importProducts(ExportFormat format, InputStream body) {
+        ProductImportReader reader = new ProductImportReader(format, body);
+        ProductImportResult result = new ProductImportResult();
+
+        Set<Integer> categoryIds = categoryDao.findAll().stream()
+                .map(Category::getCategoryId)
+                .collect(Collectors.toCollection(HashSet::new));
+        Set<String> names = productDao.findAllNames().stream()
+                .map(ProductImportServiceImpl::nameKey)
+                .collect(Collectors.toCollection(HashSet::new));
+        logger.info("Starting {} import: {} categories, {} existing products, chunk size {}",
+                format, categoryIds.size(), names.size(), chunkSize);
+
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        ProductImportRow row;
+        while ((row = reader.next()) != null) {
+            result.recordProcessed();
+
+            String error = validate(row, categoryIds, names);
+            if (error != null) {
+                result.recordFailure(row.getLine(), row.getName(), error);
+                continue;
+            }
+
+            names.add(nameKey(row.getName()));
+            chunk.add(new Product(row.getName().trim(), row.getPrice(), row.getCategoryId()));
+            chunkLines.add(row.getLine());
+            if (chunk.size() == chunkSize) {
+                flush(chunk, chunkLines, names, result);
+            }
+        }
+        flush(chunk, chunkLines, names, result);
+
+        logger.info("Import finished: {} processed, {} imported, {} failed",
+                result.getProcessed(), result.getImported(), result.getFailed());
+
+        if (result.getImported() > 0) {
+            // Lists are stale now, even before the indexes catch up
+            catalogVersion.bump();
+            // Rebuild search index and counters once instead of per row
+            productIndexLoader.reloadAsync();
+        }
+        return result;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private String validate(ProductImportRow row, Set<Integer> categoryIds, Set<String> names) {
+        if (!row.isValid()) {
+            return row.getError();
+        }
+
+        // Same bean validation rules as POST /api/products
+        ProductCreateDto dto = new ProductCreateDto(row.getName(), row.getPrice(), row.getCategoryId());
+        Set<ConstraintViolation<ProductCreateDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        if (!categoryIds.contains(row.getCategoryId())) {
+            return "Category with ID " + row.getCategoryId() + " does not exist";
+        }
+        if (names.contains(nameKey(row.getName()))) {
+            return "Product name '" + row.getName().trim() + "' already exists";
+        }
+        return null;
+    }
+
+    private void flush(List<Product> chunk, List<Long> chunkLines, Set<String> names,
+                       ProductImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            result.recordImported(productDao.saveAll(chunk));
+        } catch (RuntimeException e) {
+            logger.warn("Chunk of {} rows rejected ({}), retrying row by row", chunk.size(), e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                Product product = chunk.get(i);
+                try {
+                    productDao.save(product);
+                    result.recordImported(1);
+                } catch (RuntimeException rowError) {
+                    names.remove(nameKey(product.getName()));
+                    Throwable cause = rowError.getCause() != null ? rowError.getCause() : rowError;
+                    result.recordFailure(chunkLines.get(i), product.getName(), cause.getMessage());
+                }
+            }
+        }
+
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    /**
+     * Product names are compared case-insensitively, like the default MySQL collation
+     */
+    private static String nameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,23 +1,48 @@
 package bookshop.services.serviceimp;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import bookshop.cache.ProductCache;
+import bookshop.concurrent.FanOut;
 import bookshop.dao.daoInterface.CategoryDao;
 import bookshop.dao.daoInterface.ProductDao;
 import bookshop.dto.request.PageRequest;
+import bookshop.dto.request.ReadMode;
+import bookshop.dto.request.SearchMatch;
 import bookshop.dto.response.PageResponse;
+import bookshop.dto.response.ProductBatchResponse;
+import bookshop.dto.response.ProductSlice;
+import bookshop.events.ProductChangedEvent;
+import bookshop.export.ProductStream;
 import bookshop.exceptions.BusinessException;
 import bookshop.exceptions.ProductNotFoundException;
 import bookshop.models.Product;
+import bookshop.search.ProductCatalog;
+import bookshop.search.ProductCounts;
+import bookshop.search.ProductFuzzyIndex;
+import bookshop.search.ProductIdSlice;
+import bookshop.search.ProductNameIndex;
+import bookshop.search.ProductPaging;
+import bookshop.search.ProductPriceIndex;
 import bookshop.services.serviceInterface.ProductService;
 
 /**
@@ -29,14 +54,32 @@ import bookshop.services.serviceInterface.ProductService;
 public class ProductServiceImpl implements ProductService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
+    private static final int MAX_BATCH_SIZE = 500;
 
     private final ProductDao productDao;
     private final CategoryDao categoryDao;
+    private final ProductCache productCache;
+    private final ProductNameIndex productNameIndex;
+    private final ProductCounts productCounts;
+    private final ProductPriceIndex productPriceIndex;
+    private final ProductCatalog productCatalog;
+    private final ProductFuzzyIndex productFuzzyIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ProductServiceImpl(ProductDao productDao, CategoryDao categoryDao) {
+    public ProductServiceImpl(ProductDao productDao, CategoryDao categoryDao, ProductCache productCache,
+                              ProductNameIndex productNameIndex, ProductCounts productCounts,
+                              ProductPriceIndex productPriceIndex, ProductCatalog productCatalog,
+                              ProductFuzzyIndex productFuzzyIndex, ApplicationEventPublisher eventPublisher) {
         this.productDao = productDao;
         this.categoryDao = categoryDao;
+        this.productCache = productCache;
+        this.productNameIndex = productNameIndex;
+        this.productCounts = productCounts;
+        this.productPriceIndex = productPriceIndex;
+        this.productCatalog = productCatalog;
+        this.productFuzzyIndex = productFuzzyIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     // ========== CREATE ==========
@@ -47,14 +90,25 @@ public class ProductServiceImpl implements ProductService {
 
         // Bean validation is automatic with @Valid
 
+        // The two lookups are independent, so run them side by side
+        boolean categoryExists;
+        boolean nameTaken;
+        try (FanOut fanOut = new FanOut()) {
+            Supplier<Boolean> category = fanOut.fork(() -> categoryDao.existsById(product.getCategoryId()));
+            Supplier<Boolean> name = fanOut.fork(() -> productDao.existsByName(product.getName()));
+            fanOut.join();
+            categoryExists = category.get();
+            nameTaken = name.get();
+        }
+
         // Business Validation: Category must exist
-        if (!categoryDao.existsById(product.getCategoryId())) {
+        if (!categoryExists) {
             logger.error("Category not found: {}", product.getCategoryId());
             throw new BusinessException("Category with ID " + product.getCategoryId() + " does not exist");
         }
 
         // Business Validation: Product name must be unique
-        if (productDao.existsByName(product.getName())) {
+        if (nameTaken) {
             logger.error("Product name already exists: {}", product.getName());
             throw new BusinessException("Product name '" + product.getName() + "' already exists");
         }
@@ -66,6 +120,8 @@ public class ProductServiceImpl implements ProductService {
 
         // Save product to database
         Product savedProduct = productDao.save(product);
+        productCache.invalidate(savedProduct.getProductId());
+        eventPublisher.publishEvent(ProductChangedEvent.created(savedProduct));
         logger.info("Successfully created product with ID: {}", savedProduct.getProductId());
 
         return savedProduct;
@@ -81,16 +137,28 @@ public class ProductServiceImpl implements ProductService {
         // Validate page request
         validatePageRequest(pageRequest);
 
-        // Get paginated data
-        List<Product> products = productDao.findAll(pageRequest);
+        if (useSnapshot(pageRequest)) {
+            ProductSlice slice = productCatalog.findAll(pageRequest);
+            return ProductPaging.toPageResponse(slice.getContent(), pageRequest, slice.getTotalElements());
+        }
 
-        // Get total count
-        long totalElements = productDao.count();
+        List<Product> products;
+        long totalElements;
+        if (productCounts.isReady()) {
+            // Total is maintained in memory, so the page query needs no count at all
+            products = productDao.findAll(pageRequest);
+            totalElements = productCounts.count();
+        } else {
+            // Get paginated data and total count in one statement
+            ProductSlice slice = productDao.findAllWithTotal(pageRequest);
+            products = slice.getContent();
+            totalElements = slice.getTotalElements();
+        }
 
         logger.debug("Found {} products on page {}, total: {}",
                 products.size(), pageRequest.getPage(), totalElements);
 
-        return new PageResponse<>(products, pageRequest.getPage(), pageRequest.getSize(), totalElements);
+        return ProductPaging.toPageResponse(products, pageRequest, totalElements);
     }
 
     @Override
@@ -104,22 +172,44 @@ public class ProductServiceImpl implements ProductService {
         }
         validatePageRequest(pageRequest);
 
+        if (useSnapshot(pageRequest)) {
+            // Categories created since the last rebuild are not in the snapshot yet
+            if (!productCatalog.snapshot().categories().containsKey(categoryId)
+                    && !categoryDao.existsById(categoryId)) {
+                throw new BusinessException("Category with ID " + categoryId + " does not exist");
+            }
+            ProductSlice slice = productCatalog.findByCategory(categoryId, pageRequest);
+            return ProductPaging.toPageResponse(slice.getContent(), pageRequest, slice.getTotalElements());
+        }
+
+        // Check the category while the page is read; the page is discarded if it does not exist
+        boolean categoryExists;
+        ProductSlice slice;
+        try (FanOut fanOut = new FanOut()) {
+            Supplier<Boolean> category = fanOut.fork(() -> categoryDao.existsById(categoryId));
+            Supplier<ProductSlice> page = fanOut.fork(() -> productCounts.isReady()
+                    ? new ProductSlice(productDao.findByCategoryId(categoryId, pageRequest),
+                            productCounts.countByCategory(categoryId))
+                    // Get paginated data and total count for this category in one statement
+                    : productDao.findByCategoryIdWithTotal(categoryId, pageRequest));
+            fanOut.join();
+            categoryExists = category.get();
+            slice = page.get();
+        }
+
         // Verify category exists
-        if (!categoryDao.existsById(categoryId)) {
+        if (!categoryExists) {
             logger.error("Category not found: {}", categoryId);
             throw new BusinessException("Category with ID " + categoryId + " does not exist");
         }
 
-        // Get paginated data
-        List<Product> products = productDao.findByCategoryId(categoryId, pageRequest);
-
-        // Get total count for this category
-        long totalElements = productDao.countByCategory(categoryId);
+        List<Product> products = slice.getContent();
+        long totalElements = slice.getTotalElements();
 
         logger.debug("Found {} products in category {} on page {}, total: {}",
                 products.size(), categoryId, pageRequest.getPage(), totalElements);
 
-        return new PageResponse<>(products, pageRequest.getPage(), pageRequest.getSize(), totalElements);
+        return ProductPaging.toPageResponse(products, pageRequest, totalElements);
     }
 
     @Override
@@ -133,16 +223,24 @@ public class ProductServiceImpl implements ProductService {
         }
         validatePageRequest(pageRequest);
 
-        // Get paginated data
-        List<Product> products = productDao.searchByName(keyword, pageRequest);
-
-        // Get total count for this search
-        long totalElements = productDao.countByNameSearch(keyword);
-
-        logger.debug("Found {} products matching '{}' on page {}, total: {}",
-                products.size(), keyword, pageRequest.getPage(), totalElements);
-
-        return new PageResponse<>(products, pageRequest.getPage(), pageRequest.getSize(), totalElements);
+        SearchMatch match = pageRequest.getSearchMatch();
+        if (match != SearchMatch.FUZZY || !productFuzzyIndex.isReady()) {
+            PageResponse<Product> exact = exactSearch(keyword, pageRequest);
+            if (match == SearchMatch.EXACT || exact.getTotalElements() > 0 || !productFuzzyIndex.isReady()) {
+                return exact;
+            }
+            logger.debug("No exact matches for '{}', falling back to fuzzy search", keyword);
+        }
+
+        // Ranked by similarity, so sortBy and cursors do not apply
+        List<Product> matches = productFuzzyIndex.search(keyword);
+        int from = Math.min(pageRequest.getOffset(), matches.size());
+        int to = Math.min(from + pageRequest.getSize(), matches.size());
+        PageResponse<Product> response = new PageResponse<>(
+                matches.subList(from, to), pageRequest.getPage(), pageRequest.getSize(), matches.size());
+        response.setFuzzy(true);
+        logger.debug("Fuzzy search found {} products for '{}'", matches.size(), keyword);
+        return response;
     }
 
     @Override
@@ -162,16 +260,35 @@ public class ProductServiceImpl implements ProductService {
         }
         validatePageRequest(pageRequest);
 
-        // Get paginated data
-        List<Product> products = productDao.findByPriceRange(minPrice, maxPrice, pageRequest);
-
-        // Get total count for this price range
-        long totalElements = productDao.countByPriceRange(minPrice, maxPrice);
+        if (useSnapshot(pageRequest)) {
+            ProductSlice slice = productCatalog.findByPriceRange(minPrice, maxPrice, pageRequest);
+            return ProductPaging.toPageResponse(slice.getContent(), pageRequest, slice.getTotalElements());
+        }
+
+        List<Product> products;
+        long totalElements;
+        if (productPriceIndex.isReady() && ProductPriceIndex.canPage(pageRequest)) {
+            // Page is a slice of the sorted price index; only its rows are loaded
+            ProductIdSlice slice = productPriceIndex.page(minPrice, maxPrice, pageRequest);
+            List<Integer> ids = Arrays.stream(slice.getIds()).boxed().toList();
+            Map<Integer, Product> found = loadByIds(ids);
+            products = ids.stream().map(found::get).filter(Objects::nonNull).toList();
+            totalElements = slice.getTotalElements();
+        } else if (productPriceIndex.isReady()) {
+            // Other sort orders still need SQL for the rows, but not for the count
+            products = productDao.findByPriceRange(minPrice, maxPrice, pageRequest);
+            totalElements = productPriceIndex.count(minPrice, maxPrice);
+        } else {
+            // Get paginated data and total count for this price range in one statement
+            ProductSlice slice = productDao.findByPriceRangeWithTotal(minPrice, maxPrice, pageRequest);
+            products = slice.getContent();
+            totalElements = slice.getTotalElements();
+        }
 
         logger.debug("Found {} products in price range on page {}, total: {}",
                 products.size(), pageRequest.getPage(), totalElements);
 
-        return new PageResponse<>(products, pageRequest.getPage(), pageRequest.getSize(), totalElements);
+        return ProductPaging.toPageResponse(products, pageRequest, totalElements);
     }
 
     // ========== READ (NON-PAGINATED) ==========
@@ -185,7 +302,41 @@ public class ProductServiceImpl implements ProductService {
         }
 
         logger.debug("Fetching product with ID: {}", productId);
-        return productDao.findById(productId);
+        return productCache.get(productId, productDao::findById);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductBatchResponse getProductsByIds(List<Integer> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            throw new IllegalArgumentException("Product IDs cannot be null or empty");
+        }
+
+        Set<Integer> requested = new LinkedHashSet<>(productIds);
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Cannot fetch more than " + MAX_BATCH_SIZE + " products at once");
+        }
+        for (Integer productId : requested) {
+            if (productId == null || productId <= 0) {
+                throw new IllegalArgumentException("Product ID must be positive");
+            }
+        }
+
+        Map<Integer, Product> found = loadByIds(requested);
+
+        List<Product> products = new ArrayList<>(found.size());
+        List<Integer> missingIds = new ArrayList<>();
+        for (Integer productId : requested) {
+            Product product = found.get(productId);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(productId);
+            }
+        }
+
+        logger.debug("Batch fetched {} products, missing: {}", products.size(), missingIds);
+        return new ProductBatchResponse(products, missingIds);
     }
 
     @Override
@@ -224,7 +375,9 @@ public class ProductServiceImpl implements ProductService {
         }
 
         logger.debug("Searching products with keyword: {}", keyword);
-        List<Product> products = productDao.searchByName(keyword);
+        List<Product> products = productNameIndex.isReady()
+                ? productNameIndex.search(keyword).stream().map(Product::new).toList()
+                : productDao.searchByName(keyword);
         logger.debug("Found {} products matching '{}'", products.size(), keyword);
         return products;
     }
@@ -250,27 +403,68 @@ public class ProductServiceImpl implements ProductService {
         return products;
     }
 
+    // ========== EXPORT ==========
+
+    @Override
+    public ProductStream exportProducts(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        // Validate now, before the response is committed; rows are read when the stream is consumed
+        if (categoryId != null) {
+            if (categoryId <= 0) {
+                throw new IllegalArgumentException("Category ID must be positive");
+            }
+            if (!categoryDao.existsById(categoryId)) {
+                logger.error("Category not found: {}", categoryId);
+                throw new BusinessException("Category with ID " + categoryId + " does not exist");
+            }
+        }
+        if (minPrice != null && minPrice.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Minimum price cannot be negative");
+        }
+        if (minPrice != null && maxPrice != null && maxPrice.compareTo(minPrice) < 0) {
+            throw new IllegalArgumentException("Maximum price cannot be less than minimum price");
+        }
+
+        return sink -> {
+            long rows = productDao.streamProducts(categoryId, minPrice, maxPrice, sink);
+            logger.info("Exported {} products (category={}, price={} - {})", rows, categoryId, minPrice, maxPrice);
+            return rows;
+        };
+    }
+
     // ========== UPDATE ==========
 
     @Override
     public Product updateProduct(Product product) {
         logger.info("Updating product with ID: {}", product.getProductId());
 
+        // Independent lookups, run side by side
+        Optional<Product> existingProduct;
+        boolean categoryExists;
+        boolean nameTaken;
+        try (FanOut fanOut = new FanOut()) {
+            Supplier<Optional<Product>> existing = fanOut.fork(() -> productDao.findById(product.getProductId()));
+            Supplier<Boolean> category = fanOut.fork(() -> categoryDao.existsById(product.getCategoryId()));
+            Supplier<Boolean> name = fanOut.fork(() -> productNameExists(product.getName(), product.getProductId()));
+            fanOut.join();
+            existingProduct = existing.get();
+            categoryExists = category.get();
+            nameTaken = name.get();
+        }
+
         // Verify product exists
-        Optional<Product> existingProduct = productDao.findById(product.getProductId());
         if (existingProduct.isEmpty()) {
             logger.error("Product not found with ID: {}", product.getProductId());
             throw new ProductNotFoundException(product.getProductId());
         }
 
         // Verify category exists
-        if (!categoryDao.existsById(product.getCategoryId())) {
+        if (!categoryExists) {
             logger.error("Category not found: {}", product.getCategoryId());
             throw new BusinessException("Category with ID " + product.getCategoryId() + " does not exist");
         }
 
         // Check if name is being changed to an existing name
-        if (productNameExists(product.getName(), product.getProductId())) {
+        if (nameTaken) {
             logger.error("Product name already exists: {}", product.getName());
             throw new BusinessException("Product name '" + product.getName() + "' already exists");
         }
@@ -281,6 +475,8 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product updatedProduct = productDao.update(product);
+        productCache.invalidate(updatedProduct.getProductId());
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updatedProduct));
         logger.info("Successfully updated product with ID: {}", updatedProduct.getProductId());
 
         return updatedProduct;
@@ -307,6 +503,8 @@ public class ProductServiceImpl implements ProductService {
         // Update price
         product.setPrice(newPrice);
         Product updatedProduct = productDao.update(product);
+        productCache.invalidate(productId);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updatedProduct));
 
         logger.info("Successfully updated price for product ID: {} from {} to {}",
                 productId, oldPrice, newPrice);
@@ -332,6 +530,8 @@ public class ProductServiceImpl implements ProductService {
         }
 
         productDao.deleteById(productId);
+        productCache.invalidate(productId);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(productId));
         logger.info("Successfully deleted product with ID: {}", productId);
     }
 
@@ -343,7 +543,7 @@ public class ProductServiceImpl implements ProductService {
         if (productId <= 0) {
             return false;
         }
-        return productDao.findById(productId).isPresent();
+        return productCache.get(productId, productDao::findById).isPresent();
     }
 
     @Override
@@ -380,11 +580,64 @@ public class ProductServiceImpl implements ProductService {
             return 0;
         }
 
-        return productDao.findByCategoryId(categoryId).size();
+        long count = productCounts.isReady()
+                ? productCounts.countByCategory(categoryId)
+                : productDao.countByCategory(categoryId);
+        return (int) count;
     }
 
     // ========== HELPER METHODS ==========
 
+    /**
+     * Serve what the cache already holds, then load the rest with one IN query
+     */
+    private Map<Integer, Product> loadByIds(Collection<Integer> productIds) {
+        Map<Integer, Product> found = new HashMap<>();
+        List<Integer> toLoad = new ArrayList<>();
+        for (Integer productId : productIds) {
+            Optional<Product> cached = productCache.getIfPresent(productId);
+            if (cached.isPresent()) {
+                found.put(productId, cached.get());
+            } else {
+                toLoad.add(productId);
+            }
+        }
+        if (!toLoad.isEmpty()) {
+            for (Product product : productDao.findAllByIds(toLoad)) {
+                found.put(product.getProductId(), product);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Names containing every word of the keyword, from the snapshot, the name index or the database
+     */
+    private PageResponse<Product> exactSearch(String keyword, PageRequest pageRequest) {
+        if (useSnapshot(pageRequest)) {
+            ProductSlice slice = productCatalog.search(keyword, pageRequest);
+            return ProductPaging.toPageResponse(slice.getContent(), pageRequest, slice.getTotalElements());
+        }
+
+        // Answer page and count from the name index once it has been built
+        if (productNameIndex.isReady()) {
+            ProductSlice slice = productNameIndex.search(keyword, pageRequest);
+            logger.debug("Name index found {} products matching '{}' on page {}, total: {}",
+                    slice.getContent().size(), keyword, pageRequest.getPage(), slice.getTotalElements());
+            return ProductPaging.toPageResponse(slice.getContent(), pageRequest, slice.getTotalElements());
+        }
+
+        // Get paginated data and total count for this search in one statement
+        ProductSlice slice = productDao.searchByNameWithTotal(keyword, pageRequest);
+        List<Product> products = slice.getContent();
+        long totalElements = slice.getTotalElements();
+
+        logger.debug("Found {} products matching '{}' on page {}, total: {}",
+                products.size(), keyword, pageRequest.getPage(), totalElements);
+
+        return ProductPaging.toPageResponse(products, pageRequest, totalElements);
+    }
+
     /**
      * Validate PageRequest parameters
      */
@@ -402,4 +655,11 @@ public class ProductServiceImpl implements ProductService {
             throw new IllegalArgumentException("Page size cannot exceed 100");
         }
     }
+
+    /**
+     * Snapshot reads fall back to the database path until the snapshot has been built
+     */
+    private boolean useSnapshot(PageRequest pageRequest) {
+        return pageRequest.getReadMode() == ReadMode.SNAPSHOT && productCatalog.isReady();
+    }
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ CREATE TABLE products (
     name VARCHAR(150) NOT NULL,
     price DECIMAL(10,2) NOT NULL,
     category_id INT NOT NULL,
+    version INT NOT NULL DEFAULT 0,
 
     CONSTRAINT fk_category
         FOREIGN KEY (category_id)
@@ -54,6 +55,68 @@ CREATE TABLE inventory (
         CHECK (quantity >= 0)
 );
 
+-- ==========================
+-- Inventory Journal Checkpoints
+-- ==========================
+-- Last stock journal segment written to inventory, per journal (see HotStock)
+CREATE TABLE inventory_journal_checkpoints (
+    journal VARCHAR(64) PRIMARY KEY,
+    segment BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- ==========================
+-- Inventory Movements
+-- ==========================
+-- Append-only ledger of stock changes (see InventoryLedger); no foreign key, history outlives products
+CREATE TABLE inventory_movements (
+    movement_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id INT NOT NULL,
+    movement_type VARCHAR(16) NOT NULL,
+    delta INT NOT NULL,
+    recorded_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    INDEX idx_movements_product (product_id, movement_id)
+);
+
+-- Sum of each product's movements up to the latest ledger snapshot; level = snapshot + later movements
+CREATE TABLE inventory_snapshots (
+    product_id INT PRIMARY KEY,
+    quantity INT NOT NULL,
+    taken_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- One row per fold into inventory_snapshots; the highest through_movement_id is where the fold stopped
+CREATE TABLE inventory_ledger_snapshots (
+    snapshot_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    from_movement_id BIGINT NOT NULL,
+    through_movement_id BIGINT NOT NULL,
+    taken_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    UNIQUE KEY uk_ledger_snapshots_from (from_movement_id),
+    INDEX idx_ledger_snapshots_through (through_movement_id)
+);
+
+-- ==========================
+-- Stock Holds
+-- ==========================
+-- Units set aside for a cart; already taken out of inventory.quantity (see StockHolds)
+CREATE TABLE stock_holds (
+    hold_id CHAR(36) PRIMARY KEY,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    expires_at TIMESTAMP(3) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_hold_product
+        FOREIGN KEY (product_id)
+        REFERENCES products(product_id)
+        ON DELETE CASCADE,
+
+    CONSTRAINT check_hold_quantity_positive
+        CHECK (quantity > 0)
+);
+
 -- ==========================
 -- Users Table
 -- ==========================
@@ -158,6 +221,11 @@ INSERT INTO inventory (product_id, quantity) VALUES
     (4, 15),
     (5, 40);
 
+-- Opening balances, so the ledger accounts for stock that existed before it;
+-- an existing database gets them from InventoryLedger on startup
+INSERT INTO inventory_movements (product_id, movement_type, delta)
+SELECT product_id, 'OPENING', quantity FROM inventory;
+
 -- Insert sample users (password is "password123" for all users - hashed with BCrypt)
 INSERT INTO users (name, email, password, role, course, age) VALUES
     ('John Doe', 'john@example.com', '$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy', 'CUSTOMER', 'Computer Science', 22),
@@ -0,0 +1,68 @@
+package bookshop.benchmark;
+
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.jdbc.DataSourceBuilder;
+
+/**
+ * Shared helpers for the manual benchmarks in this package.
+ *
+ * Benchmarks are plain main() programs run against a real MySQL database; they
+ * are not picked up by surefire. Connection settings come from system properties:
+ *   -Dbench.url=jdbc:mysql://localhost:3306/bookshop -Dbench.user=root -Dbench.password=...
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static DataSource dataSource() {
+        return DataSourceBuilder.create()
+                .url(System.getProperty("bench.url",
+                        "jdbc:mysql://localhost:3306/bookshop?useServerPrepStmts=true&cachePrepStmts=true"))
+                .username(System.getProperty("bench.user", "root"))
+                .password(System.getProperty("bench.password", ""))
+                .driverClassName("com.mysql.cj.jdbc.Driver")
+                .build();
+    }
+
+    static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Latency samples in nanoseconds
+     */
+    static final class Latencies {
+
+        private long[] samples;
+        private int count;
+
+        Latencies(int expected) {
+            this.samples = new long[Math.max(expected, 16)];
+        }
+
+        synchronized void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+
+        synchronized long percentileMicros(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(rank, 0)] / 1_000;
+        }
+
+        synchronized int count() {
+            return count;
+        }
+    }
+}
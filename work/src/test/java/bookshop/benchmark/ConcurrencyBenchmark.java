@@ -0,0 +1,127 @@
+package bookshop.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import bookshop.dao.jdbc.ConnectionGate;
+
+/**
+ * Load test of request execution models against one Hikari pool:
+ *
+ *   platform      200 platform threads (Tomcat's default), requests queue for a thread
+ *   virtual       a virtual thread per request, all of them competing inside Hikari
+ *   virtual+gate  a virtual thread per request, admitted through ConnectionGate
+ *
+ * Each simulated client sends requests back to back. A request borrows a connection,
+ * reads a page of products, returns it, then blocks for bench.thinkMs more to stand in
+ * for the non-database part of the request (other I/O, rendering). Latency is measured
+ * from submission, so time spent queued for a thread or a connection is included.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=bookshop.benchmark.ConcurrencyBenchmark \
+ *       -Dbench.url=jdbc:mysql://localhost:3306/bookshop -Dbench.user=root -Dbench.password=...
+ *
+ * Optional: -Dbench.requests=10 (per client) -Dbench.pool=10 -Dbench.thinkMs=20
+ *           -Dbench.connectionTimeoutMs=30000 -Dbench.clients=1000,10000
+ */
+public class ConcurrencyBenchmark {
+
+    private static final String QUERY =
+            "SELECT product_id, name, price FROM products ORDER BY product_id LIMIT 20";
+
+    public static void main(String[] args) throws Exception {
+        int requests = BenchmarkSupport.intProperty("bench.requests", 10);
+        int poolSize = BenchmarkSupport.intProperty("bench.pool", 10);
+        int thinkMillis = BenchmarkSupport.intProperty("bench.thinkMs", 20);
+        int connectionTimeout = BenchmarkSupport.intProperty("bench.connectionTimeoutMs", 30000);
+
+        System.out.printf("%-8s %-14s %12s %10s %10s %8s%n",
+                "clients", "mode", "req/s", "p50 (ms)", "p99 (ms)", "errors");
+
+        for (String clients : System.getProperty("bench.clients", "1000,10000").split(",")) {
+            int clientCount = Integer.parseInt(clients.trim());
+            for (String mode : List.of("platform", "virtual", "virtual+gate")) {
+                try (HikariDataSource pool = (HikariDataSource) BenchmarkSupport.dataSource()) {
+                    pool.setMaximumPoolSize(poolSize);
+                    pool.setMinimumIdle(poolSize);
+                    pool.setConnectionTimeout(connectionTimeout);
+                    DataSource dataSource = mode.endsWith("gate")
+                            ? new ConnectionGate(pool, poolSize, 10L * connectionTimeout)
+                            : pool;
+                    ExecutorService server = mode.equals("platform")
+                            ? Executors.newFixedThreadPool(200)
+                            : Executors.newVirtualThreadPerTaskExecutor();
+                    try (server) {
+                        run(clientCount, mode, requests, thinkMillis, dataSource, server);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void run(int clientCount, String mode, int requests, int thinkMillis,
+                            DataSource dataSource, ExecutorService server) throws Exception {
+        // Warm the pool and the statement cache
+        for (int i = 0; i < 100; i++) {
+            handle(dataSource, 0);
+        }
+
+        BenchmarkSupport.Latencies latencies = new BenchmarkSupport.Latencies(clientCount * requests);
+        AtomicInteger errors = new AtomicInteger();
+        List<Thread> clientThreads = new ArrayList<>(clientCount);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clientCount; c++) {
+            clientThreads.add(Thread.ofVirtual().start(() -> {
+                for (int r = 0; r < requests; r++) {
+                    long submitted = System.nanoTime();
+                    Future<?> response = server.submit(() -> {
+                        handle(dataSource, thinkMillis);
+                        return null;
+                    });
+                    try {
+                        response.get();
+                        latencies.record(System.nanoTime() - submitted);
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread client : clientThreads) {
+            client.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-8d %-14s %12.0f %10d %10d %8d%n", clientCount, mode,
+                latencies.count() / seconds,
+                latencies.percentileMicros(50) / 1_000, latencies.percentileMicros(99) / 1_000,
+                errors.get());
+    }
+
+    private static void handle(DataSource dataSource, int thinkMillis) throws SQLException, InterruptedException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement pstm = connection.prepareStatement(QUERY);
+             ResultSet rs = pstm.executeQuery()) {
+            while (rs.next()) {
+                rs.getInt(1);
+            }
+        }
+        if (thinkMillis > 0) {
+            Thread.sleep(thinkMillis);
+        }
+    }
+}
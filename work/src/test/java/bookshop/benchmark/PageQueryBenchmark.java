@@ -0,0 +1,87 @@
+package bookshop.benchmark;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import bookshop.dao.imp.ProductDaoImp;
+import bookshop.dao.jdbc.QueryExecutor;
+import bookshop.dto.request.PageRequest;
+
+/**
+ * Compares the two-query page path (list + COUNT) with the single-statement
+ * COUNT(*) OVER() path of ProductDaoImp, reporting p50/p99 per scenario.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=bookshop.benchmark.PageQueryBenchmark \
+ *       -Dbench.url=jdbc:mysql://localhost:3306/bookshop -Dbench.user=root -Dbench.password=...
+ *
+ * Optional: -Dbench.iterations=2000 -Dbench.warmup=200
+ */
+public class PageQueryBenchmark {
+
+    public static void main(String[] args) {
+        DataSource dataSource = BenchmarkSupport.dataSource();
+        ProductDaoImp productDao = new ProductDaoImp(new QueryExecutor(dataSource, new SimpleMeterRegistry()));
+
+        int iterations = BenchmarkSupport.intProperty("bench.iterations", 2000);
+        int warmup = BenchmarkSupport.intProperty("bench.warmup", 200);
+
+        PageRequest firstPage = PageRequest.of(0, 20);
+        PageRequest deepPage = PageRequest.of(50, 20, "price", "DESC");
+        BigDecimal min = new BigDecimal("10.00");
+        BigDecimal max = new BigDecimal("50.00");
+
+        System.out.printf("%-22s %-12s %10s %10s%n", "scenario", "path", "p50 (us)", "p99 (us)");
+
+        run("all, first page", iterations, warmup,
+                () -> productDao.findAll(firstPage).size() + productDao.count(),
+                () -> productDao.findAllWithTotal(firstPage).getTotalElements());
+        run("all, deep page", iterations, warmup,
+                () -> productDao.findAll(deepPage).size() + productDao.count(),
+                () -> productDao.findAllWithTotal(deepPage).getTotalElements());
+        run("category 1", iterations, warmup,
+                () -> productDao.findByCategoryId(1, firstPage).size() + productDao.countByCategory(1),
+                () -> productDao.findByCategoryIdWithTotal(1, firstPage).getTotalElements());
+        run("search 'the'", iterations, warmup,
+                () -> productDao.searchByName("the", firstPage).size() + productDao.countByNameSearch("the"),
+                () -> productDao.searchByNameWithTotal("the", firstPage).getTotalElements());
+        run("price 10-50", iterations, warmup,
+                () -> productDao.findByPriceRange(min, max, firstPage).size() + productDao.countByPriceRange(min, max),
+                () -> productDao.findByPriceRangeWithTotal(min, max, firstPage).getTotalElements());
+    }
+
+    private static void run(String scenario, int iterations, int warmup,
+                            Supplier<Long> twoQueries, Supplier<Long> singleQuery) {
+        BenchmarkSupport.Latencies twoQueryLatencies = new BenchmarkSupport.Latencies(iterations);
+        BenchmarkSupport.Latencies singleQueryLatencies = new BenchmarkSupport.Latencies(iterations);
+
+        for (int i = 0; i < warmup; i++) {
+            twoQueries.get();
+            singleQuery.get();
+        }
+
+        // Interleave so both paths see the same buffer pool and server load
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            twoQueries.get();
+            twoQueryLatencies.record(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            singleQuery.get();
+            singleQueryLatencies.record(System.nanoTime() - start);
+        }
+
+        print(scenario, "list+count", twoQueryLatencies);
+        print(scenario, "over()", singleQueryLatencies);
+    }
+
+    private static void print(String scenario, String path, BenchmarkSupport.Latencies latencies) {
+        System.out.printf("%-22s %-12s %10d %10d%n", scenario, path,
+                latencies.percentileMicros(50), latencies.percentileMicros(99));
+    }
+}
@@ -0,0 +1,117 @@
+package bookshop.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import bookshop.dao.imp.InventoryDaoImp;
+import bookshop.dao.jdbc.QueryExecutor;
+import bookshop.models.Inventory;
+
+/**
+ * Hammers one SKU with concurrent single-unit checkouts and counts lost updates.
+ *
+ *   read-check-write  findByProductId, check in Java, replaceQuantity(absolute) (the old reduceStock)
+ *   conditional       decrementQuantity: one UPDATE ... WHERE quantity >= ?
+ *
+ * Each scenario runs twice. With enough stock for every checkout, the final quantity
+ * must be 0; anything above is lost updates. With only half the stock, exactly half
+ * the checkouts may succeed; more successes than units is overselling.
+ *
+ * The SKU's quantity is restored afterwards.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=bookshop.benchmark.StockContentionBenchmark \
+ *       -Dbench.url=jdbc:mysql://localhost:3306/bookshop -Dbench.user=root -Dbench.password=...
+ *
+ * Optional: -Dbench.product=1 -Dbench.threads=64 -Dbench.checkouts=200 (per thread)
+ */
+public class StockContentionBenchmark {
+
+    @FunctionalInterface
+    private interface Checkout {
+        boolean take(int productId);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        InventoryDaoImp inventoryDao = new InventoryDaoImp(
+                new QueryExecutor(BenchmarkSupport.dataSource(), new SimpleMeterRegistry()));
+
+        int productId = BenchmarkSupport.intProperty("bench.product", 1);
+        int threads = BenchmarkSupport.intProperty("bench.threads", 64);
+        int checkouts = BenchmarkSupport.intProperty("bench.checkouts", 200);
+
+        int original = inventoryDao.findByProductId(productId)
+                .orElseThrow(() -> new IllegalStateException("Product " + productId + " has no inventory row"))
+                .getQuantity();
+
+        Checkout readCheckWrite = id -> {
+            Inventory inventory = inventoryDao.findByProductId(id).orElseThrow();
+            if (inventory.getQuantity() < 1) {
+                return false;
+            }
+            inventoryDao.replaceQuantity(id, inventory.getQuantity() - 1);
+            return true;
+        };
+        Checkout conditional = id -> inventoryDao.decrementQuantity(id, 1).isApplied();
+
+        System.out.printf("%-18s %-8s %8s %10s %10s %10s %8s %8s%n",
+                "path", "stock", "sold", "ops/s", "p50 (us)", "p99 (us)", "lost", "oversold");
+        try {
+            int total = threads * checkouts;
+            for (int stock : new int[] {total, total / 2}) {
+                run("read-check-write", readCheckWrite, inventoryDao, productId, stock, threads, checkouts);
+                run("conditional", conditional, inventoryDao, productId, stock, threads, checkouts);
+            }
+        } finally {
+            inventoryDao.replaceQuantity(productId, original);
+        }
+    }
+
+    private static void run(String path, Checkout checkout, InventoryDaoImp inventoryDao, int productId,
+                            int stock, int threads, int checkouts) throws InterruptedException {
+        inventoryDao.replaceQuantity(productId, stock);
+
+        BenchmarkSupport.Latencies latencies = new BenchmarkSupport.Latencies(threads * checkouts);
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < checkouts; i++) {
+                    long begin = System.nanoTime();
+                    if (checkout.take(productId)) {
+                        sold.incrementAndGet();
+                    }
+                    latencies.record(System.nanoTime() - begin);
+                }
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        int remaining = inventoryDao.findByProductId(productId).orElseThrow().getQuantity();
+        // Units that left the shelf without being accounted for, and sales beyond the stock
+        int lost = Math.max(0, remaining - (stock - sold.get()));
+        int oversold = Math.max(0, sold.get() - stock);
+
+        System.out.printf("%-18s %-8d %8d %10.0f %10d %10d %8d %8d%n", path, stock, sold.get(),
+                latencies.count() / seconds, latencies.percentileMicros(50), latencies.percentileMicros(99),
+                lost, oversold);
+    }
+}
@@ -0,0 +1,85 @@
+package bookshop.cache;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import bookshop.models.Product;
+
+/**
+ * Unit tests for ProductCache read-through and invalidation behaviour
+ */
+@DisplayName("ProductCache Tests")
+class ProductCacheTest {
+
+    private ProductCache productCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        productCache = new ProductCache(100);
+        loads = new AtomicInteger();
+    }
+
+    private Optional<Product> load(int productId) {
+        loads.incrementAndGet();
+        return Optional.of(new Product(productId, "Book " + productId, new BigDecimal("10.00"), 1));
+    }
+
+    @Test
+    @DisplayName("Should load once and serve repeated reads from the cache")
+    void testGet_RepeatedReads_LoadsOnce() {
+        productCache.get(1, this::load);
+        productCache.get(1, this::load);
+        productCache.get(1, this::load);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should return copies so callers cannot modify the cached product")
+    void testGet_ReturnsCopy() {
+        Product first = productCache.get(1, this::load).orElseThrow();
+        first.setName("Changed");
+
+        Product second = productCache.get(1, this::load).orElseThrow();
+
+        assertNotSame(first, second);
+        assertEquals("Book 1", second.getName());
+    }
+
+    @Test
+    @DisplayName("Should reload after invalidate")
+    void testInvalidate_ForcesReload() {
+        productCache.get(1, this::load);
+        productCache.invalidate(1);
+        productCache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache missing products")
+    void testGet_MissingProduct_NotCached() {
+        AtomicInteger misses = new AtomicInteger();
+
+        Optional<Product> first = productCache.get(99, id -> {
+            misses.incrementAndGet();
+            return Optional.empty();
+        });
+        productCache.get(99, id -> {
+            misses.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertTrue(first.isEmpty());
+        assertEquals(2, misses.get());
+    }
+}
@@ -0,0 +1,187 @@
+package bookshop.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import bookshop.events.CategoryChangedEvent;
+import bookshop.events.ProductChangedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Unit tests for the serialized response cache and the filter serving it
+ */
+@DisplayName("ResponseCacheFilter Tests")
+class ResponseCacheFilterTest {
+
+    private static final String BODY = "{\"content\":[" + "{\"name\":\"Dune\",\"price\":9.99},".repeat(50) + "{}]}";
+
+    private CatalogVersion catalogVersion;
+    private ResponseCache responseCache;
+    private ResponseCacheFilter filter;
+    private AtomicInteger renders;
+    private int status;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        responseCache = new ResponseCache(catalogVersion, 1 << 20, 1 << 16);
+        filter = new ResponseCacheFilter(responseCache);
+        renders = new AtomicInteger();
+        status = 200;
+    }
+
+    // Stands in for the controller
+    private final FilterChain controller = (request, response) -> {
+        renders.incrementAndGet();
+        HttpServletResponse http = (HttpServletResponse) response;
+        http.setStatus(status);
+        http.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        http.setHeader(HttpHeaders.ETAG, catalogVersion.listETag());
+        http.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+    };
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, controller);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("Should render once and serve identical bytes from the cache afterwards")
+    void testRepeatedGet_ServedFromCache() throws Exception {
+        MockHttpServletResponse first = get(request("/api/products"));
+        MockHttpServletResponse second = get(request("/api/products"));
+
+        assertEquals(1, renders.get());
+        assertEquals("MISS", first.getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", second.getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals(BODY, first.getContentAsString());
+        assertEquals(BODY, second.getContentAsString());
+        assertEquals(catalogVersion.listETag(), second.getHeader(HttpHeaders.ETAG));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, second.getContentType());
+    }
+
+    @Test
+    @DisplayName("Should share one entry whatever the order of the query parameters")
+    void testKey_SortsParameters() throws Exception {
+        MockHttpServletRequest first = request("/api/products/search");
+        first.addParameter("size", "20");
+        first.addParameter("keyword", "dune");
+        MockHttpServletRequest second = request("/api/products/search/");
+        second.addParameter("keyword", "dune");
+        second.addParameter("size", "20");
+        MockHttpServletRequest other = request("/api/products/search");
+        other.addParameter("keyword", "dune");
+        other.addParameter("size", "10");
+
+        get(first);
+        get(second);
+        get(other);
+
+        assertEquals(ResponseCacheFilter.key(first), ResponseCacheFilter.key(second));
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    @DisplayName("Should send the pre-compressed body only to clients that accept gzip")
+    void testGzip_WhenAccepted() throws Exception {
+        get(request("/api/categories"));
+
+        MockHttpServletRequest gzip = request("/api/categories");
+        gzip.addHeader(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8");
+        MockHttpServletResponse compressed = get(gzip);
+        MockHttpServletRequest refused = request("/api/categories");
+        refused.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+        MockHttpServletResponse plain = get(refused);
+
+        assertEquals("gzip", compressed.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, compressed.getHeader(HttpHeaders.VARY));
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), gunzip(compressed.getContentAsByteArray()));
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BODY, plain.getContentAsString());
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 from the cache when If-None-Match holds the ETag")
+    void testIfNoneMatch_NotModified() throws Exception {
+        String etag = get(request("/api/products")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest conditional = request("/api/products");
+        conditional.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag);
+        MockHttpServletResponse response = get(conditional);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentLength());
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    @DisplayName("Should render again after a product, category or catalog version change")
+    void testInvalidation() throws Exception {
+        get(request("/api/products"));
+
+        responseCache.onProductChanged(ProductChangedEvent.deleted(1));
+        get(request("/api/products"));
+        responseCache.onCategoryChanged(CategoryChangedEvent.created(5));
+        get(request("/api/products"));
+        catalogVersion.bump();
+        MockHttpServletResponse response = get(request("/api/products"));
+        get(request("/api/products"));
+
+        assertEquals(4, renders.get());
+        assertEquals(catalogVersion.listETag(), response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @DisplayName("Should not store a response rendered while a write was in flight")
+    void testStaleStamp_NotStored() {
+        ResponseCache.Stamp before = responseCache.stamp();
+        responseCache.invalidateAll();
+
+        assertEquals(true, responseCache.put("/api/products", before, new byte[] {'{', '}'},
+                MediaType.APPLICATION_JSON_VALUE, "\"1\"").isEmpty());
+        assertEquals(true, responseCache.get("/api/products").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should pass errors, other paths and other methods through uncached")
+    void testNotCached() throws Exception {
+        status = 404;
+        get(request("/api/categories/9"));
+        get(request("/api/categories/9"));
+        status = 200;
+        get(request("/api/products/1"));
+        get(request("/api/products/1"));
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/categories"), new MockHttpServletResponse(), controller);
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/categories"), new MockHttpServletResponse(), controller);
+
+        assertEquals(6, renders.get());
+        assertEquals(0, responseCache.size());
+    }
+}
@@ -0,0 +1,110 @@
+package bookshop.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import bookshop.exceptions.BusinessException;
+
+/**
+ * Unit tests for the fork/join helper used to overlap independent lookups
+ */
+@DisplayName("FanOut Tests")
+class FanOutTest {
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    @DisplayName("Should run subtasks concurrently and return each result after join")
+    void testJoin_RunsConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Supplier<String> first;
+        Supplier<Integer> second;
+
+        try (FanOut fanOut = new FanOut()) {
+            // Each subtask waits for the other, so this only finishes if they overlap
+            first = fanOut.fork(() -> {
+                bothStarted.countDown();
+                await(bothStarted);
+                return "book";
+            });
+            second = fanOut.fork(() -> {
+                bothStarted.countDown();
+                await(bothStarted);
+                return 42;
+            });
+            fanOut.join();
+        }
+
+        assertEquals("book", first.get());
+        assertEquals(42, second.get());
+    }
+
+    @Test
+    @DisplayName("Should rethrow the first failure unchanged and cancel the other subtasks")
+    void testJoin_FailureCancelsSiblings() {
+        BusinessException failure = new BusinessException("Category with ID 1 does not exist");
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch slowStarted = new CountDownLatch(1);
+
+        try (FanOut fanOut = new FanOut()) {
+            fanOut.fork(() -> {
+                slowStarted.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                return true;
+            });
+            fanOut.fork(() -> {
+                await(slowStarted);
+                throw failure;
+            });
+
+            long start = System.nanoTime();
+            BusinessException thrown = assertThrows(BusinessException.class, fanOut::join);
+
+            assertSame(failure, thrown);
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        }
+        sleep(100);
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    @DisplayName("Should refuse to hand out results before join")
+    void testResult_BeforeJoin() {
+        try (FanOut fanOut = new FanOut()) {
+            Supplier<Integer> result = fanOut.fork(() -> 1);
+
+            assertThrows(IllegalStateException.class, result::get);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package bookshop.controller;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.graphql.test.autoconfigure.GraphQlTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import bookshop.config.GraphQlConfig;
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.response.PageResponse;
+import bookshop.graphql.PersistedQueryRegistry;
+import bookshop.models.Product;
+import bookshop.services.serviceInterface.CategoryService;
+import bookshop.services.serviceInterface.InventoryService;
+import bookshop.services.serviceInterface.ProductService;
+
+/**
+ * GraphQL depth and cost limits: oversized operations are rejected before any data is fetched
+ */
+@GraphQlTest(controllers = {ProductGraphQlController.class, InventoryGraphQlController.class},
+        properties = {"bookshop.graphql.max-depth=6", "bookshop.graphql.max-cost=300"})
+@Import({GraphQlConfig.class, PersistedQueryRegistry.class})
+@DisplayName("GraphQL Limits Tests")
+class GraphQlLimitsTest {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @MockitoBean
+    private ProductService productService;
+
+    @MockitoBean
+    private CategoryService categoryService;
+
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    @Test
+    @DisplayName("Should run a query within the limits")
+    void testWithinLimits() {
+        when(productService.getAllProducts(any(PageRequest.class))).thenReturn(new PageResponse<>(
+                List.of(new Product(1, "Dune", new BigDecimal("9.99"), 1)), 0, 100, 1));
+
+        // 1 + 1 + 100 * (1 + 1)
+        graphQlTester.document("{ products(size: 100) { content { name category { name } inventory { quantity } } } }")
+                .execute()
+                .path("products.content[0].name").entity(String.class).isEqualTo("Dune");
+    }
+
+    @Test
+    @DisplayName("Should reject a query over the cost budget before fetching anything")
+    void testOverCost() {
+        graphQlTester.document("""
+                        query Page($size: Int) {
+                          products(size: $size) { content { category { name } inventory { product { name } } } }
+                        }
+                        """)
+                .variable("size", 100)
+                .execute()
+                .errors()
+                .satisfy(errors -> assertEquals(1, errors.size()));
+
+        verify(productService, never()).getAllProducts(any(PageRequest.class));
+    }
+
+    @Test
+    @DisplayName("Should reject a query nested deeper than the limit")
+    void testOverDepth() {
+        graphQlTester.document("{ products(size: 1) { content { inventory { product { inventory { product { name } } } } } } }")
+                .execute()
+                .errors()
+                .satisfy(errors -> assertEquals(1, errors.size()));
+
+        verify(productService, never()).getAllProducts(any(PageRequest.class));
+    }
+}
@@ -17,8 +17,10 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -26,25 +28,35 @@ import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import bookshop.cache.CatalogVersion;
+import bookshop.dao.daoInterface.ProductDao;
 import bookshop.dto.request.PageRequest;
 import bookshop.dto.request.ProductCreateDto;
 import bookshop.dto.request.ProductUpdateDto;
 import bookshop.dto.response.PageResponse;
+import bookshop.dto.response.ProductBatchResponse;
+import bookshop.events.ProductChangedEvent;
 import bookshop.exceptions.BusinessException;
 import bookshop.exceptions.GlobalExceptionHandler;
 import bookshop.exceptions.ProductNotFoundException;
+import bookshop.export.ProductStream;
 import bookshop.models.Product;
+import bookshop.search.ProductIndexLoader;
 import bookshop.services.serviceInterface.ProductService;
 
 /**
@@ -62,6 +74,9 @@ class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
     @InjectMocks
     private ProductController productController;
 
@@ -217,6 +232,101 @@ class ProductControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Conditional GETs - ETag / If-None-Match")
+    class ConditionalGetTests {
+
+        @Test
+        @DisplayName("Should tag a product with its version and answer 304 while it is unchanged")
+        void testGetProductById_IfNoneMatch_ReturnsNotModified() throws Exception {
+            // Arrange
+            testProduct.setVersion(3);
+            when(productService.getProductById(1)).thenReturn(Optional.of(testProduct));
+            String etag = CatalogVersion.productETag(testProduct);
+
+            // Act & Assert
+            mockMvc.perform(get("/api/products/1"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(jsonPath("$.version").value(3));
+
+            mockMvc.perform(get("/api/products/1").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            testProduct.setVersion(4);
+            mockMvc.perform(get("/api/products/1").header("If-None-Match", etag))
+                    .andExpect(status().isOk());
+        }
+
+        @Test
+        @DisplayName("Should answer 304 for an unchanged catalog without querying")
+        void testGetAllProducts_IfNoneMatch_SkipsQuery() throws Exception {
+            // Arrange
+            String etag = catalogVersion.listETag();
+
+            // Act & Assert
+            mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag));
+
+            verify(productService, never()).getAllProducts(any(PageRequest.class));
+        }
+
+        @Test
+        @DisplayName("Should return a fresh page with a new ETag after the catalog changes")
+        void testGetAllProducts_AfterChange_ReturnsOk() throws Exception {
+            // Arrange
+            String etag = catalogVersion.listETag();
+            PageResponse<Product> pageResponse = new PageResponse<>(List.of(testProduct), 0, 10, 1);
+            when(productService.getAllProducts(any(PageRequest.class))).thenReturn(pageResponse);
+            catalogVersion.put(testProduct);
+
+            // Act & Assert
+            mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", catalogVersion.listETag()))
+                    .andExpect(jsonPath("$.content", hasSize(1)));
+        }
+
+        @Test
+        @DisplayName("Should not answer 304 for a write made while the indexes load")
+        void testGetAllProducts_WriteDuringIndexLoad_ReturnsOk() throws Exception {
+            // Arrange
+            PageResponse<Product> pageResponse = new PageResponse<>(List.of(testProduct), 0, 10, 1);
+            when(productService.getAllProducts(any(PageRequest.class))).thenReturn(pageResponse);
+            ProductDao productDao = mock(ProductDao.class);
+            ProductIndexLoader loader = new ProductIndexLoader(productDao, List.of(catalogVersion));
+            String[] duringLoad = new String[1];
+
+            when(productDao.findAll()).thenAnswer(invocation -> {
+                String before = mockMvc.perform(get("/api/products"))
+                        .andReturn().getResponse().getHeader("ETag");
+
+                // The write reaches both listeners; the loader queues it until the load is done
+                ProductChangedEvent event = ProductChangedEvent.updated(testProduct);
+                catalogVersion.onProductChanged(event);
+                loader.onProductChanged(event);
+
+                duringLoad[0] = mockMvc.perform(get("/api/products").header("If-None-Match", before))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getHeader("ETag");
+                return List.of();
+            });
+            when(productDao.findById(1)).thenReturn(Optional.of(testProduct));
+
+            // Act
+            loader.reload();
+
+            // Assert
+            verify(productDao).findById(1);
+            mockMvc.perform(get("/api/products").header("If-None-Match", duringLoad[0]))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", catalogVersion.listETag()));
+            verify(catalogVersion).loaded();
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/products/category/{categoryId} - Get Products By Category")
     class GetProductsByCategoryTests {
@@ -337,6 +447,107 @@ class ProductControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/products/batch - Get Products By IDs")
+    class GetProductsByIdsTests {
+
+        @Test
+        @DisplayName("Should return found products and missing IDs")
+        void testGetProductsByIds_ReturnsOk() throws Exception {
+            // Arrange
+            Product other = new Product(3, "Sapiens", new BigDecimal("18.99"), 2);
+            when(productService.getProductsByIds(List.of(3, 42, 1)))
+                    .thenReturn(new ProductBatchResponse(List.of(other, testProduct), List.of(42)));
+
+            // Act & Assert
+            mockMvc.perform(get("/api/products/batch").param("ids", "3,42,1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products", hasSize(2)))
+                    .andExpect(jsonPath("$.products[0].productId").value(3))
+                    .andExpect(jsonPath("$.products[1].productId").value(1))
+                    .andExpect(jsonPath("$.missingIds[0]").value(42));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when ids parameter is missing")
+        void testGetProductsByIds_MissingParam_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(get("/api/products/batch"))
+                    .andExpect(status().isBadRequest());
+
+            verify(productService, never()).getProductsByIds(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/products/export - Stream Catalog Export")
+    class ExportProductsTests {
+
+        private ProductStream streamOf(Product... products) {
+            return sink -> {
+                for (Product product : products) {
+                    sink.accept(product);
+                }
+                return products.length;
+            };
+        }
+
+        @Test
+        @DisplayName("Should stream products as NDJSON by default")
+        void testExportProducts_Ndjson() throws Exception {
+            // Arrange
+            Product quoted = new Product(2, "Say \"Hi\"", new BigDecimal("5.00"), 1);
+            when(productService.exportProducts(null, null, null)).thenReturn(streamOf(testProduct, quoted));
+
+            // Act
+            MvcResult result = mockMvc.perform(get("/api/products/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", containsString("application/x-ndjson")))
+                    .andExpect(content().string(
+                            "{\"productId\":1,\"name\":\"Test Book\",\"price\":29.99,\"categoryId\":1,\"categoryName\":null}\n"
+                            + "{\"productId\":2,\"name\":\"Say \\\"Hi\\\"\",\"price\":5.00,\"categoryId\":1,\"categoryName\":null}\n"));
+        }
+
+        @Test
+        @DisplayName("Should stream filtered products as CSV with a header row")
+        void testExportProducts_Csv() throws Exception {
+            // Arrange
+            Product withComma = new Product(3, "Cats, Dogs", new BigDecimal("7.50"), 2);
+            when(productService.exportProducts(2, new BigDecimal("5"), null)).thenReturn(streamOf(withComma));
+
+            // Act
+            MvcResult result = mockMvc.perform(get("/api/products/export")
+                            .param("format", "csv")
+                            .param("categoryId", "2")
+                            .param("minPrice", "5"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", containsString("products.csv")))
+                    .andExpect(content().string(
+                            "product_id,name,price,category_id,category_name\n3,\"Cats, Dogs\",7.50,2,\n"));
+        }
+
+        @Test
+        @DisplayName("Should reject an invalid filter before streaming starts")
+        void testExportProducts_UnknownCategory_ReturnsBadRequest() throws Exception {
+            // Arrange
+            when(productService.exportProducts(99, null, null))
+                    .thenThrow(new BusinessException("Category with ID 99 does not exist"));
+
+            // Act & Assert
+            mockMvc.perform(get("/api/products/export").param("categoryId", "99"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/products/price-range - Get Products By Price Range")
     class GetProductsByPriceRangeTests {
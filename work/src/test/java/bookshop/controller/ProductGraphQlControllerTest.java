@@ -0,0 +1,120 @@
+package bookshop.controller;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.graphql.test.autoconfigure.GraphQlTest;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.response.PageResponse;
+import bookshop.dto.response.ProductBatchResponse;
+import bookshop.models.Category;
+import bookshop.models.Inventory;
+import bookshop.models.Product;
+import bookshop.services.serviceInterface.CategoryService;
+import bookshop.services.serviceInterface.InventoryService;
+import bookshop.services.serviceInterface.ProductService;
+
+/**
+ * GraphQL slice tests: nested fields must resolve with one batched call per level
+ */
+@GraphQlTest(controllers = {ProductGraphQlController.class, InventoryGraphQlController.class})
+@DisplayName("Product GraphQL API Tests")
+class ProductGraphQlControllerTest {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @MockitoBean
+    private ProductService productService;
+
+    @MockitoBean
+    private CategoryService categoryService;
+
+    @MockitoBean
+    private InventoryService inventoryService;
+
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        products = List.of(
+                new Product(1, "The Great Gatsby", new BigDecimal("15.99"), 1),
+                new Product(2, "Sapiens", new BigDecimal("18.99"), 2),
+                new Product(3, "1984", new BigDecimal("12.99"), 1));
+    }
+
+    @Test
+    @DisplayName("Should resolve category and inventory of a whole page with one call each")
+    void testProducts_BatchesNestedFields() {
+        // Arrange
+        when(productService.getAllProducts(any(PageRequest.class)))
+                .thenReturn(new PageResponse<>(products, 0, 3, 3));
+        when(categoryService.getCategoriesByIds(anyCollection())).thenReturn(Map.of(
+                1, new Category(1, "Fiction"), 2, new Category(2, "History")));
+        when(inventoryService.getInventoriesByProductIds(anyCollection())).thenReturn(Map.of(
+                1, new Inventory(1, 5), 2, new Inventory(2, 0)));
+
+        // Act & Assert
+        graphQlTester.document("""
+                        {
+                          products(size: 3) {
+                            totalElements
+                            content { name category { name } inventory { quantity } }
+                          }
+                        }
+                        """)
+                .execute()
+                .path("products.totalElements").entity(Integer.class).isEqualTo(3)
+                .path("products.content[*].category.name").entityList(String.class)
+                .containsExactly("Fiction", "History", "Fiction")
+                .path("products.content[0].inventory.quantity").entity(Integer.class).isEqualTo(5)
+                .path("products.content[2].inventory").valueIsNull();
+
+        verify(categoryService, times(1)).getCategoriesByIds(List.of(1, 2));
+        verify(inventoryService, times(1)).getInventoriesByProductIds(List.of(1, 2, 3));
+    }
+
+    @Test
+    @DisplayName("Should batch products of nested inventory records")
+    void testInventoryProduct_Batched() {
+        // Arrange
+        when(productService.getAllProducts(any(PageRequest.class)))
+                .thenReturn(new PageResponse<>(products, 0, 3, 3));
+        when(inventoryService.getInventoriesByProductIds(anyCollection())).thenReturn(Map.of(
+                1, new Inventory(1, 5), 2, new Inventory(2, 0), 3, new Inventory(3, 7)));
+        when(productService.getProductsByIds(List.of(1, 2, 3)))
+                .thenReturn(new ProductBatchResponse(products, List.of()));
+
+        // Act & Assert
+        graphQlTester.document("{ products { content { inventory { product { name } } } } }")
+                .execute()
+                .path("products.content[*].inventory.product.name").entityList(String.class)
+                .containsExactly("The Great Gatsby", "Sapiens", "1984");
+
+        verify(productService, times(1)).getProductsByIds(List.of(1, 2, 3));
+    }
+
+    @Test
+    @DisplayName("Should report invalid arguments as BAD_REQUEST")
+    void testProducts_InvalidArguments() {
+        graphQlTester.document("{ products(categoryId: 1, keyword: \"gatsby\") { totalElements } }")
+                .execute()
+                .errors()
+                .expect(error -> error.getErrorType() == ErrorType.BAD_REQUEST)
+                .verify();
+    }
+}
@@ -0,0 +1,142 @@
+package bookshop.dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import bookshop.concurrent.FanOut;
+
+/**
+ * Unit tests for the per-thread connection pool admission gate
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConnectionGate Tests")
+class ConnectionGateTest {
+
+    @Mock
+    private DataSource pool;
+
+    private ConnectionGate gate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        gate = new ConnectionGate(pool, 1, 100);
+    }
+
+    // An unrelated request thread: it must not inherit the caller's permit
+    private static Connection openOnOtherThread(ConnectionGate gate) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return gate.getConnection();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }, runnable -> Thread.ofVirtual().inheritInheritableThreadLocals(false).start(runnable))
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should make other threads wait until the permit holder closes its connection")
+    void testGate_LimitsThreads() throws Exception {
+        Connection held = gate.getConnection();
+
+        Exception timeout = assertThrows(Exception.class, () -> openOnOtherThread(gate));
+        assertTrue(timeout.getCause().getCause() instanceof SQLTransientConnectionException);
+
+        held.close();
+        Connection other = openOnOtherThread(gate);
+        assertFalse(other.isClosed());
+    }
+
+    @Test
+    @DisplayName("Should let a thread that already holds a permit open a second connection")
+    void testGate_ReentrantPerThread() throws Exception {
+        Connection transaction = gate.getConnection();
+        Connection statement = gate.getConnection();
+
+        statement.close();
+        assertThrows(Exception.class, () -> openOnOtherThread(gate));
+
+        transaction.close();
+        openOnOtherThread(gate).close();
+        verify(pool, times(3)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should close the pooled connection once however often close is called")
+    void testClose_Idempotent() throws Exception {
+        Connection connection = gate.getConnection();
+        Connection target = ((ConnectionProxy) connection).getTargetConnection();
+
+        connection.close();
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        verify(target).close();
+        // The single permit is free again, and was not released twice
+        Connection next = gate.getConnection();
+        assertEquals(0, gate.getWaiting());
+        assertThrows(Exception.class, () -> openOnOtherThread(gate));
+        next.close();
+    }
+
+    @Test
+    @DisplayName("Should return the permit when the pool fails to hand out a connection")
+    void testPoolFailure_ReleasesPermit() throws Exception {
+        SQLException failure = new SQLException("pool exhausted");
+        when(pool.getConnection()).thenThrow(failure);
+
+        SQLException thrown = assertThrows(SQLException.class, gate::getConnection);
+
+        assertSame(failure, thrown);
+        doAnswer(invocation -> mock(Connection.class)).when(pool).getConnection();
+        openOnOtherThread(gate).close();
+    }
+
+    @Test
+    @DisplayName("Should let subtasks forked under an open connection share its permit")
+    void testFanOut_SharesParentPermit() throws Exception {
+        try (Connection transaction = gate.getConnection(); FanOut fanOut = new FanOut()) {
+            Supplier<Boolean> first = fanOut.fork(() -> query(gate));
+            Supplier<Boolean> second = fanOut.fork(() -> query(gate));
+            fanOut.join();
+
+            assertTrue(first.get() && second.get());
+            assertFalse(transaction.isClosed());
+            assertThrows(Exception.class, () -> openOnOtherThread(gate));
+        }
+        openOnOtherThread(gate).close();
+    }
+
+    private static boolean query(ConnectionGate gate) {
+        try (Connection connection = gate.getConnection()) {
+            return !connection.isClosed();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
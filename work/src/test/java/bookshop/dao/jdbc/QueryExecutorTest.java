@@ -0,0 +1,213 @@
+package bookshop.dao.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import org.mockito.InOrder;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the shared JDBC executor: binding, mapping, cleanup and metrics
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QueryExecutor Tests")
+class QueryExecutorTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement pstm;
+
+    @Mock
+    private ResultSet rs;
+
+    private SimpleMeterRegistry registry;
+    private QueryExecutor executor;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        registry = new SimpleMeterRegistry();
+        executor = new QueryExecutor(dataSource, registry);
+        lenient().when(dataSource.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    @DisplayName("Should bind parameters in order, map rows by index and record metrics")
+    void testQuery() throws SQLException {
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(pstm);
+        when(pstm.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getInt(1)).thenReturn(1, 2);
+
+        List<Integer> ids = executor.query("product.test", "SELECT product_id FROM products WHERE price > ? AND name = ?",
+                row -> row.getInt(1), new BigDecimal("10.00"), "Dune");
+
+        assertEquals(List.of(1, 2), ids);
+        verify(pstm).setBigDecimal(1, new BigDecimal("10.00"));
+        verify(pstm).setString(2, "Dune");
+        verify(rs).close();
+        verify(pstm).close();
+        verify(connection).close();
+        assertEquals(1, registry.get("bookshop.jdbc.statement")
+                .tag("statement", "product.test").tag("outcome", "success").timer().count());
+        assertEquals(2.0, registry.get("bookshop.jdbc.rows")
+                .tag("statement", "product.test").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should hand generated keys to the sink in order")
+    void testInsert() throws SQLException {
+        when(connection.prepareStatement(anyString(), anyInt())).thenReturn(pstm);
+        when(pstm.executeUpdate()).thenReturn(2);
+        when(pstm.getGeneratedKeys()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getInt(1)).thenReturn(41, 42);
+
+        List<Integer> keys = new ArrayList<>();
+        int inserted = executor.insert("product.saveAll", "INSERT ...", keys::add, "A", null);
+
+        assertEquals(2, inserted);
+        assertEquals(List.of(41, 42), keys);
+        verify(pstm).setNull(2, Types.NULL);
+    }
+
+    @Test
+    @DisplayName("Should wrap SQLException, close resources and count the error")
+    void testError() throws SQLException {
+        SQLException cause = new SQLException("boom");
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(pstm);
+        when(pstm.executeUpdate()).thenThrow(cause);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> executor.update("product.deleteById", "DELETE ...", 1));
+
+        assertEquals("Error executing product.deleteById", exception.getMessage());
+        assertSame(cause, exception.getCause());
+        verify(connection).close();
+        assertEquals(1, registry.get("bookshop.jdbc.statement")
+                .tag("statement", "product.deleteById").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should build each SQL template once")
+    void testTemplate() {
+        AtomicInteger builds = new AtomicInteger();
+
+        String first = executor.template("product.findAll|PRICE|ASC|offset", () -> "SQL" + builds.incrementAndGet());
+        String second = executor.template("product.findAll|PRICE|ASC|offset", () -> "SQL" + builds.incrementAndGet());
+
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        assertTrue(first.startsWith("SQL"));
+    }
+
+    @Test
+    @DisplayName("Should deduplicate IN lists and pad them to a power of two")
+    void testQueryIn() throws SQLException {
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(pstm);
+        when(pstm.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(rs.getInt(1)).thenReturn(7, 3, 9);
+
+        List<Integer> ids = executor.queryIn("category.findAllByIds", "SELECT category_id FROM category WHERE category_id IN",
+                row -> row.getInt(1), List.of(7, 3, 7, 9));
+
+        assertEquals(List.of(7, 3, 9), ids);
+        verify(connection).prepareStatement(eq("SELECT category_id FROM category WHERE category_id IN (?,?,?,?)"),
+                anyInt(), anyInt());
+        verify(pstm).setInt(1, 7);
+        verify(pstm).setInt(2, 3);
+        verify(pstm, times(2)).setInt(anyInt(), eq(9));
+    }
+
+    @Test
+    @DisplayName("Should return the LAST_INSERT_ID value of a matched update, and empty when nothing matched")
+    void testUpdateReturning() throws SQLException {
+        when(connection.prepareStatement(anyString(), anyInt())).thenReturn(pstm);
+        when(pstm.executeUpdate()).thenReturn(1, 1, 0);
+        when(pstm.getGeneratedKeys()).thenReturn(rs);
+        // The driver reports no key when the value written is 0
+        when(rs.next()).thenReturn(true, false, false);
+        when(rs.getLong(1)).thenReturn(7L);
+
+        String sql = "UPDATE inventory SET quantity = LAST_INSERT_ID(quantity - ?) WHERE product_id = ? AND quantity >= ?";
+        assertEquals(OptionalLong.of(7), executor.updateReturning("inventory.decrementQuantity", sql, 3, 1, 3));
+        assertEquals(OptionalLong.of(0), executor.updateReturning("inventory.decrementQuantity", sql, 7, 1, 7));
+        assertEquals(OptionalLong.empty(), executor.updateReturning("inventory.decrementQuantity", sql, 1, 1, 1));
+    }
+
+    @Test
+    @DisplayName("Should run a transaction's statements on one connection and commit")
+    void testTransaction_Commits() throws SQLException {
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(pstm);
+        when(pstm.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getInt(1)).thenReturn(5);
+        when(pstm.executeUpdate()).thenReturn(1);
+
+        int updated = executor.transaction("inventory.test", transaction -> {
+            List<Integer> levels = transaction.query("inventory.lock", "SELECT quantity FROM inventory FOR UPDATE",
+                    row -> row.getInt(1));
+            return transaction.update("inventory.update", "UPDATE inventory SET quantity = ?", levels.get(0) - 1);
+        });
+
+        assertEquals(1, updated);
+        InOrder order = inOrder(connection);
+        order.verify(connection).setAutoCommit(false);
+        order.verify(connection).commit();
+        order.verify(connection).setAutoCommit(true);
+        order.verify(connection).close();
+        verify(dataSource, times(1)).getConnection();
+        verify(pstm).setInt(1, 4);
+    }
+
+    @Test
+    @DisplayName("Should roll a transaction back and rethrow when a statement fails")
+    void testTransaction_RollsBack() throws SQLException {
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(pstm);
+        when(pstm.executeUpdate()).thenThrow(new SQLException("lock wait timeout"));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> executor.transaction("inventory.test",
+                transaction -> transaction.update("inventory.update", "UPDATE inventory SET quantity = 0")));
+
+        assertEquals("Error executing inventory.update", exception.getMessage());
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).setAutoCommit(true);
+        verify(connection).close();
+    }
+}
@@ -0,0 +1,76 @@
+package bookshop.dto.request;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import bookshop.models.Product;
+
+/**
+ * Unit tests for keyset page cursors
+ */
+@DisplayName("PageCursor Tests")
+class PageCursorTest {
+
+    @Test
+    @DisplayName("Should round-trip sort key and product id through the opaque token")
+    void testEncodeDecode_RoundTrip() {
+        Product last = new Product(42, "Tips | Tricks", new BigDecimal("9.99"), 3);
+        PageRequest pageRequest = PageRequest.of(0, 20, "name", "DESC");
+
+        String token = PageCursor.after(last, pageRequest).encode();
+        PageRequest next = PageRequest.of(0, 20, "name", "DESC", token);
+
+        assertTrue(next.isKeyset());
+        assertEquals(ProductSortField.NAME, next.getCursor().getSortField());
+        assertEquals("Tips | Tricks", next.getCursor().getLastKeyValue());
+        assertEquals(42, next.getCursor().getLastProductId());
+    }
+
+    @Test
+    @DisplayName("Should decode price keys as BigDecimal")
+    void testDecode_PriceKey() {
+        Product last = new Product(7, "Book", new BigDecimal("15.50"), 1);
+        String token = PageCursor.after(last, PageRequest.of(0, 10, "price", "ASC")).encode();
+
+        assertEquals(new BigDecimal("15.50"), PageCursor.decode(token).getLastKeyValue());
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for a different sort order")
+    void testOf_CursorSortMismatch_ThrowsException() {
+        Product last = new Product(7, "Book", new BigDecimal("15.50"), 1);
+        String token = PageCursor.after(last, PageRequest.of(0, 10, "price", "ASC")).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> PageRequest.of(0, 10, "name", "ASC", token));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed tokens")
+    void testDecode_Malformed_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    @DisplayName("Should treat a blank cursor as offset paging")
+    void testOf_BlankCursor_IsOffsetPaging() {
+        assertEquals(false, PageRequest.of(2, 10, null, "ASC", " ").isKeyset());
+    }
+
+    @Test
+    @DisplayName("Should order names like the accent- and case-insensitive column collation")
+    void testNameComparator_IgnoresAccentsAndCase() {
+        Comparator<Product> order = ProductSortField.NAME.comparator("ASC");
+        Product eclair = ProductSortField.NAME.probe("Éclair", 3);
+
+        assertTrue(order.compare(ProductSortField.NAME.probe("Dune", 1), eclair) < 0);
+        assertTrue(order.compare(eclair, ProductSortField.NAME.probe("Emma", 2)) < 0);
+        // Equal under the collation, so product_id decides
+        assertTrue(order.compare(ProductSortField.NAME.probe("eclair", 4), eclair) > 0);
+    }
+}
@@ -0,0 +1,92 @@
+package bookshop.graphql;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+
+/**
+ * Unit tests for the persisted document registry, run through a real GraphQL engine
+ */
+@DisplayName("PersistedQueryRegistry Tests")
+class PersistedQueryRegistryTest {
+
+    private static final String QUERY = "{ hello }";
+
+    private PersistedQueryRegistry registry;
+    private GraphQL graphQl;
+    private AtomicInteger parses;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PersistedQueryRegistry(100);
+        parses = new AtomicInteger();
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("hello", env -> "world"))
+                .build();
+        graphQl = GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(
+                        new SchemaParser().parse("type Query { hello: String }"), wiring))
+                .preparsedDocumentProvider((input, parseAndValidate) -> registry.getDocumentAsync(input, in -> {
+                    parses.incrementAndGet();
+                    return parseAndValidate.apply(in);
+                }))
+                .build();
+    }
+
+    private ExecutionResult execute(String query, boolean withHash) {
+        ExecutionInput.Builder input = ExecutionInput.newExecutionInput().query(query);
+        if (withHash) {
+            input.extensions(Map.of("persistedQuery",
+                    Map.of("version", 1, "sha256Hash", PersistedQueryRegistry.sha256(QUERY))));
+        }
+        return graphQl.execute(input.build());
+    }
+
+    @Test
+    @DisplayName("Should ask for the query text when a hash is unknown, then serve it by hash")
+    void testAutomaticPersistedQuery() {
+        ExecutionResult unknown = execute(PersistedQuerySupport.PERSISTED_QUERY_MARKER, true);
+        assertEquals("PersistedQueryNotFound", unknown.getErrors().get(0).getMessage());
+
+        ExecutionResult registered = execute(QUERY, true);
+        assertTrue(registered.getErrors().isEmpty());
+
+        ExecutionResult byHash = execute(PersistedQuerySupport.PERSISTED_QUERY_MARKER, true);
+        assertEquals(Map.of("hello", "world"), byHash.getData());
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    @DisplayName("Should parse and validate a repeated plain query once and persist it under its hash")
+    void testPlainQueriesShareRegistry() {
+        execute(QUERY, false);
+        execute(QUERY, false);
+        ExecutionResult byHash = execute(PersistedQuerySupport.PERSISTED_QUERY_MARKER, true);
+
+        assertEquals(1, parses.get());
+        assertEquals(Map.of("hello", "world"), byHash.getData());
+    }
+
+    @Test
+    @DisplayName("Should not keep documents that fail validation")
+    void testInvalidNotCached() {
+        ExecutionResult first = execute("{ goodbye }", false);
+        execute("{ goodbye }", false);
+
+        assertEquals(1, first.getErrors().size());
+        assertEquals(2, parses.get());
+        assertEquals(0, registry.size());
+    }
+}
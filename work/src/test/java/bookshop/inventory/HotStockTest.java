@@ -0,0 +1,199 @@
+package bookshop.inventory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import bookshop.dao.daoInterface.InventoryDao;
+import bookshop.models.Inventory;
+import bookshop.models.StockAdjustment;
+
+/**
+ * Unit tests for hot SKU promotion, write-behind flushing and journal recovery
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HotStock Tests")
+class HotStockTest {
+
+    private static final int PRODUCT_ID = 7;
+
+    @Mock
+    private InventoryDao inventoryDao;
+
+    @TempDir
+    Path directory;
+
+    private HotStock hotStock;
+    private final AtomicInteger databaseWrites = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        hotStock = new HotStock(inventoryDao, true, 3, 4, directory.toString(), "test");
+        hotStock.afterSingletonsInstantiated();
+    }
+
+    private StockAdjustment reduceInDatabase() {
+        databaseWrites.incrementAndGet();
+        return StockAdjustment.applied(PRODUCT_ID, 50 - databaseWrites.get());
+    }
+
+    private void makeHot(int level) {
+        Inventory inventory = new Inventory();
+        inventory.setInventoryId(1);
+        inventory.setProductId(PRODUCT_ID);
+        inventory.setQuantity(level);
+        when(inventoryDao.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(inventory));
+        for (int i = 0; i < 3; i++) {
+            hotStock.decrement(PRODUCT_ID, 1, this::reduceInDatabase);
+        }
+    }
+
+    @Test
+    @DisplayName("Should promote a SKU after the threshold and then stop writing it to the database")
+    void testDecrement_PromotesHotSku() {
+        makeHot(47);
+
+        StockAdjustment adjustment = hotStock.decrement(PRODUCT_ID, 5, this::reduceInDatabase);
+
+        assertEquals(3, databaseWrites.get());
+        assertEquals(StockAdjustment.applied(PRODUCT_ID, 42), adjustment);
+        assertEquals(OptionalInt.of(42), hotStock.level(PRODUCT_ID));
+        assertEquals(StockAdjustment.insufficient(PRODUCT_ID, 42),
+                hotStock.decrement(PRODUCT_ID, 43, this::reduceInDatabase));
+    }
+
+    @Test
+    @DisplayName("Should write the journaled changes of a hot SKU to the database as one sum per flush")
+    void testFlush_WritesNetChange() {
+        makeHot(47);
+        hotStock.decrement(PRODUCT_ID, 5, this::reduceInDatabase);
+        hotStock.decrement(PRODUCT_ID, 1, this::reduceInDatabase);
+        hotStock.increment(PRODUCT_ID, 2, () -> {
+            throw new AssertionError("hot SKU written to the database");
+        });
+        when(inventoryDao.applyJournalSegment(eq("test"), anyLong(), anyMap())).thenReturn(true);
+
+        hotStock.flush();
+
+        verify(inventoryDao).applyJournalSegment("test", 1, Map.of(PRODUCT_ID, -4));
+        assertEquals(OptionalInt.of(43), hotStock.level(PRODUCT_ID));
+    }
+
+    @Test
+    @DisplayName("Should keep a segment the database refused and apply it on the next flush")
+    void testFlush_RetriesFailedSegment() {
+        makeHot(47);
+        hotStock.decrement(PRODUCT_ID, 2, this::reduceInDatabase);
+        when(inventoryDao.applyJournalSegment(eq("test"), anyLong(), anyMap()))
+                .thenThrow(new RuntimeException("Error executing inventory.applyJournalSegment"))
+                .thenReturn(true);
+
+        hotStock.flush();
+        hotStock.decrement(PRODUCT_ID, 1, this::reduceInDatabase);
+        hotStock.flush();
+
+        verify(inventoryDao).applyJournalSegment("test", 2, Map.of(PRODUCT_ID, -1));
+    }
+
+    @Test
+    @DisplayName("Should replay the segments of a previous run before serving")
+    void testRecovery_ReplaysJournal() {
+        try (StockJournal previousRun = new StockJournal(directory.resolve("replay"), 4)) {
+            previousRun.append(PRODUCT_ID, -3);
+            previousRun.append(PRODUCT_ID, -1);
+        }
+        when(inventoryDao.findJournalCheckpoint("replay")).thenReturn(3L);
+        when(inventoryDao.applyJournalSegment("replay", 4, Map.of(PRODUCT_ID, -4))).thenReturn(true);
+
+        HotStock restarted = new HotStock(inventoryDao, true, 3, 4, directory.resolve("replay").toString(), "replay");
+        restarted.afterSingletonsInstantiated();
+
+        verify(inventoryDao).applyJournalSegment("replay", 4, Map.of(PRODUCT_ID, -4));
+        assertFalse(Files.exists(directory.resolve("replay").resolve("stock-000000000004.log")));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start when the journal of a previous run cannot be replayed")
+    void testRecovery_FailureStopsStartup() {
+        try (StockJournal previousRun = new StockJournal(directory.resolve("replay"), 1)) {
+            previousRun.append(PRODUCT_ID, -3);
+        }
+        when(inventoryDao.applyJournalSegment(anyString(), anyLong(), anyMap()))
+                .thenThrow(new RuntimeException("database down"));
+
+        HotStock restarted = new HotStock(inventoryDao, true, 3, 4, directory.resolve("replay").toString(), "replay");
+
+        assertThrows(IllegalStateException.class, restarted::afterSingletonsInstantiated);
+    }
+
+    @Test
+    @DisplayName("Should leave hot and database stock untouched when a reservation line is short")
+    void testDecrementAll_HotLineShort_RefusesAll() {
+        makeHot(4);
+        Inventory cold = new Inventory();
+        cold.setProductId(9);
+        cold.setQuantity(10);
+        when(inventoryDao.findAllByProductIds(Set.of(9))).thenReturn(List.of(cold));
+
+        List<StockAdjustment> adjustments = hotStock.decrementAll(Map.of(PRODUCT_ID, 5, 9, 1),
+                amounts -> {
+                    throw new AssertionError("database decremented");
+                });
+
+        assertEquals(List.of(StockAdjustment.insufficient(PRODUCT_ID, 4), StockAdjustment.applied(9, 9)),
+                adjustments);
+        assertEquals(OptionalInt.of(4), hotStock.level(PRODUCT_ID));
+    }
+
+    @Test
+    @DisplayName("Should give back hot stock when the database refuses the rest of a reservation")
+    void testDecrementAll_DatabaseShort_GivesBackHotStock() {
+        makeHot(4);
+
+        List<StockAdjustment> adjustments = hotStock.decrementAll(Map.of(PRODUCT_ID, 2, 9, 1),
+                amounts -> List.of(StockAdjustment.notFound(9)));
+
+        assertEquals(List.of(StockAdjustment.applied(PRODUCT_ID, 2), StockAdjustment.notFound(9)), adjustments);
+        assertFalse(adjustments.stream().allMatch(StockAdjustment::isApplied));
+        assertEquals(OptionalInt.of(4), hotStock.level(PRODUCT_ID));
+    }
+
+    @Test
+    @DisplayName("Should pass everything through to the database when disabled")
+    void testDisabled_PassesThrough() {
+        HotStock disabled = HotStock.disabled();
+        disabled.afterSingletonsInstantiated();
+
+        for (int i = 0; i < 10; i++) {
+            disabled.decrement(PRODUCT_ID, 1, this::reduceInDatabase);
+        }
+
+        assertEquals(10, databaseWrites.get());
+        assertTrue(disabled.level(PRODUCT_ID).isEmpty());
+        verify(inventoryDao, never()).findByProductId(PRODUCT_ID);
+    }
+}
@@ -0,0 +1,200 @@
+package bookshop.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import bookshop.dao.daoInterface.InventoryLedgerDao;
+import bookshop.dto.response.LedgerReplayResult;
+import bookshop.exceptions.BusinessException;
+import bookshop.models.InventoryMovement;
+import bookshop.models.LedgerBalance;
+
+/**
+ * Unit tests for batched ledger appends and the streaming replay
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventoryLedger Tests")
+class InventoryLedgerTest {
+
+    @Mock
+    private InventoryLedgerDao ledgerDao;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private InventoryLedger ledger;
+    private final List<List<InventoryMovement>> appended = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ledger = new InventoryLedger(ledgerDao, HotStock.disabled(), eventPublisher, true, 100, 2, 10, true);
+    }
+
+    private void recordAppends() {
+        when(ledgerDao.appendAll(anyList())).thenAnswer(invocation -> {
+            List<InventoryMovement> batch = invocation.getArgument(0);
+            appended.add(List.copyOf(batch));
+            return batch.size();
+        });
+    }
+
+    @Test
+    @DisplayName("Should write queued movements in batches of batch-size and skip zero changes")
+    void testFlush_WritesBatches() {
+        recordAppends();
+        ledger.record(1, InventoryMovement.Type.ADD, 5);
+        ledger.record(1, InventoryMovement.Type.SET, 0);
+        ledger.record(2, InventoryMovement.Type.REDUCE, -1);
+        ledger.record(3, InventoryMovement.Type.HOLD, -2);
+
+        ledger.flush();
+
+        assertEquals(List.of(
+                List.of(new InventoryMovement(1, InventoryMovement.Type.ADD, 5),
+                        new InventoryMovement(2, InventoryMovement.Type.REDUCE, -1)),
+                List.of(new InventoryMovement(3, InventoryMovement.Type.HOLD, -2))), appended);
+    }
+
+    @Test
+    @DisplayName("Should keep a batch the database refused and write it first on the next flush")
+    void testFlush_RetriesFailedBatch() {
+        when(ledgerDao.appendAll(anyList()))
+                .thenThrow(new RuntimeException("Error executing ledger.appendAll"))
+                .thenAnswer(invocation -> {
+                    List<InventoryMovement> batch = invocation.getArgument(0);
+                    appended.add(List.copyOf(batch));
+                    return batch.size();
+                });
+        ledger.record(1, InventoryMovement.Type.ADD, 5);
+
+        ledger.flush();
+        ledger.record(2, InventoryMovement.Type.ADD, 7);
+        ledger.flush();
+
+        assertEquals(List.of(
+                List.of(new InventoryMovement(1, InventoryMovement.Type.ADD, 5)),
+                List.of(new InventoryMovement(2, InventoryMovement.Type.ADD, 7))), appended);
+    }
+
+    @Test
+    @DisplayName("Should rewrite only drifted rows, in batches, while streaming the balances")
+    void testReplay_CorrectsDrift() {
+        stream(new LedgerBalance(1, 10, 10),
+                new LedgerBalance(2, 5, 50),
+                new LedgerBalance(3, 0, 4),
+                new LedgerBalance(4, 8, 7));
+        List<Map<Integer, Integer>> restored = new ArrayList<>();
+        when(ledgerDao.restoreQuantities(anyMap())).thenAnswer(invocation -> {
+            Map<Integer, Integer> batch = invocation.getArgument(0);
+            restored.add(Map.copyOf(batch));
+            return batch.size();
+        });
+
+        LedgerReplayResult result = ledger.replay(false);
+
+        assertEquals(List.of(Map.of(2, 5, 3, 0), Map.of(4, 8)), restored);
+        assertEquals(4, result.getChecked());
+        assertEquals(3, result.getDrifted());
+        assertEquals(3, result.getCorrected());
+    }
+
+    @Test
+    @DisplayName("Should write a negative ledger level as zero and record the difference as ADJUST")
+    void testReplay_NegativeLevelAdjusted() {
+        stream(new LedgerBalance(1, -3, 2));
+        List<Map<Integer, Integer>> restored = new ArrayList<>();
+        when(ledgerDao.restoreQuantities(anyMap())).thenAnswer(invocation -> {
+            Map<Integer, Integer> batch = invocation.getArgument(0);
+            restored.add(Map.copyOf(batch));
+            return batch.size();
+        });
+
+        LedgerReplayResult result = ledger.replay(false);
+        recordAppends();
+        ledger.flush();
+
+        assertEquals(List.of(Map.of(1, 0)), restored);
+        assertEquals(1, result.getCorrected());
+        assertEquals(List.of(List.of(new InventoryMovement(1, InventoryMovement.Type.ADJUST, 3))), appended);
+    }
+
+    @Test
+    @DisplayName("Should count drift without writing on a dry run")
+    void testReplay_DryRun() {
+        stream(new LedgerBalance(1, 10, 10), new LedgerBalance(2, 5, 50));
+
+        LedgerReplayResult result = ledger.replay(true);
+
+        verify(ledgerDao, never()).restoreQuantities(anyMap());
+        verify(eventPublisher, never()).publishEvent(any());
+        assertEquals(2, result.getChecked());
+        assertEquals(1, result.getDrifted());
+        assertEquals(0, result.getCorrected());
+    }
+
+    @Test
+    @DisplayName("Should refuse to rewrite inventory unless replay writes are switched on")
+    void testReplay_WritesGuarded() {
+        InventoryLedger guarded = new InventoryLedger(ledgerDao, HotStock.disabled(), eventPublisher, true, 100, 2, 10, false);
+
+        assertThrows(BusinessException.class, () -> guarded.replay(false));
+
+        verify(ledgerDao, never()).streamBalances(any());
+        verify(ledgerDao, never()).restoreQuantities(anyMap());
+    }
+
+    @Test
+    @DisplayName("Should record opening balances on start and keep starting when that fails")
+    void testStart_RecordsOpeningBalances() {
+        when(ledgerDao.recordOpeningBalances())
+                .thenReturn(3)
+                .thenThrow(new RuntimeException("Error executing ledger.recordOpeningBalances"));
+
+        ledger.start();
+        ledger.start();
+
+        verify(ledgerDao, times(2)).recordOpeningBalances();
+        assertTrue(ledger.isRunning());
+    }
+
+    @Test
+    @DisplayName("Should record nothing when disabled")
+    void testDisabled_RecordsNothing() {
+        InventoryLedger disabled = InventoryLedger.disabled();
+
+        disabled.record(1, InventoryMovement.Type.ADD, 5);
+        disabled.flush();
+
+        verify(ledgerDao, never()).appendAll(anyList());
+    }
+
+    private void stream(LedgerBalance... balances) {
+        when(ledgerDao.streamBalances(any())).thenAnswer(invocation -> {
+            Consumer<LedgerBalance> sink = invocation.getArgument(0);
+            for (LedgerBalance balance : balances) {
+                sink.accept(balance);
+            }
+            return (long) balances.length;
+        });
+    }
+}
@@ -0,0 +1,166 @@
+package bookshop.inventory;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import bookshop.dao.daoInterface.InventoryDao;
+import bookshop.dao.daoInterface.StockHoldDao;
+import bookshop.events.StockChangedEvent;
+import bookshop.exceptions.InsufficientStockException;
+import bookshop.exceptions.StockHoldNotFoundException;
+import bookshop.models.InventoryMovement;
+import bookshop.models.StockAdjustment;
+import bookshop.models.StockHold;
+
+/**
+ * Unit tests for placing, committing, releasing and expiring stock holds
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockHolds Tests")
+class StockHoldsTest {
+
+    private static final int PRODUCT_ID = 7;
+
+    @Mock
+    private StockHoldDao stockHoldDao;
+
+    @Mock
+    private InventoryDao inventoryDao;
+
+    @Mock
+    private InventoryLedger ledger;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private StockHolds stockHolds;
+
+    @BeforeEach
+    void setUp() {
+        stockHolds = new StockHolds(stockHoldDao, inventoryDao, HotStock.disabled(), ledger, eventPublisher,
+                900, 3600, 1000, 8);
+    }
+
+    private StockHold placeHold(int quantity) {
+        when(inventoryDao.decrementQuantity(PRODUCT_ID, quantity))
+                .thenReturn(StockAdjustment.applied(PRODUCT_ID, 10 - quantity));
+        return stockHolds.hold(PRODUCT_ID, quantity, null);
+    }
+
+    @Test
+    @DisplayName("Should take the units out of stock and store the hold")
+    void testHold_TakesUnits() {
+        StockHold hold = placeHold(3);
+
+        verify(stockHoldDao).save(hold);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof StockChangedEvent changed
+                && changed.getProductId() == PRODUCT_ID && changed.getQuantity() == 7));
+        assertEquals(1, stockHolds.outstanding());
+        assertEquals(900_000, hold.expiresAt().getTime() - System.currentTimeMillis(), 5_000);
+    }
+
+    @Test
+    @DisplayName("Should refuse a hold larger than the stock without storing it")
+    void testHold_InsufficientStock() {
+        when(inventoryDao.decrementQuantity(PRODUCT_ID, 11)).thenReturn(StockAdjustment.insufficient(PRODUCT_ID, 10));
+
+        assertThrows(InsufficientStockException.class, () -> stockHolds.hold(PRODUCT_ID, 11, null));
+        verify(stockHoldDao, never()).save(any());
+        assertEquals(0, stockHolds.outstanding());
+    }
+
+    @Test
+    @DisplayName("Should give the units back when the hold cannot be stored")
+    void testHold_SaveFails_GivesBack() {
+        when(inventoryDao.decrementQuantity(PRODUCT_ID, 2)).thenReturn(StockAdjustment.applied(PRODUCT_ID, 8));
+        when(inventoryDao.incrementQuantity(PRODUCT_ID, 2)).thenReturn(StockAdjustment.applied(PRODUCT_ID, 10));
+        doThrow(new RuntimeException("Error executing stockHold.save")).when(stockHoldDao).save(any());
+
+        assertThrows(RuntimeException.class, () -> stockHolds.hold(PRODUCT_ID, 2, null));
+        verify(inventoryDao).incrementQuantity(PRODUCT_ID, 2);
+        verify(ledger).record(PRODUCT_ID, InventoryMovement.Type.HOLD, -2);
+        verify(ledger).record(PRODUCT_ID, InventoryMovement.Type.RELEASE, 2);
+        assertEquals(0, stockHolds.outstanding());
+    }
+
+    @Test
+    @DisplayName("Should refuse a TTL above the configured maximum before touching stock")
+    void testHold_TtlTooLong() {
+        assertThrows(IllegalArgumentException.class, () -> stockHolds.hold(PRODUCT_ID, 1, Duration.ofHours(2)));
+        verify(inventoryDao, never()).decrementQuantity(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should put the units back on release, and only once")
+    void testRelease_GivesBackOnce() {
+        StockHold hold = placeHold(3);
+        when(stockHoldDao.findById(hold.holdId())).thenReturn(Optional.of(hold)).thenReturn(Optional.empty());
+        when(stockHoldDao.deleteById(hold.holdId())).thenReturn(true);
+        when(inventoryDao.incrementQuantity(PRODUCT_ID, 3)).thenReturn(StockAdjustment.applied(PRODUCT_ID, 10));
+
+        stockHolds.release(hold.holdId());
+
+        assertThrows(StockHoldNotFoundException.class, () -> stockHolds.release(hold.holdId()));
+        verify(inventoryDao).incrementQuantity(PRODUCT_ID, 3);
+        assertEquals(0, stockHolds.outstanding());
+    }
+
+    @Test
+    @DisplayName("Should keep the units out of stock on commit and refuse a commit that lost the race")
+    void testCommit_LosesRace() {
+        StockHold hold = placeHold(3);
+        when(stockHoldDao.findById(hold.holdId())).thenReturn(Optional.of(hold));
+        when(stockHoldDao.deleteById(hold.holdId())).thenReturn(false);
+
+        assertThrows(StockHoldNotFoundException.class, () -> stockHolds.commit(hold.holdId()));
+        verify(inventoryDao, never()).incrementQuantity(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should load the holds of a previous run on the first tick and expire those past due")
+    void testTick_LoadsAndExpires() throws InterruptedException {
+        stockHolds = new StockHolds(stockHoldDao, inventoryDao, HotStock.disabled(), ledger, eventPublisher,
+                900, 3600, 1, 8);
+        StockHold expired = new StockHold("expired", PRODUCT_ID, 2, new Timestamp(System.currentTimeMillis() - 1000));
+        StockHold live = new StockHold("live", PRODUCT_ID, 5, new Timestamp(System.currentTimeMillis() + 60_000));
+        when(stockHoldDao.streamAll(any()))
+                .thenThrow(new RuntimeException("Error executing stockHold.streamAll"))
+                .thenAnswer(invocation -> {
+                    Consumer<StockHold> sink = invocation.getArgument(0);
+                    sink.accept(expired);
+                    sink.accept(live);
+                    return 2L;
+                });
+        when(stockHoldDao.deleteById("expired")).thenReturn(true);
+        when(inventoryDao.incrementQuantity(PRODUCT_ID, 2)).thenReturn(StockAdjustment.applied(PRODUCT_ID, 4));
+
+        stockHolds.tick();
+        stockHolds.tick();
+        // Loaded holds are placed on the next tick of the wheel
+        Thread.sleep(5);
+        stockHolds.tick();
+
+        verify(inventoryDao).incrementQuantity(PRODUCT_ID, 2);
+        verify(stockHoldDao, never()).deleteById("live");
+        assertEquals(1, stockHolds.outstanding());
+    }
+}
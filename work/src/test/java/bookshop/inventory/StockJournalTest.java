@@ -0,0 +1,94 @@
+package bookshop.inventory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the append-only stock change journal
+ */
+@DisplayName("StockJournal Tests")
+class StockJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should sum the changes of a rotated segment per product and leave out net zeros")
+    void testRotate_ReadSums() {
+        try (StockJournal journal = new StockJournal(directory, 1)) {
+            journal.append(7, -1);
+            journal.append(7, -2);
+            journal.append(9, 5);
+            journal.append(11, -3);
+            journal.append(11, 3);
+            journal.rotate();
+            journal.append(7, -100);
+
+            assertEquals(List.of(1L), journal.closedSegments());
+            assertEquals(Map.of(7, -3, 9, 5), journal.read(1));
+
+            journal.delete(1);
+            assertTrue(journal.closedSegments().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep journaling after a writer is interrupted, without losing or repeating records")
+    void testAppend_SurvivesInterrupt() {
+        try (StockJournal journal = new StockJournal(directory, 1)) {
+            journal.append(7, -1);
+
+            Thread.currentThread().interrupt();
+            try {
+                journal.append(7, -2);
+                assertTrue(Thread.currentThread().isInterrupted());
+            } finally {
+                Thread.interrupted();
+            }
+            journal.append(9, 5);
+            journal.rotate();
+
+            assertEquals(Map.of(7, -3, 9, 5), journal.read(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not rotate an empty segment")
+    void testRotate_EmptySegment() {
+        try (StockJournal journal = new StockJournal(directory, 1)) {
+            journal.rotate();
+
+            assertTrue(journal.closedSegments().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reopen after the segments of a previous run and ignore a torn last record")
+    void testReopen_AfterCrash() throws IOException {
+        StockJournal crashed = new StockJournal(directory, 5);
+        crashed.append(7, -1);
+        crashed.append(8, -1);
+        crashed.close();
+        // Half a record, as left by a crash in the middle of a write
+        Files.write(directory.resolve("stock-000000000005.log"), new byte[] {0, 0, 0, 9},
+                StandardOpenOption.APPEND);
+
+        try (StockJournal journal = new StockJournal(directory, 1)) {
+            journal.append(7, -50);
+
+            assertEquals(List.of(5L), journal.closedSegments());
+            assertEquals(Map.of(7, -1, 8, -1), journal.read(5));
+        }
+        assertTrue(Files.exists(directory.resolve("stock-000000000006.log")));
+    }
+}
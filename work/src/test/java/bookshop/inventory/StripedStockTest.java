@@ -0,0 +1,72 @@
+package bookshop.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the striped in-memory stock counter
+ */
+@DisplayName("StripedStock Tests")
+class StripedStockTest {
+
+    @Test
+    @DisplayName("Should sell exactly the stock to concurrent buyers, never going below zero")
+    void testTryTake_ConcurrentBuyers() throws InterruptedException {
+        StripedStock stock = new StripedStock(10_000, 8);
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> buyers = new ArrayList<>();
+
+        for (int t = 0; t < 32; t++) {
+            buyers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (stock.tryTake(1)) {
+                    sold.incrementAndGet();
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread buyer : buyers) {
+            buyer.join();
+        }
+
+        assertEquals(10_000, sold.get());
+        assertEquals(0, stock.level());
+    }
+
+    @Test
+    @DisplayName("Should serve an order larger than any single stripe from the total")
+    void testTryTake_GathersStripes() {
+        StripedStock stock = new StripedStock(10, 4);
+
+        assertTrue(stock.tryTake(9));
+        assertEquals(1, stock.level());
+        assertFalse(stock.tryTake(2));
+        assertEquals(1, stock.level());
+    }
+
+    @Test
+    @DisplayName("Should round stripes up to a power of two and report the change made by set")
+    void testSet_ReturnsDelta() {
+        StripedStock stock = new StripedStock(5, 3);
+        stock.add(2);
+
+        assertEquals(4, stock.stripes());
+        assertEquals(-4, stock.set(3));
+        assertEquals(3, stock.level());
+        assertThrows(IllegalArgumentException.class, () -> stock.set(-1));
+    }
+}
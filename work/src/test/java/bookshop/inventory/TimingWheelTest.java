@@ -0,0 +1,75 @@
+package bookshop.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the hashed timing wheel behind stock hold expiry
+ */
+@DisplayName("TimingWheel Tests")
+class TimingWheelTest {
+
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    @DisplayName("Should expire each deadline on its tick and never before it")
+    void testAdvance_ExpiresOnTime() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("b", 250);
+        wheel.schedule("a", 100);
+
+        assertEquals(0, wheel.advance(99, expired::add));
+        assertEquals(1, wheel.advance(100, expired::add));
+        assertEquals(List.of("a"), expired);
+        assertEquals(0, wheel.advance(299, expired::add));
+        assertEquals(1, wheel.advance(300, expired::add));
+        assertEquals(List.of("a", "b"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should wait full turns for deadlines further away than the wheel spans")
+    void testAdvance_MultipleRounds() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        wheel.schedule("far", 130);
+        wheel.schedule("near", 20);
+
+        wheel.advance(120, expired::add);
+        assertEquals(List.of("near"), expired);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(130, expired::add);
+        assertEquals(List.of("near", "far"), expired);
+    }
+
+    @Test
+    @DisplayName("Should not expire a cancelled deadline and cancel only once")
+    void testCancel() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        TimingWheel.Timeout timeout = wheel.schedule("cancelled", 30);
+        wheel.advance(10, expired::add);
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertEquals(0, wheel.size());
+        assertEquals(0, wheel.advance(100, expired::add));
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should expire a deadline already past on the next tick")
+    void testSchedule_PastDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        wheel.advance(50, expired::add);
+        TimingWheel.Timeout timeout = wheel.schedule("late", 5);
+
+        assertEquals(1, wheel.advance(60, expired::add));
+        assertFalse(timeout.cancel());
+    }
+}
@@ -0,0 +1,138 @@
+package bookshop.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.dto.response.ProductSuggestion;
+import bookshop.models.Product;
+
+/**
+ * Unit tests for the prefix trie behind product autocomplete
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductAutocomplete Tests")
+class ProductAutocompleteTest {
+
+    @Mock
+    private ProductDao productDao;
+
+    private ProductAutocomplete autocomplete;
+
+    @BeforeEach
+    void setUp() {
+        when(productDao.countCartItemsByProduct()).thenReturn(Map.of(3, 5L, 4, 2L));
+
+        autocomplete = new ProductAutocomplete(productDao);
+        autocomplete.rebuild(List.of(
+                product(1, "The Great Gatsby"),
+                product(2, "Great Expectations"),
+                product(3, "Gatsby Annotated"),
+                product(4, "Les Misérables"),
+                product(5, "Greatness")));
+    }
+
+    private static Product product(int id, String name) {
+        return new Product(id, name, new BigDecimal("10.00"), 1);
+    }
+
+    private List<Integer> ids(String prefix, int limit) {
+        return autocomplete.complete(prefix, limit).stream().map(ProductSuggestion::getProductId).toList();
+    }
+
+    @Test
+    @DisplayName("Should match the start of any word, most popular first, then shorter names")
+    void testRanking() {
+        assertTrue(autocomplete.isReady());
+        assertEquals(List.of(3, 1), ids("gats", 10));
+        assertEquals(List.of(5, 1, 2), ids("great", 10));
+        assertEquals(List.of(5), ids("great", 1));
+        assertEquals(List.of(1), ids("the great g", 10));
+        assertEquals(5L, autocomplete.complete("gats", 1).get(0).getPopularity());
+    }
+
+    @Test
+    @DisplayName("Should ignore case, accents and extra spaces, and stop partway along an edge")
+    void testNormalization() {
+        assertEquals(List.of(4), ids("  MISÉR", 10));
+        assertEquals(List.of(4), ids("les   mis", 10));
+        assertEquals(List.of(2), ids("expectat", 10));
+        assertTrue(ids("gatsbyx", 10).isEmpty());
+        assertTrue(ids("z", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should apply creates, renames and deletes incrementally")
+    void testIncrementalUpdates() {
+        autocomplete.put(product(6, "Gatsby Reader"));
+        assertEquals(List.of(3, 6, 1), ids("gatsby", 10));
+
+        autocomplete.put(product(3, "Annotated Classics"));
+        assertEquals(List.of(6, 1), ids("gatsby", 10));
+        assertEquals(List.of(3), ids("annot", 10));
+
+        autocomplete.remove(1);
+        autocomplete.remove(6);
+        assertTrue(ids("gatsby", 10).isEmpty());
+        assertEquals(List.of(5, 2), ids("great", 10));
+        assertTrue(ids("the", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should re-rank when popularity changes")
+    void testRefreshPopularity() {
+        when(productDao.countCartItemsByProduct()).thenReturn(Map.of(2, 9L));
+
+        autocomplete.refreshPopularity();
+
+        assertEquals(List.of(2, 5, 1), ids("great", 10));
+    }
+
+    @Test
+    @DisplayName("Should return the same results as a full rebuild after many writes")
+    void testIncrementalMatchesRebuild() {
+        List<Product> products = new ArrayList<>();
+        for (int id = 10; id < 400; id++) {
+            Product product = product(id, "Book " + (id * 7 % 97) + " volume " + id % 13);
+            products.add(product);
+            autocomplete.put(product);
+        }
+        for (int id = 10; id < 400; id += 3) {
+            autocomplete.remove(id);
+            Product renamed = product(id + 1, "Renamed " + id);
+            autocomplete.put(renamed);
+        }
+
+        ProductAutocomplete rebuilt = new ProductAutocomplete(productDao);
+        List<Product> current = new ArrayList<>(List.of(
+                product(1, "The Great Gatsby"), product(2, "Great Expectations"), product(3, "Gatsby Annotated"),
+                product(4, "Les Misérables"), product(5, "Greatness")));
+        for (Product product : products) {
+            int id = product.getProductId();
+            if ((id - 10) % 3 == 0) {
+                continue;
+            }
+            current.add((id - 11) % 3 == 0 ? product(id, "Renamed " + (id - 1)) : product);
+        }
+        rebuilt.rebuild(current);
+
+        for (String prefix : List.of("b", "book 1", "vol", "volume 1", "ren", "renamed 1", "g", "7")) {
+            assertEquals(rebuilt.complete(prefix, 10).stream().map(ProductSuggestion::getProductId).toList(),
+                    ids(prefix, 10), prefix);
+        }
+        assertFalse(ids("renamed", 10).isEmpty());
+    }
+}
@@ -0,0 +1,212 @@
+package bookshop.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import bookshop.dao.daoInterface.CategoryDao;
+import bookshop.dao.daoInterface.InventoryDao;
+import bookshop.dto.request.PageCursor;
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.request.ProductSortField;
+import bookshop.dto.response.ProductSlice;
+import bookshop.events.StockChangedEvent;
+import bookshop.models.Category;
+import bookshop.models.Product;
+
+/**
+ * Unit tests for the copy-on-write catalog snapshot, with pages checked against ProductPaging
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCatalog Tests")
+class ProductCatalogTest {
+
+    @Mock
+    private CategoryDao categoryDao;
+
+    @Mock
+    private InventoryDao inventoryDao;
+
+    private ProductCatalog catalog;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        products = new ArrayList<>();
+        for (int id = 1; id <= 2500; id++) {
+            // Ids span several trie leaves; few distinct prices so ties are common
+            BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(30) * 50L, 2);
+            Product product = new Product(id, (id % 3 == 0 ? "Héritage " : "Book ") + id, price, 1 + random.nextInt(3));
+            product.setCategoryName("Category " + product.getCategoryId());
+            products.add(product);
+        }
+        Category fiction = new Category();
+        fiction.setCategoryId(1);
+        fiction.setName("Category 1");
+        when(categoryDao.findAll()).thenReturn(List.of(fiction));
+        when(inventoryDao.findAllQuantities()).thenReturn(Map.of(1, 5, 2, 0));
+
+        catalog = new ProductCatalog(categoryDao, inventoryDao);
+        catalog.rebuild(products);
+    }
+
+    private List<Integer> expected(Predicate<Product> filter, PageRequest pageRequest) {
+        List<Product> matches = products.stream()
+                .filter(filter)
+                .sorted(Comparator.comparingInt(Product::getProductId))
+                .toList();
+        return ids(ProductPaging.page(matches, pageRequest));
+    }
+
+    private static List<Integer> ids(ProductSlice slice) {
+        return slice.getContent().stream().map(Product::getProductId).toList();
+    }
+
+    @Test
+    @DisplayName("Should load products, categories and stock in one snapshot")
+    void testRebuild() {
+        CatalogSnapshot snapshot = catalog.snapshot();
+
+        assertTrue(catalog.isReady());
+        assertEquals(2500, snapshot.size());
+        assertEquals(OptionalInt.of(5), snapshot.stock(1));
+        assertEquals(OptionalInt.of(0), snapshot.stock(2));
+        assertEquals(OptionalInt.empty(), snapshot.stock(3));
+        assertEquals("Category 3", snapshot.categories().get(3));
+        assertEquals("Book 1", snapshot.product(1).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("Should match SQL ordering for offset and keyset pages in every sort")
+    void testPages() {
+        Predicate<Product> cheap = p -> p.getPrice().compareTo(new BigDecimal("8.00")) <= 0;
+        for (String sortBy : List.of("productId", "name", "price", "categoryId")) {
+            for (String direction : List.of("ASC", "DESC")) {
+                for (int page : List.of(0, 1, 7, 200)) {
+                    PageRequest pageRequest = PageRequest.of(page, 20, sortBy, direction);
+                    assertEquals(expected(p -> true, pageRequest), ids(catalog.findAll(pageRequest)));
+                    assertEquals(expected(cheap, pageRequest),
+                            ids(catalog.findByPriceRange(BigDecimal.ZERO, new BigDecimal("8.00"), pageRequest)));
+                }
+
+                // Walk keyset pages through category 2
+                PageRequest pageRequest = PageRequest.of(0, 50, sortBy, direction);
+                ProductSlice slice = catalog.findByCategory(2, pageRequest);
+                while (!slice.getContent().isEmpty()) {
+                    assertEquals(expected(p -> p.getCategoryId() == 2, pageRequest), ids(slice));
+                    Product last = slice.getContent().get(slice.getContent().size() - 1);
+                    pageRequest = PageRequest.of(0, 50, sortBy, direction);
+                    pageRequest.setCursor(PageCursor.after(last, pageRequest));
+                    slice = catalog.findByCategory(2, pageRequest);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should search names like LIKE '%keyword%', ignoring case and accents")
+    void testSearch() {
+        PageRequest pageRequest = PageRequest.of(0, 100, "name", "ASC");
+
+        ProductSlice slice = catalog.search("heritage 12", pageRequest);
+
+        assertEquals(expected(p -> p.getName().startsWith("Héritage") && p.getName().contains("12"), pageRequest),
+                ids(slice));
+        assertEquals(products.stream()
+                .filter(p -> p.getName().startsWith("Héritage") && p.getName().contains("12")).count(),
+                slice.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Should publish new versions without changing ones already handed to readers")
+    void testCopyOnWrite() {
+        CatalogSnapshot before = catalog.snapshot();
+
+        Product renamed = new Product(1, "Renamed", new BigDecimal("3.00"), 4);
+        renamed.setCategoryName("Category 4");
+        catalog.put(renamed);
+        catalog.put(new Product(5000, "New", new BigDecimal("1.00"), 1));
+        catalog.remove(2);
+        catalog.onStockChanged(StockChangedEvent.updated(1, 9));
+
+        CatalogSnapshot after = catalog.snapshot();
+        assertEquals("Book 1", before.product(1).orElseThrow().getName());
+        assertEquals(OptionalInt.of(5), before.stock(1));
+        assertEquals(2500, before.size());
+        assertFalse(before.categories().containsKey(4));
+
+        assertEquals("Renamed", after.product(1).orElseThrow().getName());
+        assertEquals(OptionalInt.of(9), after.stock(1));
+        assertFalse(after.product(2).isPresent());
+        assertEquals(OptionalInt.empty(), after.stock(2));
+        assertTrue(after.product(5000).isPresent());
+        assertEquals(2500, after.size());
+        assertEquals("Category 4", after.categories().get(4));
+        assertEquals(before.version() + 4, after.version());
+    }
+
+    @Test
+    @DisplayName("Should reuse sorted views across stock changes")
+    void testStockChangeKeepsSortedViews() {
+        List<Product> byName = catalog.snapshot().sortedBy(ProductSortField.NAME);
+
+        catalog.onStockChanged(StockChangedEvent.updated(1, 9));
+
+        assertSame(byName, catalog.snapshot().sortedBy(ProductSortField.NAME));
+    }
+
+    @Test
+    @DisplayName("Should move only the changed product within sorted views already built")
+    void testProductChangeUpdatesSortedViews() {
+        CatalogSnapshot before = catalog.snapshot();
+        for (ProductSortField sortField : ProductSortField.values()) {
+            before.sortedBy(sortField);
+        }
+
+        Product renamed = new Product(1, "Zzz", new BigDecimal("99.00"), 3);
+        catalog.put(renamed);
+        catalog.put(new Product(5000, "Aaa", new BigDecimal("0.50"), 2));
+        catalog.remove(2);
+
+        CatalogSnapshot after = catalog.snapshot();
+        for (ProductSortField sortField : ProductSortField.values()) {
+            List<Product> view = after.sortedBy(sortField);
+            assertNotSame(before.sortedBy(sortField), view);
+            assertEquals(2500, view.size());
+            List<Product> resorted = new ArrayList<>(view);
+            resorted.sort(sortField.comparator("ASC"));
+            assertEquals(resorted, view);
+        }
+        assertEquals(2500, before.sortedBy(ProductSortField.NAME).size());
+        assertEquals("Zzz", after.sortedBy(ProductSortField.NAME).get(2499).getName());
+        assertEquals(5000, after.sortedBy(ProductSortField.PRICE).get(0).getProductId());
+    }
+
+    @Test
+    @DisplayName("Should hand out copies so readers cannot modify the snapshot")
+    void testReadsAreCopies() {
+        catalog.snapshot().product(1).orElseThrow().setName("Mutated");
+        catalog.findAll(PageRequest.of(0, 1)).getContent().get(0).setName("Mutated");
+
+        assertEquals("Book 1", catalog.snapshot().product(1).orElseThrow().getName());
+    }
+}
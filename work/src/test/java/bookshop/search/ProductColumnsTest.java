@@ -0,0 +1,80 @@
+package bookshop.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import bookshop.models.Product;
+
+/**
+ * Unit tests for the columnar product view used by facet search
+ */
+@DisplayName("ProductColumns Tests")
+class ProductColumnsTest {
+
+    private static final BigDecimal TEN = new BigDecimal("10.00");
+
+    private ProductColumns columns;
+
+    private static Product product(int id, String name, String price, int categoryId) {
+        Product product = new Product(id, name, new BigDecimal(price), categoryId);
+        product.setCategoryName("Category " + categoryId);
+        return product;
+    }
+
+    @BeforeEach
+    void setUp() {
+        columns = new ProductColumns();
+        columns.rebuild(List.of(
+                product(1, "A History of Rome", "12.50", 3),
+                product(2, "History of Science", "25.00", 2),
+                product(3, "Clean Code", "45.99", 4),
+                product(4, "Short History of Nearly Everything", "18.00", 2),
+                product(5, "Rome: A Novel", "9.99", 1)
+        ));
+    }
+
+    private List<Integer> ids(FacetScan scan) {
+        return scan.getMatches().stream().map(Product::getProductId).toList();
+    }
+
+    @Test
+    @DisplayName("Should match every filter and count facets in one pass")
+    void testScan_AllFilters() {
+        FacetScan scan = columns.scan("history", 2, new BigDecimal("10"), new BigDecimal("20"), TEN);
+
+        assertEquals(List.of(4), ids(scan));
+        // Category counts ignore the category filter
+        assertEquals(Map.of(3, 1L, 2, 1L), scan.getCategoryCounts());
+        assertEquals("Category 3", scan.getCategoryNames().get(3));
+        // Histogram ignores the price filter: 18.00 and 25.00 in category 2
+        assertEquals(Map.of(1000L, 1L, 2000L, 1L), scan.getPriceBuckets());
+    }
+
+    @Test
+    @DisplayName("Should return the whole catalog without filters")
+    void testScan_NoFilters() {
+        FacetScan scan = columns.scan(null, null, null, null, new BigDecimal("20"));
+
+        assertEquals(List.of(1, 2, 3, 4, 5), ids(scan));
+        assertEquals(Map.of(0L, 3L, 2000L, 1L, 4000L, 1L), scan.getPriceBuckets());
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and removals")
+    void testPutAndRemove() {
+        columns.put(product(5, "Rome: A Novel", "30.00", 2));
+        columns.remove(1);
+        columns.put(product(6, "Romeo and Juliet", "7.00", 1));
+
+        FacetScan scan = columns.scan("rome", null, null, null, TEN);
+
+        assertEquals(List.of(5, 6), ids(scan));
+        assertEquals(Map.of(2, 1L, 1, 1L), scan.getCategoryCounts());
+    }
+}
@@ -0,0 +1,97 @@
+package bookshop.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.models.Product;
+
+/**
+ * Unit tests for the incrementally maintained product counts
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCounts Tests")
+class ProductCountsTest {
+
+    @Mock
+    private ProductDao productDao;
+
+    private ProductCounts counts;
+
+    @BeforeEach
+    void setUp() {
+        counts = new ProductCounts(productDao);
+        counts.rebuild(List.of(
+                new Product(1, "The Great Gatsby", new BigDecimal("15.99"), 1),
+                new Product(2, "1984", new BigDecimal("12.99"), 1),
+                new Product(3, "Sapiens", new BigDecimal("18.99"), 2)
+        ));
+    }
+
+    @Test
+    @DisplayName("Should seed totals from the initial load")
+    void testRebuild() {
+        assertTrue(counts.isReady());
+        assertEquals(3, counts.count());
+        assertEquals(2, counts.countByCategory(1));
+        assertEquals(1, counts.countByCategory(2));
+        assertEquals(0, counts.countByCategory(99));
+    }
+
+    @Test
+    @DisplayName("Should track creates, category moves and deletes")
+    void testPutAndRemove() {
+        counts.put(new Product(4, "Clean Code", new BigDecimal("45.99"), 4));
+        counts.put(new Product(2, "1984", new BigDecimal("12.99"), 2));
+        counts.put(new Product(3, "Sapiens", new BigDecimal("19.99"), 2));
+        counts.remove(1);
+        counts.remove(42);
+
+        assertEquals(3, counts.count());
+        assertEquals(0, counts.countByCategory(1));
+        assertEquals(2, counts.countByCategory(2));
+        assertEquals(1, counts.countByCategory(4));
+    }
+
+    @Test
+    @DisplayName("Should leave counters alone when the database agrees")
+    void testReconcile_NoDrift() {
+        when(productDao.countGroupByCategory()).thenReturn(Map.of(1, 2L, 2, 1L));
+
+        counts.reconcile();
+
+        verify(productDao, never()).findCategoryIdsByProductId();
+        assertEquals(3, counts.count());
+    }
+
+    @Test
+    @DisplayName("Should reseed from the database after drift")
+    void testReconcile_Drift() {
+        when(productDao.countGroupByCategory()).thenReturn(Map.of(1, 1L, 2, 1L, 3, 1L));
+        when(productDao.findCategoryIdsByProductId()).thenReturn(Map.of(1, 1, 3, 2, 9, 3));
+
+        counts.reconcile();
+
+        assertEquals(3, counts.count());
+        assertEquals(1, counts.countByCategory(1));
+        assertEquals(1, counts.countByCategory(3));
+
+        // Membership was reseeded too, so a later delete hits the right category
+        counts.remove(9);
+        assertEquals(0, counts.countByCategory(3));
+        assertEquals(2, counts.count());
+    }
+}
@@ -0,0 +1,86 @@
+package bookshop.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import bookshop.models.Product;
+
+/**
+ * Unit tests for the BK-tree behind typo-tolerant search
+ */
+@DisplayName("ProductFuzzyIndex Tests")
+class ProductFuzzyIndexTest {
+
+    private ProductFuzzyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFuzzyIndex();
+        index.rebuild(List.of(
+                product(1, "The Great Gatsby"),
+                product(2, "Sapiens: A Brief History of Humankind"),
+                product(3, "Gatsby"),
+                product(4, "Great Expectations"),
+                product(5, "Clean Code"),
+                product(6, "Les Misérables")));
+    }
+
+    private static Product product(int id, String name) {
+        return new Product(id, name, new BigDecimal("10.00"), 1);
+    }
+
+    private List<Integer> ids(String keyword) {
+        return index.search(keyword).stream().map(Product::getProductId).toList();
+    }
+
+    @Test
+    @DisplayName("Should find misspelt words, counting a swap of adjacent letters as one edit")
+    void testTypos() {
+        assertEquals(List.of(2), ids("Sapeins"));
+        assertEquals(List.of(3, 1), ids("Gatbsy"));
+        assertEquals(List.of(6), ids("miserabels"));
+        assertEquals(List.of(5), ids("clen code"));
+    }
+
+    @Test
+    @DisplayName("Should rank closer matches first and require every word")
+    void testRanking() {
+        // "great" is exact for 1 and 4, "gatsby" only matches 1
+        assertEquals(List.of(1), ids("graet gatsby"));
+        assertEquals(List.of(4, 1), ids("great"));
+        assertEquals(List.of(1), ids("the graet"));
+        assertTrue(ids("the grate").isEmpty());
+        assertTrue(ids("great code").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not tolerate edits in short words or beyond the limit")
+    void testEditLimits() {
+        assertEquals(0, ProductFuzzyIndex.maxEdits("the"));
+        assertEquals(1, ProductFuzzyIndex.maxEdits("code"));
+        assertEquals(2, ProductFuzzyIndex.maxEdits("sapiens"));
+        assertTrue(ids("tha").isEmpty());
+        assertTrue(ids("cxdx").isEmpty());
+        assertTrue(ids("sxpxxns").isEmpty());
+        assertEquals(1, ProductFuzzyIndex.alignmentDistance("gatbsy", "gatsby"));
+        assertEquals(2, ProductFuzzyIndex.levenshtein("gatbsy", "gatsby"));
+    }
+
+    @Test
+    @DisplayName("Should apply renames and deletes incrementally")
+    void testIncrementalUpdates() {
+        index.put(product(3, "Gatsby Reader"));
+        index.remove(1);
+        index.put(product(7, "Sapient Machines"));
+
+        assertEquals(List.of(3), ids("gatsbi"));
+        assertEquals(List.of(2, 7), ids("sapiens"));
+        assertTrue(ids("teh greta").isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+package bookshop.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import bookshop.dao.imp.ProductDaoImp;
+import bookshop.dao.jdbc.QueryExecutor;
+import bookshop.dao.jdbc.RowMapper;
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.response.ProductSlice;
+import bookshop.models.Product;
+
+/**
+ * Unit tests for the trigram product name index
+ */
+@DisplayName("ProductNameIndex Tests")
+class ProductNameIndexTest {
+
+    private ProductNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductNameIndex();
+        index.rebuild(List.of(
+                new Product(1, "The Great Gatsby", new BigDecimal("15.99"), 1),
+                new Product(2, "1984", new BigDecimal("12.99"), 1),
+                new Product(3, "Sapiens", new BigDecimal("18.99"), 2),
+                new Product(4, "Clean Code", new BigDecimal("45.99"), 4),
+                new Product(5, "A Brief History of Time", new BigDecimal("22.99"), 3),
+                new Product(6, "The Clean Coder", new BigDecimal("39.99"), 4)
+        ));
+    }
+
+    private List<Integer> ids(List<Product> products) {
+        return products.stream().map(Product::getProductId).toList();
+    }
+
+    @Test
+    @DisplayName("Should match substrings case-insensitively like LIKE '%kw%'")
+    void testSearch_Substring() {
+        assertEquals(List.of(4, 6), ids(index.search("CLEAN")));
+        assertEquals(List.of(1), ids(index.search("eat gat")));
+        assertEquals(List.of(2), ids(index.search("98")));
+    }
+
+    @Test
+    @DisplayName("Should require every word for multi-word queries")
+    void testSearch_MultiWordAnd() {
+        assertEquals(List.of(6), ids(index.search("coder the")));
+        assertTrue(index.search("clean history").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return the same hits as the SQL search for multi-word queries")
+    void testSearch_MatchesSql() {
+        List<Product> products = List.of(
+                new Product(1, "The Great Gatsby", new BigDecimal("15.99"), 1),
+                new Product(4, "Clean Code", new BigDecimal("45.99"), 4),
+                new Product(6, "The Clean Coder", new BigDecimal("39.99"), 4),
+                new Product(7, "Código Limpio", new BigDecimal("29.99"), 4));
+        List<String> names = new ArrayList<>();
+        List<String> statements = new ArrayList<>();
+
+        // Evaluates each bound LIKE pattern the way the accent/case-insensitive collation would
+        QueryExecutor database = new QueryExecutor(null, null) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> query(String name, String sql, RowMapper<T> mapper, Object... params) {
+                names.add(name);
+                statements.add(sql);
+                return (List<T>) products.stream()
+                        .filter(p -> Arrays.stream(params).allMatch(pattern -> ProductNameIndex.normalize(p.getName())
+                                .contains(ProductNameIndex.normalize(((String) pattern).replace("%", "")))))
+                        .toList();
+            }
+        };
+        ProductDaoImp productDao = new ProductDaoImp(database);
+        index.rebuild(products);
+
+        // Words past the eighth are ignored by both
+        for (String keyword : List.of("clean the", "CODE  clean", "codigo limp", "clean history",
+                "clean code the c o d e r x y")) {
+            assertEquals(ids(productDao.searchByName(keyword)), ids(index.search(keyword)), keyword);
+        }
+        assertEquals(List.of(6), ids(index.search("clean the")));
+        assertEquals(List.of(6), ids(index.search("clean code the c o d e r x y")));
+        assertTrue(statements.get(0).endsWith("WHERE p.name LIKE ? AND p.name LIKE ?"));
+        assertTrue(statements.get(4).endsWith(
+                "WHERE " + String.join(" AND ", Collections.nCopies(8, "p.name LIKE ?"))));
+        assertEquals(Set.of("product.searchByNameUnpaged"), Set.copyOf(names));
+    }
+
+    @Test
+    @DisplayName("Should page, sort and count matches")
+    void testSearch_Paged() {
+        ProductSlice slice = index.search("e", PageRequest.of(0, 2, "price", "DESC"));
+
+        assertEquals(5, slice.getTotalElements());
+        assertEquals(List.of(4, 6), ids(slice.getContent()));
+    }
+
+    @Test
+    @DisplayName("Should reflect puts and removals")
+    void testPutAndRemove() {
+        index.put(new Product(3, "Homo Deus", new BigDecimal("20.00"), 2));
+        index.put(new Product(7, "Sapiens Graphic Novel", new BigDecimal("25.00"), 2));
+        index.remove(1);
+
+        assertEquals(List.of(7), ids(index.search("sapiens")));
+        assertEquals(List.of(3), ids(index.search("deus")));
+        assertFalse(ids(index.search("the")).contains(1));
+    }
+}
@@ -0,0 +1,125 @@
+package bookshop.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import bookshop.dto.request.PageCursor;
+import bookshop.dto.request.PageRequest;
+import bookshop.models.Product;
+
+/**
+ * Unit tests for the sorted price index, checked against ProductPaging over the same rows
+ */
+@DisplayName("ProductPriceIndex Tests")
+class ProductPriceIndexTest {
+
+    private ProductPriceIndex index;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        products = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            // Few distinct prices so ties on price are common
+            BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(40) * 25L, 2);
+            products.add(new Product(id, "Book " + id, price, 1 + random.nextInt(4)));
+        }
+        index = new ProductPriceIndex();
+        index.rebuild(products);
+    }
+
+    private List<Integer> expected(BigDecimal min, BigDecimal max, PageRequest pageRequest) {
+        List<Product> matches = products.stream()
+                .filter(p -> p.getPrice().compareTo(min) >= 0 && p.getPrice().compareTo(max) <= 0)
+                .sorted(Comparator.comparingInt(Product::getProductId))
+                .toList();
+        return ProductPaging.page(matches, pageRequest).getContent().stream().map(Product::getProductId).toList();
+    }
+
+    private List<Integer> actual(BigDecimal min, BigDecimal max, PageRequest pageRequest) {
+        return Arrays.stream(index.page(min, max, pageRequest).getIds()).boxed().toList();
+    }
+
+    private Product byId(int id) {
+        return products.stream().filter(p -> p.getProductId() == id).findFirst().orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Should count a range with two binary searches, bounds inclusive")
+    void testCount() {
+        BigDecimal min = new BigDecimal("2.00");
+        BigDecimal max = new BigDecimal("5.00");
+        long expected = products.stream()
+                .filter(p -> p.getPrice().compareTo(min) >= 0 && p.getPrice().compareTo(max) <= 0)
+                .count();
+
+        assertEquals(expected, index.count(min, max));
+        assertEquals(0, index.count(new BigDecimal("0.01"), new BigDecimal("0.99")));
+        assertEquals(300, index.count(BigDecimal.ZERO, new BigDecimal("99999999.99")));
+    }
+
+    @Test
+    @DisplayName("Should match SQL ordering for offset pages in every supported sort")
+    void testPage_Offset() {
+        BigDecimal min = new BigDecimal("1.50");
+        BigDecimal max = new BigDecimal("8.00");
+        for (String sortBy : List.of("price", "productId")) {
+            for (String direction : List.of("ASC", "DESC")) {
+                for (int page = 0; page < 12; page++) {
+                    PageRequest pageRequest = PageRequest.of(page, 20, sortBy, direction);
+                    assertEquals(expected(min, max, pageRequest), actual(min, max, pageRequest),
+                            sortBy + " " + direction + " page " + page);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should walk keyset pages without gaps or repeats")
+    void testPage_Keyset() {
+        BigDecimal min = new BigDecimal("1.00");
+        BigDecimal max = new BigDecimal("10.00");
+        for (String sortBy : List.of("price", "productId")) {
+            for (String direction : List.of("ASC", "DESC")) {
+                PageRequest pageRequest = PageRequest.of(0, 25, sortBy, direction);
+                List<Integer> walked = new ArrayList<>();
+                List<Integer> page = actual(min, max, pageRequest);
+                while (!page.isEmpty()) {
+                    walked.addAll(page);
+                    assertEquals(expected(min, max, pageRequest), page);
+                    PageCursor cursor = PageCursor.after(byId(page.get(page.size() - 1)), pageRequest);
+                    pageRequest = PageRequest.of(0, 25, sortBy, direction, cursor.encode());
+                    page = actual(min, max, pageRequest);
+                }
+                assertEquals(index.count(min, max), walked.size(), sortBy + " " + direction);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reflect price changes, inserts and removals")
+    void testPutAndRemove() {
+        BigDecimal min = new BigDecimal("50.00");
+        BigDecimal max = new BigDecimal("60.00");
+
+        index.put(new Product(301, "New", new BigDecimal("55.00"), 1));
+        index.put(new Product(7, "Book 7", new BigDecimal("50.00"), 1));
+        index.put(new Product(8, "Book 8", new BigDecimal("60.01"), 1));
+        index.remove(301);
+        index.put(new Product(302, "Newer", new BigDecimal("59.99"), 1));
+
+        assertEquals(2, index.count(min, max));
+        assertEquals(List.of(302, 7), actual(min, max, PageRequest.of(0, 10, "price", "DESC")));
+        assertEquals(301, index.count(BigDecimal.ZERO, new BigDecimal("99999999.99")));
+    }
+}
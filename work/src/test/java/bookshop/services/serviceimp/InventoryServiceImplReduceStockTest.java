@@ -11,20 +11,30 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import bookshop.dao.daoInterface.InventoryDao;
+import bookshop.events.StockChangedEvent;
 import bookshop.exceptions.InsufficientStockException;
 import bookshop.exceptions.InventoryNotFoundException;
+import bookshop.inventory.HotStock;
+import bookshop.inventory.InventoryLedger;
 import bookshop.models.Inventory;
+import bookshop.models.InventoryMovement;
+import bookshop.models.StockAdjustment;
+import bookshop.search.ProductCatalog;
 
 /**
  * Comprehensive unit tests for InventoryServiceImpl.reduceStock()
@@ -37,6 +47,18 @@ class InventoryServiceImplReduceStockTest {
     @Mock
     private InventoryDao inventoryDao;
 
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private HotStock hotStock = HotStock.disabled();
+
+    @Mock
+    private InventoryLedger ledger;
+
     @InjectMocks
     private InventoryServiceImpl inventoryService;
 
@@ -68,8 +90,7 @@ class InventoryServiceImplReduceStockTest {
             );
 
             assertEquals("Product ID must be positive", exception.getMessage());
-            verify(inventoryDao, never()).findByProductId(anyInt());
-            verify(inventoryDao, never()).updateQuantity(anyInt(), anyInt());
+            verify(inventoryDao, never()).decrementQuantity(anyInt(), anyInt());
         }
 
         @Test
@@ -86,7 +107,7 @@ class InventoryServiceImplReduceStockTest {
             );
 
             assertEquals("Product ID must be positive", exception.getMessage());
-            verify(inventoryDao, never()).findByProductId(anyInt());
+            verify(inventoryDao, never()).decrementQuantity(anyInt(), anyInt());
         }
 
         @Test
@@ -103,7 +124,7 @@ class InventoryServiceImplReduceStockTest {
             );
 
             assertEquals("Quantity to reduce must be positive", exception.getMessage());
-            verify(inventoryDao, never()).findByProductId(anyInt());
+            verify(inventoryDao, never()).decrementQuantity(anyInt(), anyInt());
         }
 
         @Test
@@ -120,7 +141,7 @@ class InventoryServiceImplReduceStockTest {
             );
 
             assertEquals("Quantity to reduce must be positive", exception.getMessage());
-            verify(inventoryDao, never()).findByProductId(anyInt());
+            verify(inventoryDao, never()).decrementQuantity(anyInt(), anyInt());
         }
     }
 
@@ -134,7 +155,8 @@ class InventoryServiceImplReduceStockTest {
             // Arrange
             int productId = 999;
             int quantityToReduce = 5;
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.empty());
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.notFound(productId));
 
             // Act & Assert
             InventoryNotFoundException exception = assertThrows(
@@ -143,8 +165,8 @@ class InventoryServiceImplReduceStockTest {
             );
 
             assertEquals("Inventory not found for product ID: " + productId, exception.getMessage());
-            verify(inventoryDao, times(1)).findByProductId(productId);
-            verify(inventoryDao, never()).updateQuantity(anyInt(), anyInt());
+            verify(inventoryDao, times(1)).decrementQuantity(productId, quantityToReduce);
+            verify(inventoryDao, never()).findByProductId(anyInt());
         }
     }
 
@@ -158,7 +180,8 @@ class InventoryServiceImplReduceStockTest {
             // Arrange
             int productId = 100;
             int quantityToReduce = 60; // More than available (50)
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.insufficient(productId, 50));
 
             // Act & Assert
             InsufficientStockException exception = assertThrows(
@@ -170,8 +193,8 @@ class InventoryServiceImplReduceStockTest {
             assertEquals(50, exception.getAvailableQuantity());
             assertEquals(60, exception.getRequiredQuantity());
             assertTrue(exception.getMessage().contains("Insufficient stock"));
-            verify(inventoryDao, times(1)).findByProductId(productId);
-            verify(inventoryDao, never()).updateQuantity(anyInt(), anyInt());
+            verify(inventoryDao, times(1)).decrementQuantity(productId, quantityToReduce);
+            verify(inventoryDao, never()).findByProductId(anyInt());
         }
 
         @Test
@@ -180,7 +203,8 @@ class InventoryServiceImplReduceStockTest {
             // Arrange
             int productId = 100;
             int quantityToReduce = 51; // One more than available (50)
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.insufficient(productId, 50));
 
             // Act & Assert
             InsufficientStockException exception = assertThrows(
@@ -197,10 +221,10 @@ class InventoryServiceImplReduceStockTest {
         @DisplayName("Should throw InsufficientStockException when inventory is empty")
         void testReduceStock_WithZeroStock_ThrowsException() {
             // Arrange
-            testInventory.setQuantity(0);
             int productId = 100;
             int quantityToReduce = 1;
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.insufficient(productId, 0));
 
             // Act & Assert
             InsufficientStockException exception = assertThrows(
@@ -230,9 +254,9 @@ class InventoryServiceImplReduceStockTest {
             updatedInventory.setProductId(productId);
             updatedInventory.setQuantity(expectedNewQuantity);
 
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
-            when(inventoryDao.updateQuantity(productId, expectedNewQuantity))
-                .thenReturn(updatedInventory);
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.applied(productId, expectedNewQuantity));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(updatedInventory));
 
             // Act
             Inventory result = inventoryService.reduceStock(productId, quantityToReduce);
@@ -241,8 +265,28 @@ class InventoryServiceImplReduceStockTest {
             assertNotNull(result);
             assertEquals(expectedNewQuantity, result.getQuantity());
             assertEquals(productId, result.getProductId());
-            verify(inventoryDao, times(1)).findByProductId(productId);
-            verify(inventoryDao, times(1)).updateQuantity(productId, expectedNewQuantity);
+            verify(inventoryDao, times(1)).decrementQuantity(productId, quantityToReduce);
+            verify(inventoryDao, never()).replaceQuantity(anyInt(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should report and publish the level its own decrement produced")
+        void testReduceStock_ConcurrentChange_ReportsOwnResult() {
+            // Arrange - another checkout has changed the row again before it is read back
+            int productId = 100;
+            when(inventoryDao.decrementQuantity(productId, 20))
+                .thenReturn(StockAdjustment.applied(productId, 30));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
+
+            // Act
+            Inventory result = inventoryService.reduceStock(productId, 20);
+
+            // Assert
+            assertEquals(30, result.getQuantity());
+            assertEquals(1, result.getInventoryId());
+            ArgumentCaptor<StockChangedEvent> event = ArgumentCaptor.forClass(StockChangedEvent.class);
+            verify(eventPublisher).publishEvent(event.capture());
+            assertEquals(30, event.getValue().getQuantity().intValue());
         }
 
         @Test
@@ -258,9 +302,9 @@ class InventoryServiceImplReduceStockTest {
             updatedInventory.setProductId(productId);
             updatedInventory.setQuantity(expectedNewQuantity);
 
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
-            when(inventoryDao.updateQuantity(productId, expectedNewQuantity))
-                .thenReturn(updatedInventory);
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.applied(productId, expectedNewQuantity));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(updatedInventory));
 
             // Act
             Inventory result = inventoryService.reduceStock(productId, quantityToReduce);
@@ -268,8 +312,8 @@ class InventoryServiceImplReduceStockTest {
             // Assert
             assertNotNull(result);
             assertEquals(0, result.getQuantity());
-            verify(inventoryDao, times(1)).findByProductId(productId);
-            verify(inventoryDao, times(1)).updateQuantity(productId, expectedNewQuantity);
+            verify(inventoryDao, times(1)).decrementQuantity(productId, quantityToReduce);
+            verify(inventoryDao, never()).replaceQuantity(anyInt(), anyInt());
         }
 
         @Test
@@ -285,9 +329,9 @@ class InventoryServiceImplReduceStockTest {
             updatedInventory.setProductId(productId);
             updatedInventory.setQuantity(expectedNewQuantity);
 
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
-            when(inventoryDao.updateQuantity(productId, expectedNewQuantity))
-                .thenReturn(updatedInventory);
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.applied(productId, expectedNewQuantity));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(updatedInventory));
 
             // Act
             Inventory result = inventoryService.reduceStock(productId, quantityToReduce);
@@ -295,7 +339,7 @@ class InventoryServiceImplReduceStockTest {
             // Assert
             assertNotNull(result);
             assertEquals(49, result.getQuantity());
-            verify(inventoryDao, times(1)).updateQuantity(productId, expectedNewQuantity);
+            verify(inventoryDao, times(1)).decrementQuantity(productId, quantityToReduce);
         }
     }
 
@@ -316,9 +360,9 @@ class InventoryServiceImplReduceStockTest {
             updatedInventory.setProductId(productId);
             updatedInventory.setQuantity(expectedNewQuantity);
 
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
-            when(inventoryDao.updateQuantity(productId, expectedNewQuantity))
-                .thenReturn(updatedInventory);
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.applied(productId, expectedNewQuantity));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(updatedInventory));
 
             // Act
             Inventory result = inventoryService.reduceStock(productId, quantityToReduce);
@@ -327,7 +371,7 @@ class InventoryServiceImplReduceStockTest {
             assertNotNull(result);
             assertEquals(5, result.getQuantity());
             // Note: Low stock warning is logged but not thrown as exception
-            verify(inventoryDao, times(1)).updateQuantity(productId, expectedNewQuantity);
+            verify(inventoryDao, times(1)).decrementQuantity(productId, quantityToReduce);
         }
 
         @Test
@@ -343,9 +387,9 @@ class InventoryServiceImplReduceStockTest {
             updatedInventory.setProductId(productId);
             updatedInventory.setQuantity(expectedNewQuantity);
 
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
-            when(inventoryDao.updateQuantity(productId, expectedNewQuantity))
-                .thenReturn(updatedInventory);
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.applied(productId, expectedNewQuantity));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(updatedInventory));
 
             // Act
             Inventory result = inventoryService.reduceStock(productId, quantityToReduce);
@@ -353,7 +397,7 @@ class InventoryServiceImplReduceStockTest {
             // Assert
             assertNotNull(result);
             assertEquals(9, result.getQuantity());
-            verify(inventoryDao, times(1)).updateQuantity(productId, expectedNewQuantity);
+            verify(inventoryDao, times(1)).decrementQuantity(productId, quantityToReduce);
         }
 
         @Test
@@ -369,9 +413,9 @@ class InventoryServiceImplReduceStockTest {
             updatedInventory.setProductId(productId);
             updatedInventory.setQuantity(expectedNewQuantity);
 
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
-            when(inventoryDao.updateQuantity(productId, expectedNewQuantity))
-                .thenReturn(updatedInventory);
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.applied(productId, expectedNewQuantity));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(updatedInventory));
 
             // Act
             Inventory result = inventoryService.reduceStock(productId, quantityToReduce);
@@ -390,7 +434,6 @@ class InventoryServiceImplReduceStockTest {
         @DisplayName("Should handle large inventory quantities")
         void testReduceStock_WithLargeQuantities_Success() {
             // Arrange
-            testInventory.setQuantity(1_000_000);
             int productId = 100;
             int quantityToReduce = 500_000;
             int expectedNewQuantity = 500_000;
@@ -400,9 +443,9 @@ class InventoryServiceImplReduceStockTest {
             updatedInventory.setProductId(productId);
             updatedInventory.setQuantity(expectedNewQuantity);
 
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
-            when(inventoryDao.updateQuantity(productId, expectedNewQuantity))
-                .thenReturn(updatedInventory);
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.applied(productId, expectedNewQuantity));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(updatedInventory));
 
             // Act
             Inventory result = inventoryService.reduceStock(productId, quantityToReduce);
@@ -416,7 +459,6 @@ class InventoryServiceImplReduceStockTest {
         @DisplayName("Should handle inventory with quantity of 1")
         void testReduceStock_WithQuantityOfOne_Success() {
             // Arrange
-            testInventory.setQuantity(1);
             int productId = 100;
             int quantityToReduce = 1;
             int expectedNewQuantity = 0;
@@ -426,9 +468,9 @@ class InventoryServiceImplReduceStockTest {
             updatedInventory.setProductId(productId);
             updatedInventory.setQuantity(expectedNewQuantity);
 
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
-            when(inventoryDao.updateQuantity(productId, expectedNewQuantity))
-                .thenReturn(updatedInventory);
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.applied(productId, expectedNewQuantity));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(updatedInventory));
 
             // Act
             Inventory result = inventoryService.reduceStock(productId, quantityToReduce);
@@ -456,22 +498,22 @@ class InventoryServiceImplReduceStockTest {
             updatedInventory.setProductId(productId);
             updatedInventory.setQuantity(expectedNewQuantity);
 
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
-            when(inventoryDao.updateQuantity(productId, expectedNewQuantity))
-                .thenReturn(updatedInventory);
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.applied(productId, expectedNewQuantity));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(updatedInventory));
 
             // Act
             inventoryService.reduceStock(productId, quantityToReduce);
 
-            // Assert - Verify call order
+            // Assert - One conditional decrement, then the row is read for the response
             var inOrder = inOrder(inventoryDao);
+            inOrder.verify(inventoryDao).decrementQuantity(productId, quantityToReduce);
             inOrder.verify(inventoryDao).findByProductId(productId);
-            inOrder.verify(inventoryDao).updateQuantity(productId, expectedNewQuantity);
             inOrder.verifyNoMoreInteractions();
         }
 
         @Test
-        @DisplayName("Should not call updateQuantity when validation fails")
+        @DisplayName("Should not touch stock when validation fails")
         void testReduceStock_WithInvalidInput_DoesNotCallUpdate() {
             // Arrange
             int productId = 0; // Invalid
@@ -482,16 +524,17 @@ class InventoryServiceImplReduceStockTest {
                 () -> inventoryService.reduceStock(productId, 10)
             );
 
-            verify(inventoryDao, never()).updateQuantity(anyInt(), anyInt());
+            verify(inventoryDao, never()).decrementQuantity(anyInt(), anyInt());
         }
 
         @Test
-        @DisplayName("Should not call updateQuantity when insufficient stock")
+        @DisplayName("Should never write an absolute quantity or publish a change when stock is insufficient")
         void testReduceStock_WithInsufficientStock_DoesNotCallUpdate() {
             // Arrange
             int productId = 100;
             int quantityToReduce = 100; // More than available
-            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
+            when(inventoryDao.decrementQuantity(productId, quantityToReduce))
+                .thenReturn(StockAdjustment.insufficient(productId, 50));
 
             // Act & Assert
             assertThrows(
@@ -499,7 +542,25 @@ class InventoryServiceImplReduceStockTest {
                 () -> inventoryService.reduceStock(productId, quantityToReduce)
             );
 
-            verify(inventoryDao, never()).updateQuantity(anyInt(), anyInt());
+            verify(inventoryDao, never()).replaceQuantity(anyInt(), anyInt());
+            verify(eventPublisher, never()).publishEvent(any());
+            verify(ledger, never()).record(anyInt(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should record the reduction in the movement ledger")
+        void testReduceStock_RecordsMovement() {
+            // Arrange
+            int productId = 100;
+            when(inventoryDao.decrementQuantity(productId, 20))
+                .thenReturn(StockAdjustment.applied(productId, 30));
+            when(inventoryDao.findByProductId(productId)).thenReturn(Optional.of(testInventory));
+
+            // Act
+            inventoryService.reduceStock(productId, 20);
+
+            // Assert
+            verify(ledger).record(productId, InventoryMovement.Type.REDUCE, -20);
         }
     }
 }
@@ -0,0 +1,115 @@
+package bookshop.services.serviceimp;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import bookshop.dao.daoInterface.InventoryDao;
+import bookshop.events.StockChangedEvent;
+import bookshop.exceptions.StockReservationException;
+import bookshop.inventory.HotStock;
+import bookshop.inventory.InventoryLedger;
+import bookshop.models.StockAdjustment;
+import bookshop.search.ProductCatalog;
+
+/**
+ * Unit tests for InventoryServiceImpl.reserveStock()
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventoryServiceImpl.reserveStock() Tests")
+class InventoryServiceImplReserveStockTest {
+
+    @Mock
+    private InventoryDao inventoryDao;
+
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private HotStock hotStock = HotStock.disabled();
+
+    @Mock
+    private InventoryLedger ledger;
+
+    @InjectMocks
+    private InventoryServiceImpl inventoryService;
+
+    private static Map<Integer, Integer> cart(int... productIdAndQuantity) {
+        Map<Integer, Integer> cart = new LinkedHashMap<>();
+        for (int i = 0; i < productIdAndQuantity.length; i += 2) {
+            cart.put(productIdAndQuantity[i], productIdAndQuantity[i + 1]);
+        }
+        return cart;
+    }
+
+    @Test
+    @DisplayName("Should reserve every line and publish each new level")
+    void testReserveStock_AllLinesFit() {
+        Map<Integer, Integer> cart = cart(300, 1, 100, 5);
+        List<StockAdjustment> adjustments = List.of(
+                StockAdjustment.applied(100, 45),
+                StockAdjustment.applied(300, 0));
+        when(inventoryDao.decrementAll(cart)).thenReturn(adjustments);
+
+        List<StockAdjustment> result = inventoryService.reserveStock(cart);
+
+        assertEquals(adjustments, result);
+        ArgumentCaptor<StockChangedEvent> events = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        StockChangedEvent first = events.getAllValues().get(0);
+        assertEquals(100, first.getProductId());
+        assertEquals(45, first.getQuantity().intValue());
+    }
+
+    @Test
+    @DisplayName("Should refuse the whole reservation with the shortage of every line")
+    void testReserveStock_OneLineShort_RefusesAll() {
+        Map<Integer, Integer> cart = cart(100, 5, 200, 3, 300, 2);
+        when(inventoryDao.decrementAll(cart)).thenReturn(List.of(
+                StockAdjustment.applied(100, 45),
+                StockAdjustment.insufficient(200, 1),
+                StockAdjustment.notFound(300)));
+
+        StockReservationException exception = assertThrows(StockReservationException.class,
+                () -> inventoryService.reserveStock(cart));
+
+        assertEquals(List.of(
+                new StockReservationException.Line(100, 5, 50),
+                new StockReservationException.Line(200, 3, 1),
+                new StockReservationException.Line(300, 2, 0)), exception.getLines());
+        assertEquals(List.of(0, 2, 2), exception.getLines().stream()
+                .map(StockReservationException.Line::shortage).toList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Should reject an empty reservation or non-positive lines without touching the database")
+    void testReserveStock_InvalidInput_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.reserveStock(Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.reserveStock(cart(0, 1)));
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.reserveStock(cart(100, 0)));
+
+        verify(inventoryDao, never()).decrementAll(anyMap());
+    }
+}
@@ -0,0 +1,213 @@
+package bookshop.services.serviceimp;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import bookshop.cache.CatalogVersion;
+import bookshop.dao.daoInterface.CategoryDao;
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.dto.response.ProductImportResult;
+import bookshop.export.ExportFormat;
+import bookshop.models.Category;
+import bookshop.models.Product;
+import bookshop.search.ProductIndexLoader;
+import jakarta.validation.Validation;
+
+/**
+ * Unit tests for ProductImportServiceImpl bulk import
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductImportServiceImpl Tests")
+class ProductImportServiceImplTest {
+
+    @Mock
+    private ProductDao productDao;
+
+    @Mock
+    private CategoryDao categoryDao;
+
+    @Mock
+    private ProductIndexLoader productIndexLoader;
+
+    private ProductImportServiceImpl importService;
+
+    // Copies of every chunk passed to saveAll (the service reuses its buffer)
+    private final List<List<String>> savedChunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProductImportServiceImpl(productDao, categoryDao, productIndexLoader,
+                new CatalogVersion(), Validation.buildDefaultValidatorFactory().getValidator(), 2);
+
+        Category fiction = new Category();
+        fiction.setCategoryId(1);
+        Category science = new Category();
+        science.setCategoryId(2);
+        lenient().when(categoryDao.findAll()).thenReturn(List.of(fiction, science));
+        lenient().when(productDao.findAllNames()).thenReturn(Set.of("Existing Book"));
+    }
+
+    private InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void recordChunks() {
+        when(productDao.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Product> chunk = invocation.getArgument(0);
+            savedChunks.add(chunk.stream().map(Product::getName).toList());
+            return chunk.size();
+        });
+    }
+
+    @Nested
+    @DisplayName("CSV Import Tests")
+    class CsvImportTests {
+
+        @Test
+        @DisplayName("Should insert valid rows in chunks and report invalid ones by line")
+        void testImport_MixedRows() {
+            // Arrange
+            recordChunks();
+            String csv = """
+                    name,price,category_id
+                    Dune,9.99,1
+                    "Cats, Dogs and ""Others\""",12.50,2
+                    Unknown Category,5.00,9
+                    existing book,5.00,1
+                    Dune,5.00,1
+                    Bad Price,abc,1
+                    Foundation,8.00,1
+                    """;
+
+            // Act
+            ProductImportResult result = importService.importProducts(ExportFormat.CSV, body(csv));
+
+            // Assert
+            assertEquals(7, result.getProcessed());
+            assertEquals(3, result.getImported());
+            assertEquals(4, result.getFailed());
+            assertEquals(List.of(List.of("Dune", "Cats, Dogs and \"Others\""), List.of("Foundation")), savedChunks);
+            assertEquals(List.of(4L, 5L, 6L, 7L),
+                    result.getFailures().stream().map(ProductImportResult.RowFailure::getLine).toList());
+            assertTrue(result.getFailures().get(0).getReason().contains("does not exist"));
+            assertTrue(result.getFailures().get(1).getReason().contains("already exists"));
+            verify(productIndexLoader, times(1)).reloadAsync();
+        }
+
+        @Test
+        @DisplayName("Should accept files produced by the catalog export")
+        void testImport_ExportFormat() {
+            // Arrange
+            recordChunks();
+            String csv = "product_id,name,price,category_id,category_name\n7,Sapiens,18.99,2,Science\n";
+
+            // Act
+            ProductImportResult result = importService.importProducts(ExportFormat.CSV, body(csv));
+
+            // Assert
+            assertEquals(1, result.getImported());
+            assertEquals(List.of(List.of("Sapiens")), savedChunks);
+        }
+
+        @Test
+        @DisplayName("Should reject a CSV without the required columns")
+        void testImport_MissingHeader() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> importService.importProducts(ExportFormat.CSV, body("title,cost\nDune,9.99\n")));
+        }
+    }
+
+    @Nested
+    @DisplayName("NDJSON Import Tests")
+    class NdjsonImportTests {
+
+        @Test
+        @DisplayName("Should report malformed and invalid lines without stopping")
+        void testImport_Ndjson() {
+            // Arrange
+            recordChunks();
+            String ndjson = """
+                    {"name":"Dune","price":9.99,"categoryId":1}
+                    {"name":"Broken",
+                    {"name":"X","price":9.99,"categoryId":1}
+
+                    {"name":"Neuromancer","price":"7.25","categoryId":2}
+                    """;
+
+            // Act
+            ProductImportResult result = importService.importProducts(ExportFormat.NDJSON, body(ndjson));
+
+            // Assert
+            assertEquals(4, result.getProcessed());
+            assertEquals(2, result.getImported());
+            assertEquals(List.of(2L, 3L),
+                    result.getFailures().stream().map(ProductImportResult.RowFailure::getLine).toList());
+            assertTrue(result.getFailures().get(1).getReason().contains("between 2 and 255"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Database Failure Tests")
+    class DatabaseFailureTests {
+
+        @Test
+        @DisplayName("Should retry a rejected chunk row by row and report only failing rows")
+        void testImport_ChunkRejected() {
+            // Arrange
+            when(productDao.saveAll(anyList())).thenThrow(new RuntimeException("Error saving products"));
+            when(productDao.save(any(Product.class))).thenAnswer(invocation -> {
+                Product product = invocation.getArgument(0);
+                if (product.getName().equals("Too Long")) {
+                    throw new RuntimeException("Error saving product",
+                            new java.sql.SQLException("Data too long for column 'name'"));
+                }
+                return product;
+            });
+
+            // Act
+            ProductImportResult result = importService.importProducts(ExportFormat.CSV,
+                    body("name,price,category_id\nDune,9.99,1\nToo Long,5.00,1\n"));
+
+            // Assert
+            assertEquals(1, result.getImported());
+            assertEquals(1, result.getFailed());
+            assertEquals("Data too long for column 'name'", result.getFailures().get(0).getReason());
+        }
+
+        @Test
+        @DisplayName("Should not reload indexes when nothing was imported")
+        void testImport_NothingImported() {
+            // Act
+            ProductImportResult result = importService.importProducts(ExportFormat.CSV,
+                    body("name,price,category_id\nExisting Book,9.99,1\n"));
+
+            // Assert
+            assertEquals(0, result.getImported());
+            verify(productDao, never()).saveAll(anyList());
+            verify(productIndexLoader, never()).reloadAsync();
+        }
+    }
+}
@@ -12,7 +12,6 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.inOrder;
@@ -21,11 +20,18 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import bookshop.cache.ProductCache;
 import bookshop.dao.daoInterface.CategoryDao;
 import bookshop.dao.daoInterface.ProductDao;
 import bookshop.exceptions.BusinessException;
 import bookshop.models.Product;
+import bookshop.search.ProductCatalog;
+import bookshop.search.ProductCounts;
+import bookshop.search.ProductFuzzyIndex;
+import bookshop.search.ProductNameIndex;
+import bookshop.search.ProductPriceIndex;
 
 /**
  * Comprehensive unit tests for ProductServiceImpl.createProduct()
@@ -41,6 +47,27 @@ class ProductServiceImplCreateProductTest {
     @Mock
     private CategoryDao categoryDao;
 
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private ProductCounts productCounts;
+
+    @Mock
+    private ProductPriceIndex productPriceIndex;
+
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @Mock
+    private ProductFuzzyIndex productFuzzyIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -165,7 +192,6 @@ class ProductServiceImplCreateProductTest {
 
             assertEquals("Category with ID 1 does not exist", exception.getMessage());
             verify(categoryDao, times(1)).existsById(1);
-            verify(productDao, never()).existsByName(anyString());
             verify(productDao, never()).save(any(Product.class));
         }
 
@@ -187,8 +213,8 @@ class ProductServiceImplCreateProductTest {
         }
 
         @Test
-        @DisplayName("Should check category existence before other validations")
-        void testCreateProduct_ChecksCategoryFirst_WhenInvalid() {
+        @DisplayName("Should run the category and name lookups together, once each")
+        void testCreateProduct_ChecksCategoryAndNameConcurrently() {
             // Arrange
             when(categoryDao.existsById(1)).thenReturn(false);
 
@@ -198,9 +224,9 @@ class ProductServiceImplCreateProductTest {
                 () -> productService.createProduct(testProduct)
             );
 
-            // Category check happens first, so name uniqueness is not checked
+            // Both lookups are independent and forked side by side
             verify(categoryDao, times(1)).existsById(1);
-            verify(productDao, never()).existsByName(anyString());
+            verify(productDao, times(1)).existsByName("Test Book");
         }
     }
 
@@ -347,20 +373,20 @@ class ProductServiceImplCreateProductTest {
     class ValidationOrderTests {
 
         @Test
-        @DisplayName("Should validate category before checking name uniqueness")
+        @DisplayName("Should report the category before name uniqueness")
         void testCreateProduct_ValidatesCategoryFirst() {
             // Arrange
             when(categoryDao.existsById(1)).thenReturn(false);
+            when(productDao.existsByName("Test Book")).thenReturn(true);
 
             // Act & Assert
-            assertThrows(
+            BusinessException exception = assertThrows(
                 BusinessException.class,
                 () -> productService.createProduct(testProduct)
             );
 
-            // Verify order: category check happens first
-            verify(categoryDao, times(1)).existsById(1);
-            verify(productDao, never()).existsByName(anyString());
+            // Both lookups ran, but the category result is checked first
+            assertEquals("Category with ID 1 does not exist", exception.getMessage());
             verify(productDao, never()).save(any(Product.class));
         }
 
@@ -395,12 +421,14 @@ class ProductServiceImplCreateProductTest {
             // Act
             productService.createProduct(testProduct);
 
-            // Assert - Verify all checks happen before save
-            var inOrder = inOrder(categoryDao, productDao);
-            inOrder.verify(categoryDao).existsById(1);
-            inOrder.verify(productDao).existsByName("Test Book");
-            inOrder.verify(productDao).save(testProduct);
-            inOrder.verifyNoMoreInteractions();
+            // Assert - Verify both checks complete before save (they run concurrently)
+            var categoryThenSave = inOrder(categoryDao, productDao);
+            categoryThenSave.verify(categoryDao).existsById(1);
+            categoryThenSave.verify(productDao).save(testProduct);
+            var nameThenSave = inOrder(productDao);
+            nameThenSave.verify(productDao).existsByName("Test Book");
+            nameThenSave.verify(productDao).save(testProduct);
+            nameThenSave.verifyNoMoreInteractions();
         }
     }
 
@@ -558,7 +586,7 @@ class ProductServiceImplCreateProductTest {
         void testCreateProduct_WithInvalidCategoryAndDuplicateName() {
             // Arrange
             when(categoryDao.existsById(1)).thenReturn(false);
-            // Don't stub productDao.existsByName since it won't be called
+            when(productDao.existsByName("Test Book")).thenReturn(true);
 
             // Act & Assert
             BusinessException exception = assertThrows(
@@ -566,9 +594,8 @@ class ProductServiceImplCreateProductTest {
                 () -> productService.createProduct(testProduct)
             );
 
-            // Category validation fails first
+            // Category validation is reported first
             assertTrue(exception.getMessage().contains("Category"));
-            verify(productDao, never()).existsByName(anyString());
         }
 
         @Test
@@ -0,0 +1,138 @@
+package bookshop.services.serviceimp;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyInt;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import bookshop.cache.ProductCache;
+import bookshop.dao.daoInterface.CategoryDao;
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.dto.response.ProductBatchResponse;
+import bookshop.models.Product;
+import bookshop.search.ProductCatalog;
+import bookshop.search.ProductCounts;
+import bookshop.search.ProductFuzzyIndex;
+import bookshop.search.ProductNameIndex;
+import bookshop.search.ProductPriceIndex;
+
+/**
+ * Unit tests for ProductServiceImpl.getProductsByIds()
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductServiceImpl.getProductsByIds() Tests")
+class ProductServiceImplGetProductsByIdsTest {
+
+    @Mock
+    private ProductDao productDao;
+
+    @Mock
+    private CategoryDao categoryDao;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private ProductCounts productCounts;
+
+    @Mock
+    private ProductPriceIndex productPriceIndex;
+
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @Mock
+    private ProductFuzzyIndex productFuzzyIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProductServiceImpl productService;
+
+    private List<Integer> ids(List<Product> products) {
+        return products.stream().map(Product::getProductId).toList();
+    }
+
+    @Test
+    @DisplayName("Should return products in request order and report missing IDs")
+    void testGetProductsByIds_PreservesOrder() {
+        // Arrange
+        when(productCache.getIfPresent(anyInt())).thenReturn(Optional.empty());
+        when(productDao.findAllByIds(List.of(7, 3, 99, 12))).thenReturn(List.of(
+                new Product(3, "Sapiens", new BigDecimal("18.99"), 2),
+                new Product(7, "1984", new BigDecimal("12.99"), 1),
+                new Product(12, "Clean Code", new BigDecimal("45.99"), 4)));
+
+        // Act
+        ProductBatchResponse response = productService.getProductsByIds(List.of(7, 3, 99, 12, 7));
+
+        // Assert
+        assertEquals(List.of(7, 3, 12), ids(response.getProducts()));
+        assertEquals(List.of(99), response.getMissingIds());
+    }
+
+    @Test
+    @DisplayName("Should load only IDs that are not cached")
+    void testGetProductsByIds_UsesCache() {
+        // Arrange
+        when(productCache.getIfPresent(anyInt())).thenReturn(Optional.empty());
+        when(productCache.getIfPresent(1))
+                .thenReturn(Optional.of(new Product(1, "The Great Gatsby", new BigDecimal("15.99"), 1)));
+        when(productDao.findAllByIds(List.of(2))).thenReturn(List.of(
+                new Product(2, "1984", new BigDecimal("12.99"), 1)));
+
+        // Act
+        ProductBatchResponse response = productService.getProductsByIds(List.of(2, 1));
+
+        // Assert
+        assertEquals(List.of(2, 1), ids(response.getProducts()));
+        assertTrue(response.getMissingIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should skip the database when every product is cached")
+    void testGetProductsByIds_AllCached() {
+        // Arrange
+        when(productCache.getIfPresent(5))
+                .thenReturn(Optional.of(new Product(5, "Sapiens", new BigDecimal("18.99"), 2)));
+
+        // Act
+        ProductBatchResponse response = productService.getProductsByIds(List.of(5));
+
+        // Assert
+        assertEquals(List.of(5), ids(response.getProducts()));
+        verify(productDao, never()).findAllByIds(List.of(5));
+    }
+
+    @Test
+    @DisplayName("Should reject empty, invalid and oversized ID lists")
+    void testGetProductsByIds_InvalidInput() {
+        List<Integer> tooMany = IntStream.rangeClosed(1, 501).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(Collections.emptyList()));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(List.of(1, 0)));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(tooMany));
+        verifyNoInteractions(productDao);
+    }
+}
@@ -0,0 +1,136 @@
+package bookshop.services.serviceimp;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import bookshop.cache.ProductCache;
+import bookshop.dao.daoInterface.CategoryDao;
+import bookshop.dao.daoInterface.ProductDao;
+import bookshop.dto.request.PageRequest;
+import bookshop.dto.request.SearchMatch;
+import bookshop.dto.response.PageResponse;
+import bookshop.dto.response.ProductSlice;
+import bookshop.models.Product;
+import bookshop.search.ProductCatalog;
+import bookshop.search.ProductCounts;
+import bookshop.search.ProductFuzzyIndex;
+import bookshop.search.ProductNameIndex;
+import bookshop.search.ProductPriceIndex;
+
+/**
+ * Unit tests for ProductServiceImpl.searchProducts() and its fuzzy fallback
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductServiceImpl.searchProducts() Tests")
+class ProductServiceImplSearchProductsTest {
+
+    @Mock
+    private ProductDao productDao;
+
+    @Mock
+    private CategoryDao categoryDao;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private ProductCounts productCounts;
+
+    @Mock
+    private ProductPriceIndex productPriceIndex;
+
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @Mock
+    private ProductFuzzyIndex productFuzzyIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProductServiceImpl productService;
+
+    private Product gatsby;
+
+    @BeforeEach
+    void setUp() {
+        gatsby = new Product(1, "The Great Gatsby", new BigDecimal("15.99"), 1);
+    }
+
+    @Test
+    @DisplayName("Should return exact matches without running the fuzzy search")
+    void testSearchProducts_ExactMatches() {
+        // Arrange
+        PageRequest pageRequest = PageRequest.of(0, 20);
+        when(productNameIndex.isReady()).thenReturn(true);
+        when(productNameIndex.search("gatsby", pageRequest)).thenReturn(new ProductSlice(List.of(gatsby), 1));
+
+        // Act
+        PageResponse<Product> response = productService.searchProducts("gatsby", pageRequest);
+
+        // Assert
+        assertEquals(1, response.getTotalElements());
+        assertFalse(response.isFuzzy());
+        verify(productFuzzyIndex, never()).search("gatsby");
+    }
+
+    @Test
+    @DisplayName("Should fall back to fuzzy matches when the exact search finds nothing")
+    void testSearchProducts_FuzzyFallback() {
+        // Arrange
+        PageRequest pageRequest = PageRequest.of(1, 2);
+        List<Product> matches = IntStream.rangeClosed(1, 5)
+                .mapToObj(id -> new Product(id, "Gatsby " + id, new BigDecimal("9.99"), 1))
+                .toList();
+        when(productNameIndex.isReady()).thenReturn(true);
+        when(productFuzzyIndex.isReady()).thenReturn(true);
+        when(productNameIndex.search("gatbsy", pageRequest)).thenReturn(new ProductSlice(List.of(), 0));
+        when(productFuzzyIndex.search("gatbsy")).thenReturn(matches);
+
+        // Act
+        PageResponse<Product> response = productService.searchProducts("gatbsy", pageRequest);
+
+        // Assert
+        assertTrue(response.isFuzzy());
+        assertEquals(5, response.getTotalElements());
+        assertEquals(List.of(3, 4), response.getContent().stream().map(Product::getProductId).toList());
+    }
+
+    @Test
+    @DisplayName("Should not fall back when exact matching is requested")
+    void testSearchProducts_ExactOnly() {
+        // Arrange
+        PageRequest pageRequest = PageRequest.of(0, 20);
+        pageRequest.setSearchMatch(SearchMatch.EXACT);
+        when(productNameIndex.isReady()).thenReturn(true);
+        when(productNameIndex.search("gatbsy", pageRequest)).thenReturn(new ProductSlice(List.of(), 0));
+
+        // Act
+        PageResponse<Product> response = productService.searchProducts("gatbsy", pageRequest);
+
+        // Assert
+        assertTrue(response.getContent().isEmpty());
+        assertFalse(response.isFuzzy());
+        verify(productFuzzyIndex, never()).search("gatbsy");
+    }
+}